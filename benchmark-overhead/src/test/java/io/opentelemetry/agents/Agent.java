@@ -9,6 +9,7 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -23,6 +24,42 @@ public class Agent {
   public static final Agent LATEST_SNAPSHOT =
       new Agent("snapshot", "latest available snapshot version from main");
 
+  // both agents share the cache directory, the first run populates it and the second one uses it
+  private static final List<String> CLASS_MATCHING_CACHE_ARGS =
+      Arrays.asList(
+          "-Dotel.javaagent.experimental.class-matching-cache.enabled=true",
+          "-Dotel.javaagent.testing.class-matching-cache.snapshot.enabled=true",
+          "-Dotel.javaagent.experimental.class-matching-cache.directory=/results/class-matching-cache-"
+              + System.currentTimeMillis());
+  public static final Agent SNAPSHOT_CLASS_MATCHING_CACHE_COLD =
+      new Agent(
+          "snapshot-cache-cold",
+          "latest snapshot populating an empty class matching cache",
+          null,
+          CLASS_MATCHING_CACHE_ARGS);
+  public static final Agent SNAPSHOT_CLASS_MATCHING_CACHE_WARM =
+      new Agent(
+          "snapshot-cache-warm",
+          "latest snapshot using the class matching cache of the previous run",
+          null,
+          CLASS_MATCHING_CACHE_ARGS);
+
+  // the training run dumps the CDS archive on exit, the second run starts with it
+  private static final String CDS_ARCHIVE =
+      "/results/agent-cds-" + System.currentTimeMillis() + ".jsa";
+  public static final Agent SNAPSHOT_CDS_TRAINING =
+      new Agent(
+          "snapshot-cds-training",
+          "latest snapshot dumping a CDS archive on exit",
+          null,
+          Collections.singletonList("-XX:ArchiveClassesAtExit=" + CDS_ARCHIVE));
+  public static final Agent SNAPSHOT_CDS =
+      new Agent(
+          "snapshot-cds",
+          "latest snapshot using the CDS archive of the training run",
+          null,
+          Collections.singletonList("-XX:SharedArchiveFile=" + CDS_ARCHIVE));
+
   private final String name;
   private final String description;
   private final URL url;
@@ -24,7 +24,11 @@ public class AgentResolver {
     if (Agent.NONE.equals(agent)) {
       return Optional.empty();
     }
-    if (Agent.LATEST_SNAPSHOT.equals(agent)) {
+    if (Agent.LATEST_SNAPSHOT.equals(agent)
+        || Agent.SNAPSHOT_CLASS_MATCHING_CACHE_COLD.equals(agent)
+        || Agent.SNAPSHOT_CLASS_MATCHING_CACHE_WARM.equals(agent)
+        || Agent.SNAPSHOT_CDS_TRAINING.equals(agent)
+        || Agent.SNAPSHOT_CDS.equals(agent)) {
       return snapshotResolver.resolve();
     }
     if (agent.hasUrl()) {
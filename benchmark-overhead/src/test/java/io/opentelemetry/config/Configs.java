@@ -17,6 +17,26 @@ public enum Configs {
           .description("compares no agent, latest stable, and latest snapshot agents")
           .withAgents(Agent.NONE, Agent.LATEST_RELEASE, Agent.LATEST_SNAPSHOT)
           .warmupSeconds(60)
+          .build()),
+  CLASS_MATCHING_CACHE(
+      TestConfig.builder()
+          .name("class-matching-cache")
+          .description(
+              "compares startup of the snapshot agent with and without a warm class matching cache")
+          .withAgents(
+              Agent.NONE,
+              Agent.LATEST_SNAPSHOT,
+              Agent.SNAPSHOT_CLASS_MATCHING_CACHE_COLD,
+              Agent.SNAPSHOT_CLASS_MATCHING_CACHE_WARM)
+          .warmupSeconds(60)
+          .build()),
+  CDS(
+      TestConfig.builder()
+          .name("cds")
+          .description("compares startup of the snapshot agent with and without a CDS archive")
+          .withAgents(
+              Agent.NONE, Agent.LATEST_SNAPSHOT, Agent.SNAPSHOT_CDS_TRAINING, Agent.SNAPSHOT_CDS)
+          .warmupSeconds(60)
           .build());
 
   public final TestConfig config;
@@ -0,0 +1,381 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.gradle;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Packs the agent classes of a javaagent jar into a single uncompressed blob entry, so that the
+ * agent class loader can memory map it and read class bytes without inflating jar entries. The
+ * blob is appended to the jar as a stored entry and its position and CRC-32 checksum are recorded
+ * in the jar comment, as {@code otel.class-blob=offset,length,checksum}.
+ *
+ * <p>The layout of the blob must be kept in sync with {@code
+ * io.opentelemetry.javaagent.bootstrap.AgentClassBlob}. All numbers are big-endian ints:
+ *
+ * <pre>
+ * magic, format version, bucket count, slot count, class count, variant count
+ * seeds[bucket count]          perfect hash displacement per bucket
+ * slots[slot count]            class index or -1
+ * classes[class count]         name offset, name length, first variant, variant count
+ * variants[variant count]      java version, data offset, data length
+ * names                        utf-8 encoded internal class names
+ * data                         class bytes
+ * </pre>
+ *
+ * <p>The variants of a class are the base class file (java version 0) and the multi-release
+ * versions of it, ordered from the highest java version to the lowest.
+ */
+public final class ClassBlobWriter {
+
+  public static final String BLOB_ENTRY_NAME = "META-INF/opentelemetry-javaagent-classes.blob";
+  public static final String COMMENT_PREFIX = "otel.class-blob=";
+
+  private static final int MAGIC = 0x4F544342;
+  private static final int FORMAT_VERSION = 1;
+  private static final String PREFIX = "inst/";
+  private static final String SUFFIX = ".classdata";
+  private static final Pattern VERSIONED = Pattern.compile("^META-INF/versions/(\\d+)/(.*)$");
+
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+  // the earliest date that can be stored in a zip entry
+  private static final short DOS_DATE_1980_01_01 = (1 << 5) | 1;
+
+  /**
+   * Appends the class blob built from the {@code inst/} classes of the given jar and returns the
+   * size of the blob in bytes.
+   *
+   * <p>The existing entries are copied as they are, including their compressed bytes. Only the
+   * central directory is rewritten, to add the blob entry and to record the position and the
+   * checksum of the blob in the jar comment.
+   */
+  public static int appendClassBlob(File jar) throws IOException {
+    byte[] blob;
+    try (ZipFile zipFile = new ZipFile(jar)) {
+      blob = buildBlob(zipFile);
+    }
+
+    File tmp = new File(jar.getPath() + ".tmp");
+    try (RandomAccessFile in = new RandomAccessFile(jar, "r");
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp.toPath()))) {
+      ByteBuffer endOfCentralDirectory = readEndOfCentralDirectory(in);
+      int entryCount = endOfCentralDirectory.getShort(10) & 0xFFFF;
+      long centralDirectorySize = endOfCentralDirectory.getInt(12) & 0xFFFFFFFFL;
+      long centralDirectoryOffset = endOfCentralDirectory.getInt(16) & 0xFFFFFFFFL;
+      if (entryCount == 0xFFFF || centralDirectoryOffset == 0xFFFFFFFFL) {
+        throw new IOException("zip64 jars are not supported: " + jar);
+      }
+
+      // the local entries are copied byte for byte, up to the central directory
+      in.seek(0);
+      copy(in, out, centralDirectoryOffset);
+      byte[] centralDirectory = new byte[(int) centralDirectorySize];
+      in.readFully(centralDirectory);
+
+      CRC32 crc = new CRC32();
+      crc.update(blob);
+      byte[] name = BLOB_ENTRY_NAME.getBytes(StandardCharsets.UTF_8);
+      long blobHeaderOffset = centralDirectoryOffset;
+      long blobOffset = blobHeaderOffset + LOCAL_HEADER_SIZE + name.length;
+      long newCentralDirectoryOffset = blobOffset + blob.length;
+      if (newCentralDirectoryOffset > 0xFFFFFFFFL) {
+        throw new IOException("zip64 jars are not supported: " + jar);
+      }
+
+      ByteBuffer localHeader = littleEndian(LOCAL_HEADER_SIZE);
+      localHeader.putInt(0x04034b50);
+      localHeader.putShort((short) 10); // version needed to extract
+      localHeader.putShort((short) 0); // flags
+      localHeader.putShort((short) ZipEntry.STORED);
+      localHeader.putShort((short) 0); // time: 00:00:00
+      localHeader.putShort(DOS_DATE_1980_01_01);
+      localHeader.putInt((int) crc.getValue());
+      localHeader.putInt(blob.length); // compressed size
+      localHeader.putInt(blob.length); // uncompressed size
+      localHeader.putShort((short) name.length);
+      localHeader.putShort((short) 0); // extra field length
+      out.write(localHeader.array());
+      out.write(name);
+      out.write(blob);
+
+      out.write(centralDirectory);
+      ByteBuffer centralHeader = littleEndian(CENTRAL_HEADER_SIZE);
+      centralHeader.putInt(0x02014b50);
+      centralHeader.putShort((short) 20); // version made by
+      centralHeader.putShort((short) 10); // version needed to extract
+      centralHeader.putShort((short) 0); // flags
+      centralHeader.putShort((short) ZipEntry.STORED);
+      centralHeader.putShort((short) 0); // time: 00:00:00
+      centralHeader.putShort(DOS_DATE_1980_01_01);
+      centralHeader.putInt((int) crc.getValue());
+      centralHeader.putInt(blob.length); // compressed size
+      centralHeader.putInt(blob.length); // uncompressed size
+      centralHeader.putShort((short) name.length);
+      centralHeader.putShort((short) 0); // extra field length
+      centralHeader.putShort((short) 0); // comment length
+      centralHeader.putShort((short) 0); // disk number
+      centralHeader.putShort((short) 0); // internal attributes
+      centralHeader.putInt(0); // external attributes
+      centralHeader.putInt((int) blobHeaderOffset);
+      out.write(centralHeader.array());
+      out.write(name);
+
+      byte[] comment =
+          (COMMENT_PREFIX + blobOffset + "," + blob.length + "," + crc.getValue())
+              .getBytes(StandardCharsets.UTF_8);
+      ByteBuffer end = littleEndian(END_OF_CENTRAL_DIRECTORY_SIZE);
+      end.putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+      end.putShort((short) 0); // number of this disk
+      end.putShort((short) 0); // disk with the central directory
+      end.putShort((short) (entryCount + 1));
+      end.putShort((short) (entryCount + 1));
+      end.putInt((int) (centralDirectorySize + CENTRAL_HEADER_SIZE + name.length));
+      end.putInt((int) newCentralDirectoryOffset);
+      end.putShort((short) comment.length);
+      out.write(end.array());
+      out.write(comment);
+    }
+    Files.move(tmp.toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    return blob.length;
+  }
+
+  static ByteBuffer readEndOfCentralDirectory(RandomAccessFile file) throws IOException {
+    // the record is at the end of the file, followed by a comment of at most 64 KiB
+    long length = file.length();
+    int tailLength = (int) Math.min(length, END_OF_CENTRAL_DIRECTORY_SIZE + 0xFFFF);
+    byte[] tail = new byte[tailLength];
+    file.seek(length - tailLength);
+    file.readFully(tail);
+    ByteBuffer buffer = ByteBuffer.wrap(tail).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = tailLength - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+      if (buffer.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE
+          && i + END_OF_CENTRAL_DIRECTORY_SIZE + (buffer.getShort(i + 20) & 0xFFFF)
+              == tailLength) {
+        buffer.position(i);
+        return buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+      }
+    }
+    throw new IOException("end of central directory not found");
+  }
+
+  private static void copy(RandomAccessFile in, OutputStream out, long length) throws IOException {
+    byte[] buffer = new byte[8192];
+    long remaining = length;
+    while (remaining > 0) {
+      int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+      if (read == -1) {
+        throw new EOFException();
+      }
+      out.write(buffer, 0, read);
+      remaining -= read;
+    }
+  }
+
+  private static ByteBuffer littleEndian(int size) {
+    return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  static byte[] buildBlob(ZipFile zipFile) throws IOException {
+    // internal class name -> java version -> class bytes
+    Map<String, Map<Integer, byte[]>> classes = new TreeMap<>();
+    Enumeration<? extends ZipEntry> entries = zipFile.entries();
+    while (entries.hasMoreElements()) {
+      ZipEntry entry = entries.nextElement();
+      String name = entry.getName();
+      if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+        continue;
+      }
+      name = name.substring(PREFIX.length(), name.length() - SUFFIX.length());
+      int version = 0;
+      Matcher matcher = VERSIONED.matcher(name);
+      if (matcher.matches()) {
+        version = Integer.parseInt(matcher.group(1));
+        name = matcher.group(2);
+      } else if (name.startsWith("META-INF/")) {
+        continue;
+      }
+      try (InputStream in = zipFile.getInputStream(entry)) {
+        classes
+            .computeIfAbsent(name, k -> new TreeMap<>(Collections.reverseOrder()))
+            .put(version, readAllBytes(in));
+      }
+    }
+    return buildBlob(classes);
+  }
+
+  static byte[] buildBlob(Map<String, Map<Integer, byte[]>> classes) throws IOException {
+    List<byte[]> names = new ArrayList<>();
+    for (String name : classes.keySet()) {
+      names.add(name.getBytes(StandardCharsets.UTF_8));
+    }
+    int classCount = names.size();
+    int bucketCount = Math.max(1, classCount / 4);
+    int slotCount = Math.max(1, classCount + classCount / 4);
+    int[] seeds = new int[bucketCount];
+    int[] slots = new int[slotCount];
+    Arrays.fill(slots, -1);
+
+    // hash and displace: place the largest buckets first, for every bucket search a seed that
+    // maps all of its names to free slots
+    List<List<Integer>> buckets = new ArrayList<>();
+    for (int i = 0; i < bucketCount; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    for (int i = 0; i < classCount; i++) {
+      buckets.get(Math.floorMod(hash(names.get(i), 0), bucketCount)).add(i);
+    }
+    Integer[] order = new Integer[bucketCount];
+    for (int i = 0; i < bucketCount; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> buckets.get(b).size() - buckets.get(a).size());
+    for (int bucket : order) {
+      List<Integer> members = buckets.get(bucket);
+      if (members.isEmpty()) {
+        break;
+      }
+      int[] candidate = new int[members.size()];
+      for (int seed = 1; ; seed++) {
+        if (tryPlace(names, members, seed, slots, candidate)) {
+          seeds[bucket] = seed;
+          for (int i = 0; i < candidate.length; i++) {
+            slots[candidate[i]] = members.get(i);
+          }
+          break;
+        }
+      }
+    }
+
+    int variantCount = 0;
+    int namesLength = 0;
+    for (Map<Integer, byte[]> variants : classes.values()) {
+      variantCount += variants.size();
+    }
+    for (byte[] name : names) {
+      namesLength += name.length;
+    }
+    int namesOffset = 4 * (6 + bucketCount + slotCount + 4 * classCount + 3 * variantCount);
+    int dataOffset = namesOffset + namesLength;
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    out.writeInt(bucketCount);
+    out.writeInt(slotCount);
+    out.writeInt(classCount);
+    out.writeInt(variantCount);
+    for (int seed : seeds) {
+      out.writeInt(seed);
+    }
+    for (int slot : slots) {
+      out.writeInt(slot);
+    }
+    int nameOffset = 0;
+    int variantIndex = 0;
+    int classIndex = 0;
+    for (Map<Integer, byte[]> variants : classes.values()) {
+      out.writeInt(nameOffset);
+      out.writeInt(names.get(classIndex).length);
+      out.writeInt(variantIndex);
+      out.writeInt(variants.size());
+      nameOffset += names.get(classIndex).length;
+      variantIndex += variants.size();
+      classIndex++;
+    }
+    int offset = dataOffset;
+    for (Map<Integer, byte[]> variants : classes.values()) {
+      for (Map.Entry<Integer, byte[]> variant : variants.entrySet()) {
+        out.writeInt(variant.getKey());
+        out.writeInt(offset);
+        out.writeInt(variant.getValue().length);
+        offset += variant.getValue().length;
+      }
+    }
+    for (byte[] name : names) {
+      out.write(name);
+    }
+    for (Map<Integer, byte[]> variants : classes.values()) {
+      for (byte[] data : variants.values()) {
+        out.write(data);
+      }
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static boolean tryPlace(
+      List<byte[]> names, List<Integer> members, int seed, int[] slots, int[] candidate) {
+    for (int i = 0; i < members.size(); i++) {
+      int slot = Math.floorMod(hash(names.get(members.get(i)), seed), slots.length);
+      if (slots[slot] != -1) {
+        return false;
+      }
+      for (int j = 0; j < i; j++) {
+        if (candidate[j] == slot) {
+          return false;
+        }
+      }
+      candidate[i] = slot;
+    }
+    return true;
+  }
+
+  // FNV-1a followed by the murmur3 finalizer, must match AgentClassBlob.hash()
+  static int hash(byte[] name, int seed) {
+    int h = 0x811c9dc5 ^ seed;
+    for (byte b : name) {
+      h ^= b & 0xff;
+      h *= 0x01000193;
+    }
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  private static byte[] readAllBytes(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    return out.toByteArray();
+  }
+
+  private ClassBlobWriter() {}
+}
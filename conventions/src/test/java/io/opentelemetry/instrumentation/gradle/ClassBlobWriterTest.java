@@ -0,0 +1,183 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ClassBlobWriterTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void keepsExistingEntries() throws IOException {
+    File jar = tempDir.resolve("test.jar").toFile();
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    entries.put("META-INF/MANIFEST.MF", bytes("Manifest-Version: 1.0\n"));
+    entries.put("inst/com/example/Foo.classdata", bytes("foo"));
+    entries.put("inst/com/example/resource.txt", bytes("resource"));
+    writeJar(jar, entries);
+    byte[] original = Files.readAllBytes(jar.toPath());
+    long centralDirectoryOffset;
+    try (RandomAccessFile file = new RandomAccessFile(jar, "r")) {
+      centralDirectoryOffset = ClassBlobWriter.readEndOfCentralDirectory(file).getInt(16);
+    }
+
+    ClassBlobWriter.appendClassBlob(jar);
+
+    // the local entries, including their compressed bytes, are copied as they are
+    byte[] appended = Files.readAllBytes(jar.toPath());
+    assertThat(Arrays.copyOf(appended, (int) centralDirectoryOffset))
+        .isEqualTo(Arrays.copyOf(original, (int) centralDirectoryOffset));
+    try (ZipFile zipFile = new ZipFile(jar)) {
+      for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+        ZipEntry zipEntry = zipFile.getEntry(entry.getKey());
+        assertThat(zipEntry.getMethod()).isEqualTo(ZipEntry.DEFLATED);
+        assertThat(read(zipFile, zipEntry)).isEqualTo(entry.getValue());
+      }
+      assertThat(zipFile.size()).isEqualTo(entries.size() + 1);
+    }
+  }
+
+  @Test
+  void appendsStoredBlob() throws IOException {
+    File jar = tempDir.resolve("test.jar").toFile();
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    entries.put("inst/com/example/Foo.classdata", bytes("foo"));
+    entries.put("inst/META-INF/versions/11/com/example/Foo.classdata", bytes("foo 11"));
+    entries.put("inst/com/example/Bar.classdata", bytes("bar"));
+    writeJar(jar, entries);
+
+    int blobLength = ClassBlobWriter.appendClassBlob(jar);
+
+    try (ZipFile zipFile = new ZipFile(jar)) {
+      ZipEntry blobEntry = zipFile.getEntry(ClassBlobWriter.BLOB_ENTRY_NAME);
+      assertThat(blobEntry.getMethod()).isEqualTo(ZipEntry.STORED);
+      byte[] blob = read(zipFile, blobEntry);
+      assertThat(blob).hasSize(blobLength);
+
+      // the comment points at the data of the stored entry and holds its checksum
+      String comment = zipFile.getComment();
+      assertThat(comment).startsWith(ClassBlobWriter.COMMENT_PREFIX);
+      String[] location = comment.substring(ClassBlobWriter.COMMENT_PREFIX.length()).split(",");
+      assertThat(Integer.parseInt(location[1])).isEqualTo(blobLength);
+      byte[] mapped = new byte[blobLength];
+      try (RandomAccessFile file = new RandomAccessFile(jar, "r")) {
+        file.seek(Long.parseLong(location[0]));
+        file.readFully(mapped);
+      }
+      assertThat(mapped).isEqualTo(blob);
+      CRC32 crc = new CRC32();
+      crc.update(blob);
+      assertThat(Long.parseLong(location[2])).isEqualTo(crc.getValue());
+
+      assertThat(find(blob, "com/example/Foo", 8)).isEqualTo(bytes("foo"));
+      assertThat(find(blob, "com/example/Foo", 17)).isEqualTo(bytes("foo 11"));
+      assertThat(find(blob, "com/example/Bar", 17)).isEqualTo(bytes("bar"));
+      assertThat(find(blob, "com/example/Baz", 17)).isNull();
+    }
+  }
+
+  @Test
+  void perfectHashFindsEveryClass() throws IOException {
+    Map<String, Map<Integer, byte[]>> classes = new TreeMap<>();
+    for (int i = 0; i < 5000; i++) {
+      Map<Integer, byte[]> variants = new TreeMap<>(Collections.reverseOrder());
+      variants.put(0, bytes("class " + i));
+      classes.put("com/example/Class" + i, variants);
+    }
+
+    byte[] blob = ClassBlobWriter.buildBlob(classes);
+
+    for (int i = 0; i < 5000; i++) {
+      assertThat(find(blob, "com/example/Class" + i, 8)).isEqualTo(bytes("class " + i));
+    }
+    assertThat(find(blob, "com/example/Class5000", 8)).isNull();
+  }
+
+  /** Looks up a class following the layout that is documented on {@link ClassBlobWriter}. */
+  private static byte[] find(byte[] blob, String className, int javaVersion) {
+    ByteBuffer buffer = ByteBuffer.wrap(blob);
+    int bucketCount = buffer.getInt(8);
+    int slotCount = buffer.getInt(12);
+    int classCount = buffer.getInt(16);
+    int variantCount = buffer.getInt(20);
+    int slotsOffset = 4 * (6 + bucketCount);
+    int classesOffset = slotsOffset + 4 * slotCount;
+    int variantsOffset = classesOffset + 16 * classCount;
+    int namesOffset = variantsOffset + 12 * variantCount;
+
+    byte[] name = bytes(className);
+    int bucket = Math.floorMod(ClassBlobWriter.hash(name, 0), bucketCount);
+    int seed = buffer.getInt(4 * (6 + bucket));
+    int slot = Math.floorMod(ClassBlobWriter.hash(name, seed), slotCount);
+    int classIndex = buffer.getInt(slotsOffset + 4 * slot);
+    if (classIndex < 0) {
+      return null;
+    }
+    int classOffset = classesOffset + 16 * classIndex;
+    int nameOffset = namesOffset + buffer.getInt(classOffset);
+    int nameLength = buffer.getInt(classOffset + 4);
+    if (!Arrays.equals(Arrays.copyOfRange(blob, nameOffset, nameOffset + nameLength), name)) {
+      return null;
+    }
+    int firstVariant = buffer.getInt(classOffset + 8);
+    for (int i = firstVariant; i < firstVariant + buffer.getInt(classOffset + 12); i++) {
+      int variantOffset = variantsOffset + 12 * i;
+      if (buffer.getInt(variantOffset) <= javaVersion) {
+        int dataOffset = buffer.getInt(variantOffset + 4);
+        return Arrays.copyOfRange(blob, dataOffset, dataOffset + buffer.getInt(variantOffset + 8));
+      }
+    }
+    return null;
+  }
+
+  private static void writeJar(File jar, Map<String, byte[]> entries) throws IOException {
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar.toPath()))) {
+      for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+        out.putNextEntry(new ZipEntry(entry.getKey()));
+        out.write(entry.getValue());
+        out.closeEntry();
+      }
+    }
+  }
+
+  private static byte[] read(ZipFile zipFile, ZipEntry entry) throws IOException {
+    try (InputStream in = zipFile.getInputStream(entry)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
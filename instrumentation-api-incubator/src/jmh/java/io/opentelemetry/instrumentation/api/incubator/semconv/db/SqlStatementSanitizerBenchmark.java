@@ -0,0 +1,58 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// measures the lexer without the statement cache, run with
+//   ./gradlew -PjmhIncludeSingleClass=SqlStatementSanitizerBenchmark \
+//     :instrumentation-api-incubator:jmh
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Thread)
+public class SqlStatementSanitizerBenchmark {
+
+  @Param({"1024", "10240", "102400", "1048576"})
+  public int statementLength;
+
+  @Param({"false", "true"})
+  public boolean streaming;
+
+  private String statement;
+
+  @Setup
+  public void setup() {
+    // a multi-row insert, which is the typical shape of very large statements
+    StringBuilder sb = new StringBuilder("INSERT INTO orders (id, customer, amount) VALUES ");
+    for (int i = 0; sb.length() < statementLength; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append('(').append(i).append(", 'customer-").append(i).append("', ").append(i * 10);
+      sb.append(')');
+    }
+    statement = sb.toString();
+  }
+
+  @Benchmark
+  public SqlStatementInfo sanitize() {
+    return AutoSqlSanitizer.sanitize(statement, SqlDialect.DEFAULT, streaming);
+  }
+}
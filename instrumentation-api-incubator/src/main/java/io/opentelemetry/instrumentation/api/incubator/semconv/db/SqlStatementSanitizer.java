@@ -8,6 +8,8 @@ package io.opentelemetry.instrumentation.api.incubator.semconv.db;
 import static io.opentelemetry.instrumentation.api.internal.SupportabilityMetrics.CounterNames.SQL_STATEMENT_SANITIZER_CACHE_MISS;
 
 import com.google.auto.value.AutoValue;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.internal.SqlStatementSanitizerCacheMetrics;
+import io.opentelemetry.instrumentation.api.internal.ConfigPropertiesUtil;
 import io.opentelemetry.instrumentation.api.internal.SupportabilityMetrics;
 import io.opentelemetry.instrumentation.api.internal.cache.Cache;
 import javax.annotation.Nullable;
@@ -19,9 +21,23 @@ import javax.annotation.Nullable;
 public final class SqlStatementSanitizer {
   private static final SupportabilityMetrics supportability = SupportabilityMetrics.instance();
 
+  // the weight of a cache entry is the number of characters of the statement and of its sanitized
+  // form, which approximates the memory used by the entry
+  private static final int CACHE_MAX_CHARS =
+      ConfigPropertiesUtil.getInt(
+          "otel.instrumentation.common.db-statement-sanitizer.cache.max-chars", 1024 * 1024);
+  // a single entry must not be able to flush most of the cache
+  private static final int MAX_ENTRY_WEIGHT = Math.max(CACHE_MAX_CHARS / 10, 1);
+  // statements longer than this are sanitized in streaming mode, which collapses repeated groups
+  // and stops lexing after a bounded prefix; the threshold must not depend on the cache size,
+  // which would otherwise change the sanitized statements
+  private static final int STREAMING_THRESHOLD = 100 * 1024;
+
   private static final Cache<CacheKey, SqlStatementInfo> sqlToStatementInfoCache =
-      Cache.bounded(1000);
-  private static final int LARGE_STATEMENT_THRESHOLD = 10 * 1024;
+      Cache.weighted(
+          CACHE_MAX_CHARS,
+          SqlStatementSanitizer::weightOf,
+          (key, value) -> SqlStatementSanitizerCacheMetrics.recordEviction());
 
   public static SqlStatementSanitizer create(boolean statementSanitizationEnabled) {
     return new SqlStatementSanitizer(statementSanitizationEnabled);
@@ -41,21 +57,41 @@ public final class SqlStatementSanitizer {
     if (!statementSanitizationEnabled || statement == null) {
       return SqlStatementInfo.create(statement, null, null);
     }
-    // sanitization result will not be cached for statements larger than the threshold to avoid
-    // cache growing too large
+    if (statement.length() > STREAMING_THRESHOLD) {
+      // never cached, so the cache is not looked up
+      SqlStatementSanitizerCacheMetrics.recordSkip();
+      return AutoSqlSanitizer.sanitize(statement, dialect, true);
+    }
+    // the sanitized statement is not longer than the statement, so the weight of the entry can be
+    // bounded before lexing; sanitization result will not be cached for statements that are too
+    // large compared to the cache size, to avoid evicting all the other entries
     // https://github.com/open-telemetry/opentelemetry-java-instrumentation/issues/13180
-    if (statement.length() > LARGE_STATEMENT_THRESHOLD) {
-      return sanitizeImpl(statement, dialect);
+    if (2 * statement.length() > MAX_ENTRY_WEIGHT) {
+      SqlStatementSanitizerCacheMetrics.recordSkip();
+      return AutoSqlSanitizer.sanitize(statement, dialect);
+    }
+    CacheKey cacheKey = CacheKey.create(statement, dialect);
+    SqlStatementInfo cached = sqlToStatementInfoCache.get(cacheKey);
+    if (cached != null) {
+      SqlStatementSanitizerCacheMetrics.recordHit();
+      return cached;
     }
-    return sqlToStatementInfoCache.computeIfAbsent(
-        CacheKey.create(statement, dialect), k -> sanitizeImpl(statement, dialect));
+    SqlStatementInfo sanitized = sanitizeImpl(statement, dialect);
+    sqlToStatementInfoCache.put(cacheKey, sanitized);
+    return sanitized;
   }
 
-  private static SqlStatementInfo sanitizeImpl(@Nullable String statement, SqlDialect dialect) {
+  private static SqlStatementInfo sanitizeImpl(String statement, SqlDialect dialect) {
     supportability.incrementCounter(SQL_STATEMENT_SANITIZER_CACHE_MISS);
+    SqlStatementSanitizerCacheMetrics.recordMiss();
     return AutoSqlSanitizer.sanitize(statement, dialect);
   }
 
+  private static int weightOf(CacheKey key, SqlStatementInfo value) {
+    String fullStatement = value.getFullStatement();
+    return key.getStatement().length() + (fullStatement == null ? 0 : fullStatement.length());
+  }
+
   // visible for tests
   static boolean isCached(String statement) {
     return sqlToStatementInfoCache.get(CacheKey.create(statement, SqlDialect.DEFAULT)) != null;
@@ -0,0 +1,84 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db.internal;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of the hits, misses and evictions of the sql statement sanitizer cache, and of the
+ * statements that are too large to be cached, and reports them as metrics once {@link
+ * #install(OpenTelemetry)} has been called.
+ *
+ * <p>This class is internal and experimental. Its APIs are unstable and can change at any time.
+ * Its APIs (or a version of them) may be promoted to the public stable API in the future, but no
+ * guarantees are made.
+ */
+public final class SqlStatementSanitizerCacheMetrics {
+
+  private static final String INSTRUMENTATION_NAME = "io.opentelemetry.db-statement-sanitizer";
+
+  private static final AttributeKey<String> RESULT = stringKey("result");
+  private static final Attributes HIT = Attributes.of(RESULT, "hit");
+  private static final Attributes MISS = Attributes.of(RESULT, "miss");
+
+  private static final LongAdder hits = new LongAdder();
+  private static final LongAdder misses = new LongAdder();
+  private static final LongAdder evictions = new LongAdder();
+  private static final LongAdder skips = new LongAdder();
+  private static final AtomicBoolean installed = new AtomicBoolean();
+
+  public static void recordHit() {
+    hits.increment();
+  }
+
+  public static void recordMiss() {
+    misses.increment();
+  }
+
+  public static void recordEviction() {
+    evictions.increment();
+  }
+
+  public static void recordSkip() {
+    skips.increment();
+  }
+
+  /** Registers the cache metrics with the given {@link OpenTelemetry}, only the first call does. */
+  public static void install(OpenTelemetry openTelemetry) {
+    if (!installed.compareAndSet(false, true)) {
+      return;
+    }
+    Meter meter = openTelemetry.getMeter(INSTRUMENTATION_NAME);
+    meter
+        .counterBuilder("otel.instrumentation.db.statement_sanitizer.cache.lookups")
+        .setUnit("{lookup}")
+        .setDescription("Number of sql statement sanitizer cache lookups, by result.")
+        .buildWithCallback(
+            measurement -> {
+              measurement.record(hits.sum(), HIT);
+              measurement.record(misses.sum(), MISS);
+            });
+    meter
+        .counterBuilder("otel.instrumentation.db.statement_sanitizer.cache.evictions")
+        .setUnit("{entry}")
+        .setDescription("Number of entries evicted from the sql statement sanitizer cache.")
+        .buildWithCallback(measurement -> measurement.record(evictions.sum()));
+    meter
+        .counterBuilder("otel.instrumentation.db.statement_sanitizer.cache.skips")
+        .setUnit("{statement}")
+        .setDescription("Number of sql statements that were too large to be cached.")
+        .buildWithCallback(measurement -> measurement.record(skips.sum()));
+  }
+
+  private SqlStatementSanitizerCacheMetrics() {}
+}
@@ -5,38 +5,43 @@
 
 package io.opentelemetry.instrumentation.api.incubator.semconv.net;
 
-import static java.util.Comparator.comparing;
-import static java.util.Comparator.naturalOrder;
-import static java.util.Comparator.nullsFirst;
-
-import com.google.auto.value.AutoValue;
 import io.opentelemetry.instrumentation.api.incubator.semconv.net.internal.UrlParser;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
+/**
+ * The peer service mapping compiled into a lookup table. Mappings are indexed by host and then by
+ * port, and the mappings that share a host and port are ordered from the longest to the shortest
+ * path prefix, so that resolving a service is a first match search that does not allocate.
+ */
 class PeerServiceResolverImpl implements PeerServiceResolver {
 
-  private static final Comparator<ServiceMatcher> matcherComparator =
-      nullsFirst(
-          comparing(ServiceMatcher::getPort, nullsFirst(naturalOrder()))
-              .thenComparing(comparing(ServiceMatcher::getPath, nullsFirst(naturalOrder()))));
+  // longest path first, mappings without a path last
+  private static final Comparator<ServiceMatcher> specificityComparator =
+      Comparator.comparingInt(ServiceMatcher::pathLength).reversed();
 
-  private final Map<String, Map<ServiceMatcher, String>> mapping = new HashMap<>();
+  private final Map<String, HostMatchers> mapping = new HashMap<>();
 
   PeerServiceResolverImpl(Map<String, String> peerServiceMapping) {
+    Map<String, HostMatchers.Builder> builders = new HashMap<>();
     peerServiceMapping.forEach(
         (key, serviceName) -> {
           String url = "https://" + key;
           String host = UrlParser.getHost(url);
           Integer port = UrlParser.getPort(url);
           String path = UrlParser.getPath(url);
-          Map<ServiceMatcher, String> matchers =
-              mapping.computeIfAbsent(host, x -> new HashMap<>());
-          matchers.putIfAbsent(ServiceMatcher.create(port, path), serviceName);
+          builders
+              .computeIfAbsent(host, x -> new HostMatchers.Builder())
+              .add(port, path, serviceName);
         });
+    builders.forEach((host, builder) -> mapping.put(host, builder.build()));
   }
 
   @Override
@@ -48,52 +53,119 @@ class PeerServiceResolverImpl implements PeerServiceResolver {
   @Nullable
   public String resolveService(
       String host, @Nullable Integer port, @Nullable Supplier<String> pathSupplier) {
-    Map<ServiceMatcher, String> matchers = mapping.get(host);
+    HostMatchers matchers = mapping.get(host);
     if (matchers == null) {
       return null;
     }
-    return matchers.entrySet().stream()
-        .filter(entry -> entry.getKey().matches(port, pathSupplier))
-        .max((o1, o2) -> matcherComparator.compare(o1.getKey(), o2.getKey()))
-        .map(Map.Entry::getValue)
-        .orElse(null);
+    return matchers.resolve(port, pathSupplier);
   }
 
-  @AutoValue
-  abstract static class ServiceMatcher {
+  private static final class HostMatchers {
 
-    static ServiceMatcher create(Integer port, String path) {
-      return new AutoValue_PeerServiceResolverImpl_ServiceMatcher(port, path);
+    // mappings that specify a port, grouped by port
+    private final Map<Integer, ServiceMatcher[]> portMatchers;
+    // mappings that specify a path, but no port
+    private final ServiceMatcher[] pathMatchers;
+    // the mapping that specifies neither a port nor a path
+    @Nullable private final String defaultService;
+
+    private HostMatchers(
+        Map<Integer, ServiceMatcher[]> portMatchers,
+        ServiceMatcher[] pathMatchers,
+        @Nullable String defaultService) {
+      this.portMatchers = portMatchers;
+      this.pathMatchers = pathMatchers;
+      this.defaultService = defaultService;
     }
 
     @Nullable
-    abstract Integer getPort();
+    String resolve(@Nullable Integer port, @Nullable Supplier<String> pathSupplier) {
+      String service;
+      if (port != null) {
+        ServiceMatcher[] matchers = portMatchers.get(port);
+        // mappings that specify a path but no port only apply when the port is not known
+        service = matchers == null ? null : firstMatch(matchers, pathSupplier);
+      } else {
+        service = firstMatch(pathMatchers, pathSupplier);
+      }
+      return service != null ? service : defaultService;
+    }
 
     @Nullable
-    abstract String getPath();
-
-    public boolean matches(Integer port, Supplier<String> pathSupplier) {
-      if (this.getPort() != null) {
-        if (!this.getPort().equals(port)) {
-          return false;
+    private static String firstMatch(
+        ServiceMatcher[] matchers, @Nullable Supplier<String> pathSupplier) {
+      String path = null;
+      boolean pathResolved = false;
+      for (ServiceMatcher matcher : matchers) {
+        if (matcher.path == null) {
+          return matcher.serviceName;
         }
-      }
-      if (this.getPath() != null && this.getPath().length() > 0) {
-        if (pathSupplier == null) {
-          return false;
+        if (!pathResolved) {
+          path = pathSupplier == null ? null : pathSupplier.get();
+          pathResolved = true;
         }
-        String path = pathSupplier.get();
         if (path == null) {
-          return false;
+          // all remaining mappings with a path can't match either
+          continue;
         }
-        if (!path.startsWith(this.getPath())) {
-          return false;
+        if (path.startsWith(matcher.path)) {
+          return matcher.serviceName;
         }
+      }
+      return null;
+    }
+
+    private static final class Builder {
+      private final Map<Integer, List<ServiceMatcher>> portMatchers = new HashMap<>();
+      private final List<ServiceMatcher> pathMatchers = new ArrayList<>();
+      @Nullable private String defaultService;
+
+      void add(@Nullable Integer port, @Nullable String path, String serviceName) {
+        ServiceMatcher matcher = new ServiceMatcher(path, serviceName);
         if (port != null) {
-          return port.equals(this.getPort());
+          addIfAbsent(portMatchers.computeIfAbsent(port, x -> new ArrayList<>()), matcher);
+        } else if (matcher.path != null) {
+          addIfAbsent(pathMatchers, matcher);
+        } else if (defaultService == null) {
+          defaultService = serviceName;
         }
       }
-      return true;
+
+      private static void addIfAbsent(List<ServiceMatcher> matchers, ServiceMatcher matcher) {
+        for (ServiceMatcher existing : matchers) {
+          if (Objects.equals(existing.path, matcher.path)) {
+            return;
+          }
+        }
+        matchers.add(matcher);
+      }
+
+      HostMatchers build() {
+        Map<Integer, ServiceMatcher[]> sortedPortMatchers = new HashMap<>();
+        portMatchers.forEach((port, matchers) -> sortedPortMatchers.put(port, sort(matchers)));
+        return new HostMatchers(sortedPortMatchers, sort(pathMatchers), defaultService);
+      }
+
+      private static ServiceMatcher[] sort(List<ServiceMatcher> matchers) {
+        ServiceMatcher[] result = matchers.toArray(new ServiceMatcher[0]);
+        Arrays.sort(result, specificityComparator);
+        return result;
+      }
+    }
+  }
+
+  private static final class ServiceMatcher {
+    @Nullable final String path;
+    final String serviceName;
+
+    ServiceMatcher(@Nullable String path, String serviceName) {
+      // an empty path matches everything, same as no path
+      this.path = path == null || path.isEmpty() ? null : path;
+      this.serviceName = serviceName;
+    }
+
+    int pathLength() {
+      return path == null ? -1 : path.length();
     }
   }
 }
@@ -156,6 +156,57 @@ public class SqlStatementSanitizerTest {
     assertThat(SqlStatementSanitizer.isCached(largeStatement)).isFalse();
   }
 
+  @Test
+  public void statementLargerThan10KbCached() {
+    // statements are weighed by their length, so statements over 10 KB are cached as long as they
+    // are small compared to the cache size
+    StringBuilder s = new StringBuilder("SELECT * FROM TABLE WHERE FIELD IN (");
+    for (int i = 0; i < 2000; i++) {
+      s.append("'value-").append(i).append("', ");
+    }
+    s.append("'last')");
+    String statement = s.toString();
+    assertThat(statement.length()).isGreaterThan(10 * 1024);
+
+    String sanitized = SqlStatementSanitizer.create(true).sanitize(statement).getFullStatement();
+    assertThat(sanitized).isEqualTo("SELECT * FROM TABLE WHERE FIELD IN (?)");
+    assertThat(SqlStatementSanitizer.isCached(statement)).isTrue();
+  }
+
+  @Test
+  public void statementOverHalfOfMaxEntryWeightNotCached() {
+    // the raw and the sanitized statement together would exceed the maximum entry weight, a tenth
+    // of the default cache size, so the statement is sanitized in full but not cached
+    StringBuilder s = new StringBuilder("SELECT * FROM TABLE WHERE FIELD IN (");
+    for (int i = 0; i < 4500; i++) {
+      s.append("'value-").append(i).append("', ");
+    }
+    s.append("'last') AND OTHER = 1");
+    String statement = s.toString();
+    assertThat(statement.length()).isBetween(1024 * 1024 / 20, 1024 * 1024 / 10);
+
+    String sanitized = SqlStatementSanitizer.create(true).sanitize(statement).getFullStatement();
+    assertThat(sanitized).isEqualTo("SELECT * FROM TABLE WHERE FIELD IN (?) AND OTHER = ?");
+    assertThat(SqlStatementSanitizer.isCached(statement)).isFalse();
+  }
+
+  @Test
+  public void largeBatchInsertCollapsed() {
+    StringBuilder s = new StringBuilder("INSERT INTO orders (id, name) VALUES ");
+    for (int i = 0; i < 20000; i++) {
+      s.append("(").append(i).append(", 'name-").append(i).append("'), ");
+    }
+    s.append("(-1, 'last')");
+    String statement = s.toString();
+
+    SqlStatementInfo result = SqlStatementSanitizer.create(true).sanitize(statement);
+    assertThat(result)
+        .isEqualTo(
+            SqlStatementInfo.create(
+                "INSERT INTO orders (id, name) VALUES (?, ?)", "INSERT", "orders"));
+    assertThat(SqlStatementSanitizer.isCached(statement)).isFalse();
+  }
+
   private static Stream<Arguments> sqlArgs() {
     return Stream.of(
         Arguments.of("SELECT * FROM TABLE WHERE FIELD=1234", "SELECT * FROM TABLE WHERE FIELD=?"),
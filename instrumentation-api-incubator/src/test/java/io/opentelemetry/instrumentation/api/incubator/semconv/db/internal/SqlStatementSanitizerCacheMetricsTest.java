@@ -0,0 +1,101 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db.internal;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlStatementSanitizer;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SqlStatementSanitizerCacheMetricsTest {
+
+  private static final String LOOKUPS = "otel.instrumentation.db.statement_sanitizer.cache.lookups";
+  private static final String EVICTIONS =
+      "otel.instrumentation.db.statement_sanitizer.cache.evictions";
+  private static final String SKIPS = "otel.instrumentation.db.statement_sanitizer.cache.skips";
+  private static final Attributes HIT = Attributes.of(stringKey("result"), "hit");
+  private static final Attributes MISS = Attributes.of(stringKey("result"), "miss");
+
+  private static final InMemoryMetricReader metricReader = InMemoryMetricReader.create();
+  private static OpenTelemetrySdk openTelemetry;
+
+  @BeforeAll
+  static void setUp() {
+    openTelemetry =
+        OpenTelemetrySdk.builder()
+            .setMeterProvider(SdkMeterProvider.builder().registerMetricReader(metricReader).build())
+            .build();
+    SqlStatementSanitizerCacheMetrics.install(openTelemetry);
+  }
+
+  @AfterAll
+  static void tearDown() {
+    openTelemetry.close();
+  }
+
+  @Test
+  void countsHitsAndMisses() {
+    SqlStatementSanitizer sanitizer = SqlStatementSanitizer.create(true);
+    String statement = "SELECT * FROM metrics_test WHERE id = 42";
+    long hits = value(LOOKUPS, HIT);
+    long misses = value(LOOKUPS, MISS);
+
+    sanitizer.sanitize(statement);
+    sanitizer.sanitize(statement);
+    sanitizer.sanitize(statement);
+
+    assertThat(value(LOOKUPS, MISS) - misses).isEqualTo(1);
+    assertThat(value(LOOKUPS, HIT) - hits).isEqualTo(2);
+  }
+
+  @Test
+  void countsStatementsTooLargeToBeCached() {
+    SqlStatementSanitizer sanitizer = SqlStatementSanitizer.create(true);
+    StringBuilder statement = new StringBuilder("SELECT * FROM metrics_test WHERE id IN (0");
+    for (int i = 1; i < 20000; i++) {
+      statement.append(", ").append(i);
+    }
+    statement.append(")");
+    long misses = value(LOOKUPS, MISS);
+    long skips = value(SKIPS, null);
+
+    sanitizer.sanitize(statement.toString());
+    sanitizer.sanitize(statement.toString());
+
+    assertThat(value(SKIPS, null) - skips).isEqualTo(2);
+    assertThat(value(LOOKUPS, MISS) - misses).isEqualTo(0);
+  }
+
+  @Test
+  void countsEvictions() {
+    long evictions = value(EVICTIONS, null);
+
+    // filling the shared sanitizer cache would make other tests flaky, the eviction listener of the
+    // cache calls this
+    SqlStatementSanitizerCacheMetrics.recordEviction();
+    SqlStatementSanitizerCacheMetrics.recordEviction();
+
+    assertThat(value(EVICTIONS, null) - evictions).isEqualTo(2);
+  }
+
+  private static long value(String name, @Nullable Attributes attributes) {
+    return metricReader.collectAllMetrics().stream()
+        .filter(metric -> metric.getName().equals(name))
+        .flatMap(metric -> metric.getLongSumData().getPoints().stream())
+        .filter(point -> attributes == null || point.getAttributes().equals(attributes))
+        .mapToLong(LongPointData::getValue)
+        .sum();
+  }
+}
@@ -6,9 +6,11 @@
 package io.opentelemetry.instrumentation.api.incubator.semconv.net;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 
 class PeerServiceResolverTest {
@@ -35,4 +37,46 @@ class PeerServiceResolverTest {
     assertEquals(
         "someOtherServiceAPI", peerServiceResolver.resolveService("1.2.3.4", null, () -> "/api"));
   }
+
+  @Test
+  void longestPathPrefixWins() {
+    Map<String, String> peerServiceMapping = new HashMap<>();
+    peerServiceMapping.put("example.com/api", "api");
+    peerServiceMapping.put("example.com/api/v2", "apiV2");
+    peerServiceMapping.put("example.com:8080/api", "api8080");
+    peerServiceMapping.put("example.com:8080/api/v2", "apiV2_8080");
+    peerServiceMapping.put("example.com:8080", "base8080");
+
+    PeerServiceResolver peerServiceResolver = PeerServiceResolver.create(peerServiceMapping);
+
+    assertEquals("apiV2", peerServiceResolver.resolveService("example.com", null, () -> "/api/v2"));
+    assertEquals("api", peerServiceResolver.resolveService("example.com", null, () -> "/api/v1"));
+    assertNull(peerServiceResolver.resolveService("example.com", null, () -> "/other"));
+    assertEquals(
+        "apiV2_8080", peerServiceResolver.resolveService("example.com", 8080, () -> "/api/v2/x"));
+    assertEquals("api8080", peerServiceResolver.resolveService("example.com", 8080, () -> "/api"));
+    assertEquals("base8080", peerServiceResolver.resolveService("example.com", 8080, () -> "/"));
+    assertNull(peerServiceResolver.resolveService("example.com", 9090, () -> "/api"));
+  }
+
+  @Test
+  void pathResolvedAtMostOnce() {
+    Map<String, String> peerServiceMapping = new HashMap<>();
+    peerServiceMapping.put("example.com/a", "a");
+    peerServiceMapping.put("example.com/b", "b");
+    peerServiceMapping.put("example.com/c", "c");
+
+    PeerServiceResolver peerServiceResolver = PeerServiceResolver.create(peerServiceMapping);
+
+    AtomicInteger calls = new AtomicInteger();
+    assertNull(
+        peerServiceResolver.resolveService(
+            "example.com",
+            null,
+            () -> {
+              calls.incrementAndGet();
+              return "/d";
+            }));
+    assertEquals(1, calls.get());
+  }
 }
@@ -6,11 +6,20 @@
 package io.opentelemetry.instrumentation.api.cache;
 
 import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import io.opentelemetry.instrumentation.api.internal.cache.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.AuxCounters;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -155,4 +164,118 @@ public class CacheBenchmark {
     blackhole.consume(boundedSmallCache.get(key));
     blackhole.consume(boundedSmallCache.get(key2));
   }
+
+  @Benchmark
+  @Threads(1)
+  public Integer threads01_zipfian(ZipfianWorkload workload, HitCounters counters) {
+    return workload.next(counters);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Integer threads08_zipfian(ZipfianWorkload workload, HitCounters counters) {
+    return workload.next(counters);
+  }
+
+  /**
+   * A skewed workload over a key space that is much larger than the cache: a hot head of
+   * frequently used keys followed by a long tail of keys that are used only once or twice, similar
+   * to the distinct statements seen by the sql sanitizer.
+   */
+  @State(Scope.Benchmark)
+  public static class ZipfianWorkload {
+    private static final int KEY_SPACE = 100_000;
+    private static final int CAPACITY = 1000;
+    private static final int SAMPLES = 1 << 20;
+
+    @Param({"tinylfu", "lru"})
+    public String policy;
+
+    @Param({"0.8", "0.99"})
+    public double skew;
+
+    private Cache<Integer, Integer> cache;
+    private int[] keys;
+
+    @Setup
+    public void setUp() {
+      if (policy.equals("lru")) {
+        cache =
+            new ConcurrentMapCache<>(
+                new ConcurrentLinkedHashMap.Builder<Integer, Integer>()
+                    .maximumWeightedCapacity(CAPACITY)
+                    .build());
+      } else {
+        cache = Cache.bounded(CAPACITY);
+      }
+
+      double[] cumulative = new double[KEY_SPACE];
+      double sum = 0;
+      for (int i = 0; i < KEY_SPACE; i++) {
+        sum += 1 / Math.pow(i + 1, skew);
+        cumulative[i] = sum;
+      }
+      Random random = new Random(0);
+      keys = new int[SAMPLES];
+      for (int i = 0; i < SAMPLES; i++) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+        keys[i] = rank < 0 ? -rank - 1 : rank;
+      }
+    }
+
+    Integer next(HitCounters counters) {
+      Integer key = keys[counters.index++ & (SAMPLES - 1)];
+      Integer value = cache.get(key);
+      if (value != null) {
+        counters.hits++;
+        return value;
+      }
+      counters.misses++;
+      cache.put(key, key);
+      return key;
+    }
+  }
+
+  /** Hit ratio is {@code hits / (hits + misses)} of the reported secondary results. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class HitCounters {
+    public long hits;
+    public long misses;
+    int index = ThreadLocalRandom.current().nextInt();
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      hits = 0;
+      misses = 0;
+    }
+  }
+
+  private static final class ConcurrentMapCache<K, V> implements Cache<K, V> {
+    private final ConcurrentMap<K, V> delegate;
+
+    ConcurrentMapCache(ConcurrentMap<K, V> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+      return delegate.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public V get(K key) {
+      return delegate.get(key);
+    }
+
+    @Override
+    public void put(K key, V value) {
+      delegate.put(key, value);
+    }
+
+    @Override
+    public void remove(K key) {
+      delegate.remove(key);
+    }
+  }
 }
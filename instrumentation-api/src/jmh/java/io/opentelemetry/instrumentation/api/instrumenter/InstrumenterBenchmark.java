@@ -21,10 +21,14 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 
+// allocation rate is reported by the gc profiler enabled in otel.jmh-conventions, run with
+//   ./gradlew -PjmhIncludeSingleClass=InstrumenterBenchmark :instrumentation-api:jmh
 @Fork(3)
 @Warmup(iterations = 10, time = 1)
 @Measurement(iterations = 5, time = 1)
@@ -33,24 +37,40 @@ import org.openjdk.jmh.annotations.Warmup;
 @State(Scope.Thread)
 public class InstrumenterBenchmark {
 
-  private static final Instrumenter<Void, Void> INSTRUMENTER =
-      Instrumenter.<Void, Void>builder(
-              OpenTelemetry.noop(),
-              "benchmark",
-              HttpSpanNameExtractor.create(ConstantHttpAttributesGetter.INSTANCE))
-          .addAttributesExtractor(
-              HttpClientAttributesExtractor.create(ConstantHttpAttributesGetter.INSTANCE))
-          .buildInstrumenter();
+  private static final String REUSE_END_ATTRIBUTES_PROPERTY =
+      "otel.instrumentation.experimental.instrumenter.reuse-end-attributes";
+
+  @Param({"false", "true"})
+  public boolean reuseEndAttributes;
+
+  private Instrumenter<Void, Void> instrumenter;
+
+  @Setup
+  public void setup() {
+    System.setProperty(REUSE_END_ATTRIBUTES_PROPERTY, String.valueOf(reuseEndAttributes));
+    try {
+      instrumenter =
+          Instrumenter.<Void, Void>builder(
+                  OpenTelemetry.noop(),
+                  "benchmark",
+                  HttpSpanNameExtractor.create(ConstantHttpAttributesGetter.INSTANCE))
+              .addAttributesExtractor(
+                  HttpClientAttributesExtractor.create(ConstantHttpAttributesGetter.INSTANCE))
+              .buildInstrumenter();
+    } finally {
+      System.clearProperty(REUSE_END_ATTRIBUTES_PROPERTY);
+    }
+  }
 
   @Benchmark
   public Context start() {
-    return INSTRUMENTER.start(Context.root(), null);
+    return instrumenter.start(Context.root(), null);
   }
 
   @Benchmark
   public Context startEnd() {
-    Context context = INSTRUMENTER.start(Context.root(), null);
-    INSTRUMENTER.end(context, null, null, null);
+    Context context = instrumenter.start(Context.root(), null);
+    instrumenter.end(context, null, null, null);
     return context;
   }
 
@@ -0,0 +1,78 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares capturing the MDC of a log event as attributes with a per key cache lookup, which is
+ * what the Logback and Log4j appenders did before, and with an {@link AttributeKeyPlanCache}.
+ *
+ * <p>Run with {@code ./gradlew -PjmhIncludeSingleClass=AttributeKeyPlanCacheBenchmark
+ * :instrumentation-api:jmh}.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AttributeKeyPlanCacheBenchmark {
+
+  private static final Cache<String, AttributeKey<String>> attributeKeys = Cache.bounded(100);
+  private static final AttributeKeyPlanCache attributeKeyPlans =
+      AttributeKeyPlanCache.create(AttributeKeyPlanCacheBenchmark::getAttributeKey);
+
+  @Param({"5", "30"})
+  int mdcSize;
+
+  private Map<String, String> mdc;
+
+  @Setup
+  public void setUp() {
+    mdc = new HashMap<>();
+    for (int i = 0; i < mdcSize; i++) {
+      mdc.put("mdc.key." + i, "value" + i);
+    }
+  }
+
+  private static AttributeKey<String> getAttributeKey(String key) {
+    return attributeKeys.computeIfAbsent(key, AttributeKey::stringKey);
+  }
+
+  @Benchmark
+  public Attributes perKeyLookup() {
+    AttributesBuilder attributes = Attributes.builder();
+    for (Map.Entry<String, String> entry : mdc.entrySet()) {
+      attributes.put(getAttributeKey(entry.getKey()), entry.getValue());
+    }
+    return attributes.build();
+  }
+
+  @Benchmark
+  public Attributes plan() {
+    AttributesBuilder attributes = Attributes.builder();
+    attributeKeyPlans.putAll(attributes, mdc);
+    return attributes.build();
+  }
+}
@@ -16,6 +16,7 @@ import io.opentelemetry.instrumentation.api.internal.HttpRouteState;
 import io.opentelemetry.instrumentation.api.internal.InstrumenterAccess;
 import io.opentelemetry.instrumentation.api.internal.InstrumenterContext;
 import io.opentelemetry.instrumentation.api.internal.InstrumenterUtil;
+import io.opentelemetry.instrumentation.api.internal.SpanOnlyAttributesExtractor;
 import io.opentelemetry.instrumentation.api.internal.SupportabilityMetrics;
 import java.time.Instant;
 import java.util.concurrent.TimeUnit;
@@ -76,10 +77,16 @@ public class Instrumenter<REQUEST, RESPONSE> {
   private final SpanStatusExtractor<? super REQUEST, ? super RESPONSE> spanStatusExtractor;
   private final SpanLinksExtractor<? super REQUEST>[] spanLinksExtractors;
   private final AttributesExtractor<? super REQUEST, ? super RESPONSE>[] attributesExtractors;
+  // extractors whose attributes are also needed by the sampler, context customizers or operation
+  // listeners; these are run even when the span is not recording
+  private final AttributesExtractor<? super REQUEST, ? super RESPONSE>[] sharedAttributesExtractors;
+  private final AttributesExtractor<? super REQUEST, ? super RESPONSE>[]
+      spanOnlyAttributesExtractors;
   private final ContextCustomizer<? super REQUEST>[] contextCustomizers;
   private final OperationListener[] operationListeners;
   private final ErrorCauseExtractor errorCauseExtractor;
   private final boolean propagateOperationListenersToOnEnd;
+  private final boolean reuseEndAttributes;
   private final boolean enabled;
   private final SpanSuppressor spanSuppressor;
 
@@ -92,10 +99,19 @@ public class Instrumenter<REQUEST, RESPONSE> {
     this.spanStatusExtractor = builder.spanStatusExtractor;
     this.spanLinksExtractors = builder.spanLinksExtractors.toArray(new SpanLinksExtractor[0]);
     this.attributesExtractors = builder.attributesExtractors.toArray(new AttributesExtractor[0]);
+    this.sharedAttributesExtractors =
+        builder.attributesExtractors.stream()
+            .filter(extractor -> !(extractor instanceof SpanOnlyAttributesExtractor))
+            .toArray(AttributesExtractor[]::new);
+    this.spanOnlyAttributesExtractors =
+        builder.attributesExtractors.stream()
+            .filter(SpanOnlyAttributesExtractor.class::isInstance)
+            .toArray(AttributesExtractor[]::new);
     this.contextCustomizers = builder.contextCustomizers.toArray(new ContextCustomizer[0]);
     this.operationListeners = builder.buildOperationListeners().toArray(new OperationListener[0]);
     this.errorCauseExtractor = builder.errorCauseExtractor;
     this.propagateOperationListenersToOnEnd = builder.propagateOperationListenersToOnEnd;
+    this.reuseEndAttributes = builder.reuseEndAttributes;
     this.enabled = builder.enabled;
     this.spanSuppressor = builder.buildSpanSuppressor();
   }
@@ -181,13 +197,16 @@ public class Instrumenter<REQUEST, RESPONSE> {
       spanBuilder.setStartTimestamp(startTime);
     }
 
-    SpanLinksBuilder spanLinksBuilder = new SpanLinksBuilderImpl(spanBuilder);
-    for (SpanLinksExtractor<? super REQUEST> spanLinksExtractor : spanLinksExtractors) {
-      spanLinksExtractor.extract(spanLinksBuilder, parentContext, request);
+    if (spanLinksExtractors.length != 0) {
+      SpanLinksBuilder spanLinksBuilder = new SpanLinksBuilderImpl(spanBuilder);
+      for (SpanLinksExtractor<? super REQUEST> spanLinksExtractor : spanLinksExtractors) {
+        spanLinksExtractor.extract(spanLinksBuilder, parentContext, request);
+      }
     }
 
     UnsafeAttributes attributes = new UnsafeAttributes();
-    for (AttributesExtractor<? super REQUEST, ? super RESPONSE> extractor : attributesExtractors) {
+    for (AttributesExtractor<? super REQUEST, ? super RESPONSE> extractor :
+        sharedAttributesExtractors) {
       extractor.onStart(attributes, parentContext, request);
     }
 
@@ -206,6 +225,16 @@ public class Instrumenter<REQUEST, RESPONSE> {
     Span span = spanBuilder.setParent(context).startSpan();
     context = context.with(span);
 
+    // span only attributes are skipped entirely for spans that were not sampled
+    if (spanOnlyAttributesExtractors.length != 0 && span.isRecording()) {
+      UnsafeAttributes spanAttributes = new UnsafeAttributes();
+      for (AttributesExtractor<? super REQUEST, ? super RESPONSE> extractor :
+          spanOnlyAttributesExtractors) {
+        extractor.onStart(spanAttributes, parentContext, request);
+      }
+      span.setAllAttributes(spanAttributes);
+    }
+
     if (operationListeners.length != 0) {
       // operation listeners run after span start, so that they have access to the current span
       // for capturing exemplars
@@ -247,8 +276,12 @@ public class Instrumenter<REQUEST, RESPONSE> {
       span.recordException(error);
     }
 
-    UnsafeAttributes attributes = new UnsafeAttributes();
-    for (AttributesExtractor<? super REQUEST, ? super RESPONSE> extractor : attributesExtractors) {
+    UnsafeAttributes attributes =
+        reuseEndAttributes ? UnsafeAttributesPool.acquire() : new UnsafeAttributes();
+    AttributesExtractor<? super REQUEST, ? super RESPONSE>[] endAttributesExtractors =
+        span.isRecording() ? attributesExtractors : sharedAttributesExtractors;
+    for (AttributesExtractor<? super REQUEST, ? super RESPONSE> extractor :
+        endAttributesExtractors) {
       extractor.onEnd(attributes, context, request, response, error);
     }
     span.setAllAttributes(attributes);
@@ -263,9 +296,15 @@ public class Instrumenter<REQUEST, RESPONSE> {
         operationListeners[i].onEnd(context, attributes, endNanos);
       }
     }
+    if (reuseEndAttributes) {
+      UnsafeAttributesPool.release(attributes);
+    }
 
-    SpanStatusBuilder spanStatusBuilder = new SpanStatusBuilderImpl(span);
-    spanStatusExtractor.extract(spanStatusBuilder, request, response, error);
+    // the default extractor only ever sets the status when there is an error
+    if (error != null || spanStatusExtractor != DefaultSpanStatusExtractor.INSTANCE) {
+      SpanStatusBuilder spanStatusBuilder = new SpanStatusBuilderImpl(span);
+      spanStatusExtractor.extract(spanStatusBuilder, request, response, error);
+    }
 
     if (endTime != null) {
       span.end(endTime);
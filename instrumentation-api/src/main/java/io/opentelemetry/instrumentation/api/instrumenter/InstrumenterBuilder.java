@@ -67,6 +67,11 @@ public final class InstrumenterBuilder<REQUEST, RESPONSE> {
       SpanStatusExtractor.getDefault();
   ErrorCauseExtractor errorCauseExtractor = ErrorCauseExtractor.getDefault();
   boolean propagateOperationListenersToOnEnd = false;
+  // end attributes are only read synchronously by the span and the operation listeners, so when
+  // none of the listeners keep a reference to them the same map can be reused across operations
+  boolean reuseEndAttributes =
+      ConfigPropertiesUtil.getBoolean(
+          "otel.instrumentation.experimental.instrumenter.reuse-end-attributes", false);
   boolean enabled = true;
 
   InstrumenterBuilder(
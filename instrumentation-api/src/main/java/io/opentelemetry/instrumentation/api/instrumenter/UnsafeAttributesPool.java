@@ -0,0 +1,46 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.instrumenter;
+
+/**
+ * A per-thread pool of {@link UnsafeAttributes} used for the end attributes of an operation. The
+ * end attributes are only read synchronously while the operation is being ended: they are copied
+ * into the span and passed to the {@link OperationListener}s, which are expected to merge them
+ * into their own {@code Attributes}. This allows reusing the same backing map instead of allocating
+ * a new one for every operation.
+ *
+ * <p>The start attributes must never be pooled, they are stored in the {@code Context} by the
+ * built-in metrics listeners and are used as metric keys.
+ */
+final class UnsafeAttributesPool {
+
+  // a pooled map that grew unusually large is dropped instead of being kept around for the whole
+  // lifetime of the thread, HashMap never shrinks its table
+  private static final int MAX_POOLED_SIZE = 64;
+
+  private static final ThreadLocal<UnsafeAttributes> pool = new ThreadLocal<>();
+
+  static UnsafeAttributes acquire() {
+    UnsafeAttributes attributes = pool.get();
+    if (attributes == null) {
+      return new UnsafeAttributes();
+    }
+    // take the instance out of the pool so that a nested operation (e.g. started from an
+    // AttributesExtractor) on the same thread does not reuse it
+    pool.set(null);
+    return attributes;
+  }
+
+  static void release(UnsafeAttributes attributes) {
+    if (attributes.size() > MAX_POOLED_SIZE) {
+      return;
+    }
+    attributes.clear();
+    pool.set(attributes);
+  }
+
+  private UnsafeAttributesPool() {}
+}
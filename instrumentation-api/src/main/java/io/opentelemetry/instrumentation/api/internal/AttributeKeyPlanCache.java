@@ -0,0 +1,167 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.AttributesBuilder;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Captures the entries of string maps, like the MDC of log events, as attributes. The attribute
+ * keys resolved for a key set are kept as a plan in a small direct-mapped table, so capturing a map
+ * whose key set was seen before only copies its values.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
+ */
+public final class AttributeKeyPlanCache {
+
+  // must be a power of two
+  private static final int PLAN_TABLE_SIZE = 64;
+
+  private final Function<String, AttributeKey<String>> attributeKeyResolver;
+  private final AtomicReferenceArray<Plan> plans = new AtomicReferenceArray<>(PLAN_TABLE_SIZE);
+
+  private AttributeKeyPlanCache(Function<String, AttributeKey<String>> attributeKeyResolver) {
+    this.attributeKeyResolver = attributeKeyResolver;
+  }
+
+  /**
+   * Returns a new {@link AttributeKeyPlanCache} that resolves attribute keys that are not part of a
+   * plan yet with {@code attributeKeyResolver}, which is expected to intern the keys it returns.
+   */
+  public static AttributeKeyPlanCache create(
+      Function<String, AttributeKey<String>> attributeKeyResolver) {
+    return new AttributeKeyPlanCache(attributeKeyResolver);
+  }
+
+  /** Adds the entries of {@code map} with a non-null key and value to {@code attributes}. */
+  public void putAll(AttributesBuilder attributes, Map<String, String> map) {
+    int size = map.size();
+    if (size == 0) {
+      return;
+    }
+    int hash = 1;
+    for (String key : map.keySet()) {
+      hash = 31 * hash + hashCode(key);
+    }
+    Plan plan = getPlan(hash, size);
+    if (plan == null) {
+      plan = createPlan(hash, map.keySet().toArray(new String[0]));
+    }
+
+    int index = 0;
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      String key = entry.getKey();
+      String value = entry.getValue();
+      if (key != null && value != null) {
+        attributes.put(plan.getAttributeKey(index, key, attributeKeyResolver), value);
+      }
+      index++;
+    }
+  }
+
+  /**
+   * Adds the entries of {@code map} with a non-null key and value to {@code attributes}, for maps
+   * that give access to their entries by index.
+   */
+  public <T> void putAll(AttributesBuilder attributes, T map, IndexedMapAccessor<T> accessor) {
+    int size = accessor.size(map);
+    if (size == 0) {
+      return;
+    }
+    int hash = 1;
+    for (int i = 0; i < size; i++) {
+      hash = 31 * hash + hashCode(accessor.getKey(map, i));
+    }
+    Plan plan = getPlan(hash, size);
+    if (plan == null) {
+      String[] keys = new String[size];
+      for (int i = 0; i < size; i++) {
+        keys[i] = accessor.getKey(map, i);
+      }
+      plan = createPlan(hash, keys);
+    }
+
+    for (int i = 0; i < size; i++) {
+      String key = accessor.getKey(map, i);
+      String value = accessor.getValue(map, i);
+      if (key != null && value != null) {
+        attributes.put(plan.getAttributeKey(i, key, attributeKeyResolver), value);
+      }
+    }
+  }
+
+  private static int hashCode(@Nullable String key) {
+    return key == null ? 0 : key.hashCode();
+  }
+
+  @Nullable
+  private Plan getPlan(int hash, int size) {
+    Plan plan = plans.get(hash & (PLAN_TABLE_SIZE - 1));
+    if (plan != null && plan.hash == hash && plan.keys.length == size) {
+      return plan;
+    }
+    return null;
+  }
+
+  private Plan createPlan(int hash, String[] keys) {
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    AttributeKey<String>[] attributeKeys = new AttributeKey[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null) {
+        attributeKeys[i] = attributeKeyResolver.apply(keys[i]);
+      }
+    }
+    Plan plan = new Plan(hash, keys, attributeKeys);
+    // a plan for a different key set with the same slot is replaced
+    plans.set(hash & (PLAN_TABLE_SIZE - 1), plan);
+    return plan;
+  }
+
+  /**
+   * Gives access to the entries of a map by index.
+   *
+   * @param <T> the type of the map
+   */
+  public interface IndexedMapAccessor<T> {
+
+    int size(T map);
+
+    @Nullable
+    String getKey(T map, int index);
+
+    @Nullable
+    String getValue(T map, int index);
+  }
+
+  private static final class Plan {
+    final int hash;
+    final String[] keys;
+    final AttributeKey<String>[] attributeKeys;
+
+    Plan(int hash, String[] keys, AttributeKey<String>[] attributeKeys) {
+      this.hash = hash;
+      this.keys = keys;
+      this.attributeKeys = attributeKeys;
+    }
+
+    AttributeKey<String> getAttributeKey(
+        int index, String key, Function<String, AttributeKey<String>> attributeKeyResolver) {
+      if (index < keys.length) {
+        String plannedKey = keys[index];
+        // the plan only matches by hash and size, the keys are verified while they are copied
+        if (key.equals(plannedKey)) {
+          return attributeKeys[index];
+        }
+      }
+      return attributeKeyResolver.apply(key);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal;
+
+import io.opentelemetry.instrumentation.api.instrumenter.AttributesExtractor;
+import io.opentelemetry.instrumentation.api.instrumenter.ContextCustomizer;
+import io.opentelemetry.instrumentation.api.instrumenter.OperationListener;
+
+/**
+ * Marks an {@link AttributesExtractor} whose attributes are only recorded on spans: they are not
+ * needed by the sampler, by {@link ContextCustomizer}s or by {@link OperationListener}s (e.g.
+ * metrics). The instrumenter runs such extractors only when the span is recording, so that
+ * unsampled operations do not pay for extracting attributes that are never exported.
+ *
+ * <p>Attributes extracted by these extractors in {@link AttributesExtractor#onStart} are added to
+ * the span after it has been started, so span processors will not see them in their {@code
+ * onStart()} callback.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
+ */
+public interface SpanOnlyAttributesExtractor {}
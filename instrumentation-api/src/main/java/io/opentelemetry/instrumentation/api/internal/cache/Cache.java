@@ -5,8 +5,9 @@
 
 package io.opentelemetry.instrumentation.api.internal.cache;
 
-import io.opentelemetry.instrumentation.api.internal.cache.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
 import javax.annotation.Nullable;
 
 /**
@@ -30,12 +31,26 @@ public interface Cache<K, V> {
   /**
    * Returns new bounded cache.
    *
-   * <p>Both keys and values are strongly referenced.
+   * <p>Both keys and values are strongly referenced. Entries are evicted using a frequency-aware
+   * (W-TinyLFU) policy, so that keys which are used only once do not evict frequently used ones.
    */
   static <K, V> Cache<K, V> bounded(int capacity) {
-    ConcurrentLinkedHashMap<K, V> map =
-        new ConcurrentLinkedHashMap.Builder<K, V>().maximumWeightedCapacity(capacity).build();
-    return new MapBackedCache<>(map);
+    return new TinyLfuCache<>(capacity);
+  }
+
+  /**
+   * Returns new bounded cache whose capacity is the total weight of its entries, as measured by
+   * the {@code weigher}. Entries are evicted using the same frequency-aware policy as {@link
+   * #bounded(int)}, and {@code evictionListener} is notified of each evicted entry. The listener is
+   * called while holding the eviction lock, so it must be cheap.
+   *
+   * <p>Both keys and values are strongly referenced.
+   */
+  static <K, V> Cache<K, V> weighted(
+      long maximumWeight,
+      ToIntBiFunction<? super K, ? super V> weigher,
+      BiConsumer<? super K, ? super V> evictionListener) {
+    return new TinyLfuCache<>(maximumWeight, weigher, evictionListener);
   }
 
   /**
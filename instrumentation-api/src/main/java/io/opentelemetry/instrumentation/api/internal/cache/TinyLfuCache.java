@@ -0,0 +1,536 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal.cache;
+
+import io.opentelemetry.instrumentation.api.internal.GuardedBy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+import javax.annotation.Nullable;
+
+/**
+ * A bounded cache using the W-TinyLFU eviction policy.
+ *
+ * <p>New entries are admitted into a small LRU window (1% of the capacity). Entries leaving the
+ * window become candidates for the main space, which is a segmented LRU split into a probation and
+ * a protected segment. When the cache is full a candidate only replaces the victim at the head of
+ * the probation segment when its estimated access frequency, tracked by a {@link FrequencySketch},
+ * is higher. This keeps one-off keys from flushing out the frequently used ones, which is what
+ * happens with a plain LRU policy under scan-like workloads (e.g. long tails of distinct SQL
+ * statements).
+ *
+ * <p>The capacity is either a number of entries, or the total weight of the entries as measured by
+ * a weigher. In the latter case the window and the segments are bounded by weight as well.
+ *
+ * <p>Reads are recorded into striped, lossy ring buffers and replayed against the policy in
+ * batches by whichever thread manages to acquire the eviction lock, so that cache hits do not
+ * contend on a shared lock. Writes update the policy synchronously.
+ */
+final class TinyLfuCache<K, V> implements Cache<K, V> {
+
+  private static final int NUMBER_OF_READ_BUFFERS =
+      FrequencySketch.ceilingPowerOfTwo(Math.min(Runtime.getRuntime().availableProcessors(), 64));
+  private static final int READ_BUFFERS_MASK = NUMBER_OF_READ_BUFFERS - 1;
+
+  // node states
+  private static final int NEW = 0;
+  private static final int WINDOW = 1;
+  private static final int PROBATION = 2;
+  private static final int PROTECTED = 3;
+  private static final int DEAD = 4;
+
+  private final ConcurrentHashMap<K, Node<K, V>> data;
+  private final ReadBuffer<K, V>[] readBuffers;
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  private final long maximumWeight;
+  private final long maximumWindowWeight;
+  private final long maximumProtectedWeight;
+  private final ToIntBiFunction<? super K, ? super V> weigher;
+  @Nullable private final BiConsumer<? super K, ? super V> evictionListener;
+
+  @GuardedBy("evictionLock")
+  private FrequencySketch sketch;
+
+  @GuardedBy("evictionLock")
+  private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+
+  @GuardedBy("evictionLock")
+  private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+
+  @GuardedBy("evictionLock")
+  private final AccessOrderDeque<K, V> protectedSegment = new AccessOrderDeque<>();
+
+  @GuardedBy("evictionLock")
+  private long windowWeight;
+
+  @GuardedBy("evictionLock")
+  private long protectedWeight;
+
+  @GuardedBy("evictionLock")
+  private long weightedSize;
+
+  TinyLfuCache(int maximumSize) {
+    this(maximumSize, maximumSize, (key, value) -> 1, null);
+  }
+
+  /**
+   * Creates a cache bounded by the total weight of its entries. The {@code weigher} must return a
+   * non-negative weight. The {@code evictionListener} is called while holding the eviction lock,
+   * so it must be cheap.
+   */
+  TinyLfuCache(
+      long maximumWeight,
+      ToIntBiFunction<? super K, ? super V> weigher,
+      @Nullable BiConsumer<? super K, ? super V> evictionListener) {
+    // the number of entries is not known up front, the sketch grows with the cache
+    this(maximumWeight, 16, weigher, evictionListener);
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private TinyLfuCache(
+      long maximumWeight,
+      int initialSketchSize,
+      ToIntBiFunction<? super K, ? super V> weigher,
+      @Nullable BiConsumer<? super K, ? super V> evictionListener) {
+    if (maximumWeight < 1) {
+      throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+    }
+    this.maximumWeight = maximumWeight;
+    this.maximumWindowWeight = Math.max(1, maximumWeight / 100);
+    this.maximumProtectedWeight = (long) ((maximumWeight - maximumWindowWeight) * 0.8);
+    this.weigher = weigher;
+    this.evictionListener = evictionListener;
+    this.data = new ConcurrentHashMap<>((int) Math.min(maximumWeight, 1 << 16));
+    this.sketch = new FrequencySketch(initialSketchSize);
+    this.readBuffers = new ReadBuffer[NUMBER_OF_READ_BUFFERS];
+    for (int i = 0; i < NUMBER_OF_READ_BUFFERS; i++) {
+      readBuffers[i] = new ReadBuffer<>();
+    }
+  }
+
+  @Override
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    Node<K, V> node = data.get(key);
+    if (node != null) {
+      afterRead(node);
+      return node.value;
+    }
+    node =
+        data.computeIfAbsent(
+            key,
+            k -> {
+              V value = mappingFunction.apply(k);
+              return value == null ? null : new Node<>(k, value, weigh(k, value));
+            });
+    if (node == null) {
+      return null;
+    }
+    afterWrite(node);
+    return node.value;
+  }
+
+  @Nullable
+  @Override
+  public V get(K key) {
+    Node<K, V> node = data.get(key);
+    if (node == null) {
+      return null;
+    }
+    afterRead(node);
+    return node.value;
+  }
+
+  @Override
+  public void put(K key, V value) {
+    int weight = weigh(key, value);
+    Node<K, V> node = new Node<>(key, value, weight);
+    Node<K, V> prior = data.putIfAbsent(key, node);
+    if (prior == null) {
+      afterWrite(node);
+    } else {
+      prior.value = value;
+      afterUpdate(prior, weight);
+    }
+  }
+
+  @Override
+  public void remove(K key) {
+    Node<K, V> node = data.remove(key);
+    if (node == null) {
+      return;
+    }
+    evictionLock.lock();
+    try {
+      unlink(node);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  // Visible for testing
+  int size() {
+    return data.size();
+  }
+
+  // Visible for testing
+  long weightedSize() {
+    evictionLock.lock();
+    try {
+      return weightedSize;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private int weigh(K key, V value) {
+    int weight = weigher.applyAsInt(key, value);
+    if (weight < 0) {
+      throw new IllegalArgumentException("weight must not be negative: " + weight);
+    }
+    return weight;
+  }
+
+  private void afterRead(Node<K, V> node) {
+    ReadBuffer<K, V> buffer = readBuffers[readBufferIndex()];
+    if (buffer.offer(node) && evictionLock.tryLock()) {
+      try {
+        drainReadBuffers();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  private void afterWrite(Node<K, V> node) {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      if (node.state == NEW) {
+        onAdd(node);
+      } else {
+        // another thread raced to insert the same key
+        onAccess(node);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void afterUpdate(Node<K, V> node, int weight) {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      int delta = weight - node.weight;
+      node.weight = weight;
+      switch (node.state) {
+        case WINDOW:
+          windowWeight += delta;
+          weightedSize += delta;
+          break;
+        case PROTECTED:
+          protectedWeight += delta;
+          weightedSize += delta;
+          break;
+        case PROBATION:
+          weightedSize += delta;
+          break;
+        default:
+          // not yet added to the policy, the new weight is used when it is
+          return;
+      }
+      onAccess(node);
+      evictEntries();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private static int readBufferIndex() {
+    long id = Thread.currentThread().getId();
+    return ((int) (id ^ (id >>> 32)) * 0x9E3779B9 >>> 16) & READ_BUFFERS_MASK;
+  }
+
+  @GuardedBy("evictionLock")
+  private void drainReadBuffers() {
+    for (ReadBuffer<K, V> buffer : readBuffers) {
+      long reads = buffer.readCount;
+      long writes = buffer.writeCount.get();
+      while (reads < writes) {
+        int index = (int) reads & ReadBuffer.MASK;
+        Node<K, V> node = buffer.buffer.get(index);
+        if (node == null) {
+          // the slot was claimed, but the node is not published yet
+          break;
+        }
+        buffer.buffer.lazySet(index, null);
+        onAccess(node);
+        reads++;
+      }
+      buffer.readCount = reads;
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void onAdd(Node<K, V> node) {
+    if (data.size() > sketch.capacity() && sketch.capacity() < FrequencySketch.MAX_TABLE_SIZE) {
+      growSketch();
+    }
+    sketch.increment(node.key);
+    node.state = WINDOW;
+    window.addLast(node);
+    windowWeight += node.weight;
+    weightedSize += node.weight;
+    evictEntries();
+  }
+
+  /**
+   * Caches bounded by weight don't know up front how many entries they will hold, their sketch
+   * starts small and grows with the cache. The frequencies of the cached keys are carried over,
+   * so that growing doesn't make the cached entries look as unpopular as new ones.
+   */
+  @GuardedBy("evictionLock")
+  private void growSketch() {
+    FrequencySketch grown = new FrequencySketch(Math.max(data.size(), sketch.capacity() << 1));
+    copyFrequencies(window, grown);
+    copyFrequencies(probation, grown);
+    copyFrequencies(protectedSegment, grown);
+    sketch = grown;
+  }
+
+  @GuardedBy("evictionLock")
+  private void copyFrequencies(AccessOrderDeque<K, V> deque, FrequencySketch grown) {
+    for (Node<K, V> node = deque.peekFirst(); node != null; node = node.next) {
+      for (int i = sketch.frequency(node.key); i > 0; i--) {
+        grown.increment(node.key);
+      }
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void onAccess(Node<K, V> node) {
+    switch (node.state) {
+      case WINDOW:
+        sketch.increment(node.key);
+        window.moveToBack(node);
+        break;
+      case PROBATION:
+        sketch.increment(node.key);
+        probation.remove(node);
+        node.state = PROTECTED;
+        protectedSegment.addLast(node);
+        protectedWeight += node.weight;
+        demoteFromProtected();
+        break;
+      case PROTECTED:
+        sketch.increment(node.key);
+        protectedSegment.moveToBack(node);
+        break;
+      default:
+        // not yet added to the policy or already evicted
+        break;
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void demoteFromProtected() {
+    while (protectedWeight > maximumProtectedWeight) {
+      Node<K, V> demoted = protectedSegment.pollFirst();
+      if (demoted == null) {
+        return;
+      }
+      protectedWeight -= demoted.weight;
+      demoted.state = PROBATION;
+      probation.addLast(demoted);
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void evictEntries() {
+    // entries leaving the window are appended to the probation segment as admission candidates
+    int candidates = 0;
+    while (windowWeight > maximumWindowWeight) {
+      Node<K, V> node = window.pollFirst();
+      if (node == null) {
+        break;
+      }
+      windowWeight -= node.weight;
+      node.state = PROBATION;
+      probation.addLast(node);
+      candidates++;
+    }
+
+    while (weightedSize > maximumWeight) {
+      Node<K, V> victim = probation.peekFirst();
+      if (victim == null) {
+        victim = protectedSegment.peekFirst();
+        if (victim == null) {
+          victim = window.peekFirst();
+        }
+        if (victim == null) {
+          return;
+        }
+        evict(victim);
+        continue;
+      }
+
+      Node<K, V> candidate = candidates > 0 ? probation.peekLast() : null;
+      if (candidate == null || candidate == victim) {
+        if (candidate != null) {
+          candidates--;
+        }
+        evict(victim);
+      } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+        evict(victim);
+      } else {
+        candidates--;
+        evict(candidate);
+      }
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void evict(Node<K, V> node) {
+    unlink(node);
+    if (data.remove(node.key, node) && evictionListener != null) {
+      evictionListener.accept(node.key, node.value);
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void unlink(Node<K, V> node) {
+    switch (node.state) {
+      case WINDOW:
+        window.remove(node);
+        windowWeight -= node.weight;
+        weightedSize -= node.weight;
+        break;
+      case PROBATION:
+        probation.remove(node);
+        weightedSize -= node.weight;
+        break;
+      case PROTECTED:
+        protectedSegment.remove(node);
+        protectedWeight -= node.weight;
+        weightedSize -= node.weight;
+        break;
+      default:
+        // a node that was not yet added must not be added after being removed
+        break;
+    }
+    node.state = DEAD;
+  }
+
+  private static final class Node<K, V> {
+    final K key;
+    volatile V value;
+
+    // guarded by the eviction lock
+    int state = NEW;
+    int weight;
+    @Nullable Node<K, V> prev;
+    @Nullable Node<K, V> next;
+
+    Node(K key, V value, int weight) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  /** A doubly linked list of nodes, ordered from the least to the most recently used. */
+  private static final class AccessOrderDeque<K, V> {
+    @Nullable private Node<K, V> first;
+    @Nullable private Node<K, V> last;
+
+    @Nullable
+    Node<K, V> peekFirst() {
+      return first;
+    }
+
+    @Nullable
+    Node<K, V> peekLast() {
+      return last;
+    }
+
+    @Nullable
+    Node<K, V> pollFirst() {
+      Node<K, V> node = first;
+      if (node != null) {
+        remove(node);
+      }
+      return node;
+    }
+
+    void addLast(Node<K, V> node) {
+      node.prev = last;
+      node.next = null;
+      if (last == null) {
+        first = node;
+      } else {
+        last.next = node;
+      }
+      last = node;
+    }
+
+    void moveToBack(Node<K, V> node) {
+      if (node != last) {
+        remove(node);
+        addLast(node);
+      }
+    }
+
+    void remove(Node<K, V> node) {
+      Node<K, V> prev = node.prev;
+      Node<K, V> next = node.next;
+      if (prev == null) {
+        first = next;
+      } else {
+        prev.next = next;
+      }
+      if (next == null) {
+        last = prev;
+      } else {
+        next.prev = prev;
+      }
+      node.prev = null;
+      node.next = null;
+    }
+  }
+
+  /**
+   * A lossy ring buffer of recently read nodes. Readers claim a slot with a CAS on the write
+   * counter, and when the buffer is full the read is simply not recorded. The buffer is drained by
+   * the thread that holds the eviction lock.
+   */
+  private static final class ReadBuffer<K, V> {
+    static final int SIZE = 16;
+    static final int MASK = SIZE - 1;
+    private static final int DRAIN_THRESHOLD = SIZE / 4;
+
+    final AtomicReferenceArray<Node<K, V>> buffer = new AtomicReferenceArray<>(SIZE);
+    final AtomicLong writeCount = new AtomicLong();
+    // only written while holding the eviction lock
+    volatile long readCount;
+
+    /** Records the read, returns {@code true} when the buffer should be drained. */
+    boolean offer(Node<K, V> node) {
+      long writes = writeCount.get();
+      long pending = writes - readCount;
+      if (pending >= SIZE) {
+        return true;
+      }
+      if (writeCount.compareAndSet(writes, writes + 1)) {
+        buffer.lazySet((int) writes & MASK, node);
+      }
+      return pending + 1 >= DRAIN_THRESHOLD;
+    }
+  }
+}
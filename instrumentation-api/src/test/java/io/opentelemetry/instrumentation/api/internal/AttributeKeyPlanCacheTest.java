@@ -0,0 +1,113 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class AttributeKeyPlanCacheTest {
+
+  private final List<String> resolvedKeys = new ArrayList<>();
+  private final AttributeKeyPlanCache plans =
+      AttributeKeyPlanCache.create(
+          key -> {
+            resolvedKeys.add(key);
+            return AttributeKey.stringKey("prefix." + key);
+          });
+
+  @Test
+  void resolvesKeysOncePerKeySet() {
+    Map<String, String> map = new LinkedHashMap<>();
+    map.put("a", "1");
+    map.put("b", "2");
+
+    assertThat(capture(map))
+        .isEqualTo(
+            Attributes.of(
+                AttributeKey.stringKey("prefix.a"), "1", AttributeKey.stringKey("prefix.b"), "2"));
+
+    map.put("a", "3");
+    assertThat(capture(map))
+        .isEqualTo(
+            Attributes.of(
+                AttributeKey.stringKey("prefix.a"), "3", AttributeKey.stringKey("prefix.b"), "2"));
+    assertThat(resolvedKeys).containsExactly("a", "b");
+  }
+
+  @Test
+  void skipsNullKeysAndValues() {
+    Map<String, String> map = new HashMap<>();
+    map.put("a", "1");
+    map.put("b", null);
+    map.put(null, "2");
+
+    assertThat(capture(map)).isEqualTo(Attributes.of(AttributeKey.stringKey("prefix.a"), "1"));
+  }
+
+  @Test
+  void fallsBackToResolverWhenKeysDoNotMatchPlan() {
+    // "Aa" and "BB" have the same hash code, so both key sets share a plan slot and signature
+    assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+    Map<String, String> first = new LinkedHashMap<>();
+    first.put("Aa", "1");
+    Map<String, String> second = new LinkedHashMap<>();
+    second.put("BB", "2");
+
+    capture(first);
+    assertThat(capture(second)).isEqualTo(Attributes.of(AttributeKey.stringKey("prefix.BB"), "2"));
+    assertThat(capture(first)).isEqualTo(Attributes.of(AttributeKey.stringKey("prefix.Aa"), "1"));
+  }
+
+  @Test
+  void indexedMap() {
+    String[][] entries = {{"a", "1"}, {"b", null}, {"c", "3"}};
+    AttributeKeyPlanCache.IndexedMapAccessor<String[][]> accessor =
+        new AttributeKeyPlanCache.IndexedMapAccessor<String[][]>() {
+          @Override
+          public int size(String[][] map) {
+            return map.length;
+          }
+
+          @Override
+          public String getKey(String[][] map, int index) {
+            return map[index][0];
+          }
+
+          @Override
+          public String getValue(String[][] map, int index) {
+            return map[index][1];
+          }
+        };
+
+    for (int i = 0; i < 2; i++) {
+      AttributesBuilder attributes = Attributes.builder();
+      plans.putAll(attributes, entries, accessor);
+      assertThat(attributes.build())
+          .isEqualTo(
+              Attributes.of(
+                  AttributeKey.stringKey("prefix.a"),
+                  "1",
+                  AttributeKey.stringKey("prefix.c"),
+                  "3"));
+    }
+    assertThat(resolvedKeys).containsExactly("a", "b", "c");
+  }
+
+  private Attributes capture(Map<String, String> map) {
+    AttributesBuilder attributes = Attributes.builder();
+    plans.putAll(attributes, map);
+    return attributes.build();
+  }
+}
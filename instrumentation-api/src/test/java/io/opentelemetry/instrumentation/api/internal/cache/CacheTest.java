@@ -8,6 +8,11 @@ package io.opentelemetry.instrumentation.api.internal.cache;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -23,18 +28,116 @@ class CacheTest {
       assertThat(cache.computeIfAbsent("bear", unused -> "roar")).isEqualTo("roar");
       cache.remove("bear");
 
-      MapBackedCache<?, ?> mapBackedCache = ((MapBackedCache<?, ?>) cache);
+      TinyLfuCache<?, ?> boundedCache = ((TinyLfuCache<?, ?>) cache);
       assertThat(cache.computeIfAbsent("cat", unused -> "meow")).isEqualTo("meow");
-      assertThat(mapBackedCache.size()).isEqualTo(1);
+      assertThat(boundedCache.size()).isEqualTo(1);
 
       assertThat(cache.computeIfAbsent("cat", unused -> "bark")).isEqualTo("meow");
-      assertThat(mapBackedCache.size()).isEqualTo(1);
+      assertThat(boundedCache.size()).isEqualTo(1);
 
       cache.put("dog", "bark");
       assertThat(cache.get("dog")).isEqualTo("bark");
-      assertThat(mapBackedCache.size()).isEqualTo(1);
+      assertThat(boundedCache.size()).isEqualTo(1);
       assertThat(cache.computeIfAbsent("cat", unused -> "purr")).isEqualTo("purr");
     }
+
+    @Test
+    void boundedKeepsFrequentlyUsedKeys() {
+      Cache<String, String> cache = Cache.bounded(100);
+
+      for (int i = 0; i < 10; i++) {
+        for (int j = 0; j < 50; j++) {
+          cache.computeIfAbsent("hot" + j, key -> key);
+        }
+      }
+      // a scan of keys that are used only once
+      for (int i = 0; i < 1000; i++) {
+        cache.computeIfAbsent("cold" + i, key -> key);
+      }
+
+      assertThat(((TinyLfuCache<?, ?>) cache).size()).isEqualTo(100);
+      for (int j = 0; j < 50; j++) {
+        assertThat(cache.get("hot" + j)).isEqualTo("hot" + j);
+      }
+    }
+
+    @Test
+    void weighted() {
+      List<String> evicted = new ArrayList<>();
+      Cache<String, String> cache =
+          Cache.weighted(10, (key, value) -> value.length(), (key, value) -> evicted.add(key));
+      TinyLfuCache<?, ?> weightedCache = ((TinyLfuCache<?, ?>) cache);
+
+      cache.put("a", "1234");
+      cache.put("b", "1234");
+      assertThat(weightedCache.weightedSize()).isEqualTo(8);
+      assertThat(evicted).isEmpty();
+
+      // replacing a value updates its weight
+      cache.put("a", "1");
+      assertThat(weightedCache.weightedSize()).isEqualTo(5);
+
+      cache.put("c", "123456");
+      assertThat(weightedCache.weightedSize()).isLessThanOrEqualTo(10);
+      assertThat(evicted).isNotEmpty();
+      assertThat(weightedCache.size()).isEqualTo(3 - evicted.size());
+
+      cache.remove("a");
+      cache.remove("b");
+      cache.remove("c");
+      assertThat(weightedCache.weightedSize()).isZero();
+    }
+
+    @Test
+    void weightedKeepsFrequentlyUsedKeys() {
+      Cache<String, String> cache =
+          Cache.weighted(1000, (key, value) -> value.length(), (key, value) -> {});
+
+      for (int i = 0; i < 10; i++) {
+        for (int j = 0; j < 50; j++) {
+          cache.computeIfAbsent("hot" + j, key -> "0123456789");
+        }
+      }
+      // a scan of keys that are used only once
+      for (int i = 0; i < 1000; i++) {
+        cache.computeIfAbsent("cold" + i, key -> "0123456789");
+      }
+
+      assertThat(((TinyLfuCache<?, ?>) cache).weightedSize()).isLessThanOrEqualTo(1000);
+      for (int j = 0; j < 50; j++) {
+        assertThat(cache.get("hot" + j)).isNotNull();
+      }
+    }
+
+    @Test
+    void boundedConcurrentAccess() throws Exception {
+      Cache<Integer, Integer> cache = Cache.bounded(10);
+
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+          futures.add(
+              executor.submit(
+                  () -> {
+                    for (int i = 0; i < 10_000; i++) {
+                      int key = i % 50;
+                      assertThat(cache.computeIfAbsent(key, k -> k)).isEqualTo(key);
+                      if (i % 7 == 0) {
+                        cache.remove(key);
+                      }
+                    }
+                  }));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } finally {
+        executor.shutdown();
+      }
+
+      assertThat(((TinyLfuCache<?, ?>) cache).size()).isLessThanOrEqualTo(10);
+    }
   }
 
   @Nested
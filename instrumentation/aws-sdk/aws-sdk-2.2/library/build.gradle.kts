@@ -1,5 +1,6 @@
 plugins {
   id("otel.library-instrumentation")
+  id("otel.jmh-conventions")
 }
 
 dependencies {
@@ -30,6 +31,10 @@ dependencies {
   testLibrary("software.amazon.awssdk:secretsmanager:2.2.0")
   testLibrary("software.amazon.awssdk:ses:2.2.0")
   testLibrary("software.amazon.awssdk:sfn:2.2.0")
+
+  jmhImplementation("software.amazon.awssdk:aws-json-protocol:2.2.0")
+  jmhImplementation("software.amazon.awssdk:dynamodb:2.2.0")
+  jmhImplementation("software.amazon.awssdk:sqs:2.2.0")
 }
 
 val testLatestDeps = findProperty("testLatestDeps") as Boolean
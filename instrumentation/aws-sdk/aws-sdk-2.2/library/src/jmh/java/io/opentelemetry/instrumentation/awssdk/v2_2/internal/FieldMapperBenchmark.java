@@ -0,0 +1,150 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.awssdk.v2_2.internal;
+
+import io.opentelemetry.api.trace.Span;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.Capacity;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ItemCollectionMetrics;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+
+/**
+ * Maps the fields of DynamoDB and SQS batch requests and responses to span attributes, as done for
+ * every instrumented call.
+ *
+ * <p>run with ./gradlew -PjmhIncludeSingleClass=FieldMapperBenchmark
+ * :instrumentation:aws-sdk:aws-sdk-2.2:library:jmh
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class FieldMapperBenchmark {
+
+  private static final FieldMapper fieldMapper = new FieldMapper();
+  private static final Span span = Span.getInvalid();
+
+  private static final BatchWriteItemRequest batchWriteItemRequest;
+  private static final BatchWriteItemResponse batchWriteItemResponse;
+  private static final SendMessageBatchRequest sendMessageBatchRequest;
+  private static final SendMessageBatchResponse sendMessageBatchResponse;
+
+  static {
+    Map<String, List<WriteRequest>> requestItems = new HashMap<>();
+    List<ConsumedCapacity> consumedCapacities = new ArrayList<>();
+    Map<String, List<ItemCollectionMetrics>> itemCollectionMetrics = new HashMap<>();
+    for (String table : Arrays.asList("orders", "customers")) {
+      List<WriteRequest> writeRequests = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("id", AttributeValue.builder().s(table + "-" + i).build());
+        item.put("amount", AttributeValue.builder().n(String.valueOf(i * 10)).build());
+        writeRequests.add(
+            WriteRequest.builder().putRequest(PutRequest.builder().item(item).build()).build());
+      }
+      requestItems.put(table, writeRequests);
+      consumedCapacities.add(
+          ConsumedCapacity.builder()
+              .tableName(table)
+              .capacityUnits(10.0)
+              .table(Capacity.builder().capacityUnits(8.0).build())
+              .globalSecondaryIndexes(
+                  Collections.singletonMap(
+                      table + "-index", Capacity.builder().capacityUnits(2.0).build()))
+              .build());
+      itemCollectionMetrics.put(
+          table,
+          Collections.singletonList(
+              ItemCollectionMetrics.builder()
+                  .itemCollectionKey(
+                      Collections.singletonMap("id", AttributeValue.builder().s(table).build()))
+                  .sizeEstimateRangeGB(1.0, 2.0)
+                  .build()));
+    }
+    batchWriteItemRequest = BatchWriteItemRequest.builder().requestItems(requestItems).build();
+    batchWriteItemResponse =
+        BatchWriteItemResponse.builder()
+            .consumedCapacity(consumedCapacities)
+            .itemCollectionMetrics(itemCollectionMetrics)
+            .build();
+
+    List<SendMessageBatchRequestEntry> requestEntries = new ArrayList<>();
+    List<SendMessageBatchResultEntry> resultEntries = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      requestEntries.add(
+          SendMessageBatchRequestEntry.builder()
+              .id(String.valueOf(i))
+              .messageBody("message " + i)
+              .build());
+      resultEntries.add(
+          SendMessageBatchResultEntry.builder()
+              .id(String.valueOf(i))
+              .messageId("message-id-" + i)
+              .build());
+    }
+    sendMessageBatchRequest =
+        SendMessageBatchRequest.builder()
+            .queueUrl("https://sqs.us-east-1.amazonaws.com/123456789012/queue")
+            .entries(requestEntries)
+            .build();
+    sendMessageBatchResponse =
+        SendMessageBatchResponse.builder().successful(resultEntries).build();
+  }
+
+  @Benchmark
+  public void dynamoDbBatchWriteItem() {
+    AwsSdkRequest request = AwsSdkRequest.ofSdkRequest(batchWriteItemRequest);
+    fieldMapper.mapToAttributes(batchWriteItemRequest, request, span);
+    fieldMapper.mapToAttributes(batchWriteItemResponse, request, span);
+  }
+
+  @Benchmark
+  public void sqsSendMessageBatch() {
+    AwsSdkRequest request = AwsSdkRequest.ofSdkRequest(sendMessageBatchRequest);
+    fieldMapper.mapToAttributes(sendMessageBatchRequest, request, span);
+    fieldMapper.mapToAttributes(sendMessageBatchResponse, request, span);
+  }
+
+  @Benchmark
+  public String serializeConsumedCapacity() {
+    return new Serializer().serialize(batchWriteItemResponse.consumedCapacity());
+  }
+
+  @Benchmark
+  public String serializeConsumedCapacityWithMarshaller() {
+    StringBuilder buf = new StringBuilder();
+    for (ConsumedCapacity consumedCapacity : batchWriteItemResponse.consumedCapacity()) {
+      buf.append(Serializer.serializeWithMarshaller(consumedCapacity));
+    }
+    return buf.toString();
+  }
+}
@@ -17,9 +17,12 @@ import static io.opentelemetry.instrumentation.awssdk.v2_2.internal.AwsSdkReques
 import static io.opentelemetry.instrumentation.awssdk.v2_2.internal.FieldMapping.request;
 import static io.opentelemetry.instrumentation.awssdk.v2_2.internal.FieldMapping.response;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import javax.annotation.Nullable;
 import software.amazon.awssdk.core.SdkRequest;
 
@@ -132,30 +135,47 @@ enum AwsSdkRequest {
       "bedrockruntime.model.ConverseRequest",
       request("gen_ai.request.model", "modelId"));
 
+  // the request of each SDK request class, resolved once per class
+  private static final ClassValue<Optional<AwsSdkRequest>> requestsByClass =
+      new ClassValue<Optional<AwsSdkRequest>>() {
+        @Override
+        protected Optional<AwsSdkRequest> computeValue(Class<?> type) {
+          // try request type
+          AwsSdkRequest result = ofType(type.getName());
+          // try parent - generic
+          if (result == null) {
+            result = ofType(type.getSuperclass().getName());
+          }
+          return Optional.ofNullable(result);
+        }
+      };
+
   private final AwsSdkRequestType type;
   private final String requestClass;
 
-  // Wrap in unmodifiableMap
+  // The fields of this request followed by the fields of its type. Wrap in unmodifiableMap
   @SuppressWarnings("ImmutableEnumChecker")
   private final Map<FieldMapping.Type, List<FieldMapping>> fields;
 
   AwsSdkRequest(AwsSdkRequestType type, String requestClass, FieldMapping... fields) {
     this.type = type;
     this.requestClass = requestClass;
-    this.fields = Collections.unmodifiableMap(FieldMapping.groupByType(fields));
+    Map<FieldMapping.Type, List<FieldMapping>> requestFields = FieldMapping.groupByType(fields);
+    Map<FieldMapping.Type, List<FieldMapping>> allFields = new EnumMap<>(FieldMapping.Type.class);
+    for (FieldMapping.Type fieldType : FieldMapping.Type.values()) {
+      List<FieldMapping> fieldMappings = new ArrayList<>(requestFields.get(fieldType));
+      fieldMappings.addAll(type.fields(fieldType));
+      allFields.put(fieldType, Collections.unmodifiableList(fieldMappings));
+    }
+    this.fields = Collections.unmodifiableMap(allFields);
   }
 
   @Nullable
   static AwsSdkRequest ofSdkRequest(SdkRequest request) {
-    // try request type
-    AwsSdkRequest result = ofType(request.getClass().getName());
-    // try parent - generic
-    if (result == null) {
-      result = ofType(request.getClass().getSuperclass().getName());
-    }
-    return result;
+    return requestsByClass.get(request.getClass()).orElse(null);
   }
 
+  @Nullable
   private static AwsSdkRequest ofType(String typeName) {
     for (AwsSdkRequest type : values()) {
       if (typeName.endsWith(type.requestClass)) {
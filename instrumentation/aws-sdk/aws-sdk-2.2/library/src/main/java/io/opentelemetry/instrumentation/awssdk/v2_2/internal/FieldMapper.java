@@ -7,7 +7,6 @@ package io.opentelemetry.instrumentation.awssdk.v2_2.internal;
 
 import io.opentelemetry.api.trace.Span;
 import java.util.List;
-import java.util.function.Function;
 import javax.annotation.Nullable;
 import software.amazon.awssdk.core.SdkRequest;
 import software.amazon.awssdk.core.SdkResponse;
@@ -29,39 +28,24 @@ class FieldMapper {
   }
 
   void mapToAttributes(SdkRequest sdkRequest, AwsSdkRequest request, Span span) {
-    mapToAttributes(
-        field -> sdkRequest.getValueForField(field, Object.class).orElse(null),
-        FieldMapping.Type.REQUEST,
-        request,
-        span);
+    for (FieldMapping fieldMapping : request.fields(FieldMapping.Type.REQUEST)) {
+      Object target =
+          sdkRequest.getValueForField(fieldMapping.getFirstField(), Object.class).orElse(null);
+      mapToAttributes(target, fieldMapping, span);
+    }
   }
 
   void mapToAttributes(SdkResponse sdkResponse, AwsSdkRequest request, Span span) {
-    mapToAttributes(
-        field -> sdkResponse.getValueForField(field, Object.class).orElse(null),
-        FieldMapping.Type.RESPONSE,
-        request,
-        span);
-  }
-
-  private void mapToAttributes(
-      Function<String, Object> fieldValueProvider,
-      FieldMapping.Type type,
-      AwsSdkRequest request,
-      Span span) {
-    for (FieldMapping fieldMapping : request.fields(type)) {
-      mapToAttributes(fieldValueProvider, fieldMapping, span);
-    }
-    for (FieldMapping fieldMapping : request.type().fields(type)) {
-      mapToAttributes(fieldValueProvider, fieldMapping, span);
+    for (FieldMapping fieldMapping : request.fields(FieldMapping.Type.RESPONSE)) {
+      Object target =
+          sdkResponse.getValueForField(fieldMapping.getFirstField(), Object.class).orElse(null);
+      mapToAttributes(target, fieldMapping, span);
     }
   }
 
-  private void mapToAttributes(
-      Function<String, Object> fieldValueProvider, FieldMapping fieldMapping, Span span) {
+  private void mapToAttributes(@Nullable Object target, FieldMapping fieldMapping, Span span) {
     // traverse path
     List<String> path = fieldMapping.getFields();
-    Object target = fieldValueProvider.apply(path.get(0));
     for (int i = 1; i < path.size() && target != null; i++) {
       target = next(target, path.get(i));
     }
@@ -45,6 +45,10 @@ class FieldMapping {
     return fields;
   }
 
+  String getFirstField() {
+    return fields.get(0);
+  }
+
   Type getType() {
     return type;
   }
@@ -8,19 +8,36 @@ package io.opentelemetry.instrumentation.awssdk.v2_2.internal;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nullable;
+import software.amazon.awssdk.core.SdkField;
 import software.amazon.awssdk.core.SdkPojo;
+import software.amazon.awssdk.core.protocol.MarshallLocation;
+import software.amazon.awssdk.core.util.SdkAutoConstructList;
+import software.amazon.awssdk.core.util.SdkAutoConstructMap;
 import software.amazon.awssdk.http.ContentStreamProvider;
 import software.amazon.awssdk.http.SdkHttpFullRequest;
 import software.amazon.awssdk.protocols.core.ProtocolMarshaller;
 import software.amazon.awssdk.utils.IoUtils;
-import software.amazon.awssdk.utils.StringUtils;
 
 class Serializer {
 
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  // a ClassValue instead of a weak cache, the getters of the SdkFields reference the pojo class
+  // and would keep a weak key reachable. The fields are only available from a pojo instance, so
+  // they are resolved when the first instance of the class is serialized.
+  private static final ClassValue<AtomicReference<PojoFields>> pojoFieldsByClass =
+      new ClassValue<AtomicReference<PojoFields>>() {
+        @Override
+        protected AtomicReference<PojoFields> computeValue(Class<?> type) {
+          return new AtomicReference<>();
+        }
+      };
+
   @Nullable
   String serialize(Object target) {
 
@@ -28,21 +45,71 @@ class Serializer {
       return null;
     }
 
+    if (target instanceof SdkPojo || target instanceof Collection || target instanceof Map) {
+      StringBuilder buf = new StringBuilder();
+      return append(buf, target) ? buf.toString() : null;
+    }
+    // simple type
+    return target.toString();
+  }
+
+  /** Returns {@code false} if {@code target} serializes to {@code null}. */
+  private static boolean append(StringBuilder buf, @Nullable Object target) {
+    if (target == null) {
+      return false;
+    }
     if (target instanceof SdkPojo) {
-      return serialize((SdkPojo) target);
+      return append(buf, (SdkPojo) target);
     }
     if (target instanceof Collection) {
-      return serialize((Collection<?>) target);
+      return append(buf, (Collection<?>) target);
     }
     if (target instanceof Map) {
-      return serialize(((Map<?, ?>) target).keySet());
+      return append(buf, ((Map<?, ?>) target).keySet());
     }
-    // simple type
-    return target.toString();
+    buf.append(target);
+    return true;
+  }
+
+  private static boolean append(StringBuilder buf, SdkPojo sdkPojo) {
+    int start = buf.length();
+    if (writeJson(buf, sdkPojo)) {
+      return true;
+    }
+    // the pojo has values that writeJson doesn't support, use the SDK marshaller instead
+    buf.setLength(start);
+    String serialized = serializeWithMarshaller(sdkPojo);
+    if (serialized == null) {
+      return false;
+    }
+    buf.append(serialized);
+    return true;
+  }
+
+  private static boolean append(StringBuilder buf, Collection<?> collection) {
+    int start = buf.length();
+    buf.append('[');
+    boolean first = true;
+    for (Object element : collection) {
+      if (!first) {
+        buf.append(',');
+      }
+      if (!append(buf, element)) {
+        buf.append("null");
+      }
+      first = false;
+    }
+    if (buf.length() == start + 1) {
+      // nothing was serialized
+      buf.setLength(start);
+      return false;
+    }
+    buf.append(']');
+    return true;
   }
 
   @Nullable
-  private static String serialize(SdkPojo sdkPojo) {
+  static String serializeWithMarshaller(SdkPojo sdkPojo) {
     ProtocolMarshaller<SdkHttpFullRequest> marshaller =
         AwsJsonProtocolFactoryAccess.createMarshaller();
     if (marshaller == null) {
@@ -61,8 +128,189 @@ class Serializer {
         .orElse(null);
   }
 
-  private String serialize(Collection<?> collection) {
-    String serialized = collection.stream().map(this::serialize).collect(Collectors.joining(","));
-    return (StringUtils.isEmpty(serialized) ? null : "[" + serialized + "]");
+  /**
+   * Writes {@code value} the same way as the AWS JSON protocol marshaller. Returns {@code false}
+   * for values that need the marshaller, e.g. timestamps and binary values.
+   */
+  private static boolean writeJson(StringBuilder buf, Object value) {
+    if (value instanceof String) {
+      writeJsonString(buf, (String) value);
+      return true;
+    }
+    if (value instanceof Boolean || value instanceof Integer || value instanceof Long) {
+      buf.append(value);
+      return true;
+    }
+    if (value instanceof Double) {
+      double doubleValue = (Double) value;
+      // the marshaller writes these as strings
+      if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+        return false;
+      }
+      buf.append(doubleValue);
+      return true;
+    }
+    if (value instanceof Float) {
+      float floatValue = (Float) value;
+      if (Float.isNaN(floatValue) || Float.isInfinite(floatValue)) {
+        return false;
+      }
+      buf.append(floatValue);
+      return true;
+    }
+    if (value instanceof SdkPojo) {
+      return writeJson(buf, (SdkPojo) value);
+    }
+    if (value instanceof List) {
+      return writeJson(buf, (List<?>) value);
+    }
+    if (value instanceof Map) {
+      return writeJson(buf, (Map<?, ?>) value);
+    }
+    return false;
+  }
+
+  private static boolean writeJson(StringBuilder buf, SdkPojo sdkPojo) {
+    AtomicReference<PojoFields> fieldsReference = pojoFieldsByClass.get(sdkPojo.getClass());
+    PojoFields fields = fieldsReference.get();
+    if (fields == null) {
+      fields = PojoFields.create(sdkPojo.sdkFields());
+      fieldsReference.set(fields);
+    }
+    if (!fields.jsonPayload) {
+      return false;
+    }
+    buf.append('{');
+    boolean first = true;
+    for (int i = 0; i < fields.fields.length; i++) {
+      Object value = fields.fields[i].getValueOrDefault(sdkPojo);
+      // like the marshaller, skip unset fields
+      if (value == null
+          || value instanceof SdkAutoConstructList
+          || value instanceof SdkAutoConstructMap) {
+        continue;
+      }
+      if (!first) {
+        buf.append(',');
+      }
+      buf.append(fields.quotedNames[i]);
+      if (!writeJson(buf, value)) {
+        return false;
+      }
+      first = false;
+    }
+    buf.append('}');
+    return true;
+  }
+
+  private static boolean writeJson(StringBuilder buf, List<?> list) {
+    buf.append('[');
+    for (int i = 0; i < list.size(); i++) {
+      Object element = list.get(i);
+      if (element == null) {
+        return false;
+      }
+      if (i > 0) {
+        buf.append(',');
+      }
+      if (!writeJson(buf, element)) {
+        return false;
+      }
+    }
+    buf.append(']');
+    return true;
+  }
+
+  private static boolean writeJson(StringBuilder buf, Map<?, ?> map) {
+    buf.append('{');
+    boolean first = true;
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      Object key = entry.getKey();
+      Object value = entry.getValue();
+      if (!(key instanceof String) || value == null) {
+        return false;
+      }
+      if (!first) {
+        buf.append(',');
+      }
+      writeJsonString(buf, (String) key);
+      buf.append(':');
+      if (!writeJson(buf, value)) {
+        return false;
+      }
+      first = false;
+    }
+    buf.append('}');
+    return true;
+  }
+
+  // escapes the same characters as the marshaller
+  private static void writeJsonString(StringBuilder buf, String value) {
+    buf.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          buf.append("\\\"");
+          break;
+        case '\\':
+          buf.append("\\\\");
+          break;
+        case '\b':
+          buf.append("\\b");
+          break;
+        case '\t':
+          buf.append("\\t");
+          break;
+        case '\n':
+          buf.append("\\n");
+          break;
+        case '\f':
+          buf.append("\\f");
+          break;
+        case '\r':
+          buf.append("\\r");
+          break;
+        default:
+          if (c < 0x20) {
+            buf.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+          } else {
+            buf.append(c);
+          }
+      }
+    }
+    buf.append('"');
+  }
+
+  /** The fields of an {@link SdkPojo} class, resolved once per class. */
+  private static final class PojoFields {
+    private static final PojoFields NOT_JSON_PAYLOAD =
+        new PojoFields(false, new SdkField<?>[0], new String[0]);
+
+    // false when the pojo has fields that are not written to the JSON payload
+    final boolean jsonPayload;
+    final SdkField<?>[] fields;
+    // the JSON field names, quoted and followed by a colon
+    final String[] quotedNames;
+
+    private PojoFields(boolean jsonPayload, SdkField<?>[] fields, String[] quotedNames) {
+      this.jsonPayload = jsonPayload;
+      this.fields = fields;
+      this.quotedNames = quotedNames;
+    }
+
+    static PojoFields create(List<SdkField<?>> sdkFields) {
+      SdkField<?>[] fields = sdkFields.toArray(new SdkField<?>[0]);
+      String[] quotedNames = new String[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        if (fields[i].location() != MarshallLocation.PAYLOAD) {
+          return NOT_JSON_PAYLOAD;
+        }
+        StringBuilder quotedName = new StringBuilder();
+        writeJsonString(quotedName, fields[i].locationName());
+        quotedNames[i] = quotedName.append(':').toString();
+      }
+      return new PojoFields(true, fields, quotedNames);
+    }
   }
 }
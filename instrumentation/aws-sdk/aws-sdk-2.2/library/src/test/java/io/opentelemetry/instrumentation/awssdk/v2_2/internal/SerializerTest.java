@@ -7,6 +7,7 @@ package io.opentelemetry.instrumentation.awssdk.v2_2.internal;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -15,7 +16,11 @@ import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import software.amazon.awssdk.core.SdkPojo;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ItemCollectionMetrics;
 import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
 
 class SerializerTest {
 
@@ -39,6 +44,55 @@ class SerializerTest {
     assertThat(serialized).isEqualTo("{\"ReadCapacityUnits\":1,\"WriteCapacityUnits\":2}");
   }
 
+  @Test
+  void shouldSerializeSdkPojoLikeMarshaller() {
+    // given
+    AttributeValue key = AttributeValue.builder().s("\"quoted\"\n\t").build();
+    SdkPojo sdkPojo =
+        ItemCollectionMetrics.builder()
+            .itemCollectionKey(Collections.singletonMap("id", key))
+            .sizeEstimateRangeGB(1.0, 2.5)
+            .build();
+    // when
+    String serialized = new Serializer().serialize(sdkPojo);
+    // then
+    assertThat(serialized)
+        .isEqualTo(
+            "{\"ItemCollectionKey\":{\"id\":{\"S\":\"\\\"quoted\\\"\\n\\t\"}},"
+                + "\"SizeEstimateRangeGB\":[1.0,2.5]}")
+        .isEqualTo(Serializer.serializeWithMarshaller(sdkPojo));
+  }
+
+  @Test
+  void shouldSerializeSdkPojoWithTimestampWithMarshaller() {
+    // given
+    SdkPojo sdkPojo =
+        TableDescription.builder()
+            .tableName("table")
+            .creationDateTime(Instant.ofEpochSecond(1))
+            .build();
+    // when
+    String serialized = new Serializer().serialize(sdkPojo);
+    // then
+    assertThat(serialized).isEqualTo(Serializer.serializeWithMarshaller(sdkPojo));
+  }
+
+  @Test
+  void shouldSerializeSdkPojoCollection() {
+    // given
+    List<ConsumedCapacity> collection =
+        Arrays.asList(
+            ConsumedCapacity.builder().tableName("first").capacityUnits(1.0).build(),
+            ConsumedCapacity.builder().tableName("second").capacityUnits(2.0).build());
+    // when
+    String serialized = new Serializer().serialize(collection);
+    // then
+    assertThat(serialized)
+        .isEqualTo(
+            "[{\"TableName\":\"first\",\"CapacityUnits\":1.0},"
+                + "{\"TableName\":\"second\",\"CapacityUnits\":2.0}]");
+  }
+
   @Test
   void shouldSerializeCollection() {
     // given
@@ -1,8 +1,12 @@
 plugins {
   id("otel.java-conventions")
+  id("otel.jmh-conventions")
 }
 
 dependencies {
   testImplementation(project(":instrumentation:elasticsearch:elasticsearch-rest-common-5.0:javaagent"))
   testImplementation(project(":instrumentation:elasticsearch:elasticsearch-api-client-7.16:javaagent"))
+
+  jmhImplementation(project(":instrumentation:elasticsearch:elasticsearch-rest-common-5.0:javaagent"))
+  jmhImplementation(project(":instrumentation:elasticsearch:elasticsearch-api-client-7.16:javaagent"))
 }
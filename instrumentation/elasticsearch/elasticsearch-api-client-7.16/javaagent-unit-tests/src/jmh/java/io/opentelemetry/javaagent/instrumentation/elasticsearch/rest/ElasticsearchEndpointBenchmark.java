@@ -0,0 +1,114 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.instrumentation.elasticsearch.rest;
+
+import io.opentelemetry.instrumentation.elasticsearch.rest.common.v5_0.internal.ElasticsearchEndpointDefinition;
+import io.opentelemetry.javaagent.instrumentation.elasticsearch.apiclient.ElasticsearchEndpointMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Extracts the path parts of a request path for every route in the endpoint map, comparing the
+ * path trie of the endpoint definitions with matching a regular expression per route.
+ *
+ * <p>run with ./gradlew -PjmhIncludeSingleClass=ElasticsearchEndpointBenchmark
+ * :instrumentation:elasticsearch:elasticsearch-api-client-7.16:javaagent-unit-tests:jmh
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ElasticsearchEndpointBenchmark {
+
+  private static final Pattern PATH_PART_PATTERN = Pattern.compile("\\{([^}]+)}");
+
+  private final List<ElasticsearchEndpointDefinition> definitions = new ArrayList<>();
+  private final List<List<RegexRoute>> regexRoutes = new ArrayList<>();
+  private final List<String> urlPaths = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    for (ElasticsearchEndpointDefinition definition : ElasticsearchEndpointMap.getAllEndpoints()) {
+      List<RegexRoute> routes = new ArrayList<>();
+      for (ElasticsearchEndpointDefinition.Route route : definition.getRoutes()) {
+        routes.add(new RegexRoute(route.getName()));
+      }
+      for (ElasticsearchEndpointDefinition.Route route : definition.getRoutes()) {
+        definitions.add(definition);
+        regexRoutes.add(routes);
+        urlPaths.add(PATH_PART_PATTERN.matcher(route.getName()).replaceAll("my-$1"));
+      }
+    }
+  }
+
+  @Benchmark
+  public void pathTrie(Blackhole blackhole) {
+    for (int i = 0; i < urlPaths.size(); i++) {
+      ElasticsearchEndpointDefinition definition = definitions.get(i);
+      definition.processPathParts(urlPaths.get(i), (key, value) -> blackhole.consume(value));
+    }
+  }
+
+  @Benchmark
+  public void regexPerRoute(Blackhole blackhole) {
+    for (int i = 0; i < urlPaths.size(); i++) {
+      String urlPath = urlPaths.get(i);
+      for (RegexRoute route : regexRoutes.get(i)) {
+        if (route.pathPartNames.isEmpty()) {
+          continue;
+        }
+        Matcher matcher = route.pattern.matcher(urlPath);
+        if (matcher.find()) {
+          for (String pathPartName : route.pathPartNames) {
+            blackhole.consume(matcher.group(pathPartName));
+          }
+          break;
+        }
+      }
+    }
+  }
+
+  // how path parts were extracted before the endpoint definitions used a path trie
+  private static class RegexRoute {
+    final Pattern pattern;
+    final List<String> pathPartNames = new ArrayList<>();
+
+    RegexRoute(String route) {
+      StringBuilder regex = new StringBuilder("^");
+      Matcher matcher = PATH_PART_PATTERN.matcher(route);
+      int start = 0;
+      while (matcher.find()) {
+        // "_" is not allowed in capture group names
+        String groupName = matcher.group(1).replace("_", "0");
+        pathPartNames.add(groupName);
+        regex
+            .append(route, start, matcher.start())
+            .append("(?<")
+            .append(groupName)
+            .append(">[^/]+)");
+        start = matcher.end();
+      }
+      regex.append(route.substring(start)).append('$');
+      pattern = Pattern.compile(regex.toString());
+    }
+  }
+}
@@ -6,6 +6,7 @@
 package io.opentelemetry.javaagent.instrumentation.elasticsearch.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 import io.opentelemetry.instrumentation.elasticsearch.rest.common.v5_0.internal.ElasticsearchEndpointDefinition;
 import io.opentelemetry.javaagent.instrumentation.elasticsearch.apiclient.ElasticsearchEndpointMap;
@@ -16,7 +17,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 
@@ -98,29 +98,27 @@ class ElasticsearchEndpointMapTest {
   }
 
   @Test
-  void testBuildRegexPattern() {
-    Pattern pattern =
-        ElasticsearchEndpointDefinition.EndpointPattern.buildRegexPattern(
-            "/_nodes/{node_id}/shutdown");
-    assertThat(pattern.pattern()).isEqualTo("^/_nodes/(?<node0id>[^/]+)/shutdown$");
-
-    pattern =
-        ElasticsearchEndpointDefinition.EndpointPattern.buildRegexPattern(
-            "/_snapshot/{repository}/{snapshot}/_mount");
-    assertThat(pattern.pattern())
-        .isEqualTo("^/_snapshot/(?<repository>[^/]+)/(?<snapshot>[^/]+)/_mount$");
-
-    pattern =
-        ElasticsearchEndpointDefinition.EndpointPattern.buildRegexPattern(
-            "/_security/profile/_suggest");
-    assertThat(pattern.pattern()).isEqualTo("^/_security/profile/_suggest$");
-
-    pattern =
-        ElasticsearchEndpointDefinition.EndpointPattern.buildRegexPattern(
-            "/_application/search_application/{name}");
-    assertThat(pattern.pattern()).isEqualTo("^/_application/search_application/(?<name>[^/]+)$");
-
-    pattern = ElasticsearchEndpointDefinition.EndpointPattern.buildRegexPattern("/");
-    assertThat(pattern.pattern()).isEqualTo("^/$");
+  void testLiteralSegmentTakesPrecedence() {
+    ElasticsearchEndpointDefinition esEndpoint =
+        ElasticsearchEndpointMap.get("ml.preview_datafeed");
+    Map<String, String> observedParams = new HashMap<>();
+    esEndpoint.processPathParts("/_ml/datafeeds/_preview", (k, v) -> observedParams.put(k, v));
+    assertThat(observedParams).isEmpty();
+
+    esEndpoint.processPathParts(
+        "/_ml/datafeeds/datafeed-1/_preview", (k, v) -> observedParams.put(k, v));
+    assertThat(observedParams).containsOnly(entry("datafeed_id", "datafeed-1"));
+  }
+
+  @Test
+  void testPathWithoutMatchingRoute() {
+    ElasticsearchEndpointDefinition esEndpoint = ElasticsearchEndpointMap.get("create");
+    Map<String, String> observedParams = new HashMap<>();
+    esEndpoint.processPathParts("/test-index/_create", (k, v) -> observedParams.put(k, v));
+    esEndpoint.processPathParts("/test-index/_create/", (k, v) -> observedParams.put(k, v));
+    esEndpoint.processPathParts("//_create/1", (k, v) -> observedParams.put(k, v));
+    esEndpoint.processPathParts("test-index/_create/1", (k, v) -> observedParams.put(k, v));
+    esEndpoint.processPathParts("/test-index/_create/1/2", (k, v) -> observedParams.put(k, v));
+    assertThat(observedParams).isEmpty();
   }
 }
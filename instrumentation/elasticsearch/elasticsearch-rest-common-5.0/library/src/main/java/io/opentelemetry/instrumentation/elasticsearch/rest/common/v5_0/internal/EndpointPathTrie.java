@@ -0,0 +1,106 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.elasticsearch.rest.common.v5_0.internal;
+
+import io.opentelemetry.instrumentation.elasticsearch.rest.common.v5_0.internal.ElasticsearchEndpointDefinition.Route;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * A trie of the path segments of a set of routes. A route segment is either a literal or a {@code
+ * {path_part}} wildcard that matches any non-empty segment. Matching walks the URL path in place,
+ * without splitting it or using regular expressions. Literal segments take precedence over
+ * wildcards.
+ */
+final class EndpointPathTrie {
+
+  private final Node root = new Node();
+
+  EndpointPathTrie(List<Route> routes) {
+    for (Route route : routes) {
+      add(route);
+    }
+  }
+
+  private void add(Route route) {
+    Node node = root;
+    String[] segments = route.getSegments();
+    String[] pathPartNames = route.getPathPartNames();
+    for (int i = 0; i < segments.length; i++) {
+      node = pathPartNames[i] != null ? node.getOrCreateWildcard() : node.getOrCreate(segments[i]);
+    }
+    // the first route wins when several routes have the same segments
+    if (node.route == null) {
+      node.route = route;
+    }
+  }
+
+  /** Returns the route matching {@code urlPath}, or {@code null} if no route matches. */
+  @Nullable
+  Route match(String urlPath) {
+    if (!urlPath.startsWith("/")) {
+      return null;
+    }
+    return match(root, urlPath, 1);
+  }
+
+  @Nullable
+  private static Route match(Node node, String urlPath, int start) {
+    int end = urlPath.indexOf('/', start);
+    if (end < 0) {
+      end = urlPath.length();
+    }
+    int length = end - start;
+
+    for (int i = 0; i < node.literals.size(); i++) {
+      String literal = node.literals.get(i);
+      if (literal.length() == length && urlPath.regionMatches(start, literal, 0, length)) {
+        Route route = matchChild(node.literalChildren.get(i), urlPath, end);
+        if (route != null) {
+          return route;
+        }
+      }
+    }
+    if (node.wildcard != null && length > 0) {
+      return matchChild(node.wildcard, urlPath, end);
+    }
+    return null;
+  }
+
+  @Nullable
+  private static Route matchChild(Node child, String urlPath, int end) {
+    if (end == urlPath.length()) {
+      return child.route;
+    }
+    return match(child, urlPath, end + 1);
+  }
+
+  private static final class Node {
+    final List<String> literals = new ArrayList<>();
+    final List<Node> literalChildren = new ArrayList<>();
+    @Nullable Node wildcard;
+    @Nullable Route route;
+
+    Node getOrCreate(String literal) {
+      int index = literals.indexOf(literal);
+      if (index >= 0) {
+        return literalChildren.get(index);
+      }
+      Node child = new Node();
+      literals.add(literal);
+      literalChildren.add(child);
+      return child;
+    }
+
+    Node getOrCreateWildcard() {
+      if (wildcard == null) {
+        wildcard = new Node();
+      }
+      return wildcard;
+    }
+  }
+}
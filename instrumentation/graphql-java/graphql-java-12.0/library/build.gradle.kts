@@ -1,5 +1,6 @@
 plugins {
   id("otel.library-instrumentation")
+  id("otel.jmh-conventions")
 }
 
 dependencies {
@@ -7,6 +8,7 @@ dependencies {
   implementation(project(":instrumentation:graphql-java:graphql-java-common:library"))
 
   testImplementation(project(":instrumentation:graphql-java:graphql-java-common:testing"))
+  jmhImplementation(project(":instrumentation:graphql-java:graphql-java-common:testing"))
 
   latestDepTestLibrary("com.graphql-java:graphql-java:19.+") // see graphql-java-20.0 module
 }
@@ -0,0 +1,22 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.graphql.v12_0;
+
+import graphql.GraphQL;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.instrumentation.graphql.AbstractGraphqlBenchmark;
+
+/**
+ * run with ./gradlew -PjmhIncludeSingleClass=GraphqlBenchmark
+ * :instrumentation:graphql-java:graphql-java-12.0:library:jmh
+ */
+public class GraphqlBenchmark extends AbstractGraphqlBenchmark {
+
+  @Override
+  protected void configure(GraphQL.Builder builder) {
+    builder.instrumentation(GraphQLTelemetry.create(OpenTelemetry.noop()).newInstrumentation());
+  }
+}
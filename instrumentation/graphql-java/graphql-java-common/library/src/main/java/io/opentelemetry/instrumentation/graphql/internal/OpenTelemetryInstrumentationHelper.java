@@ -35,6 +35,7 @@ import io.opentelemetry.context.Scope;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import io.opentelemetry.instrumentation.api.instrumenter.InstrumenterBuilder;
 import io.opentelemetry.instrumentation.api.instrumenter.SpanStatusExtractor;
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
 import io.opentelemetry.semconv.ExceptionAttributes;
 import java.util.Locale;
 
@@ -49,6 +50,10 @@ public final class OpenTelemetryInstrumentationHelper {
   private final Instrumenter<OpenTelemetryInstrumentationState, ExecutionResult> instrumenter;
   private final boolean sanitizeQuery;
   private final boolean addOperationNameToSpanName;
+  // Keys are compared by identity. The same operation definition is only seen again when the
+  // GraphQL instance reuses parsed documents, e.g. with a PreparsedDocumentProvider for persisted
+  // queries. Otherwise entries are dropped together with the parsed document.
+  private final Cache<OperationDefinition, OperationInfo> operationInfoCache = Cache.weak();
 
   private OpenTelemetryInstrumentationHelper(
       Instrumenter<OpenTelemetryInstrumentationState, ExecutionResult> instrumenter,
@@ -120,24 +125,13 @@ public final class OpenTelemetryInstrumentationHelper {
 
     OperationDefinition operationDefinition =
         parameters.getExecutionContext().getOperationDefinition();
-    OperationDefinition.Operation operation = operationDefinition.getOperation();
-    String operationType = operation.name().toLowerCase(Locale.ROOT);
-    String operationName = operationDefinition.getName();
-
-    String spanName = operationType;
-    if (addOperationNameToSpanName && operationName != null && !operationName.isEmpty()) {
-      spanName += " " + operationName;
-    }
-    span.updateName(spanName);
+    OperationInfo operationInfo =
+        operationInfoCache.computeIfAbsent(operationDefinition, this::createOperationInfo);
+    span.updateName(operationInfo.spanName);
 
-    state.setOperation(operation);
-    state.setOperationName(operationName);
-
-    Node<?> node = operationDefinition;
-    if (sanitizeQuery) {
-      node = sanitize(node);
-    }
-    state.setQuery(AstPrinter.printAst(node));
+    state.setOperation(operationDefinition.getOperation());
+    state.setOperationName(operationDefinition.getName());
+    state.setQuery(operationInfo.query);
 
     return SimpleInstrumentationContext.noOp();
   }
@@ -154,10 +148,37 @@ public final class OpenTelemetryInstrumentationHelper {
         };
   }
 
+  private OperationInfo createOperationInfo(OperationDefinition operationDefinition) {
+    OperationDefinition.Operation operation = operationDefinition.getOperation();
+    String operationType = operation.name().toLowerCase(Locale.ROOT);
+    String operationName = operationDefinition.getName();
+
+    String spanName = operationType;
+    if (addOperationNameToSpanName && operationName != null && !operationName.isEmpty()) {
+      spanName += " " + operationName;
+    }
+
+    Node<?> node = operationDefinition;
+    if (sanitizeQuery) {
+      node = sanitize(node);
+    }
+    return new OperationInfo(spanName, AstPrinter.printAst(node));
+  }
+
   private static Node<?> sanitize(Node<?> node) {
     return astTransformer.transform(node, sanitizingVisitor);
   }
 
+  private static final class OperationInfo {
+    final String spanName;
+    final String query;
+
+    OperationInfo(String spanName, String query) {
+      this.spanName = spanName;
+      this.query = query;
+    }
+  }
+
   @SuppressWarnings("rawtypes")
   private static class SanitizingVisitor extends NodeVisitorStub {
 
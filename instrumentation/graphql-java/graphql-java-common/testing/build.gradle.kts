@@ -5,4 +5,7 @@ plugins {
 dependencies {
   implementation(project(":testing-common"))
   implementation("com.graphql-java:graphql-java:12.0")
+
+  // for AbstractGraphqlBenchmark, the jmh plugin provides it at runtime
+  compileOnly("org.openjdk.jmh:jmh-core")
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.graphql;
+
+import static graphql.schema.idl.TypeRuntimeWiring.newTypeWiring;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Executes the same query repeatedly, with and without a {@link PreparsedDocumentProvider} that
+ * reuses parsed documents, as is common for persisted queries. Subclasses add the instrumentation
+ * of a graphql-java version in {@link #configure(GraphQL.Builder)}.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public abstract class AbstractGraphqlBenchmark {
+
+  private static final String SCHEMA =
+      ""
+          + "type Query {\n"
+          + "  bookById(id: ID, format: String, limit: Int): Book\n"
+          + "}\n"
+          + "type Book {\n"
+          + "  id: ID\n"
+          + "  name(format: String): String\n"
+          + "  author: Author\n"
+          + "}\n"
+          + "type Author {\n"
+          + "  id: ID\n"
+          + "  name: String\n"
+          + "}\n";
+
+  private static final String QUERY =
+      ""
+          + "query findBookById {\n"
+          + "  bookById(id: \"book-1\", format: \"long\", limit: 10) {\n"
+          + "    id\n"
+          + "    name(format: \"upper\")\n"
+          + "    author {\n"
+          + "      id\n"
+          + "      name\n"
+          + "    }\n"
+          + "  }\n"
+          + "}";
+
+  @Param({"false", "true"})
+  public boolean preparsedDocuments;
+
+  private GraphQL graphql;
+
+  protected abstract void configure(GraphQL.Builder builder);
+
+  @Setup
+  public void setup() {
+    Map<String, Object> author = new HashMap<>();
+    author.put("id", "author-1");
+    author.put("name", "John");
+    Map<String, Object> book = new HashMap<>();
+    book.put("id", "book-1");
+    book.put("name", "First Book");
+    book.put("author", author);
+
+    RuntimeWiring runtimeWiring =
+        RuntimeWiring.newRuntimeWiring()
+            .type(newTypeWiring("Query").dataFetcher("bookById", environment -> book))
+            .build();
+    GraphQLSchema schema =
+        new SchemaGenerator()
+            .makeExecutableSchema(new SchemaParser().parse(SCHEMA), runtimeWiring);
+
+    GraphQL.Builder builder = GraphQL.newGraphQL(schema);
+    configure(builder);
+    if (preparsedDocuments) {
+      builder.preparsedDocumentProvider(new CachingPreparsedDocumentProvider());
+    }
+    graphql = builder.build();
+  }
+
+  @Benchmark
+  public ExecutionResult execute() {
+    return graphql.execute(QUERY);
+  }
+}
@@ -26,6 +26,7 @@ import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.instrumentation.testing.junit.InstrumentationExtension;
 import io.opentelemetry.sdk.testing.assertj.AttributeAssertion;
 import io.opentelemetry.sdk.testing.assertj.SpanDataAssert;
+import io.opentelemetry.sdk.testing.assertj.TraceAssert;
 import io.opentelemetry.sdk.trace.data.StatusData;
 import io.opentelemetry.semconv.incubating.GraphqlIncubatingAttributes;
 import java.io.IOException;
@@ -145,39 +146,62 @@ public abstract class AbstractGraphqlTest {
 
     assertThat(result.getErrors()).isEmpty();
 
+    getTesting().waitAndAssertTraces(this::assertFindBookByIdTrace);
+  }
+
+  @Test
+  void successfulQueryWithPreparsedDocument() {
+    GraphQL.Builder graphqlBuilder =
+        GraphQL.newGraphQL(graphqlSchema)
+            .preparsedDocumentProvider(new CachingPreparsedDocumentProvider());
+    configure(graphqlBuilder);
+    GraphQL graphql = graphqlBuilder.build();
+
+    // the second execution reuses the parsed document of the first one
+    for (int i = 0; i < 2; i++) {
+      ExecutionResult result =
+          graphql.execute(
+              ""
+                  + "  query findBookById {\n"
+                  + "    bookById(id: \"book-1\") {\n"
+                  + "      name\n"
+                  + "    }\n"
+                  + "  }");
+
+      assertThat(result.getErrors()).isEmpty();
+    }
+
     getTesting()
-        .waitAndAssertTraces(
-            trace -> {
-              List<Consumer<SpanDataAssert>> assertions = new ArrayList<>();
-              assertions.add(
-                  span ->
-                      span.hasName("query findBookById")
-                          .hasKind(SpanKind.INTERNAL)
-                          .hasNoParent()
-                          .hasAttributesSatisfyingExactly(
-                              equalTo(
-                                  GraphqlIncubatingAttributes.GRAPHQL_OPERATION_NAME,
-                                  "findBookById"),
-                              equalTo(GraphqlIncubatingAttributes.GRAPHQL_OPERATION_TYPE, "query"),
-                              normalizedQueryEqualsTo(
-                                  GraphqlIncubatingAttributes.GRAPHQL_DOCUMENT,
-                                  "query findBookById { bookById(id: ?) { name } }")));
-              if (hasDataFetcherSpans()) {
-                assertions.add(
-                    span ->
-                        span.hasName("bookById")
-                            .hasParent(trace.getSpan(0))
-                            .hasAttributesSatisfyingExactly(
-                                equalTo(AttributeKey.stringKey("graphql.field.path"), "/bookById"),
-                                equalTo(AttributeKey.stringKey("graphql.field.name"), "bookById")));
-              }
-              assertions.add(
-                  span ->
-                      span.hasName("fetchBookById")
-                          .hasParent(trace.getSpan(hasDataFetcherSpans() ? 1 : 0)));
+        .waitAndAssertTraces(this::assertFindBookByIdTrace, this::assertFindBookByIdTrace);
+  }
 
-              trace.hasSpansSatisfyingExactly(assertions);
-            });
+  private void assertFindBookByIdTrace(TraceAssert trace) {
+    List<Consumer<SpanDataAssert>> assertions = new ArrayList<>();
+    assertions.add(
+        span ->
+            span.hasName("query findBookById")
+                .hasKind(SpanKind.INTERNAL)
+                .hasNoParent()
+                .hasAttributesSatisfyingExactly(
+                    equalTo(GraphqlIncubatingAttributes.GRAPHQL_OPERATION_NAME, "findBookById"),
+                    equalTo(GraphqlIncubatingAttributes.GRAPHQL_OPERATION_TYPE, "query"),
+                    normalizedQueryEqualsTo(
+                        GraphqlIncubatingAttributes.GRAPHQL_DOCUMENT,
+                        "query findBookById { bookById(id: ?) { name } }")));
+    if (hasDataFetcherSpans()) {
+      assertions.add(
+          span ->
+              span.hasName("bookById")
+                  .hasParent(trace.getSpan(0))
+                  .hasAttributesSatisfyingExactly(
+                      equalTo(AttributeKey.stringKey("graphql.field.path"), "/bookById"),
+                      equalTo(AttributeKey.stringKey("graphql.field.name"), "bookById")));
+    }
+    assertions.add(
+        span ->
+            span.hasName("fetchBookById").hasParent(trace.getSpan(hasDataFetcherSpans() ? 1 : 0)));
+
+    trace.hasSpansSatisfyingExactly(assertions);
   }
 
   @Test
@@ -0,0 +1,27 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.graphql;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/** Reuses the parsed document of a query, as is common for persisted queries. */
+public final class CachingPreparsedDocumentProvider implements PreparsedDocumentProvider {
+  private final Map<String, PreparsedDocumentEntry> documents = new ConcurrentHashMap<>();
+
+  @Override
+  @SuppressWarnings("deprecation") // deprecated in newer graphql-java versions
+  public PreparsedDocumentEntry getDocument(
+      ExecutionInput executionInput,
+      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+    return documents.computeIfAbsent(
+        executionInput.getQuery(), query -> parseAndValidateFunction.apply(executionInput));
+  }
+}
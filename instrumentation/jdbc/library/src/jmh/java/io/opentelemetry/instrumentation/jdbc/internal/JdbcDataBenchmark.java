@@ -0,0 +1,62 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.jdbc.internal;
+
+import io.opentelemetry.instrumentation.jdbc.internal.dbinfo.DbInfo;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// emulates connections being opened concurrently through the driver instrumentation, run with
+//   ./gradlew -PjmhIncludeSingleClass=JdbcDataBenchmark :instrumentation:jdbc:library:jmh
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+public class JdbcDataBenchmark {
+
+  private static final String[] URLS = {
+    "jdbc:postgresql://db1.example.com:5432/orders",
+    "jdbc:postgresql://db2.example.com:5432/customers",
+    "jdbc:mysql://db3.example.com:3306/inventory",
+    "jdbc:oracle:thin:@db4.example.com:1521:billing"
+  };
+
+  private DbInfo[] dbInfos;
+  // canonical instances are only weakly reachable from the interner
+  DbInfo[] canonical;
+
+  @Setup
+  public void setup() {
+    dbInfos = new DbInfo[URLS.length];
+    canonical = new DbInfo[URLS.length];
+    for (int i = 0; i < URLS.length; i++) {
+      dbInfos[i] = JdbcConnectionUrlParser.parse(URLS[i], new Properties());
+      canonical[i] = JdbcData.intern(dbInfos[i]);
+    }
+  }
+
+  @Benchmark
+  @Threads(64)
+  public DbInfo intern() {
+    // every opened connection parses its url into a new DbInfo instance
+    DbInfo dbInfo = dbInfos[ThreadLocalRandom.current().nextInt(dbInfos.length)];
+    return JdbcData.intern(dbInfo.toBuilder().build());
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.jdbc.internal;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * A concurrent interner that holds the canonical instances weakly. Lookups of an already interned
+ * value do not take any locks, stale references are expunged when a new value is interned.
+ */
+final class WeakInterner<T> {
+
+  private final ConcurrentHashMap<Object, WeakKey<T>> map = new ConcurrentHashMap<>();
+  private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+
+  T intern(T value) {
+    WeakKey<T> reference = map.get(new LookupKey(value));
+    if (reference != null) {
+      T result = reference.get();
+      if (result != null) {
+        return result;
+      }
+    }
+    return internSlow(value);
+  }
+
+  private T internSlow(T value) {
+    expungeStaleEntries();
+    WeakKey<T> newReference = new WeakKey<>(value, queue);
+    while (true) {
+      WeakKey<T> reference = map.putIfAbsent(newReference, newReference);
+      if (reference == null) {
+        return value;
+      }
+      T result = reference.get();
+      if (result != null) {
+        return result;
+      }
+      // the canonical instance was collected, but its entry is not expunged yet
+      map.remove(reference, reference);
+    }
+  }
+
+  private void expungeStaleEntries() {
+    Reference<? extends T> reference;
+    while ((reference = queue.poll()) != null) {
+      map.remove(reference, reference);
+    }
+  }
+
+  // Visible for testing
+  int size() {
+    return map.size();
+  }
+
+  // WeakKey and LookupKey are equal when their values are equal, which lets a lookup avoid
+  // allocating a weak reference
+  private static final class WeakKey<T> extends WeakReference<T> {
+    private final int hashCode;
+
+    WeakKey(T value, ReferenceQueue<T> queue) {
+      super(value, queue);
+      this.hashCode = value.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj instanceof LookupKey) {
+        return obj.equals(this);
+      }
+      if (!(obj instanceof WeakKey)) {
+        return false;
+      }
+      Object value = get();
+      return value != null && value.equals(((WeakKey<?>) obj).get());
+    }
+  }
+
+  private static final class LookupKey {
+    private final Object value;
+
+    LookupKey(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    public int hashCode() {
+      return value.hashCode();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj instanceof WeakKey) {
+        return value.equals(((WeakKey<?>) obj).get());
+      }
+      return obj instanceof LookupKey && value.equals(((LookupKey) obj).value);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.jdbc.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import io.opentelemetry.instrumentation.jdbc.internal.dbinfo.DbInfo;
+import io.opentelemetry.instrumentation.test.utils.GcUtils;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class WeakInternerTest {
+
+  @Test
+  void returnsCanonicalInstance() {
+    WeakInterner<DbInfo> interner = new WeakInterner<>();
+    DbInfo first = dbInfo("localhost");
+    DbInfo second = dbInfo("localhost");
+
+    assertThat(interner.intern(first)).isSameAs(first);
+    assertThat(interner.intern(second)).isSameAs(first);
+    assertThat(interner.intern(dbInfo("otherhost"))).isNotSameAs(first);
+    assertThat(interner.size()).isEqualTo(2);
+  }
+
+  @Test
+  void concurrentIntern() throws Exception {
+    WeakInterner<DbInfo> interner = new WeakInterner<>();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<DbInfo>> futures = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        futures.add(executor.submit(() -> interner.intern(dbInfo("localhost"))));
+      }
+      DbInfo canonical = futures.get(0).get();
+      for (Future<DbInfo> future : futures) {
+        assertThat(future.get()).isSameAs(canonical);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void expungesCollectedInstances() throws Exception {
+    WeakInterner<DbInfo> interner = new WeakInterner<>();
+    WeakReference<DbInfo> reference = new WeakReference<>(interner.intern(dbInfo("localhost")));
+
+    GcUtils.awaitGc(reference, Duration.ofSeconds(10));
+
+    List<DbInfo> live = new ArrayList<>();
+    await()
+        .untilAsserted(
+            () -> {
+              // stale entries are expunged when a new value is interned
+              live.add(interner.intern(dbInfo("host-" + live.size())));
+              assertThat(interner.size()).isEqualTo(live.size());
+            });
+  }
+
+  private static DbInfo dbInfo(String host) {
+    return DbInfo.builder().system("test").host(host).port(5432).build();
+  }
+}
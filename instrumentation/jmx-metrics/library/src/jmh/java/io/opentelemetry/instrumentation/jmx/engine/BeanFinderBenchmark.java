@@ -0,0 +1,104 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.jmx.engine;
+
+import io.opentelemetry.api.OpenTelemetry;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a full scan of an MBeanServer with 50k MBeans, which used to run on every discovery
+ * attempt, with handling the notifications of a single MBean being registered and unregistered.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BeanFinderBenchmark {
+
+  private static final int MBEAN_COUNT = 50_000;
+  private static final int DOMAIN_COUNT = 100;
+
+  @SuppressWarnings("checkstyle:AbbreviationAsWordInName")
+  public interface SyntheticMBean {
+    long getValue();
+  }
+
+  static class Synthetic implements SyntheticMBean {
+    @Override
+    public long getValue() {
+      return 42;
+    }
+  }
+
+  private MBeanServer server;
+  private List<MBeanServer> servers;
+  private BeanFinder finder;
+  private ObjectName registeredName;
+
+  @Setup
+  public void setUp() throws Exception {
+    server = MBeanServerFactory.newMBeanServer();
+    servers = Collections.singletonList(server);
+    for (int i = 0; i < MBEAN_COUNT; i++) {
+      server.registerMBean(new Synthetic(), objectName(i % DOMAIN_COUNT, "bean" + i));
+    }
+
+    MetricConfiguration conf = new MetricConfiguration();
+    for (int i = 0; i < DOMAIN_COUNT; i++) {
+      MetricExtractor extractor =
+          new MetricExtractor(
+              BeanAttributeExtractor.fromName("Value"),
+              new MetricInfo("synthetic.value." + i, null, null, "1", MetricInfo.Type.GAUGE),
+              Collections.emptyList());
+      conf.addMetricDef(
+          new MetricDef(
+              BeanGroup.forBeans(
+                  Collections.singletonList("synthetic" + i + ":type=Synthetic,*")),
+              Collections.singletonList(extractor)));
+    }
+
+    finder = new BeanFinder(new MetricRegistrar(OpenTelemetry.noop(), "benchmark"), 1000);
+    // no connections are passed to the discovery, the benchmark methods drive it instead
+    finder.discoverBeans(conf, Collections::emptyList);
+    finder.resolveAllBeans(servers);
+
+    registeredName = objectName(DOMAIN_COUNT / 2, "registered");
+  }
+
+  @Benchmark
+  public void fullScan() {
+    finder.resolveAllBeans(servers);
+  }
+
+  @Benchmark
+  public void registrationNotifications() throws Exception {
+    server.registerMBean(new Synthetic(), registeredName);
+    finder.beanRegistered(server, registeredName);
+    server.unregisterMBean(registeredName);
+    finder.beanUnregistered(server, registeredName);
+  }
+
+  private static ObjectName objectName(int domain, String name) throws Exception {
+    return new ObjectName("synthetic" + domain + ":type=Synthetic,name=" + name);
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.jmx.engine;
+
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+import javax.management.Attribute;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+
+/**
+ * Caches the MBean attribute values that are read while collecting metrics, for the duration of a
+ * single collection.
+ *
+ * <p>The metric callbacks read attribute values through the connection returned by {@link
+ * #wrap(MBeanServerConnection)}. The names of the attributes that are read from an MBean are
+ * remembered, and the first read of an MBean in a collection fetches all of them with a single
+ * {@code getAttributes} call. All other extractors that read the same MBean during the collection,
+ * e.g. extractors of different items of the same composite attribute, share the fetched values.
+ *
+ * <p>Every collection runs the callback of each instrument exactly once, so a collection ends when
+ * a callback that already ran in it is started again, see {@link #startCallback(Object)}.
+ */
+final class AttributeValueCache {
+
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  // the values don't reference the connections, so that the connections can be collected
+  private final Cache<MBeanServerConnection, ConnectionValues> connections = Cache.weak();
+  @Nullable private final DoubleHistogram collectionDuration;
+  @Nullable private final LongHistogram collectionCalls;
+
+  // guarded by this
+  private final Set<Object> callbacksInCollection =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+  // only incremented while holding the lock on this
+  private volatile long collection;
+
+  private final LongAdder callCount = new LongAdder();
+  private final LongAdder callNanos = new LongAdder();
+
+  /**
+   * Constructor for AttributeValueCache.
+   *
+   * @param meter the meter used to report the latency and the number of MBean calls of every
+   *     collection, no metrics are reported when it is {@code null}
+   */
+  AttributeValueCache(@Nullable Meter meter) {
+    if (meter != null) {
+      collectionDuration =
+          meter
+              .histogramBuilder("jmx.collection.duration")
+              .setDescription("The time spent reading MBean attributes during a collection.")
+              .setUnit("s")
+              .build();
+      collectionCalls =
+          meter
+              .histogramBuilder("jmx.collection.calls")
+              .setDescription("The number of MBean calls made during a collection.")
+              .setUnit("{call}")
+              .ofLongs()
+              .build();
+    } else {
+      collectionDuration = null;
+      collectionCalls = null;
+    }
+  }
+
+  /**
+   * Returns a connection that reads MBean attribute values through this cache, and delegates all
+   * other calls to the given connection.
+   */
+  MBeanServerConnection wrap(MBeanServerConnection connection) {
+    ConnectionValues connectionValues =
+        connections.computeIfAbsent(connection, unused -> new ConnectionValues());
+    return (MBeanServerConnection)
+        Proxy.newProxyInstance(
+            AttributeValueCache.class.getClassLoader(),
+            new Class<?>[] {MBeanServerConnection.class},
+            (proxy, method, args) -> invoke(connection, connectionValues, method, args));
+  }
+
+  /**
+   * Registers the callback of a newly created instrument. The callback counts as already run in
+   * the current collection, so that its first run can't read values of an earlier collection.
+   */
+  synchronized void registerCallback(Object callback) {
+    callbacksInCollection.add(callback);
+  }
+
+  /**
+   * Marks the start of an instrument callback. Starts a new collection if the callback already ran
+   * in the current one.
+   */
+  synchronized void startCallback(Object callback) {
+    if (callbacksInCollection.add(callback)) {
+      return;
+    }
+    long calls = callCount.sumThenReset();
+    long nanos = callNanos.sumThenReset();
+    if (calls > 0) {
+      if (collectionDuration != null) {
+        collectionDuration.record(nanos / NANOS_PER_SECOND);
+      }
+      if (collectionCalls != null) {
+        collectionCalls.record(calls);
+      }
+    }
+    callbacksInCollection.clear();
+    callbacksInCollection.add(callback);
+    collection++;
+  }
+
+  @Nullable
+  private Object invoke(
+      MBeanServerConnection delegate,
+      ConnectionValues connectionValues,
+      Method method,
+      Object[] args)
+      throws Exception {
+    if (method.getName().equals("getAttribute")) {
+      return getAttribute(delegate, connectionValues, (ObjectName) args[0], (String) args[1]);
+    }
+    try {
+      return method.invoke(delegate, args);
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw (Error) cause;
+    }
+  }
+
+  // the remote calls are made without holding a lock, concurrent callbacks that read the same
+  // MBean may both fetch its attributes, the values of the last fetch are kept
+  @Nullable
+  private Object getAttribute(
+      MBeanServerConnection connection,
+      ConnectionValues connectionValues,
+      ObjectName objectName,
+      String attributeName)
+      throws Exception {
+    long currentCollection = collection;
+    BeanValues bean;
+    String[] attributeNames = null;
+    synchronized (connectionValues) {
+      bean = connectionValues.bean(objectName, currentCollection);
+      if (bean.fetched != currentCollection) {
+        bean.attributeNames.add(attributeName);
+        attributeNames = bean.attributeNames.toArray(new String[0]);
+      } else if (bean.values.containsKey(attributeName)) {
+        return bean.values.get(attributeName);
+      }
+    }
+
+    if (attributeNames != null) {
+      Map<String, Object> values = new HashMap<>();
+      long start = System.nanoTime();
+      try {
+        for (Object attribute : connection.getAttributes(objectName, attributeNames)) {
+          values.put(((Attribute) attribute).getName(), ((Attribute) attribute).getValue());
+        }
+      } finally {
+        recordCall(start);
+      }
+      // read the value before the map is published, other threads may add values to it
+      boolean fetched = values.containsKey(attributeName);
+      Object fetchedValue = values.get(attributeName);
+      synchronized (connectionValues) {
+        if (bean.fetched <= currentCollection) {
+          bean.values = values;
+          bean.fetched = currentCollection;
+        }
+      }
+      if (fetched) {
+        return fetchedValue;
+      }
+    }
+
+    // an attribute that was not read from this MBean before, or that getAttributes() could not
+    // read, read it on its own so that the caller gets the exception
+    Object value;
+    long start = System.nanoTime();
+    try {
+      value = connection.getAttribute(objectName, attributeName);
+    } finally {
+      recordCall(start);
+    }
+    synchronized (connectionValues) {
+      bean.attributeNames.add(attributeName);
+      if (bean.fetched == currentCollection) {
+        bean.values.put(attributeName, value);
+      }
+    }
+    return value;
+  }
+
+  private void recordCall(long start) {
+    callNanos.add(System.nanoTime() - start);
+    callCount.increment();
+  }
+
+  /** The MBeans of a single connection, guarded by the lock on the instance. */
+  private static final class ConnectionValues {
+    final Map<ObjectName, BeanValues> beans = new HashMap<>();
+    long collection;
+
+    BeanValues bean(ObjectName objectName, long currentCollection) {
+      if (collection != currentCollection) {
+        // forget MBeans that were not read in the previous collection, e.g. unregistered MBeans
+        long previousCollection = collection;
+        beans.values().removeIf(bean -> bean.lastUsed < previousCollection);
+        collection = currentCollection;
+      }
+      BeanValues bean = beans.computeIfAbsent(objectName, unused -> new BeanValues());
+      bean.lastUsed = currentCollection;
+      return bean;
+    }
+  }
+
+  private static final class BeanValues {
+    final Set<String> attributeNames = new LinkedHashSet<>();
+    Map<String, Object> values = new HashMap<>();
+    long fetched = -1;
+    long lastUsed;
+  }
+}
@@ -8,8 +8,12 @@ package io.opentelemetry.instrumentation.jmx.engine;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -17,17 +21,36 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import javax.management.InstanceNotFoundException;
 import javax.management.MBeanServerConnection;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
+import javax.management.Notification;
 import javax.management.ObjectName;
+import javax.management.QueryExp;
+import javax.management.relation.MBeanServerNotificationFilter;
 
 /**
  * A class responsible for finding MBeans that match metric definitions specified by a set of
  * MetricDefs.
+ *
+ * <p>MBeans are discovered with a full scan of every MBeanServer once, after which the MBeanServer
+ * delegate notifies about registered and unregistered MBeans. The ObjectNames of these MBeans are
+ * matched against an index of the configured patterns, so that only the affected metric
+ * definitions are updated. A full scan is repeated only rarely, to reconcile any changes that
+ * could not be observed from the notifications, e.g. an MBean attribute that was not available yet
+ * when its MBean was registered. MBeanServers that can't send notifications are scanned on every
+ * discovery attempt.
+ *
+ * <p>All discovery state is only accessed from the bean finder thread.
  */
 class BeanFinder {
 
   private static final Logger logger = Logger.getLogger(BeanFinder.class.getName());
 
+  private static final long RECONCILIATION_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(10);
+
   private final MetricRegistrar registrar;
   private MetricConfiguration conf;
   private final ScheduledExecutorService exec =
@@ -42,6 +65,12 @@ class BeanFinder {
   private final long maxDelay;
   private long delay = 1000; // number of milliseconds until first attempt to discover MBeans
 
+  private final ObjectNamePatternIndex<MetricDef> patternIndex = new ObjectNamePatternIndex<>();
+  // the MBeanServers that send us notifications about registered and unregistered MBeans
+  private final Map<MBeanServerConnection, Boolean> subscribedConnections = new IdentityHashMap<>();
+  private final Map<MetricDef, DiscoveredBeans> discoveredBeans = new HashMap<>();
+  private long lastFullScan;
+
   BeanFinder(MetricRegistrar registrar, long discoveryDelay) {
     this.registrar = registrar;
     this.discoveryDelay = Math.max(1000, discoveryDelay); // Enforce sanity
@@ -58,6 +87,11 @@ class BeanFinder {
   void discoverBeans(
       MetricConfiguration conf, Supplier<List<? extends MBeanServerConnection>> connections) {
     this.conf = conf;
+    for (MetricDef metricDef : conf.getMetricDefs()) {
+      for (ObjectName pattern : metricDef.getBeanGroup().getNamePatterns()) {
+        patternIndex.add(pattern, metricDef);
+      }
+    }
 
     exec.schedule(
         () -> {
@@ -87,16 +121,78 @@ class BeanFinder {
   }
 
   /**
-   * Go over all configured metric definitions and try to find matching MBeans. Once a match is
-   * found for a given metric definition, submit the definition to MetricRegistrar for further
-   * handling. Successive invocations of this method may find matches that were previously
-   * unavailable, in such cases MetricRegistrar will extend the coverage for the new MBeans
+   * Subscribe to notifications of MBeanServers that were not seen before, and scan all MBeanServers
+   * for matching MBeans when any of them can't send notifications, when a new MBeanServer was
+   * found, or when the reconciliation interval expired.
    *
    * @param connections supplier providing {@link MBeanServerConnection} instances to query
    */
   private void refreshState(Supplier<List<? extends MBeanServerConnection>> connections) {
     List<? extends MBeanServerConnection> servers = connections.get();
 
+    boolean fullScan = false;
+    Set<MBeanServerConnection> current = new HashSet<>(servers);
+    subscribedConnections.keySet().retainAll(current);
+    for (MBeanServerConnection server : servers) {
+      Boolean subscribed = subscribedConnections.get(server);
+      if (subscribed == null) {
+        subscribed = subscribe(server);
+        subscribedConnections.put(server, subscribed);
+        fullScan = true;
+      }
+      if (!subscribed) {
+        fullScan = true;
+      }
+    }
+
+    long now = System.nanoTime();
+    if (fullScan || now - lastFullScan >= RECONCILIATION_INTERVAL_NANOS) {
+      lastFullScan = now;
+      resolveAllBeans(servers);
+    }
+  }
+
+  private boolean subscribe(MBeanServerConnection connection) {
+    MBeanServerNotificationFilter filter = new MBeanServerNotificationFilter();
+    filter.enableAllObjectNames();
+    try {
+      connection.addNotificationListener(
+          MBeanServerDelegate.DELEGATE_NAME,
+          (notification, handback) -> onNotification(connection, notification),
+          filter,
+          null);
+      return true;
+    } catch (InstanceNotFoundException | IOException | RuntimeException e) {
+      logger.log(
+          Level.FINE, "Unable to subscribe to MBean registrations, falling back to polling", e);
+      return false;
+    }
+  }
+
+  // called by the MBeanServer, possibly on an application thread that registers an MBean
+  private void onNotification(MBeanServerConnection connection, Notification notification) {
+    if (!(notification instanceof MBeanServerNotification)) {
+      return;
+    }
+    ObjectName objectName = ((MBeanServerNotification) notification).getMBeanName();
+    String type = notification.getType();
+    if (MBeanServerNotification.REGISTRATION_NOTIFICATION.equals(type)) {
+      exec.execute(() -> beanRegistered(connection, objectName));
+    } else if (MBeanServerNotification.UNREGISTRATION_NOTIFICATION.equals(type)) {
+      exec.execute(() -> beanUnregistered(connection, objectName));
+    }
+  }
+
+  /**
+   * Go over all configured metric definitions and try to find matching MBeans. Once a match is
+   * found for a given metric definition, submit the definition to MetricRegistrar for further
+   * handling. Successive invocations of this method may find matches that were previously
+   * unavailable, in such cases MetricRegistrar will extend the coverage for the new MBeans
+   *
+   * @param servers the {@link MBeanServerConnection} instances to query
+   */
+  // Visible for benchmarks
+  void resolveAllBeans(List<? extends MBeanServerConnection> servers) {
     for (MetricDef metricDef : conf.getMetricDefs()) {
       resolveBeans(metricDef, servers);
     }
@@ -146,25 +242,132 @@ class BeanFinder {
    */
   private void resolveAttributes(
       Set<ObjectName> objectNames, MBeanServerConnection connection, MetricDef metricDef) {
+    DiscoveredBeans discovered = new DiscoveredBeans(connection);
+    discoveredBeans.put(metricDef, discovered);
     for (MetricExtractor extractor : metricDef.getMetricExtractors()) {
       // For each MetricExtractor, find the subset of MBeans that have the required attribute
-      List<ObjectName> validObjectNames = new ArrayList<>();
-      AttributeInfo attributeInfo = null;
+      ValidBeans validBeans = discovered.forExtractor(extractor);
       for (ObjectName objectName : objectNames) {
         AttributeInfo attr =
             extractor.getMetricValueExtractor().getAttributeInfo(connection, objectName);
         if (attr != null) {
-          if (attributeInfo == null) {
-            attributeInfo = attr;
-          } else {
-            attributeInfo.updateFrom(attr);
-          }
-          validObjectNames.add(objectName);
+          validBeans.add(objectName, attr);
         }
       }
-      if (!validObjectNames.isEmpty()) {
+      if (!validBeans.objectNames.isEmpty()) {
         // Ready to collect metric values
-        registrar.enrollExtractor(connection, validObjectNames, extractor, attributeInfo);
+        enroll(connection, extractor, validBeans);
+      }
+    }
+  }
+
+  /**
+   * Add a newly registered MBean to the metric definitions with matching patterns, and extend the
+   * metric value collection to it.
+   *
+   * @param connection the {@link MBeanServerConnection} that registered the MBean
+   * @param objectName the {@link ObjectName} of the MBean
+   */
+  // Visible for benchmarks
+  void beanRegistered(MBeanServerConnection connection, ObjectName objectName) {
+    for (MetricDef metricDef : patternIndex.findMatches(objectName)) {
+      DiscoveredBeans discovered = discoveredBeans.get(metricDef);
+      if (discovered == null) {
+        discovered = new DiscoveredBeans(connection);
+        discoveredBeans.put(metricDef, discovered);
+      } else if (discovered.connection != connection) {
+        // Assuming that only one MBeanServer has the required MBeans
+        continue;
+      }
+      QueryExp queryExp = metricDef.getBeanGroup().getQueryExp();
+      if (queryExp != null && !matchesQuery(connection, objectName, queryExp)) {
+        continue;
+      }
+
+      for (MetricExtractor extractor : metricDef.getMetricExtractors()) {
+        ValidBeans validBeans = discovered.forExtractor(extractor);
+        if (validBeans.objectNames.contains(objectName)) {
+          continue;
+        }
+        AttributeInfo attr =
+            extractor.getMetricValueExtractor().getAttributeInfo(connection, objectName);
+        if (attr != null) {
+          validBeans.add(objectName, attr);
+          enroll(connection, extractor, validBeans);
+        }
+      }
+    }
+  }
+
+  /**
+   * Stop collecting metric values from an unregistered MBean.
+   *
+   * @param connection the {@link MBeanServerConnection} that unregistered the MBean
+   * @param objectName the {@link ObjectName} of the MBean
+   */
+  // Visible for benchmarks
+  void beanUnregistered(MBeanServerConnection connection, ObjectName objectName) {
+    for (MetricDef metricDef : patternIndex.findMatches(objectName)) {
+      DiscoveredBeans discovered = discoveredBeans.get(metricDef);
+      if (discovered == null || discovered.connection != connection) {
+        continue;
+      }
+      for (MetricExtractor extractor : metricDef.getMetricExtractors()) {
+        ValidBeans validBeans = discovered.forExtractor(extractor);
+        if (validBeans.objectNames.remove(objectName)) {
+          enroll(connection, extractor, validBeans);
+        }
+      }
+    }
+  }
+
+  private void enroll(
+      MBeanServerConnection connection, MetricExtractor extractor, ValidBeans validBeans) {
+    AttributeInfo attributeInfo = validBeans.attributeInfo;
+    if (attributeInfo == null) {
+      // no MBean with the required attribute was ever found
+      return;
+    }
+    // the registrar keeps a reference to the ObjectNames, which are read by the metric callbacks
+    registrar.enrollExtractor(
+        connection, new ArrayList<>(validBeans.objectNames), extractor, attributeInfo);
+  }
+
+  private static boolean matchesQuery(
+      MBeanServerConnection connection, ObjectName objectName, QueryExp queryExp) {
+    try {
+      return !connection.queryNames(objectName, queryExp).isEmpty();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "IO error while resolving mbean", e);
+      return false;
+    }
+  }
+
+  /** The MBeans that match a metric definition, found on a single MBeanServer. */
+  private static class DiscoveredBeans {
+    final MBeanServerConnection connection;
+    final Map<MetricExtractor, ValidBeans> validBeansByExtractor = new HashMap<>();
+
+    DiscoveredBeans(MBeanServerConnection connection) {
+      this.connection = connection;
+    }
+
+    ValidBeans forExtractor(MetricExtractor extractor) {
+      return validBeansByExtractor.computeIfAbsent(extractor, x -> new ValidBeans());
+    }
+  }
+
+  /** The MBeans that have the attribute required by a metric extractor. */
+  private static class ValidBeans {
+    final Set<ObjectName> objectNames = new LinkedHashSet<>();
+    @Nullable AttributeInfo attributeInfo;
+
+    void add(ObjectName objectName, AttributeInfo attr) {
+      objectNames.add(objectName);
+      if (attributeInfo == null) {
+        attributeInfo = attr;
+      } else {
+        attributeInfo.updateFrom(attr);
       }
     }
   }
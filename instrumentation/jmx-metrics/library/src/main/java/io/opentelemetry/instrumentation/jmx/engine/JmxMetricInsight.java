@@ -23,18 +23,34 @@ public class JmxMetricInsight {
 
   private final OpenTelemetry openTelemetry;
   private final long discoveryDelay;
+  private final boolean collectionMetricsEnabled;
 
   public static JmxMetricInsight createService(OpenTelemetry ot, long discoveryDelay) {
-    return new JmxMetricInsight(ot, discoveryDelay);
+    return createService(ot, discoveryDelay, false);
+  }
+
+  /**
+   * Creates the service.
+   *
+   * @param ot the {@link OpenTelemetry} instance used to report the metrics
+   * @param discoveryDelay the delay in milliseconds before the first MBean discovery attempt
+   * @param collectionMetricsEnabled whether to also report the latency and the number of MBean
+   *     calls of every metric collection
+   */
+  public static JmxMetricInsight createService(
+      OpenTelemetry ot, long discoveryDelay, boolean collectionMetricsEnabled) {
+    return new JmxMetricInsight(ot, discoveryDelay, collectionMetricsEnabled);
   }
 
   public static Logger getLogger() {
     return logger;
   }
 
-  private JmxMetricInsight(OpenTelemetry openTelemetry, long discoveryDelay) {
+  private JmxMetricInsight(
+      OpenTelemetry openTelemetry, long discoveryDelay, boolean collectionMetricsEnabled) {
     this.openTelemetry = openTelemetry;
     this.discoveryDelay = discoveryDelay;
+    this.collectionMetricsEnabled = collectionMetricsEnabled;
   }
 
   /**
@@ -65,7 +81,8 @@ public class JmxMetricInsight {
           "Empty JMX configuration, no metrics will be collected for InstrumentationScope "
               + INSTRUMENTATION_SCOPE);
     } else {
-      MetricRegistrar registrar = new MetricRegistrar(openTelemetry, INSTRUMENTATION_SCOPE);
+      MetricRegistrar registrar =
+          new MetricRegistrar(openTelemetry, INSTRUMENTATION_SCOPE, collectionMetricsEnabled);
       BeanFinder finder = new BeanFinder(registrar, discoveryDelay);
       finder.discoverBeans(conf, connections);
     }
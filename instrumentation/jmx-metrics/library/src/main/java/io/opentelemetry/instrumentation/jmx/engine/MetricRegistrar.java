@@ -30,9 +30,24 @@ class MetricRegistrar {
   private static final Logger logger = Logger.getLogger(MetricRegistrar.class.getName());
 
   private final Meter meter;
+  private final AttributeValueCache attributeValueCache;
 
   MetricRegistrar(OpenTelemetry openTelemetry, String instrumentationScope) {
+    this(openTelemetry, instrumentationScope, false);
+  }
+
+  /**
+   * Constructor for MetricRegistrar.
+   *
+   * @param openTelemetry the {@link OpenTelemetry} instance used to report the metrics
+   * @param instrumentationScope the name of the instrumentation scope of the metrics
+   * @param collectionMetricsEnabled whether to report the latency and the number of MBean calls of
+   *     every metric collection
+   */
+  MetricRegistrar(
+      OpenTelemetry openTelemetry, String instrumentationScope, boolean collectionMetricsEnabled) {
     meter = openTelemetry.getMeter(instrumentationScope);
+    attributeValueCache = new AttributeValueCache(collectionMetricsEnabled ? meter : null);
   }
 
   /**
@@ -50,7 +65,9 @@ class MetricRegistrar {
       MetricExtractor extractor,
       AttributeInfo attributeInfo) {
     // For the first enrollment of the extractor we have to build the corresponding Instrument
-    DetectionStatus status = new DetectionStatus(connection, objectNames);
+    // Attribute values are read through the cache, which batches the reads of every MBean
+    DetectionStatus status =
+        new DetectionStatus(attributeValueCache.wrap(connection), objectNames);
     boolean firstEnrollment;
     synchronized (extractor) {
       firstEnrollment = extractor.getStatus() == null;
@@ -61,6 +78,7 @@ class MetricRegistrar {
     if (!firstEnrollment) {
       return;
     }
+    attributeValueCache.registerCallback(extractor);
 
     boolean recordDoubleValue = attributeInfo.usesDoubleValues();
     MetricInfo metricInfo = extractor.getInfo();
@@ -143,9 +161,10 @@ class MetricRegistrar {
    * of Double type.
    * If unit converter is provided then conversion is applied before metric is recorded.
    */
-  static Consumer<ObservableDoubleMeasurement> doubleTypeCallback(
+  private Consumer<ObservableDoubleMeasurement> doubleTypeCallback(
       MetricExtractor extractor, @Nullable UnitConverter unitConverter) {
     return measurement -> {
+      attributeValueCache.startCallback(extractor);
       DetectionStatus status = extractor.getStatus();
       if (status != null) {
         MBeanServerConnection connection = status.getConnection();
@@ -170,8 +189,9 @@ class MetricRegistrar {
    * A method generating metric collection callback for asynchronous Measurement
    * of Long type.
    */
-  static Consumer<ObservableLongMeasurement> longTypeCallback(MetricExtractor extractor) {
+  private Consumer<ObservableLongMeasurement> longTypeCallback(MetricExtractor extractor) {
     return measurement -> {
+      attributeValueCache.startCallback(extractor);
       DetectionStatus status = extractor.getStatus();
       if (status != null) {
         MBeanServerConnection connection = status.getConnection();
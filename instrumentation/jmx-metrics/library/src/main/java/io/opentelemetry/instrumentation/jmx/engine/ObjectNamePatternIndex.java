@@ -0,0 +1,66 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.jmx.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.management.ObjectName;
+
+/**
+ * An index of {@link ObjectName} patterns, used to find the values associated with all patterns
+ * that match a given ObjectName. Patterns with a fixed domain, which are the vast majority, are
+ * grouped by domain, so that only the patterns of the same domain and the few patterns with a
+ * wildcard domain have to be checked.
+ *
+ * @param <T> the type of the values associated with the patterns
+ */
+final class ObjectNamePatternIndex<T> {
+
+  private final Map<String, List<Entry<T>>> patternsByDomain = new HashMap<>();
+  private final List<Entry<T>> domainPatterns = new ArrayList<>();
+
+  void add(ObjectName pattern, T value) {
+    Entry<T> entry = new Entry<>(pattern, value);
+    if (pattern.isDomainPattern()) {
+      domainPatterns.add(entry);
+    } else {
+      patternsByDomain.computeIfAbsent(pattern.getDomain(), x -> new ArrayList<>()).add(entry);
+    }
+  }
+
+  /** Returns the values of all patterns that match the given ObjectName. */
+  Set<T> findMatches(ObjectName objectName) {
+    Set<T> result = new LinkedHashSet<>();
+    List<Entry<T>> entries = patternsByDomain.get(objectName.getDomain());
+    if (entries != null) {
+      addMatches(entries, objectName, result);
+    }
+    addMatches(domainPatterns, objectName, result);
+    return result;
+  }
+
+  private static <T> void addMatches(List<Entry<T>> entries, ObjectName objectName, Set<T> result) {
+    for (Entry<T> entry : entries) {
+      if (entry.pattern.apply(objectName)) {
+        result.add(entry.value);
+      }
+    }
+  }
+
+  private static final class Entry<T> {
+    final ObjectName pattern;
+    final T value;
+
+    Entry(ObjectName pattern, T value) {
+      this.pattern = pattern;
+      this.value = value;
+    }
+  }
+}
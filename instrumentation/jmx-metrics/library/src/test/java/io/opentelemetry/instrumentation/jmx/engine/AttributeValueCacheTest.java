@@ -0,0 +1,225 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.jmx.engine;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.opentelemetry.instrumentation.test.utils.GcUtils;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerConnection;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AttributeValueCacheTest {
+
+  @SuppressWarnings("checkstyle:AbbreviationAsWordInName")
+  public interface SyntheticMBean {
+    long getFirst();
+
+    long getSecond();
+  }
+
+  private static class Synthetic implements SyntheticMBean {
+    long first = 1;
+    long second = 2;
+
+    @Override
+    public long getFirst() {
+      return first;
+    }
+
+    @Override
+    public long getSecond() {
+      return second;
+    }
+  }
+
+  private final List<String> calls = new ArrayList<>();
+  private final Synthetic bean = new Synthetic();
+  private final Object callback = new Object();
+  private ObjectName objectName;
+  private MBeanServerConnection connection;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    objectName = new ObjectName("test:type=Synthetic");
+    server.registerMBean(bean, objectName);
+    // records the calls that reach the MBeanServer
+    connection =
+        (MBeanServerConnection)
+            Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {MBeanServerConnection.class},
+                (proxy, method, args) -> {
+                  if (method.getName().equals("getAttributes")) {
+                    calls.add("getAttributes" + Arrays.toString((String[]) args[1]));
+                  } else if (method.getName().equals("getAttribute")) {
+                    calls.add("getAttribute[" + args[1] + "]");
+                  }
+                  try {
+                    return method.invoke(server, args);
+                  } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                  }
+                });
+  }
+
+  @Test
+  void attributesAreReadWithOneCallPerCollection() throws Exception {
+    AttributeValueCache cache = new AttributeValueCache(null);
+    MBeanServerConnection cached = cache.wrap(connection);
+    cache.registerCallback(callback);
+
+    cache.startCallback(callback);
+    assertThat(cached.getAttribute(objectName, "First")).isEqualTo(1L);
+    assertThat(calls).containsExactly("getAttributes[First]");
+
+    calls.clear();
+    cache.startCallback(callback);
+    assertThat(cached.getAttribute(objectName, "Second")).isEqualTo(2L);
+    assertThat(calls).containsExactly("getAttributes[First, Second]");
+
+    calls.clear();
+    bean.first = 3;
+    cache.startCallback(callback);
+    assertThat(cached.getAttribute(objectName, "First")).isEqualTo(3L);
+    assertThat(calls).containsExactly("getAttributes[First, Second]");
+  }
+
+  @Test
+  void valuesAreSharedWithinCollection() throws Exception {
+    Object otherCallback = new Object();
+    AttributeValueCache cache = new AttributeValueCache(null);
+    MBeanServerConnection cached = cache.wrap(connection);
+    cache.registerCallback(callback);
+    cache.registerCallback(otherCallback);
+
+    cache.startCallback(callback);
+    assertThat(cached.getAttribute(objectName, "First")).isEqualTo(1L);
+    bean.first = 3;
+    cache.startCallback(otherCallback);
+    assertThat(cached.getAttribute(objectName, "First")).isEqualTo(1L);
+    // an attribute that was not fetched yet is read on its own
+    assertThat(cached.getAttribute(objectName, "Second")).isEqualTo(2L);
+    assertThat(calls).containsExactly("getAttributes[First]", "getAttribute[Second]");
+
+    // the callback runs again, so the next collection has started
+    calls.clear();
+    cache.startCallback(callback);
+    assertThat(cached.getAttribute(objectName, "First")).isEqualTo(3L);
+    assertThat(calls).containsExactly("getAttributes[First, Second]");
+  }
+
+  @Test
+  void newCallbackStartsWithFreshValues() throws Exception {
+    Object newCallback = new Object();
+    AttributeValueCache cache = new AttributeValueCache(null);
+    MBeanServerConnection cached = cache.wrap(connection);
+    cache.registerCallback(callback);
+
+    cache.startCallback(callback);
+    assertThat(cached.getAttribute(objectName, "First")).isEqualTo(1L);
+
+    // an instrument that is created after the collection started doesn't get its values
+    bean.first = 3;
+    cache.registerCallback(newCallback);
+    cache.startCallback(newCallback);
+    assertThat(cached.getAttribute(objectName, "First")).isEqualTo(3L);
+  }
+
+  @Test
+  void missingAttributeThrows() {
+    AttributeValueCache cache = new AttributeValueCache(null);
+    MBeanServerConnection cached = cache.wrap(connection);
+
+    assertThatThrownBy(() -> cached.getAttribute(objectName, "Missing"))
+        .isInstanceOf(AttributeNotFoundException.class);
+  }
+
+  @Test
+  void remoteCallsDoNotBlockOtherReads() throws Exception {
+    ObjectName blockingName = new ObjectName("test:type=Blocking");
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    MBeanServerConnection blockingConnection =
+        (MBeanServerConnection)
+            Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {MBeanServerConnection.class},
+                (proxy, method, args) -> {
+                  if (method.getName().equals("getAttributes")
+                      && args[0].equals(blockingName)) {
+                    blocked.countDown();
+                    release.await();
+                    return new AttributeList(singletonList(new Attribute("First", 4L)));
+                  }
+                  try {
+                    return method.invoke(connection, args);
+                  } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                  }
+                });
+    AttributeValueCache cache = new AttributeValueCache(null);
+    MBeanServerConnection cached = cache.wrap(blockingConnection);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Object> blockingRead =
+          executor.submit(() -> cached.getAttribute(blockingName, "First"));
+      assertThat(blocked.await(10, SECONDS)).isTrue();
+
+      // the same connection can be used while the other read is waiting for the MBean server
+      assertThat(cached.getAttribute(objectName, "First")).isEqualTo(1L);
+
+      release.countDown();
+      assertThat(blockingRead.get(10, SECONDS)).isEqualTo(4L);
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void connectionIsReferencedWeakly() throws Exception {
+    AttributeValueCache cache = new AttributeValueCache(null);
+
+    WeakReference<MBeanServerConnection> reference = readThroughNewConnection(cache);
+
+    GcUtils.awaitGc(reference, Duration.ofSeconds(10));
+  }
+
+  private WeakReference<MBeanServerConnection> readThroughNewConnection(AttributeValueCache cache)
+      throws Exception {
+    MBeanServerConnection newConnection =
+        (MBeanServerConnection)
+            Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {MBeanServerConnection.class},
+                (proxy, method, args) -> method.invoke(connection, args));
+    assertThat(cache.wrap(newConnection).getAttribute(objectName, "First")).isEqualTo(1L);
+    return new WeakReference<>(newConnection);
+  }
+}
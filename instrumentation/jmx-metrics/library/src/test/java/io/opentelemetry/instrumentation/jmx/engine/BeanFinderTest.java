@@ -0,0 +1,91 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.jmx.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import io.opentelemetry.api.OpenTelemetry;
+import java.time.Duration;
+import java.util.Collections;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BeanFinderTest {
+
+  @SuppressWarnings("checkstyle:AbbreviationAsWordInName")
+  public interface SyntheticMBean {
+    long getValue();
+  }
+
+  private static class Synthetic implements SyntheticMBean {
+    @Override
+    public long getValue() {
+      return 42;
+    }
+  }
+
+  private MBeanServer server;
+  private MetricExtractor extractor;
+  private MetricExtractor otherDomainExtractor;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = MBeanServerFactory.newMBeanServer();
+    extractor = newExtractor("test.value");
+    otherDomainExtractor = newExtractor("test.other.value");
+  }
+
+  @Test
+  void registeredAndUnregisteredBeansAreTracked() throws Exception {
+    server.registerMBean(new Synthetic(), new ObjectName("test:type=Synthetic,name=initial"));
+
+    MetricConfiguration conf = new MetricConfiguration();
+    conf.addMetricDef(
+        new MetricDef(
+            BeanGroup.forBeans(Collections.singletonList("test:type=Synthetic,*")),
+            Collections.singletonList(extractor)));
+    conf.addMetricDef(
+        new MetricDef(
+            BeanGroup.forBeans(Collections.singletonList("other:type=Synthetic,*")),
+            Collections.singletonList(otherDomainExtractor)));
+    // only the first discovery attempt happens during the test
+    BeanFinder finder =
+        new BeanFinder(new MetricRegistrar(OpenTelemetry.noop(), "test"), Long.MAX_VALUE / 2);
+    finder.discoverBeans(conf, () -> Collections.singletonList(server));
+
+    await().untilAsserted(() -> assertThat(objectNames(extractor)).hasSize(1));
+
+    // new beans can only be found from the notifications
+    ObjectName added = new ObjectName("test:type=Synthetic,name=added");
+    server.registerMBean(new Synthetic(), added);
+    server.registerMBean(new Synthetic(), new ObjectName("unrelated:type=Synthetic"));
+    await()
+        .atMost(Duration.ofSeconds(10))
+        .untilAsserted(() -> assertThat(objectNames(extractor)).hasSize(2).contains(added));
+
+    server.unregisterMBean(added);
+    await()
+        .atMost(Duration.ofSeconds(10))
+        .untilAsserted(() -> assertThat(objectNames(extractor)).hasSize(1).doesNotContain(added));
+    assertThat(otherDomainExtractor.getStatus()).isNull();
+  }
+
+  private static Iterable<ObjectName> objectNames(MetricExtractor extractor) {
+    DetectionStatus status = extractor.getStatus();
+    return status == null ? Collections.emptyList() : status.getObjectNames();
+  }
+
+  private static MetricExtractor newExtractor(String metricName) {
+    return new MetricExtractor(
+        BeanAttributeExtractor.fromName("Value"),
+        new MetricInfo(metricName, null, null, "1", MetricInfo.Type.GAUGE),
+        Collections.emptyList());
+  }
+}
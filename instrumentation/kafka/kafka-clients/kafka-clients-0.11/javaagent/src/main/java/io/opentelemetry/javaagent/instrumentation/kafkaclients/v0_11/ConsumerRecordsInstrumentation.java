@@ -6,6 +6,7 @@
 package io.opentelemetry.javaagent.instrumentation.kafkaclients.v0_11;
 
 import static io.opentelemetry.javaagent.bootstrap.kafka.KafkaClientsConsumerProcessTracing.wrappingEnabledSupplier;
+import static io.opentelemetry.javaagent.instrumentation.kafkaclients.v0_11.KafkaSingletons.batchProcessTracing;
 import static io.opentelemetry.javaagent.instrumentation.kafkaclients.v0_11.KafkaSingletons.consumerProcessInstrumenter;
 import static net.bytebuddy.matcher.ElementMatchers.isMethod;
 import static net.bytebuddy.matcher.ElementMatchers.isPublic;
@@ -14,8 +15,10 @@ import static net.bytebuddy.matcher.ElementMatchers.returns;
 import static net.bytebuddy.matcher.ElementMatchers.takesArgument;
 import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
 
+import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaBatchProcessTracing;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaConsumerContext;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaConsumerContextUtil;
+import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.TracingBatchIterator;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.TracingIterable;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.TracingIterator;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.TracingList;
@@ -28,6 +31,7 @@ import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
 
 public class ConsumerRecordsInstrumentation implements TypeInstrumentation {
 
@@ -67,7 +71,8 @@ public class ConsumerRecordsInstrumentation implements TypeInstrumentation {
     @SuppressWarnings("unchecked")
     @Advice.OnMethodExit(suppress = Throwable.class)
     public static <K, V> void wrap(
-        @Advice.This ConsumerRecords<?, ?> records,
+        @Advice.This ConsumerRecords<K, V> records,
+        @Advice.Argument(0) String topic,
         @Advice.Return(readOnly = false) Iterable<ConsumerRecord<K, V>> iterable) {
 
       // it's important not to suppress consumer span creation here because this instrumentation can
@@ -75,9 +80,23 @@ public class ConsumerRecordsInstrumentation implements TypeInstrumentation {
       // case it's important to overwrite the leaked span instead of suppressing the correct span
       // (https://github.com/open-telemetry/opentelemetry-java-instrumentation/issues/1947)
       KafkaConsumerContext consumerContext = KafkaConsumerContextUtil.get(records);
-      iterable =
-          TracingIterable.wrap(
-              iterable, consumerProcessInstrumenter(), wrappingEnabledSupplier(), consumerContext);
+      KafkaBatchProcessTracing batchProcessTracing = batchProcessTracing();
+      if (batchProcessTracing != null) {
+        iterable =
+            TracingIterable.wrapBatch(
+                iterable,
+                batchProcessTracing,
+                KafkaBatchProcessTracing.topicBatch(records, topic),
+                wrappingEnabledSupplier(),
+                consumerContext);
+      } else {
+        iterable =
+            TracingIterable.wrap(
+                iterable,
+                consumerProcessInstrumenter(),
+                wrappingEnabledSupplier(),
+                consumerContext);
+      }
     }
   }
 
@@ -88,6 +107,7 @@ public class ConsumerRecordsInstrumentation implements TypeInstrumentation {
     @Advice.OnMethodExit(suppress = Throwable.class)
     public static <K, V> void wrap(
         @Advice.This ConsumerRecords<?, ?> records,
+        @Advice.Argument(0) TopicPartition partition,
         @Advice.Return(readOnly = false) List<ConsumerRecord<K, V>> list) {
 
       // it's important not to suppress consumer span creation here because this instrumentation can
@@ -95,9 +115,20 @@ public class ConsumerRecordsInstrumentation implements TypeInstrumentation {
       // case it's important to overwrite the leaked span instead of suppressing the correct span
       // (https://github.com/open-telemetry/opentelemetry-java-instrumentation/issues/1947)
       KafkaConsumerContext consumerContext = KafkaConsumerContextUtil.get(records);
-      list =
-          TracingList.wrap(
-              list, consumerProcessInstrumenter(), wrappingEnabledSupplier(), consumerContext);
+      KafkaBatchProcessTracing batchProcessTracing = batchProcessTracing();
+      if (batchProcessTracing != null) {
+        list =
+            TracingList.wrapBatch(
+                list,
+                batchProcessTracing,
+                KafkaBatchProcessTracing.partitionBatch(partition, list),
+                wrappingEnabledSupplier(),
+                consumerContext);
+      } else {
+        list =
+            TracingList.wrap(
+                list, consumerProcessInstrumenter(), wrappingEnabledSupplier(), consumerContext);
+      }
     }
   }
 
@@ -115,9 +146,19 @@ public class ConsumerRecordsInstrumentation implements TypeInstrumentation {
       // case it's important to overwrite the leaked span instead of suppressing the correct span
       // (https://github.com/open-telemetry/opentelemetry-java-instrumentation/issues/1947)
       KafkaConsumerContext consumerContext = KafkaConsumerContextUtil.get(records);
-      iterator =
-          TracingIterator.wrap(
-              iterator, consumerProcessInstrumenter(), wrappingEnabledSupplier(), consumerContext);
+      KafkaBatchProcessTracing batchProcessTracing = batchProcessTracing();
+      if (batchProcessTracing != null) {
+        iterator =
+            TracingBatchIterator.wrap(
+                iterator, batchProcessTracing, records, wrappingEnabledSupplier(), consumerContext);
+      } else {
+        iterator =
+            TracingIterator.wrap(
+                iterator,
+                consumerProcessInstrumenter(),
+                wrappingEnabledSupplier(),
+                consumerContext);
+      }
     }
   }
 }
@@ -7,12 +7,15 @@ package io.opentelemetry.javaagent.instrumentation.kafkaclients.v0_11;
 
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
+import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaBatchProcessTracing;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaInstrumenterFactory;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaProcessRequest;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaProducerRequest;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaReceiveRequest;
 import io.opentelemetry.javaagent.bootstrap.internal.AgentInstrumentationConfig;
 import io.opentelemetry.javaagent.bootstrap.internal.ExperimentalConfig;
+import io.opentelemetry.javaagent.bootstrap.kafka.KafkaClientsConsumerProcessTracing;
+import javax.annotation.Nullable;
 import org.apache.kafka.clients.producer.RecordMetadata;
 
 public final class KafkaSingletons {
@@ -21,10 +24,17 @@ public final class KafkaSingletons {
   private static final boolean PRODUCER_PROPAGATION_ENABLED =
       AgentInstrumentationConfig.get()
           .getBoolean("otel.instrumentation.kafka.producer-propagation.enabled", true);
+  private static final boolean BATCH_PROCESS_ENABLED =
+      AgentInstrumentationConfig.get()
+          .getBoolean("otel.instrumentation.kafka.experimental.batch-process.enabled", false);
+  private static final int BATCH_PROCESS_MAX_LINKS =
+      AgentInstrumentationConfig.get()
+          .getInt("otel.instrumentation.kafka.experimental.batch-process.max-links", 128);
 
   private static final Instrumenter<KafkaProducerRequest, RecordMetadata> PRODUCER_INSTRUMENTER;
   private static final Instrumenter<KafkaReceiveRequest, Void> CONSUMER_RECEIVE_INSTRUMENTER;
   private static final Instrumenter<KafkaProcessRequest, Void> CONSUMER_PROCESS_INSTRUMENTER;
+  @Nullable private static final KafkaBatchProcessTracing BATCH_PROCESS_TRACING;
 
   static {
     KafkaInstrumenterFactory instrumenterFactory =
@@ -34,10 +44,17 @@ public final class KafkaSingletons {
                 AgentInstrumentationConfig.get()
                     .getBoolean("otel.instrumentation.kafka.experimental-span-attributes", false))
             .setMessagingReceiveInstrumentationEnabled(
-                ExperimentalConfig.get().messagingReceiveInstrumentationEnabled());
+                ExperimentalConfig.get().messagingReceiveInstrumentationEnabled())
+            .setBatchProcessMaxLinks(BATCH_PROCESS_MAX_LINKS);
     PRODUCER_INSTRUMENTER = instrumenterFactory.createProducerInstrumenter();
     CONSUMER_RECEIVE_INSTRUMENTER = instrumenterFactory.createConsumerReceiveInstrumenter();
     CONSUMER_PROCESS_INSTRUMENTER = instrumenterFactory.createConsumerProcessInstrumenter();
+    BATCH_PROCESS_TRACING =
+        BATCH_PROCESS_ENABLED
+            ? instrumenterFactory
+                .createBatchProcessTracing(CONSUMER_PROCESS_INSTRUMENTER)
+                .withWrappingSwitch(KafkaClientsConsumerProcessTracing::setEnabled)
+            : null;
   }
 
   public static boolean isProducerPropagationEnabled() {
@@ -56,5 +73,11 @@ public final class KafkaSingletons {
     return CONSUMER_PROCESS_INSTRUMENTER;
   }
 
+  /** Returns the batch process tracing, or {@code null} when batch processing is disabled. */
+  @Nullable
+  public static KafkaBatchProcessTracing batchProcessTracing() {
+    return BATCH_PROCESS_TRACING;
+  }
+
   private KafkaSingletons() {}
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.instrumentation.kafkaclients.v0_11;
+
+import static io.opentelemetry.instrumentation.testing.util.TelemetryDataUtil.orderByRootSpanKind;
+import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.equalTo;
+import static io.opentelemetry.semconv.incubating.MessagingIncubatingAttributes.MESSAGING_BATCH_MESSAGE_COUNT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaClientBaseTest;
+import io.opentelemetry.instrumentation.testing.junit.AgentInstrumentationExtension;
+import io.opentelemetry.instrumentation.testing.junit.InstrumentationExtension;
+import io.opentelemetry.sdk.testing.assertj.SpanDataAssert;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class KafkaClientBatchProcessTest extends KafkaClientBaseTest {
+  @RegisterExtension
+  static final InstrumentationExtension testing = AgentInstrumentationExtension.create();
+
+  @Test
+  void testRecordsWithTopic() throws Exception {
+    String greeting = "Hello by topic!";
+    ConsumerRecords<?, ?> records = produceAndPoll(greeting);
+
+    for (ConsumerRecord<?, ?> record : records.records(SHARED_TOPIC)) {
+      testing.runWithSpan("processing", () -> assertThat(record.value()).isEqualTo(greeting));
+    }
+
+    assertBatchTraces(true);
+  }
+
+  @Test
+  void testRecordsWithTopicPartition() throws Exception {
+    String greeting = "Hello by partition!";
+    ConsumerRecords<?, ?> records = produceAndPoll(greeting);
+
+    for (ConsumerRecord<?, ?> record : records.records(topicPartition)) {
+      testing.runWithSpan("processing", () -> assertThat(record.value()).isEqualTo(greeting));
+    }
+
+    assertBatchTraces(true);
+  }
+
+  @Test
+  void testIterator() throws Exception {
+    String greeting = "Hello by iterator!";
+    ConsumerRecords<?, ?> records = produceAndPoll(greeting);
+
+    for (ConsumerRecord<?, ?> record : records) {
+      testing.runWithSpan("processing", () -> assertThat(record.value()).isEqualTo(greeting));
+    }
+
+    assertBatchTraces(true);
+  }
+
+  @Test
+  void testIterationEndedEarly() throws Exception {
+    String greeting = "Hello and goodbye!";
+    ConsumerRecords<?, ?> records = produceAndPoll(greeting);
+
+    Iterator<? extends ConsumerRecord<?, ?>> iterator = records.iterator();
+    assertThat(iterator.next().value()).isEqualTo(greeting);
+    // the iteration is abandoned without calling hasNext(), the batch span is still in scope
+    assertThat(Span.current().getSpanContext().isValid()).isTrue();
+
+    // and is ended when the consumer polls again
+    poll(Duration.ofMillis(100));
+    assertThat(Span.current().getSpanContext().isValid()).isFalse();
+
+    assertBatchTraces(false);
+  }
+
+  private ConsumerRecords<?, ?> produceAndPoll(String greeting) throws Exception {
+    testing.runWithSpan(
+        "producer",
+        () ->
+            producer
+                .send(new ProducerRecord<>(SHARED_TOPIC, greeting))
+                .get(5, TimeUnit.SECONDS));
+
+    awaitUntilConsumerIsReady();
+    ConsumerRecords<?, ?> records = poll(Duration.ofSeconds(5));
+    assertThat(records.count()).isEqualTo(1);
+    return records;
+  }
+
+  private static void assertBatchTraces(boolean processed) {
+    AtomicReference<SpanData> producerSpan = new AtomicReference<>();
+    testing.waitAndAssertSortedTraces(
+        orderByRootSpanKind(SpanKind.INTERNAL, SpanKind.CONSUMER),
+        trace -> {
+          List<Consumer<SpanDataAssert>> assertions =
+              new ArrayList<>(
+                  Arrays.asList(
+                      span -> span.hasName("producer").hasKind(SpanKind.INTERNAL).hasNoParent(),
+                      span ->
+                          span.hasName(SHARED_TOPIC + " publish")
+                              .hasKind(SpanKind.PRODUCER)
+                              .hasParent(trace.getSpan(0)),
+                      // the producer span was sampled, so the record gets its own process span
+                      span ->
+                          span.hasName(SHARED_TOPIC + " process")
+                              .hasKind(SpanKind.CONSUMER)
+                              .hasParent(trace.getSpan(1))));
+          if (processed) {
+            assertions.add(
+                span ->
+                    span.hasName("processing")
+                        .hasKind(SpanKind.INTERNAL)
+                        .hasParent(trace.getSpan(2)));
+          }
+          trace.hasSpansSatisfyingExactly(assertions);
+          producerSpan.set(trace.getSpan(1));
+        },
+        trace ->
+            trace.hasSpansSatisfyingExactly(
+                span ->
+                    span.hasName(SHARED_TOPIC + " process")
+                        .hasKind(SpanKind.CONSUMER)
+                        .hasNoParent()
+                        .hasLinks(LinkData.create(producerSpan.get().getSpanContext()))
+                        .hasAttributesSatisfying(equalTo(MESSAGING_BATCH_MESSAGE_COUNT, 1))));
+  }
+}
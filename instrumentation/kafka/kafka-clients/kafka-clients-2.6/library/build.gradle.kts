@@ -1,5 +1,6 @@
 plugins {
   id("otel.library-instrumentation")
+  id("otel.jmh-conventions")
 }
 
 dependencies {
@@ -14,6 +15,9 @@ dependencies {
 
   testCompileOnly("com.google.auto.value:auto-value-annotations")
   testAnnotationProcessor("com.google.auto.value:auto-value")
+
+  jmhImplementation("io.opentelemetry:opentelemetry-sdk")
+  jmhImplementation("org.apache.kafka:kafka-clients:2.6.0")
 }
 
 tasks {
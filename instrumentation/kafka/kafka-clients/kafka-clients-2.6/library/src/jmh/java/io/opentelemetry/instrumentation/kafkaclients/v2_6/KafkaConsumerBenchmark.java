@@ -0,0 +1,113 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.kafkaclients.v2_6;
+
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaConsumerContext;
+import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaConsumerContextUtil;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Iterates over a poll of 500 records, 10% of which have a sampled producer span, comparing a
+ * process span for every record with a single process span for the whole batch.
+ *
+ * <p>run with ./gradlew -PjmhIncludeSingleClass=KafkaConsumerBenchmark
+ * :instrumentation:kafka:kafka-clients:kafka-clients-2.6:library:jmh
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class KafkaConsumerBenchmark {
+
+  private static final String TOPIC = "benchmark";
+  private static final int RECORD_COUNT = 500;
+  private static final double SAMPLED_RATIO = 0.1;
+
+  @Param({"false", "true"})
+  public boolean batchProcess;
+
+  private OpenTelemetrySdk openTelemetry;
+  private KafkaTelemetry telemetry;
+  private ConsumerRecords<String, String> records;
+  private KafkaConsumerContext consumerContext;
+
+  @Setup
+  public void setUp() {
+    openTelemetry =
+        OpenTelemetrySdk.builder()
+            .setTracerProvider(
+                SdkTracerProvider.builder()
+                    .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(SAMPLED_RATIO)))
+                    // spans are ended but not exported
+                    .addSpanProcessor(SpanProcessor.composite())
+                    .build())
+            .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+            .build();
+    telemetry =
+        KafkaTelemetry.builder(openTelemetry).setBatchProcessEnabled(batchProcess).build();
+
+    TopicPartition partition = new TopicPartition(TOPIC, 0);
+    List<ConsumerRecord<String, String>> list = new ArrayList<>(RECORD_COUNT);
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < RECORD_COUNT; i++) {
+      ConsumerRecord<String, String> record =
+          new ConsumerRecord<>(TOPIC, 0, i, "key" + i, "value" + i);
+      String traceparent =
+          String.format(
+              "00-%016x%016x-%016x-%s",
+              random.nextLong(),
+              random.nextLong(),
+              random.nextLong(),
+              random.nextDouble() < SAMPLED_RATIO ? "01" : "00");
+      record.headers().add("traceparent", traceparent.getBytes(StandardCharsets.UTF_8));
+      list.add(record);
+    }
+    records = new ConsumerRecords<>(Collections.singletonMap(partition, list));
+    consumerContext = KafkaConsumerContextUtil.create(Context.root(), "group", "client");
+  }
+
+  @TearDown
+  public void tearDown() {
+    openTelemetry.close();
+  }
+
+  @Benchmark
+  public void iterateRecords(Blackhole blackhole) {
+    for (ConsumerRecord<String, String> record : telemetry.addTracing(records, consumerContext)) {
+      blackhole.consume(record.value());
+    }
+  }
+}
@@ -15,6 +15,7 @@ import io.opentelemetry.context.propagation.TextMapSetter;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import io.opentelemetry.instrumentation.api.internal.InstrumenterUtil;
 import io.opentelemetry.instrumentation.api.internal.Timer;
+import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaBatchProcessTracing;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaConsumerContext;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaConsumerContextUtil;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaHeadersSetter;
@@ -25,6 +26,7 @@ import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.Kafka
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.MetricsReporterList;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.OpenTelemetryMetricsReporter;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.OpenTelemetrySupplier;
+import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.TracingBatchIterator;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.TracingList;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Proxy;
@@ -36,6 +38,7 @@ import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 import org.apache.kafka.clients.CommonClientConfigs;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -59,6 +62,7 @@ public final class KafkaTelemetry {
   private final Instrumenter<KafkaProducerRequest, RecordMetadata> producerInstrumenter;
   private final Instrumenter<KafkaReceiveRequest, Void> consumerReceiveInstrumenter;
   private final Instrumenter<KafkaProcessRequest, Void> consumerProcessInstrumenter;
+  @Nullable private final KafkaBatchProcessTracing batchProcessTracing;
   private final boolean producerPropagationEnabled;
 
   KafkaTelemetry(
@@ -66,11 +70,13 @@ public final class KafkaTelemetry {
       Instrumenter<KafkaProducerRequest, RecordMetadata> producerInstrumenter,
       Instrumenter<KafkaReceiveRequest, Void> consumerReceiveInstrumenter,
       Instrumenter<KafkaProcessRequest, Void> consumerProcessInstrumenter,
+      @Nullable KafkaBatchProcessTracing batchProcessTracing,
       boolean producerPropagationEnabled) {
     this.openTelemetry = openTelemetry;
     this.producerInstrumenter = producerInstrumenter;
     this.consumerReceiveInstrumenter = consumerReceiveInstrumenter;
     this.consumerProcessInstrumenter = consumerProcessInstrumenter;
+    this.batchProcessTracing = batchProcessTracing;
     this.producerPropagationEnabled = producerPropagationEnabled;
   }
 
@@ -129,6 +135,10 @@ public final class KafkaTelemetry {
             (proxy, method, args) -> {
               Object result;
               Timer timer = "poll".equals(method.getName()) ? Timer.start() : null;
+              if (timer != null && batchProcessTracing != null) {
+                // the records of the previous poll are not processed anymore
+                TracingBatchIterator.endOpenBatch();
+              }
               try {
                 result = method.invoke(consumer, args);
               } catch (InvocationTargetException exception) {
@@ -160,7 +170,17 @@ public final class KafkaTelemetry {
     for (TopicPartition partition : consumerRecords.partitions()) {
       List<ConsumerRecord<K, V>> list = consumerRecords.records(partition);
       if (list != null && !list.isEmpty()) {
-        list = TracingList.wrap(list, consumerProcessInstrumenter, () -> true, consumerContext);
+        if (batchProcessTracing != null) {
+          list =
+              TracingList.wrapBatch(
+                  list,
+                  batchProcessTracing,
+                  KafkaBatchProcessTracing.partitionBatch(partition, list),
+                  () -> true,
+                  consumerContext);
+        } else {
+          list = TracingList.wrap(list, consumerProcessInstrumenter, () -> true, consumerContext);
+        }
       }
       records.put(partition, list);
     }
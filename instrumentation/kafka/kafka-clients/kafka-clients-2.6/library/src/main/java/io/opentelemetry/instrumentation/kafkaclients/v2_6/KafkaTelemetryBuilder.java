@@ -10,6 +10,7 @@ import static java.util.Collections.emptyList;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.instrumentation.api.instrumenter.AttributesExtractor;
+import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaInstrumenterFactory;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaProcessRequest;
 import io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal.KafkaProducerRequest;
@@ -34,6 +35,8 @@ public final class KafkaTelemetryBuilder {
   private boolean captureExperimentalSpanAttributes = false;
   private boolean propagationEnabled = true;
   private boolean messagingReceiveInstrumentationEnabled = false;
+  private boolean batchProcessEnabled = false;
+  private int batchProcessMaxLinks = 128;
 
   KafkaTelemetryBuilder(OpenTelemetry openTelemetry) {
     this.openTelemetry = Objects.requireNonNull(openTelemetry);
@@ -109,18 +112,47 @@ public final class KafkaTelemetryBuilder {
     return this;
   }
 
+  /**
+   * Set whether to create a single process span for all records of a partition that are returned
+   * by a poll, instead of one process span for each record. Disabled by default.
+   *
+   * <p>The batch process span links to the producer spans of its records. Process spans for
+   * individual records are only created for records whose producer span was sampled.
+   */
+  @CanIgnoreReturnValue
+  public KafkaTelemetryBuilder setBatchProcessEnabled(boolean batchProcessEnabled) {
+    this.batchProcessEnabled = batchProcessEnabled;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of links to producer spans that are added to a batch process span.
+   * Links to sampled producer spans are preferred. Defaults to 128.
+   */
+  @CanIgnoreReturnValue
+  public KafkaTelemetryBuilder setBatchProcessMaxLinks(int batchProcessMaxLinks) {
+    this.batchProcessMaxLinks = batchProcessMaxLinks;
+    return this;
+  }
+
   public KafkaTelemetry build() {
     KafkaInstrumenterFactory instrumenterFactory =
         new KafkaInstrumenterFactory(openTelemetry, INSTRUMENTATION_NAME)
             .setCapturedHeaders(capturedHeaders)
             .setCaptureExperimentalSpanAttributes(captureExperimentalSpanAttributes)
-            .setMessagingReceiveInstrumentationEnabled(messagingReceiveInstrumentationEnabled);
+            .setMessagingReceiveInstrumentationEnabled(messagingReceiveInstrumentationEnabled)
+            .setBatchProcessMaxLinks(batchProcessMaxLinks);
 
+    Instrumenter<KafkaProcessRequest, Void> consumerProcessInstrumenter =
+        instrumenterFactory.createConsumerProcessInstrumenter(consumerProcessAttributesExtractors);
     return new KafkaTelemetry(
         openTelemetry,
         instrumenterFactory.createProducerInstrumenter(producerAttributesExtractors),
         instrumenterFactory.createConsumerReceiveInstrumenter(consumerReceiveAttributesExtractors),
-        instrumenterFactory.createConsumerProcessInstrumenter(consumerProcessAttributesExtractors),
+        consumerProcessInstrumenter,
+        batchProcessEnabled
+            ? instrumenterFactory.createBatchProcessTracing(consumerProcessInstrumenter)
+            : null,
         propagationEnabled);
   }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.kafkaclients.v2_6;
+
+import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.equalTo;
+import static io.opentelemetry.semconv.incubating.MessagingIncubatingAttributes.MESSAGING_BATCH_MESSAGE_COUNT;
+import static io.opentelemetry.semconv.incubating.MessagingIncubatingAttributes.MESSAGING_KAFKA_MESSAGE_OFFSET;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.instrumentation.testing.junit.InstrumentationExtension;
+import io.opentelemetry.instrumentation.testing.junit.LibraryInstrumentationExtension;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class WrapperBatchProcessTest {
+
+  @RegisterExtension
+  static final InstrumentationExtension testing = LibraryInstrumentationExtension.create();
+
+  private static final String TOPIC = "batch-topic";
+  private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+  private static final SpanContext SAMPLED =
+      SpanContext.createFromRemoteParent(
+          "ff01020304050600ff0a0b0c0d0e0f00",
+          "090a0b0c0d0e0f00",
+          TraceFlags.getSampled(),
+          TraceState.getDefault());
+  private static final SpanContext NOT_SAMPLED =
+      SpanContext.createFromRemoteParent(
+          "ff01020304050600ff0a0b0c0d0e0f01",
+          "090a0b0c0d0e0f01",
+          TraceFlags.getDefault(),
+          TraceState.getDefault());
+
+  @Test
+  void recordsAreProcessedInBatch() {
+    MockConsumer<Integer, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer.assign(Collections.singletonList(PARTITION));
+    consumer.updateBeginningOffsets(Collections.singletonMap(PARTITION, 0L));
+    consumer.addRecord(record(0, SAMPLED));
+    consumer.addRecord(record(1, NOT_SAMPLED));
+    consumer.addRecord(record(2, null));
+
+    KafkaTelemetry telemetry =
+        KafkaTelemetry.builder(testing.getOpenTelemetry()).setBatchProcessEnabled(true).build();
+    Consumer<Integer, String> wrappedConsumer = telemetry.wrap(consumer);
+
+    ConsumerRecords<Integer, String> records = wrappedConsumer.poll(Duration.ofSeconds(1));
+    assertThat(records.count()).isEqualTo(3);
+    for (ConsumerRecord<Integer, String> record : records) {
+      assertThat(record.value()).isEqualTo("value" + record.offset());
+    }
+
+    testing.waitAndAssertTraces(
+        trace ->
+            trace.hasSpansSatisfyingExactly(
+                span ->
+                    span.hasName(TOPIC + " process")
+                        .hasKind(SpanKind.CONSUMER)
+                        .hasNoParent()
+                        // links to sampled producer spans come first
+                        .hasLinks(LinkData.create(SAMPLED), LinkData.create(NOT_SAMPLED))
+                        .hasAttributesSatisfying(equalTo(MESSAGING_BATCH_MESSAGE_COUNT, 3))),
+        // only the record with a sampled producer span gets its own process span
+        trace ->
+            trace.hasSpansSatisfyingExactly(
+                span ->
+                    span.hasName(TOPIC + " process")
+                        .hasKind(SpanKind.CONSUMER)
+                        .hasTraceId(SAMPLED.getTraceId())
+                        .hasParentSpanId(SAMPLED.getSpanId())
+                        .hasAttributesSatisfying(equalTo(MESSAGING_KAFKA_MESSAGE_OFFSET, 0))));
+  }
+
+  @Test
+  void abandonedBatchEndsOnNextPoll() {
+    MockConsumer<Integer, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer.assign(Collections.singletonList(PARTITION));
+    consumer.updateBeginningOffsets(Collections.singletonMap(PARTITION, 0L));
+    consumer.addRecord(record(0, NOT_SAMPLED));
+    consumer.addRecord(record(1, NOT_SAMPLED));
+
+    KafkaTelemetry telemetry =
+        KafkaTelemetry.builder(testing.getOpenTelemetry()).setBatchProcessEnabled(true).build();
+    Consumer<Integer, String> wrappedConsumer = telemetry.wrap(consumer);
+
+    ConsumerRecords<Integer, String> records = wrappedConsumer.poll(Duration.ofSeconds(1));
+    // the iteration is abandoned after the first record, the batch span is still in scope
+    assertThat(records.iterator().next().offset()).isEqualTo(0);
+    assertThat(Span.current().getSpanContext().isValid()).isTrue();
+
+    // and is ended when the consumer polls again
+    wrappedConsumer.poll(Duration.ofMillis(1));
+    assertThat(Span.current().getSpanContext().isValid()).isFalse();
+
+    testing.waitAndAssertTraces(
+        trace ->
+            trace.hasSpansSatisfyingExactly(
+                span ->
+                    span.hasName(TOPIC + " process")
+                        .hasKind(SpanKind.CONSUMER)
+                        .hasNoParent()
+                        .hasAttributesSatisfying(equalTo(MESSAGING_BATCH_MESSAGE_COUNT, 2))));
+  }
+
+  private static ConsumerRecord<Integer, String> record(long offset, SpanContext producerSpan) {
+    ConsumerRecord<Integer, String> record =
+        new ConsumerRecord<>(TOPIC, 0, offset, null, "value" + offset);
+    if (producerSpan != null) {
+      String traceparent =
+          "00-"
+              + producerSpan.getTraceId()
+              + "-"
+              + producerSpan.getSpanId()
+              + "-"
+              + producerSpan.getTraceFlags().asHex();
+      record.headers().add("traceparent", traceparent.getBytes(StandardCharsets.UTF_8));
+    }
+    return record;
+  }
+}
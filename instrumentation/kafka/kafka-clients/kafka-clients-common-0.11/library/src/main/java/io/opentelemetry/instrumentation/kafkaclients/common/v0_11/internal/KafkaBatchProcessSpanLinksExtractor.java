@@ -5,33 +5,71 @@
 
 package io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal;
 
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.context.propagation.TextMapPropagator;
 import io.opentelemetry.instrumentation.api.instrumenter.SpanLinksBuilder;
 import io.opentelemetry.instrumentation.api.instrumenter.SpanLinksExtractor;
-import io.opentelemetry.instrumentation.api.internal.PropagatorBasedSpanLinksExtractor;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 
 final class KafkaBatchProcessSpanLinksExtractor implements SpanLinksExtractor<KafkaReceiveRequest> {
 
-  private final SpanLinksExtractor<KafkaProcessRequest> singleRecordLinkExtractor;
+  static final int UNLIMITED = Integer.MAX_VALUE;
 
-  KafkaBatchProcessSpanLinksExtractor(TextMapPropagator propagator) {
-    this.singleRecordLinkExtractor =
-        new PropagatorBasedSpanLinksExtractor<>(propagator, KafkaConsumerRecordGetter.INSTANCE);
+  private final TextMapPropagator propagator;
+  private final int maxLinks;
+
+  KafkaBatchProcessSpanLinksExtractor(TextMapPropagator propagator, int maxLinks) {
+    this.propagator = propagator;
+    this.maxLinks = maxLinks;
   }
 
   @Override
   public void extract(
       SpanLinksBuilder spanLinks, Context parentContext, KafkaReceiveRequest request) {
 
+    int links = 0;
+    // when the number of links is capped, links to sampled producer spans are preferred
+    List<SpanContext> notSampled = null;
     for (ConsumerRecord<?, ?> record : request.getRecords()) {
+      if (links == maxLinks) {
+        return;
+      }
       // explicitly passing root to avoid situation where context propagation is turned off and the
       // parent (CONSUMER receive) span is linked
-      singleRecordLinkExtractor.extract(
-          spanLinks,
-          Context.root(),
-          KafkaProcessRequest.create(record, request.getConsumerGroup(), request.getClientId()));
+      Context extracted =
+          propagator.extract(
+              Context.root(),
+              KafkaProcessRequest.create(record, request.getConsumerGroup(), request.getClientId()),
+              KafkaConsumerRecordGetter.INSTANCE);
+      SpanContext spanContext = Span.fromContext(extracted).getSpanContext();
+      if (!spanContext.isValid()) {
+        continue;
+      }
+      if (spanContext.isSampled() || maxLinks == UNLIMITED) {
+        spanLinks.addLink(spanContext);
+        links++;
+      } else {
+        if (notSampled == null) {
+          notSampled = new ArrayList<>();
+        }
+        if (links + notSampled.size() < maxLinks) {
+          notSampled.add(spanContext);
+        }
+      }
+    }
+    if (notSampled == null) {
+      return;
+    }
+    for (SpanContext spanContext : notSampled) {
+      if (links == maxLinks) {
+        return;
+      }
+      spanLinks.addLink(spanContext);
+      links++;
     }
   }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Traces the processing of consumed records in batches: a single process span covers the
+ * iteration over all records of a batch and links to the producer spans of its records. Process
+ * spans for individual records are only created for records whose producer span was sampled.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
+ */
+public final class KafkaBatchProcessTracing {
+
+  /** Enables or disables the wrapping of consumer records, returns the previous state. */
+  public interface WrappingSwitch {
+    boolean setEnabled(boolean enabled);
+  }
+
+  private static final WrappingSwitch NO_WRAPPING_SWITCH = enabled -> enabled;
+
+  private final Instrumenter<KafkaReceiveRequest, Void> batchInstrumenter;
+  private final Instrumenter<KafkaProcessRequest, Void> recordInstrumenter;
+  private final TextMapPropagator propagator;
+  private final WrappingSwitch wrappingSwitch;
+
+  KafkaBatchProcessTracing(
+      Instrumenter<KafkaReceiveRequest, Void> batchInstrumenter,
+      Instrumenter<KafkaProcessRequest, Void> recordInstrumenter,
+      TextMapPropagator propagator) {
+    this(batchInstrumenter, recordInstrumenter, propagator, NO_WRAPPING_SWITCH);
+  }
+
+  private KafkaBatchProcessTracing(
+      Instrumenter<KafkaReceiveRequest, Void> batchInstrumenter,
+      Instrumenter<KafkaProcessRequest, Void> recordInstrumenter,
+      TextMapPropagator propagator,
+      WrappingSwitch wrappingSwitch) {
+    this.batchInstrumenter = batchInstrumenter;
+    this.recordInstrumenter = recordInstrumenter;
+    this.propagator = propagator;
+    this.wrappingSwitch = wrappingSwitch;
+  }
+
+  /**
+   * Returns a copy that disables the wrapping of consumer records with {@code wrappingSwitch} while
+   * a batch span is started, so that reading the records of the batch doesn't create process spans.
+   */
+  public KafkaBatchProcessTracing withWrappingSwitch(WrappingSwitch wrappingSwitch) {
+    return new KafkaBatchProcessTracing(
+        batchInstrumenter, recordInstrumenter, propagator, wrappingSwitch);
+  }
+
+  /** Returns the records of a single partition as a batch, built when it is first requested. */
+  public static <K, V> Supplier<ConsumerRecords<K, V>> partitionBatch(
+      TopicPartition partition, List<ConsumerRecord<K, V>> records) {
+    return () -> new ConsumerRecords<>(Collections.singletonMap(partition, records));
+  }
+
+  /** Returns the records of a single topic as a batch, built when it is first requested. */
+  public static <K, V> Supplier<ConsumerRecords<K, V>> topicBatch(
+      ConsumerRecords<K, V> records, String topic) {
+    return () -> {
+      Map<TopicPartition, List<ConsumerRecord<K, V>>> topicRecords = new LinkedHashMap<>();
+      for (TopicPartition partition : records.partitions()) {
+        if (partition.topic().equals(topic)) {
+          topicRecords.put(partition, records.records(partition));
+        }
+      }
+      return new ConsumerRecords<>(topicRecords);
+    };
+  }
+
+  Context startBatch(Context parentContext, KafkaReceiveRequest request) {
+    // the links extractor iterates over the records of the batch
+    boolean previousValue = wrappingSwitch.setEnabled(false);
+    try {
+      return batchInstrumenter.start(parentContext, request);
+    } finally {
+      wrappingSwitch.setEnabled(previousValue);
+    }
+  }
+
+  void endBatch(Context context, KafkaReceiveRequest request) {
+    batchInstrumenter.end(context, request, null, null);
+  }
+
+  Instrumenter<KafkaProcessRequest, Void> recordInstrumenter() {
+    return recordInstrumenter;
+  }
+
+  boolean isProducerSpanSampled(KafkaProcessRequest request) {
+    Context extracted =
+        propagator.extract(Context.root(), request, KafkaConsumerRecordGetter.INSTANCE);
+    return Span.fromContext(extracted).getSpanContext().isSampled();
+  }
+}
@@ -37,6 +37,7 @@ public final class KafkaInstrumenterFactory {
   private List<String> capturedHeaders = emptyList();
   private boolean captureExperimentalSpanAttributes = false;
   private boolean messagingReceiveInstrumentationEnabled = false;
+  private int batchProcessMaxLinks = KafkaBatchProcessSpanLinksExtractor.UNLIMITED;
 
   public KafkaInstrumenterFactory(OpenTelemetry openTelemetry, String instrumentationName) {
     this.openTelemetry = openTelemetry;
@@ -69,6 +70,16 @@ public final class KafkaInstrumenterFactory {
     return this;
   }
 
+  /**
+   * Sets the maximum number of links to producer spans that are added to a batch process span.
+   * Links to sampled producer spans are preferred when there are more records in the batch.
+   */
+  @CanIgnoreReturnValue
+  public KafkaInstrumenterFactory setBatchProcessMaxLinks(int batchProcessMaxLinks) {
+    this.batchProcessMaxLinks = batchProcessMaxLinks;
+    return this;
+  }
+
   public Instrumenter<KafkaProducerRequest, RecordMetadata> createProducerInstrumenter() {
     return createProducerInstrumenter(Collections.emptyList());
   }
@@ -160,11 +171,24 @@ public final class KafkaInstrumenterFactory {
         .addAttributesExtractor(KafkaReceiveAttributesExtractor.INSTANCE)
         .addSpanLinksExtractor(
             new KafkaBatchProcessSpanLinksExtractor(
-                openTelemetry.getPropagators().getTextMapPropagator()))
+                openTelemetry.getPropagators().getTextMapPropagator(), batchProcessMaxLinks))
         .setErrorCauseExtractor(errorCauseExtractor)
         .buildInstrumenter(SpanKindExtractor.alwaysConsumer());
   }
 
+  /**
+   * Creates the tracing of consumed records in batches, with one process span for each batch and
+   * process spans created with {@code recordInstrumenter} only for records whose producer span was
+   * sampled.
+   */
+  public KafkaBatchProcessTracing createBatchProcessTracing(
+      Instrumenter<KafkaProcessRequest, Void> recordInstrumenter) {
+    return new KafkaBatchProcessTracing(
+        createBatchProcessInstrumenter(),
+        recordInstrumenter,
+        openTelemetry.getPropagators().getTextMapPropagator());
+  }
+
   private static <REQUEST, RESPONSE>
       AttributesExtractor<REQUEST, RESPONSE> buildMessagingAttributesExtractor(
           MessagingAttributesGetter<REQUEST, RESPONSE> getter,
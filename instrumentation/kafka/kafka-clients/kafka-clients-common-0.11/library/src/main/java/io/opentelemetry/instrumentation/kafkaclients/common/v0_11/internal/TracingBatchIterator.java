@@ -0,0 +1,175 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
+import java.util.Iterator;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+
+/**
+ * An iterator that creates a single process span for all records of a batch, see {@link
+ * KafkaBatchProcessTracing}. The batch span is started when the first record is read and ended when
+ * the iterator is exhausted. When the iteration is abandoned before, e.g. with a {@code break}, the
+ * batch span is ended when the next batch is started or the consumer polls again on the same
+ * thread, see {@link #endOpenBatch()}.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
+ */
+public class TracingBatchIterator<K, V> implements Iterator<ConsumerRecord<K, V>> {
+
+  // the iterator whose batch span is in scope on the current thread
+  private static final ThreadLocal<TracingBatchIterator<?, ?>> openBatch = new ThreadLocal<>();
+
+  private final Iterator<ConsumerRecord<K, V>> delegateIterator;
+  private final KafkaBatchProcessTracing tracing;
+  private final Supplier<? extends ConsumerRecords<?, ?>> batch;
+  private final BooleanSupplier wrappingEnabled;
+  private final KafkaConsumerContext consumerContext;
+
+  /*
+   * Note: this may potentially create problems if this iterator is used from different threads. But
+   * at the moment we cannot do much about this.
+   */
+  @Nullable private KafkaReceiveRequest batchRequest;
+  @Nullable private Context batchContext;
+  @Nullable private Scope batchScope;
+  @Nullable private KafkaProcessRequest currentRequest;
+  @Nullable private Context currentContext;
+  @Nullable private Scope currentScope;
+
+  private TracingBatchIterator(
+      Iterator<ConsumerRecord<K, V>> delegateIterator,
+      KafkaBatchProcessTracing tracing,
+      Supplier<? extends ConsumerRecords<?, ?>> batch,
+      BooleanSupplier wrappingEnabled,
+      KafkaConsumerContext consumerContext) {
+    this.delegateIterator = delegateIterator;
+    this.tracing = tracing;
+    this.batch = batch;
+    this.wrappingEnabled = wrappingEnabled;
+    this.consumerContext = consumerContext;
+  }
+
+  public static <K, V> Iterator<ConsumerRecord<K, V>> wrap(
+      Iterator<ConsumerRecord<K, V>> delegateIterator,
+      KafkaBatchProcessTracing tracing,
+      ConsumerRecords<?, ?> batch,
+      BooleanSupplier wrappingEnabled,
+      KafkaConsumerContext consumerContext) {
+    if (batch.isEmpty()) {
+      return delegateIterator;
+    }
+    return wrap(delegateIterator, tracing, () -> batch, wrappingEnabled, consumerContext);
+  }
+
+  /**
+   * Wraps {@code delegateIterator}, the records of the batch are only requested from {@code batch}
+   * when the first record is read.
+   */
+  public static <K, V> Iterator<ConsumerRecord<K, V>> wrap(
+      Iterator<ConsumerRecord<K, V>> delegateIterator,
+      KafkaBatchProcessTracing tracing,
+      Supplier<? extends ConsumerRecords<?, ?>> batch,
+      BooleanSupplier wrappingEnabled,
+      KafkaConsumerContext consumerContext) {
+    if (wrappingEnabled.getAsBoolean()) {
+      return new TracingBatchIterator<>(
+          delegateIterator, tracing, batch, wrappingEnabled, consumerContext);
+    }
+    return delegateIterator;
+  }
+
+  /**
+   * Ends the batch span whose iteration was abandoned before its last record on the current thread,
+   * and closes its scope. Called before the consumer polls again, so that the scope of the batch
+   * span doesn't leak into the processing of the following records.
+   */
+  public static void endOpenBatch() {
+    TracingBatchIterator<?, ?> iterator = openBatch.get();
+    if (iterator != null) {
+      iterator.closeScopeAndEndSpan();
+      iterator.closeScopeAndEndBatchSpan();
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    closeScopeAndEndSpan();
+    boolean hasNext = delegateIterator.hasNext();
+    if (!hasNext) {
+      closeScopeAndEndBatchSpan();
+    }
+    return hasNext;
+  }
+
+  @Override
+  public ConsumerRecord<K, V> next() {
+    // in case they didn't call hasNext()...
+    closeScopeAndEndSpan();
+
+    ConsumerRecord<K, V> next = delegateIterator.next();
+    if (next != null && wrappingEnabled.getAsBoolean()) {
+      if (batchRequest == null) {
+        // the scope of a batch span must not be the parent of this one
+        endOpenBatch();
+        Context receiveContext = consumerContext.getContext();
+        // use the receive CONSUMER as parent if it's available
+        Context parentContext = receiveContext != null ? receiveContext : Context.current();
+        batchRequest = KafkaReceiveRequest.create(consumerContext, batch.get());
+        batchContext = tracing.startBatch(parentContext, batchRequest);
+        batchScope = batchContext.makeCurrent();
+        openBatch.set(this);
+      }
+
+      KafkaProcessRequest request = KafkaProcessRequest.create(consumerContext, next);
+      // the batch span links to the producer spans, a process span for each record is only created
+      // when the record is part of a sampled trace
+      if (tracing.isProducerSpanSampled(request)) {
+        Instrumenter<KafkaProcessRequest, Void> instrumenter = tracing.recordInstrumenter();
+        currentRequest = request;
+        currentContext = instrumenter.start(Context.current(), request);
+        currentScope = currentContext.makeCurrent();
+      }
+    }
+    return next;
+  }
+
+  private void closeScopeAndEndSpan() {
+    if (currentScope != null) {
+      currentScope.close();
+      tracing.recordInstrumenter().end(currentContext, currentRequest, null, null);
+      currentScope = null;
+      currentRequest = null;
+      currentContext = null;
+    }
+  }
+
+  private void closeScopeAndEndBatchSpan() {
+    if (batchScope != null) {
+      batchScope.close();
+      tracing.endBatch(batchContext, batchRequest);
+      batchScope = null;
+      batchContext = null;
+      // the batch request is kept, so that the rest of an abandoned iteration doesn't start a
+      // second batch span
+      if (openBatch.get() == this) {
+        openBatch.remove();
+      }
+    }
+  }
+
+  @Override
+  public void remove() {
+    delegateIterator.remove();
+  }
+}
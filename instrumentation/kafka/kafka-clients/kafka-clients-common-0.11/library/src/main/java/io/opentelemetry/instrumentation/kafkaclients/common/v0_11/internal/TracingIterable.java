@@ -8,7 +8,10 @@ package io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import java.util.Iterator;
 import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
 
 /**
  * This class is internal and is hence not for public use. Its APIs are unstable and can change at
@@ -16,9 +19,7 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
  */
 public class TracingIterable<K, V> implements Iterable<ConsumerRecord<K, V>> {
   private final Iterable<ConsumerRecord<K, V>> delegate;
-  private final Instrumenter<KafkaProcessRequest, Void> instrumenter;
-  private final BooleanSupplier wrappingEnabled;
-  private final KafkaConsumerContext consumerContext;
+  private final UnaryOperator<Iterator<ConsumerRecord<K, V>>> iteratorWrapper;
   private boolean firstIterator = true;
 
   protected TracingIterable(
@@ -26,10 +27,16 @@ public class TracingIterable<K, V> implements Iterable<ConsumerRecord<K, V>> {
       Instrumenter<KafkaProcessRequest, Void> instrumenter,
       BooleanSupplier wrappingEnabled,
       KafkaConsumerContext consumerContext) {
+    this(
+        delegate,
+        iterator -> TracingIterator.wrap(iterator, instrumenter, wrappingEnabled, consumerContext));
+  }
+
+  protected TracingIterable(
+      Iterable<ConsumerRecord<K, V>> delegate,
+      UnaryOperator<Iterator<ConsumerRecord<K, V>>> iteratorWrapper) {
     this.delegate = delegate;
-    this.instrumenter = instrumenter;
-    this.wrappingEnabled = wrappingEnabled;
-    this.consumerContext = consumerContext;
+    this.iteratorWrapper = iteratorWrapper;
   }
 
   public static <K, V> Iterable<ConsumerRecord<K, V>> wrap(
@@ -43,6 +50,27 @@ public class TracingIterable<K, V> implements Iterable<ConsumerRecord<K, V>> {
     return delegate;
   }
 
+  /**
+   * Wraps the records of {@code batch} so that their first iteration is traced with a single batch
+   * process span, see {@link KafkaBatchProcessTracing}. The batch is only requested when the first
+   * record is read.
+   */
+  public static <K, V> Iterable<ConsumerRecord<K, V>> wrapBatch(
+      Iterable<ConsumerRecord<K, V>> delegate,
+      KafkaBatchProcessTracing tracing,
+      Supplier<? extends ConsumerRecords<?, ?>> batch,
+      BooleanSupplier wrappingEnabled,
+      KafkaConsumerContext consumerContext) {
+    if (wrappingEnabled.getAsBoolean()) {
+      return new TracingIterable<>(
+          delegate,
+          iterator ->
+              TracingBatchIterator.wrap(
+                  iterator, tracing, batch, wrappingEnabled, consumerContext));
+    }
+    return delegate;
+  }
+
   @Override
   public Iterator<ConsumerRecord<K, V>> iterator() {
     Iterator<ConsumerRecord<K, V>> it;
@@ -50,8 +78,7 @@ public class TracingIterable<K, V> implements Iterable<ConsumerRecord<K, V>> {
     // However, this is not thread-safe, but usually the first (hopefully only) traversal of
     // ConsumerRecords is performed in the same thread that called poll()
     if (firstIterator) {
-      it =
-          TracingIterator.wrap(delegate.iterator(), instrumenter, wrappingEnabled, consumerContext);
+      it = iteratorWrapper.apply(delegate.iterator());
       firstIterator = false;
     } else {
       it = delegate.iterator();
@@ -7,10 +7,14 @@ package io.opentelemetry.instrumentation.kafkaclients.common.v0_11.internal;
 
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
 
 /**
  * This class is internal and is hence not for public use. Its APIs are unstable and can change at
@@ -28,6 +32,13 @@ public class TracingList<K, V> extends TracingIterable<K, V> implements List<Con
     this.delegate = delegate;
   }
 
+  private TracingList(
+      List<ConsumerRecord<K, V>> delegate,
+      UnaryOperator<Iterator<ConsumerRecord<K, V>>> iteratorWrapper) {
+    super(delegate, iteratorWrapper);
+    this.delegate = delegate;
+  }
+
   public static <K, V> List<ConsumerRecord<K, V>> wrap(
       List<ConsumerRecord<K, V>> delegate,
       Instrumenter<KafkaProcessRequest, Void> instrumenter,
@@ -39,6 +50,27 @@ public class TracingList<K, V> extends TracingIterable<K, V> implements List<Con
     return delegate;
   }
 
+  /**
+   * Wraps the records of {@code batch} so that their first iteration is traced with a single batch
+   * process span, see {@link KafkaBatchProcessTracing}. The batch is only requested when the first
+   * record is read.
+   */
+  public static <K, V> List<ConsumerRecord<K, V>> wrapBatch(
+      List<ConsumerRecord<K, V>> delegate,
+      KafkaBatchProcessTracing tracing,
+      Supplier<? extends ConsumerRecords<?, ?>> batch,
+      BooleanSupplier wrappingEnabled,
+      KafkaConsumerContext consumerContext) {
+    if (wrappingEnabled.getAsBoolean()) {
+      return new TracingList<>(
+          delegate,
+          iterator ->
+              TracingBatchIterator.wrap(
+                  iterator, tracing, batch, wrappingEnabled, consumerContext));
+    }
+    return delegate;
+  }
+
   @Override
   public int size() {
     return delegate.size();
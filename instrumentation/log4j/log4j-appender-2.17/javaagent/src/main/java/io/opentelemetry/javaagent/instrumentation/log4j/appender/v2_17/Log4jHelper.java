@@ -8,9 +8,11 @@ package io.opentelemetry.javaagent.instrumentation.log4j.appender.v2_17;
 import static java.util.Collections.emptyList;
 
 import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributesBuilder;
 import io.opentelemetry.api.logs.LogRecordBuilder;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.instrumentation.api.incubator.config.internal.InstrumentationConfig;
+import io.opentelemetry.instrumentation.api.internal.AttributeKeyPlanCache;
 import io.opentelemetry.instrumentation.log4j.appender.v2_17.internal.ContextDataAccessor;
 import io.opentelemetry.instrumentation.log4j.appender.v2_17.internal.LogEventMapper;
 import io.opentelemetry.javaagent.bootstrap.internal.AgentInstrumentationConfig;
@@ -160,6 +162,14 @@ public final class Log4jHelper {
     public void forEach(Map<String, String> contextData, BiConsumer<String, String> action) {
       contextData.forEach(action);
     }
+
+    @Override
+    public void captureAll(
+        Map<String, String> contextData,
+        AttributeKeyPlanCache attributeKeyPlans,
+        AttributesBuilder attributes) {
+      attributeKeyPlans.putAll(attributes, contextData);
+    }
   }
 
   private Log4jHelper() {}
@@ -9,12 +9,14 @@ import static java.util.Collections.emptyList;
 
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributesBuilder;
 import io.opentelemetry.api.logs.LogRecordBuilder;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanContext;
 import io.opentelemetry.api.trace.TraceFlags;
 import io.opentelemetry.api.trace.TraceState;
 import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.api.internal.AttributeKeyPlanCache;
 import io.opentelemetry.instrumentation.log4j.appender.v2_17.internal.ContextDataAccessor;
 import io.opentelemetry.instrumentation.log4j.appender.v2_17.internal.LogEventMapper;
 import io.opentelemetry.instrumentation.log4j.contextdata.v2_17.internal.ContextDataKeys;
@@ -48,6 +50,7 @@ import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
 import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
 import org.apache.logging.log4j.core.time.Instant;
 import org.apache.logging.log4j.message.MapMessage;
+import org.apache.logging.log4j.util.IndexedReadOnlyStringMap;
 import org.apache.logging.log4j.util.ReadOnlyStringMap;
 
 @Plugin(
@@ -353,5 +356,44 @@ public class OpenTelemetryAppender extends AbstractAppender {
     public void forEach(ReadOnlyStringMap contextData, BiConsumer<String, String> action) {
       contextData.forEach(action::accept);
     }
+
+    @Override
+    public void captureAll(
+        ReadOnlyStringMap contextData,
+        AttributeKeyPlanCache attributeKeyPlans,
+        AttributesBuilder attributes) {
+      // the default context data implementation is indexed, its entries can be copied without
+      // allocating a lambda or iterator
+      if (contextData instanceof IndexedReadOnlyStringMap) {
+        attributeKeyPlans.putAll(
+            attributes,
+            (IndexedReadOnlyStringMap) contextData,
+            IndexedContextDataAccessor.INSTANCE);
+        return;
+      }
+      ContextDataAccessor.super.captureAll(contextData, attributeKeyPlans, attributes);
+    }
+  }
+
+  private enum IndexedContextDataAccessor
+      implements AttributeKeyPlanCache.IndexedMapAccessor<IndexedReadOnlyStringMap> {
+    INSTANCE;
+
+    @Override
+    public int size(IndexedReadOnlyStringMap contextData) {
+      return contextData.size();
+    }
+
+    @Override
+    public String getKey(IndexedReadOnlyStringMap contextData, int index) {
+      return contextData.getKeyAt(index);
+    }
+
+    @Override
+    @Nullable
+    public String getValue(IndexedReadOnlyStringMap contextData, int index) {
+      Object value = contextData.getValueAt(index);
+      return value != null ? value.toString() : null;
+    }
   }
 }
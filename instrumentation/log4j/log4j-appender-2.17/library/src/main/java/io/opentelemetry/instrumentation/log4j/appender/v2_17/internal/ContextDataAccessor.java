@@ -5,6 +5,8 @@
 
 package io.opentelemetry.instrumentation.log4j.appender.v2_17.internal;
 
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.instrumentation.api.internal.AttributeKeyPlanCache;
 import java.util.function.BiConsumer;
 import javax.annotation.Nullable;
 
@@ -18,4 +20,20 @@ public interface ContextDataAccessor<T> {
   String getValue(T contextData, String key);
 
   void forEach(T contextData, BiConsumer<String, String> action);
+
+  /**
+   * Adds all entries of the context data with a non-null value to {@code attributes}. Accessors for
+   * context data types that {@link AttributeKeyPlanCache} supports should override this to reuse
+   * the attribute keys resolved for the same key set.
+   */
+  default void captureAll(
+      T contextData, AttributeKeyPlanCache attributeKeyPlans, AttributesBuilder attributes) {
+    forEach(
+        contextData,
+        (key, value) -> {
+          if (value != null) {
+            attributes.put(LogEventMapper.getContextDataAttributeKey(key), value);
+          }
+        });
+  }
 }
@@ -11,6 +11,7 @@ import io.opentelemetry.api.common.AttributesBuilder;
 import io.opentelemetry.api.logs.LogRecordBuilder;
 import io.opentelemetry.api.logs.Severity;
 import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.api.internal.AttributeKeyPlanCache;
 import io.opentelemetry.instrumentation.api.internal.SemconvStability;
 import io.opentelemetry.instrumentation.api.internal.cache.Cache;
 import io.opentelemetry.semconv.CodeAttributes;
@@ -19,6 +20,7 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Marker;
@@ -48,6 +50,8 @@ public final class LogEventMapper<T> {
       Cache.bounded(100);
   private static final Cache<String, AttributeKey<String>> mapMessageAttributeKeyCache =
       Cache.bounded(100);
+  private static final AttributeKeyPlanCache contextDataAttributeKeyPlans =
+      AttributeKeyPlanCache.create(LogEventMapper::getContextDataAttributeKey);
 
   private static final AttributeKey<String> LOG_MARKER = AttributeKey.stringKey("log4j.marker");
 
@@ -58,6 +62,7 @@ public final class LogEventMapper<T> {
   private final boolean captureMapMessageAttributes;
   private final boolean captureMarkerAttribute;
   private final List<String> captureContextDataAttributes;
+  private final List<AttributeKey<String>> captureContextDataAttributeKeys;
   private final boolean captureAllContextDataAttributes;
 
   public LogEventMapper(
@@ -76,6 +81,10 @@ public final class LogEventMapper<T> {
     this.captureContextDataAttributes = captureContextDataAttributes;
     this.captureAllContextDataAttributes =
         captureContextDataAttributes.size() == 1 && captureContextDataAttributes.get(0).equals("*");
+    this.captureContextDataAttributeKeys =
+        captureContextDataAttributes.stream()
+            .map(LogEventMapper::getContextDataAttributeKey)
+            .collect(Collectors.toList());
   }
 
   /**
@@ -206,20 +215,14 @@ public final class LogEventMapper<T> {
   void captureContextDataAttributes(AttributesBuilder attributes, T contextData) {
 
     if (captureAllContextDataAttributes) {
-      contextDataAccessor.forEach(
-          contextData,
-          (key, value) -> {
-            if (value != null) {
-              attributes.put(getContextDataAttributeKey(key), value);
-            }
-          });
+      contextDataAccessor.captureAll(contextData, contextDataAttributeKeyPlans, attributes);
       return;
     }
 
-    for (String key : captureContextDataAttributes) {
-      String value = contextDataAccessor.getValue(contextData, key);
+    for (int i = 0; i < captureContextDataAttributes.size(); i++) {
+      String value = contextDataAccessor.getValue(contextData, captureContextDataAttributes.get(i));
       if (value != null) {
-        attributes.put(getContextDataAttributeKey(key), value);
+        attributes.put(captureContextDataAttributeKeys.get(i), value);
       }
     }
   }
@@ -1,6 +1,7 @@
 plugins {
   id("otel.library-instrumentation")
   id("org.graalvm.buildtools.native")
+  id("otel.jmh-conventions")
 }
 
 dependencies {
@@ -41,6 +42,18 @@ dependencies {
   }
 
   testImplementation("io.opentelemetry:opentelemetry-sdk-testing")
+
+  jmhImplementation("io.opentelemetry:opentelemetry-sdk")
+  jmhImplementation("ch.qos.logback:logback-classic") {
+    version {
+      strictly("1.3.0")
+    }
+  }
+  jmhImplementation("org.slf4j:slf4j-api") {
+    version {
+      strictly("2.0.0")
+    }
+  }
 }
 
 graalvmNative {
@@ -0,0 +1,114 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.logback.appender.v1_0;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.logs.LogRecordProcessor;
+import io.opentelemetry.sdk.logs.ReadWriteLogRecord;
+import io.opentelemetry.sdk.logs.SdkLoggerProvider;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+/**
+ * Measures the time a logging thread spends in the appender, with the log records mapped and
+ * emitted synchronously and asynchronously with the {@code drop} and {@code block} overflow
+ * policies.
+ *
+ * <p>run with ./gradlew -PjmhIncludeSingleClass=OpenTelemetryAppenderBenchmark
+ * :instrumentation:logback:logback-appender-1.0:library:jmh
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+@State(Scope.Benchmark)
+public class OpenTelemetryAppenderBenchmark {
+
+  @Param({"sync", "drop", "block"})
+  public String mode;
+
+  private OpenTelemetrySdk openTelemetry;
+  private LoggerContext loggerContext;
+  private Logger logger;
+
+  @Setup
+  public void setUp() {
+    openTelemetry =
+        OpenTelemetrySdk.builder()
+            .setLoggerProvider(
+                SdkLoggerProvider.builder()
+                    // log records are created but not exported
+                    .addLogRecordProcessor(
+                        new LogRecordProcessor() {
+                          @Override
+                          public void onEmit(Context context, ReadWriteLogRecord logRecord) {}
+                        })
+                    .build())
+            .build();
+
+    loggerContext = new LoggerContext();
+    OpenTelemetryAppender appender = new OpenTelemetryAppender();
+    appender.setContext(loggerContext);
+    appender.setName("OpenTelemetry");
+    appender.setCaptureExperimentalAttributes(true);
+    appender.setCaptureCodeAttributes(false);
+    appender.setCaptureArguments(true);
+    appender.setCaptureMdcAttributes("*");
+    if (!mode.equals("sync")) {
+      appender.setAsync(true);
+      appender.setAsyncOverflowPolicy(mode);
+    }
+    appender.start();
+    appender.setOpenTelemetry(openTelemetry);
+
+    logger = loggerContext.getLogger("benchmark");
+    logger.setAdditive(false);
+    logger.addAppender(appender);
+  }
+
+  @TearDown
+  public void tearDown() {
+    loggerContext.stop();
+    openTelemetry.close();
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    @Setup
+    public void setUp() {
+      MDC.put("request.id", "3f2b1c");
+      MDC.put("user.id", "42");
+    }
+
+    @TearDown
+    public void tearDown() {
+      MDC.clear();
+    }
+  }
+
+  @Benchmark
+  public void log(ThreadState threadState) {
+    logger.info("processed order {} in {} ms", "A-1042", 17);
+  }
+}
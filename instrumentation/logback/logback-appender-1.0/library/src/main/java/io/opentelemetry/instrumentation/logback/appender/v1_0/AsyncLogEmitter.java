@@ -0,0 +1,249 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.logback.appender.v1_0;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.logs.LoggerProvider;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongCounter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.logback.appender.v1_0.internal.LoggingEventMapper;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.Nullable;
+
+/**
+ * Emits log events on a background thread. The logging thread only takes a snapshot of the event
+ * and its context and adds it to a ring buffer, the mapping to a log record happens on the
+ * background thread.
+ */
+final class AsyncLogEmitter {
+
+  private static final String INSTRUMENTATION_NAME = "io.opentelemetry.logback-appender-1.0";
+  private static final AttributeKey<String> APPENDER_NAME =
+      AttributeKey.stringKey("logback.appender.name");
+
+  private static final int MAX_BATCH_SIZE = 512;
+  private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+  private static final long SHUTDOWN_TIMEOUT_MILLIS = 1000;
+
+  /** What to do with log events that are logged while the buffer is full. */
+  enum OverflowPolicy {
+    /** Events that don't fit in the buffer are dropped. */
+    DROP,
+    /** The logging thread waits until there is space in the buffer. */
+    BLOCK,
+    /**
+     * Once the buffer is three quarters full events below {@code WARN} are sampled, with a
+     * probability that falls to zero as the buffer fills up. Events that don't fit are dropped.
+     */
+    SAMPLE
+  }
+
+  private final LoggingEventMapper mapper;
+  private final OverflowPolicy overflowPolicy;
+  private final boolean captureExperimentalAttributes;
+  private final boolean captureCodeAttributes;
+  private final boolean captureMdcAttributes;
+  private final boolean captureArguments;
+  private final MpscRingBuffer<Entry> buffer;
+  private final int sampleThreshold;
+  private final LongAdder droppedCount = new LongAdder();
+  private final Attributes metricAttributes;
+  private final Thread worker;
+
+  private volatile boolean running = true;
+  private volatile boolean workerParked;
+  @Nullable private volatile LoggerProvider loggerProvider;
+  @Nullable private ObservableLongGauge queueSizeGauge;
+  @Nullable private ObservableLongCounter droppedCounter;
+
+  AsyncLogEmitter(
+      String appenderName,
+      int queueSize,
+      OverflowPolicy overflowPolicy,
+      LoggingEventMapper mapper,
+      boolean captureExperimentalAttributes,
+      boolean captureCodeAttributes,
+      boolean captureMdcAttributes,
+      boolean captureArguments) {
+    this.mapper = mapper;
+    this.overflowPolicy = overflowPolicy;
+    this.captureExperimentalAttributes = captureExperimentalAttributes;
+    this.captureCodeAttributes = captureCodeAttributes;
+    this.captureMdcAttributes = captureMdcAttributes;
+    this.captureArguments = captureArguments;
+    this.buffer = new MpscRingBuffer<>(queueSize);
+    this.sampleThreshold = buffer.capacity() - buffer.capacity() / 4;
+    this.metricAttributes =
+        appenderName != null ? Attributes.of(APPENDER_NAME, appenderName) : Attributes.empty();
+
+    worker =
+        new Thread(
+            this::run, appenderName != null ? "otel-logback-" + appenderName : "otel-logback");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  void setOpenTelemetry(OpenTelemetry openTelemetry) {
+    closeMetrics();
+    loggerProvider = openTelemetry.getLogsBridge();
+    // the worker doesn't emit anything before the logger provider is set, wake it up to emit the
+    // events that were logged in the meantime
+    LockSupport.unpark(worker);
+
+    Meter meter = openTelemetry.getMeter(INSTRUMENTATION_NAME);
+    queueSizeGauge =
+        meter
+            .gaugeBuilder("logback.appender.queue.size")
+            .ofLongs()
+            .setUnit("{log_record}")
+            .setDescription("The number of log records waiting to be emitted.")
+            .buildWithCallback(measurement -> measurement.record(buffer.size(), metricAttributes));
+    droppedCounter =
+        meter
+            .counterBuilder("logback.appender.dropped")
+            .setUnit("{log_record}")
+            .setDescription("The number of log records dropped because the queue was full.")
+            .buildWithCallback(
+                measurement -> measurement.record(droppedCount.sum(), metricAttributes));
+  }
+
+  /** Returns the number of dropped log events. */
+  long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  void emit(ILoggingEvent event) {
+    if (overflowPolicy == OverflowPolicy.SAMPLE && !sample(event)) {
+      droppedCount.increment();
+      return;
+    }
+
+    Entry entry =
+        new Entry(
+            new LoggingEventToReplay(
+                event,
+                captureExperimentalAttributes,
+                captureCodeAttributes,
+                captureMdcAttributes,
+                captureArguments),
+            Context.current());
+    if (!buffer.offer(entry) && !(overflowPolicy == OverflowPolicy.BLOCK && offerBlocking(entry))) {
+      droppedCount.increment();
+      return;
+    }
+    if (workerParked) {
+      LockSupport.unpark(worker);
+    }
+  }
+
+  private boolean sample(ILoggingEvent event) {
+    int size = buffer.size();
+    if (size <= sampleThreshold) {
+      return true;
+    }
+    Level level = event.getLevel();
+    if (level != null && level.isGreaterOrEqual(Level.WARN)) {
+      return true;
+    }
+    double keepProbability =
+        (double) (buffer.capacity() - size) / (buffer.capacity() - sampleThreshold);
+    return ThreadLocalRandom.current().nextDouble() < keepProbability;
+  }
+
+  private boolean offerBlocking(Entry entry) {
+    // the worker can't wait for itself, e.g. when the exporter logs
+    if (Thread.currentThread() == worker) {
+      return false;
+    }
+    while (running) {
+      LockSupport.unpark(worker);
+      LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+      if (buffer.offer(entry)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Stops the background thread after it has emitted the buffered log events. */
+  void stop() {
+    running = false;
+    LockSupport.unpark(worker);
+    try {
+      worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    closeMetrics();
+  }
+
+  private void closeMetrics() {
+    if (queueSizeGauge != null) {
+      queueSizeGauge.close();
+      queueSizeGauge = null;
+    }
+    if (droppedCounter != null) {
+      droppedCounter.close();
+      droppedCounter = null;
+    }
+  }
+
+  private void run() {
+    while (running) {
+      if (drain() == 0) {
+        workerParked = true;
+        // re-check after publishing the flag so that a concurrent emit can't be missed, emit,
+        // setOpenTelemetry and stop all unpark the worker
+        if (running && (buffer.size() == 0 || loggerProvider == null)) {
+          LockSupport.park(this);
+        }
+        workerParked = false;
+      }
+    }
+    // emit what is left in the buffer
+    int drained;
+    do {
+      drained = drain();
+    } while (drained > 0);
+  }
+
+  private int drain() {
+    LoggerProvider loggerProvider = this.loggerProvider;
+    if (loggerProvider == null) {
+      return 0;
+    }
+    int count = 0;
+    Entry entry;
+    while (count < MAX_BATCH_SIZE && (entry = buffer.poll()) != null) {
+      try {
+        mapper.emit(loggerProvider, entry.event, -1, entry.context);
+      } catch (RuntimeException ignored) {
+        // a failure to emit one event must not stop the worker
+      }
+      count++;
+    }
+    return count;
+  }
+
+  private static final class Entry {
+    final ILoggingEvent event;
+    final Context context;
+
+    Entry(ILoggingEvent event, Context context) {
+      this.event = event;
+      this.context = context;
+    }
+  }
+}
@@ -9,6 +9,7 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.IThrowableProxy;
 import ch.qos.logback.classic.spi.LoggerContextVO;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.slf4j.Marker;
@@ -18,17 +19,29 @@ class LoggingEventToReplay implements ILoggingEvent {
 
   private final ILoggingEvent loggingEvent;
   private final long timeStamp;
+  private final Map<String, String> mdcPropertyMap;
+  private final String formattedMessage;
+  private final Object[] argumentArray;
   private StackTraceElement[] callerData;
   private String threadName;
 
   LoggingEventToReplay(
       ILoggingEvent loggingEvent,
       boolean captureExperimentalAttributes,
-      boolean captureCodeAttributes) {
+      boolean captureCodeAttributes,
+      boolean captureMdcAttributes,
+      boolean captureArguments) {
     this.loggingEvent = loggingEvent;
     // The values are copied because the current values are not more available when the log is
     // replayed
     this.timeStamp = loggingEvent.getTimeStamp();
+    // the arguments may be mutated by the caller after the log call returns, so the message and
+    // the arguments are formatted on the logging thread
+    this.formattedMessage = loggingEvent.getFormattedMessage();
+    this.argumentArray = captureArguments ? toStrings(loggingEvent.getArgumentArray()) : null;
+    // the MDC is read from the current thread when it is first accessed
+    this.mdcPropertyMap =
+        captureMdcAttributes ? loggingEvent.getMDCPropertyMap() : Collections.emptyMap();
     if (captureExperimentalAttributes) {
       this.threadName = loggingEvent.getThreadName();
     }
@@ -37,6 +50,17 @@ class LoggingEventToReplay implements ILoggingEvent {
     }
   }
 
+  private static Object[] toStrings(Object[] arguments) {
+    if (arguments == null) {
+      return null;
+    }
+    Object[] strings = new Object[arguments.length];
+    for (int i = 0; i < arguments.length; i++) {
+      strings[i] = String.valueOf(arguments[i]);
+    }
+    return strings;
+  }
+
   @Override
   public String getThreadName() {
     return threadName;
@@ -54,12 +78,12 @@ class LoggingEventToReplay implements ILoggingEvent {
 
   @Override
   public Object[] getArgumentArray() {
-    return loggingEvent.getArgumentArray();
+    return argumentArray;
   }
 
   @Override
   public String getFormattedMessage() {
-    return loggingEvent.getFormattedMessage();
+    return formattedMessage;
   }
 
   @Override
@@ -100,13 +124,13 @@ class LoggingEventToReplay implements ILoggingEvent {
 
   @Override
   public Map<String, String> getMDCPropertyMap() {
-    return loggingEvent.getMDCPropertyMap();
+    return mdcPropertyMap;
   }
 
-  @SuppressWarnings("deprecation") // Delegate
+  @SuppressWarnings("deprecation") // overrides a deprecated method
   @Override
   public Map<String, String> getMdc() {
-    return loggingEvent.getMdc();
+    return mdcPropertyMap;
   }
 
   @Override
@@ -0,0 +1,84 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.logback.appender.v1_0;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+
+/**
+ * A bounded lock-free queue for many producers and a single consumer. Producers claim a slot by
+ * advancing the producer index and then publish the element into the slot, the consumer treats an
+ * empty slot below the producer index as not yet published.
+ */
+final class MpscRingBuffer<T> {
+
+  private final AtomicReferenceArray<T> buffer;
+  private final int mask;
+  private final AtomicLong producerIndex = new AtomicLong();
+  // only written by the consumer thread
+  private final AtomicLong consumerIndex = new AtomicLong();
+
+  MpscRingBuffer(int requestedCapacity) {
+    int capacity = roundToPowerOfTwo(requestedCapacity);
+    buffer = new AtomicReferenceArray<>(capacity);
+    mask = capacity - 1;
+  }
+
+  private static int roundToPowerOfTwo(int value) {
+    if (value <= 1) {
+      return 1;
+    }
+    if (value > 1 << 30) {
+      return 1 << 30;
+    }
+    return Integer.highestOneBit(value - 1) << 1;
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+
+  /** Returns the number of elements in the buffer, including the ones not yet published. */
+  int size() {
+    // read the consumer index first so that the difference can't be negative
+    long consumer = consumerIndex.get();
+    long producer = producerIndex.get();
+    return (int) (producer - consumer);
+  }
+
+  /** Adds an element, returns {@code false} when the buffer is full. */
+  boolean offer(T element) {
+    long capacity = mask + 1L;
+    while (true) {
+      long producer = producerIndex.get();
+      if (producer - consumerIndex.get() >= capacity) {
+        return false;
+      }
+      if (producerIndex.compareAndSet(producer, producer + 1)) {
+        buffer.lazySet((int) (producer & mask), element);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest element, returns {@code null} when the buffer is empty or the oldest element
+   * is not yet published. Must only be called from the consumer thread.
+   */
+  @Nullable
+  T poll() {
+    long consumer = consumerIndex.get();
+    int index = (int) (consumer & mask);
+    T element = buffer.get(index);
+    if (element == null) {
+      return null;
+    }
+    buffer.lazySet(index, null);
+    consumerIndex.lazySet(consumer + 1);
+    return element;
+  }
+}
@@ -17,6 +17,7 @@ import io.opentelemetry.instrumentation.logback.appender.v1_0.internal.LoggingEv
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -24,6 +25,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.slf4j.ILoggerFactory;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -38,9 +40,13 @@ public class OpenTelemetryAppender extends UnsynchronizedAppenderBase<ILoggingEv
   private boolean captureArguments = false;
   private boolean captureLogstashAttributes = false;
   private List<String> captureMdcAttributes = emptyList();
+  private boolean async = false;
+  private int asyncQueueSize = 8192;
+  private AsyncLogEmitter.OverflowPolicy asyncOverflowPolicy = AsyncLogEmitter.OverflowPolicy.DROP;
 
   private volatile OpenTelemetry openTelemetry;
   private LoggingEventMapper mapper;
+  @Nullable private AsyncLogEmitter asyncEmitter;
 
   private int numLogsCapturedBeforeOtelInstall = 1000;
   private BlockingQueue<LoggingEventToReplay> eventsToReplay =
@@ -90,9 +96,39 @@ public class OpenTelemetryAppender extends UnsynchronizedAppenderBase<ILoggingEv
             .setCaptureLogstashAttributes(captureLogstashAttributes)
             .build();
     eventsToReplay = new ArrayBlockingQueue<>(numLogsCapturedBeforeOtelInstall);
+    if (asyncEmitter != null) {
+      asyncEmitter.stop();
+      asyncEmitter = null;
+    }
+    if (async) {
+      asyncEmitter =
+          new AsyncLogEmitter(
+              getName(),
+              asyncQueueSize,
+              asyncOverflowPolicy,
+              mapper,
+              captureExperimentalAttributes,
+              captureCodeAttributes,
+              !captureMdcAttributes.isEmpty(),
+              captureArguments);
+      OpenTelemetry openTelemetry = this.openTelemetry;
+      if (openTelemetry != null) {
+        asyncEmitter.setOpenTelemetry(openTelemetry);
+      }
+    }
     super.start();
   }
 
+  @Override
+  public void stop() {
+    super.stop();
+    AsyncLogEmitter asyncEmitter = this.asyncEmitter;
+    if (asyncEmitter != null) {
+      asyncEmitter.stop();
+      this.asyncEmitter = null;
+    }
+  }
+
   @SuppressWarnings("SystemOut")
   @Override
   protected void append(ILoggingEvent event) {
@@ -113,7 +149,12 @@ public class OpenTelemetryAppender extends UnsynchronizedAppenderBase<ILoggingEv
       }
 
       LoggingEventToReplay logEventToReplay =
-          new LoggingEventToReplay(event, captureExperimentalAttributes, captureCodeAttributes);
+          new LoggingEventToReplay(
+              event,
+              captureExperimentalAttributes,
+              captureCodeAttributes,
+              !captureMdcAttributes.isEmpty(),
+              captureArguments);
 
       if (!eventsToReplay.offer(logEventToReplay) && !replayLimitWarningLogged.getAndSet(true)) {
         String message =
@@ -200,6 +241,39 @@ public class OpenTelemetryAppender extends UnsynchronizedAppenderBase<ILoggingEv
     }
   }
 
+  /**
+   * Sets whether logs should be emitted asynchronously. When enabled the logging thread only takes
+   * a snapshot of the log event and adds it to a bounded queue, the log records are created and
+   * emitted on a background thread.
+   */
+  public void setAsync(boolean async) {
+    this.async = async;
+  }
+
+  /**
+   * Sets the number of log events that can wait to be emitted when logs are emitted
+   * asynchronously. The value is rounded up to a power of two.
+   */
+  public void setAsyncQueueSize(int asyncQueueSize) {
+    this.asyncQueueSize = asyncQueueSize;
+  }
+
+  /**
+   * Sets what happens to log events when the queue of asynchronously emitted logs is full: {@code
+   * drop} drops them, {@code block} waits for space in the queue and {@code sample} drops a growing
+   * share of the log events below {@code WARN} once the queue is three quarters full.
+   */
+  public void setAsyncOverflowPolicy(String asyncOverflowPolicy) {
+    try {
+      this.asyncOverflowPolicy =
+          AsyncLogEmitter.OverflowPolicy.valueOf(
+              asyncOverflowPolicy.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      addWarn("Unknown asyncOverflowPolicy " + asyncOverflowPolicy + ", using drop");
+      this.asyncOverflowPolicy = AsyncLogEmitter.OverflowPolicy.DROP;
+    }
+  }
+
   /**
    * Log telemetry is emitted after the initialization of the OpenTelemetry Logback appender with an
    * {@link OpenTelemetry} object. This setting allows you to modify the size of the cache used to
@@ -215,6 +289,10 @@ public class OpenTelemetryAppender extends UnsynchronizedAppenderBase<ILoggingEv
    */
   public void setOpenTelemetry(OpenTelemetry openTelemetry) {
     List<LoggingEventToReplay> eventsToReplay = new ArrayList<>();
+    AsyncLogEmitter asyncEmitter = this.asyncEmitter;
+    if (asyncEmitter != null && openTelemetry != null) {
+      asyncEmitter.setOpenTelemetry(openTelemetry);
+    }
     Lock writeLock = lock.writeLock();
     writeLock.lock();
     try {
@@ -234,6 +312,11 @@ public class OpenTelemetryAppender extends UnsynchronizedAppenderBase<ILoggingEv
   }
 
   private void emit(OpenTelemetry openTelemetry, ILoggingEvent event) {
+    AsyncLogEmitter asyncEmitter = this.asyncEmitter;
+    if (asyncEmitter != null) {
+      asyncEmitter.emit(event);
+      return;
+    }
     mapper.emit(openTelemetry.getLogsBridge(), event, -1);
   }
 
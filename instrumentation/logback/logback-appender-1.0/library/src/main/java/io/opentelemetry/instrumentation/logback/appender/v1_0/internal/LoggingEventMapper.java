@@ -21,6 +21,7 @@ import io.opentelemetry.api.logs.LogRecordBuilder;
 import io.opentelemetry.api.logs.LoggerProvider;
 import io.opentelemetry.api.logs.Severity;
 import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.api.internal.AttributeKeyPlanCache;
 import io.opentelemetry.instrumentation.api.internal.SemconvStability;
 import io.opentelemetry.instrumentation.api.internal.cache.Cache;
 import io.opentelemetry.javaagent.tooling.muzzle.NoMuzzle;
@@ -66,6 +67,8 @@ public final class LoggingEventMapper {
   private static final boolean supportsLogstashMarkers = supportsLogstashMarkers();
   private static final Cache<String, AttributeKey<String>> mdcAttributeKeys = Cache.bounded(100);
   private static final Cache<String, AttributeKey<String>> attributeKeys = Cache.bounded(100);
+  private static final AttributeKeyPlanCache mdcAttributeKeyPlans =
+      AttributeKeyPlanCache.create(LoggingEventMapper::getMdcAttributeKey);
 
   private static final AttributeKey<List<String>> LOG_MARKER =
       AttributeKey.stringArrayKey("logback.marker");
@@ -76,6 +79,7 @@ public final class LoggingEventMapper {
 
   private final boolean captureExperimentalAttributes;
   private final List<String> captureMdcAttributes;
+  private final List<AttributeKey<String>> captureMdcAttributeKeys;
   private final boolean captureAllMdcAttributes;
   private final boolean captureCodeAttributes;
   private final boolean captureMarkerAttribute;
@@ -95,6 +99,10 @@ public final class LoggingEventMapper {
     this.captureLogstashAttributes = builder.captureLogstashAttributes;
     this.captureAllMdcAttributes =
         builder.captureMdcAttributes.size() == 1 && builder.captureMdcAttributes.get(0).equals("*");
+    this.captureMdcAttributeKeys =
+        builder.captureMdcAttributes.stream()
+            .map(LoggingEventMapper::getMdcAttributeKey)
+            .collect(Collectors.toList());
   }
 
   public static Builder builder() {
@@ -102,19 +110,28 @@ public final class LoggingEventMapper {
   }
 
   public void emit(LoggerProvider loggerProvider, ILoggingEvent event, long threadId) {
+    emit(loggerProvider, event, threadId, Context.current());
+  }
+
+  /**
+   * Emits the {@code event} with the given {@code context} instead of the current one, used when
+   * the event is emitted on a different thread than the one it was logged on.
+   */
+  public void emit(
+      LoggerProvider loggerProvider, ILoggingEvent event, long threadId, Context context) {
     String instrumentationName = event.getLoggerName();
     if (instrumentationName == null || instrumentationName.isEmpty()) {
       instrumentationName = "ROOT";
     }
     LogRecordBuilder builder =
         loggerProvider.loggerBuilder(instrumentationName).build().logRecordBuilder();
-    mapLoggingEvent(builder, event, threadId);
+    mapLoggingEvent(builder, event, threadId, context);
     builder.emit();
   }
 
   /** Map the {@link ILoggingEvent} data model onto the {@link LogRecordBuilder}. */
   private void mapLoggingEvent(
-      LogRecordBuilder builder, ILoggingEvent loggingEvent, long threadId) {
+      LogRecordBuilder builder, ILoggingEvent loggingEvent, long threadId, Context context) {
     // message
     String message = loggingEvent.getFormattedMessage();
     if (message != null) {
@@ -216,7 +233,7 @@ public final class LoggingEventMapper {
     builder.setAllAttributes(attributes.build());
 
     // span context
-    builder.setContext(Context.current());
+    builder.setContext(context);
   }
 
   // getInstant is available since Logback 1.3
@@ -244,16 +261,14 @@ public final class LoggingEventMapper {
   // visible for testing
   void captureMdcAttributes(AttributesBuilder attributes, Map<String, String> mdcProperties) {
     if (captureAllMdcAttributes) {
-      for (Map.Entry<String, String> entry : mdcProperties.entrySet()) {
-        attributes.put(getMdcAttributeKey(entry.getKey()), entry.getValue());
-      }
+      mdcAttributeKeyPlans.putAll(attributes, mdcProperties);
       return;
     }
 
-    for (String key : captureMdcAttributes) {
-      String value = mdcProperties.get(key);
+    for (int i = 0; i < captureMdcAttributes.size(); i++) {
+      String value = mdcProperties.get(captureMdcAttributes.get(i));
       if (value != null) {
-        attributes.put(getMdcAttributeKey(key), value);
+        attributes.put(captureMdcAttributeKeys.get(i), value);
       }
     }
   }
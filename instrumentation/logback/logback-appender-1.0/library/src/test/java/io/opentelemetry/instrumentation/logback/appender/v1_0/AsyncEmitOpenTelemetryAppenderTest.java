@@ -0,0 +1,247 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.logback.appender.v1_0;
+
+import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.assertThat;
+import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.equalTo;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.testing.junit.InstrumentationExtension;
+import io.opentelemetry.instrumentation.testing.junit.LibraryInstrumentationExtension;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.logs.LogRecordProcessor;
+import io.opentelemetry.sdk.logs.ReadWriteLogRecord;
+import io.opentelemetry.sdk.logs.SdkLoggerProvider;
+import io.opentelemetry.sdk.logs.export.SimpleLogRecordProcessor;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.testing.exporter.InMemoryLogRecordExporter;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class AsyncEmitOpenTelemetryAppenderTest extends AbstractOpenTelemetryAppenderTest {
+
+  private static final AttributeKey<String> APPENDER_NAME =
+      AttributeKey.stringKey("logback.appender.name");
+  private static final AttributeKey<List<String>> LOG_BODY_PARAMETERS =
+      AttributeKey.stringArrayKey("log.body.parameters");
+
+  @RegisterExtension
+  private static final LibraryInstrumentationExtension testing =
+      LibraryInstrumentationExtension.create();
+
+  @BeforeEach
+  void setup() {
+    setAsync(true);
+    OpenTelemetryAppender.install(testing.getOpenTelemetry());
+  }
+
+  @AfterEach
+  void cleanup() {
+    setAsync(false);
+  }
+
+  // restarts the appender configured in logback-test.xml
+  private static void setAsync(boolean async) {
+    LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    OpenTelemetryAppender appender =
+        (OpenTelemetryAppender)
+            loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).getAppender("OpenTelemetry");
+    appender.stop();
+    appender.setAsync(async);
+    appender.start();
+  }
+
+  @Override
+  protected InstrumentationExtension getTesting() {
+    return testing;
+  }
+
+  @Test
+  void logWithSpan() {
+    Span span =
+        testing.runWithSpan(
+            "span",
+            () -> {
+              logger.info("log message 1");
+              return Span.current();
+            });
+
+    logger.info("log message 2");
+
+    testing.waitAndAssertLogRecords(
+        logRecord -> logRecord.hasBody("log message 1").hasSpanContext(span.getSpanContext()),
+        logRecord -> logRecord.hasBody("log message 2").hasSpanContext(SpanContext.getInvalid()));
+  }
+
+  @Test
+  void logsAreDroppedWhenQueueIsFull() throws InterruptedException {
+    CountDownLatch emitting = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    InMemoryLogRecordExporter logRecordExporter = InMemoryLogRecordExporter.create();
+    InMemoryMetricReader metricReader = InMemoryMetricReader.create();
+    OpenTelemetrySdk openTelemetry =
+        OpenTelemetrySdk.builder()
+            .setLoggerProvider(
+                SdkLoggerProvider.builder()
+                    .addLogRecordProcessor(
+                        new LogRecordProcessor() {
+                          @Override
+                          public void onEmit(Context context, ReadWriteLogRecord logRecord) {
+                            emitting.countDown();
+                            try {
+                              release.await(10, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                              Thread.currentThread().interrupt();
+                            }
+                          }
+                        })
+                    .addLogRecordProcessor(SimpleLogRecordProcessor.create(logRecordExporter))
+                    .build())
+            .setMeterProvider(SdkMeterProvider.builder().registerMetricReader(metricReader).build())
+            .build();
+
+    LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    OpenTelemetryAppender appender = new OpenTelemetryAppender();
+    appender.setContext(loggerContext);
+    appender.setName("blocked");
+    appender.setAsync(true);
+    appender.setAsyncQueueSize(2);
+    appender.setAsyncOverflowPolicy("drop");
+    appender.start();
+    appender.setOpenTelemetry(openTelemetry);
+    ch.qos.logback.classic.Logger blockedLogger = loggerContext.getLogger("BlockedLogger");
+    blockedLogger.setAdditive(false);
+    blockedLogger.addAppender(appender);
+
+    try {
+      // the background thread blocks while emitting the first log
+      blockedLogger.info("log message 1");
+      assertThat(emitting.await(10, TimeUnit.SECONDS)).isTrue();
+      // fills the queue
+      blockedLogger.info("log message 2");
+      blockedLogger.info("log message 3");
+      // dropped
+      blockedLogger.info("log message 4");
+      blockedLogger.info("log message 5");
+
+      assertThat(metricReader.collectAllMetrics())
+          .satisfiesExactlyInAnyOrder(
+              metric ->
+                  assertThat(metric)
+                      .hasName("logback.appender.queue.size")
+                      .hasLongGaugeSatisfying(
+                          gauge ->
+                              gauge.hasPointsSatisfying(
+                                  point ->
+                                      point
+                                          .hasValue(2)
+                                          .hasAttributesSatisfyingExactly(
+                                              equalTo(APPENDER_NAME, "blocked")))),
+              metric ->
+                  assertThat(metric)
+                      .hasName("logback.appender.dropped")
+                      .hasLongSumSatisfying(
+                          sum ->
+                              sum.isMonotonic()
+                                  .hasPointsSatisfying(
+                                      point ->
+                                          point
+                                              .hasValue(2)
+                                              .hasAttributesSatisfyingExactly(
+                                                  equalTo(APPENDER_NAME, "blocked")))));
+    } finally {
+      release.countDown();
+      // emits the queued logs
+      appender.stop();
+      blockedLogger.detachAppender(appender);
+      openTelemetry.close();
+    }
+
+    assertThat(
+            logRecordExporter.getFinishedLogRecordItems().stream()
+                .map(logRecord -> logRecord.getBodyValue().asString())
+                .collect(Collectors.toList()))
+        .containsExactly("log message 1", "log message 2", "log message 3");
+  }
+
+  @Test
+  void argumentsAreFormattedOnLoggingThread() throws InterruptedException {
+    CountDownLatch emitting = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    InMemoryLogRecordExporter logRecordExporter = InMemoryLogRecordExporter.create();
+    OpenTelemetrySdk openTelemetry =
+        OpenTelemetrySdk.builder()
+            .setLoggerProvider(
+                SdkLoggerProvider.builder()
+                    .addLogRecordProcessor(
+                        new LogRecordProcessor() {
+                          @Override
+                          public void onEmit(Context context, ReadWriteLogRecord logRecord) {
+                            emitting.countDown();
+                            try {
+                              release.await(10, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                              Thread.currentThread().interrupt();
+                            }
+                          }
+                        })
+                    .addLogRecordProcessor(SimpleLogRecordProcessor.create(logRecordExporter))
+                    .build())
+            .build();
+
+    LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    OpenTelemetryAppender appender = new OpenTelemetryAppender();
+    appender.setContext(loggerContext);
+    appender.setName("mutated");
+    appender.setAsync(true);
+    appender.setCaptureArguments(true);
+    appender.start();
+    appender.setOpenTelemetry(openTelemetry);
+    ch.qos.logback.classic.Logger mutatedLogger = loggerContext.getLogger("MutatedLogger");
+    mutatedLogger.setAdditive(false);
+    mutatedLogger.addAppender(appender);
+
+    try {
+      // the background thread blocks while emitting the first log, so the second log is still
+      // queued when its argument is mutated
+      mutatedLogger.info("log message 1");
+      assertThat(emitting.await(10, TimeUnit.SECONDS)).isTrue();
+      StringBuilder argument = new StringBuilder("before");
+      mutatedLogger.info("log message {}", argument);
+      argument.setLength(0);
+      argument.append("after");
+    } finally {
+      release.countDown();
+      // emits the queued logs
+      appender.stop();
+      mutatedLogger.detachAppender(appender);
+      openTelemetry.close();
+    }
+
+    assertThat(logRecordExporter.getFinishedLogRecordItems())
+        .satisfiesExactly(
+            logRecord -> assertThat(logRecord).hasBody("log message 1"),
+            logRecord ->
+                assertThat(logRecord)
+                    .hasBody("log message before")
+                    .hasAttributesSatisfying(
+                        equalTo(LOG_BODY_PARAMETERS, Collections.singletonList("before"))));
+  }
+}
@@ -10,6 +10,7 @@ import com.mongodb.ServerAddress;
 import com.mongodb.connection.ConnectionDescription;
 import com.mongodb.event.CommandStartedEvent;
 import io.opentelemetry.instrumentation.api.incubator.semconv.db.DbClientAttributesGetter;
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
@@ -29,20 +30,14 @@ class MongoDbAttributesGetter implements DbClientAttributesGetter<CommandStarted
   // copied from DbIncubatingAttributes.DbSystemIncubatingValues
   private static final String MONGODB = "mongodb";
 
-  @Nullable private static final Method IS_TRUNCATED_METHOD;
   private static final String HIDDEN_CHAR = "?";
-
-  static {
-    IS_TRUNCATED_METHOD =
-        Arrays.stream(JsonWriter.class.getMethods())
-            .filter(method -> method.getName().equals("isTruncated"))
-            .findFirst()
-            .orElse(null);
-  }
+  // commands with a longer shape, like inserts of many documents, are not cached
+  private static final int MAX_CACHED_SHAPE_LENGTH = 1024;
 
   private final boolean statementSanitizationEnabled;
   private final int maxNormalizedQueryLength;
   @Nullable private final JsonWriterSettings jsonWriterSettings;
+  private final Cache<String, String> sanitizedStatementCache = Cache.bounded(1000);
 
   MongoDbAttributesGetter(boolean statementSanitizationEnabled, int maxNormalizedQueryLength) {
     this.statementSanitizationEnabled = statementSanitizationEnabled;
@@ -108,6 +103,18 @@ class MongoDbAttributesGetter implements DbClientAttributesGetter<CommandStarted
   }
 
   String sanitizeStatement(BsonDocument command) {
+    if (statementSanitizationEnabled) {
+      // commands with the same shape have the same sanitized statement
+      String shape =
+          StatementShape.compute(command, maxNormalizedQueryLength, MAX_CACHED_SHAPE_LENGTH);
+      if (shape != null) {
+        return sanitizedStatementCache.computeIfAbsent(shape, unused -> writeStatement(command));
+      }
+    }
+    return writeStatement(command);
+  }
+
+  private String writeStatement(BsonDocument command) {
     StringBuilderWriter stringWriter = new StringBuilderWriter(128);
     // jsonWriterSettings is generally not null but could be due to security manager or unknown
     // API incompatibilities, which we can't detect by Muzzle because we use reflection.
@@ -116,15 +123,15 @@ class MongoDbAttributesGetter implements DbClientAttributesGetter<CommandStarted
             ? new JsonWriter(stringWriter, jsonWriterSettings)
             : new JsonWriter(stringWriter);
 
+    StringBuilder buf = stringWriter.getBuilder();
     if (statementSanitizationEnabled) {
-      writeScrubbed(command, jsonWriter, /* isRoot= */ true);
+      writeScrubbed(command, jsonWriter, buf, /* isRoot= */ true);
     } else {
       new BsonDocumentCodec().encode(jsonWriter, command, EncoderContext.builder().build());
     }
 
     // If using MongoDB driver >= 3.7, the substring invocation will be a no-op due to use of
     // JsonWriterSettings.Builder.maxLength in the static initializer for JSON_WRITER_SETTINGS
-    StringBuilder buf = stringWriter.getBuilder();
     if (buf.length() <= maxNormalizedQueryLength) {
       return buf.toString();
     }
@@ -184,7 +191,8 @@ class MongoDbAttributesGetter implements DbClientAttributesGetter<CommandStarted
     return settings;
   }
 
-  private static boolean writeScrubbed(BsonDocument origin, JsonWriter writer, boolean isRoot) {
+  private boolean writeScrubbed(
+      BsonDocument origin, JsonWriter writer, StringBuilder buf, boolean isRoot) {
     writer.writeStartDocument();
     boolean firstField = true;
     for (Map.Entry<String, BsonValue> entry : origin.entrySet()) {
@@ -194,7 +202,7 @@ class MongoDbAttributesGetter implements DbClientAttributesGetter<CommandStarted
       if (isRoot && firstField && entry.getValue().isString()) {
         writer.writeString(entry.getValue().asString().getValue());
       } else {
-        if (writeScrubbed(entry.getValue(), writer)) {
+        if (writeScrubbed(entry.getValue(), writer, buf)) {
           return true;
         }
       }
@@ -204,10 +212,10 @@ class MongoDbAttributesGetter implements DbClientAttributesGetter<CommandStarted
     return false;
   }
 
-  private static boolean writeScrubbed(BsonArray origin, JsonWriter writer) {
+  private boolean writeScrubbed(BsonArray origin, JsonWriter writer, StringBuilder buf) {
     writer.writeStartArray();
     for (BsonValue value : origin) {
-      if (writeScrubbed(value, writer)) {
+      if (writeScrubbed(value, writer, buf)) {
         return true;
       }
     }
@@ -215,26 +223,15 @@ class MongoDbAttributesGetter implements DbClientAttributesGetter<CommandStarted
     return false;
   }
 
-  private static boolean writeScrubbed(BsonValue origin, JsonWriter writer) {
+  private boolean writeScrubbed(BsonValue origin, JsonWriter writer, StringBuilder buf) {
     if (origin.isDocument()) {
-      return writeScrubbed(origin.asDocument(), writer, /* isRoot= */ false);
+      return writeScrubbed(origin.asDocument(), writer, buf, /* isRoot= */ false);
     } else if (origin.isArray()) {
-      return writeScrubbed(origin.asArray(), writer);
+      return writeScrubbed(origin.asArray(), writer, buf);
     } else {
       writer.writeString(HIDDEN_CHAR);
-      return isTruncated(writer);
-    }
-  }
-
-  private static boolean isTruncated(JsonWriter writer) {
-    if (IS_TRUNCATED_METHOD == null) {
-      return false;
-    } else {
-      try {
-        return (boolean) IS_TRUNCATED_METHOD.invoke(writer, (Object[]) null);
-      } catch (IllegalAccessException | InvocationTargetException ignored) {
-        return false;
-      }
+      // stop once the statement is long enough to be truncated, JsonWriter writes directly to buf
+      return buf.length() >= maxNormalizedQueryLength;
     }
   }
 }
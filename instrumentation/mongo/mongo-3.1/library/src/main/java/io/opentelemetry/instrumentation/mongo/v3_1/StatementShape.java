@@ -0,0 +1,118 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.mongo.v3_1;
+
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * Computes the shape of a command: its field names, nesting and array lengths, and the value of
+ * the first top-level field when it is a string, because the sanitized statement preserves it. All
+ * other values are ignored, so commands that only differ in their values have the same shape and
+ * therefore the same sanitized statement.
+ *
+ * <p>Names and strings are prefixed with their length so that different commands can't produce
+ * the same shape. Walking the command stops once the sanitized statement would be longer than the
+ * maximum statement length, since the rest of the command can't change the truncated statement.
+ */
+final class StatementShape {
+
+  // appended when the command was only walked up to the maximum statement length
+  private static final char TRUNCATED = '!';
+
+  private final StringBuilder shape = new StringBuilder();
+  private final int maxStatementLength;
+  private final int maxShapeLength;
+  // a lower bound of the length of the sanitized statement for the shape appended so far
+  private int statementLength;
+  private boolean truncated;
+
+  private StatementShape(int maxStatementLength, int maxShapeLength) {
+    this.maxStatementLength = maxStatementLength;
+    this.maxShapeLength = maxShapeLength;
+  }
+
+  /**
+   * Returns the shape of {@code command}, or {@code null} if the shape is longer than {@code
+   * maxShapeLength}.
+   */
+  @Nullable
+  static String compute(BsonDocument command, int maxStatementLength, int maxShapeLength) {
+    StatementShape statementShape = new StatementShape(maxStatementLength, maxShapeLength);
+    if (statementShape.appendDocument(command, /* isRoot= */ true) && !statementShape.truncated) {
+      return null;
+    }
+    return statementShape.shape.toString();
+  }
+
+  /** Returns {@code true} if walking the command should stop. */
+  private boolean appendDocument(BsonDocument document, boolean isRoot) {
+    shape.append('{');
+    statementLength++;
+    boolean firstField = true;
+    for (Map.Entry<String, BsonValue> entry : document.entrySet()) {
+      String name = entry.getKey();
+      BsonValue value = entry.getValue();
+      shape.append(name.length()).append(':').append(name);
+      // quotes, colon and space
+      statementLength += name.length() + 4;
+      if (isRoot && firstField && value.isString()) {
+        String string = value.asString().getValue();
+        shape.append('s').append(string.length()).append(':').append(string);
+        statementLength += string.length() + 2;
+        if (reachedLimit()) {
+          return true;
+        }
+      } else if (appendValue(value)) {
+        return true;
+      }
+      firstField = false;
+    }
+    shape.append('}');
+    statementLength++;
+    return reachedLimit();
+  }
+
+  private boolean appendArray(BsonArray array) {
+    shape.append('[');
+    statementLength++;
+    for (BsonValue value : array) {
+      if (appendValue(value)) {
+        return true;
+      }
+    }
+    shape.append(']');
+    statementLength++;
+    return reachedLimit();
+  }
+
+  private boolean appendValue(BsonValue value) {
+    if (value.isDocument()) {
+      return appendDocument(value.asDocument(), /* isRoot= */ false);
+    } else if (value.isArray()) {
+      return appendArray(value.asArray());
+    }
+    // all other values are written as "?"
+    shape.append('?');
+    statementLength += 3;
+    return reachedLimit();
+  }
+
+  private boolean reachedLimit() {
+    if (shape.length() > maxShapeLength) {
+      return true;
+    }
+    if (statementLength >= maxStatementLength) {
+      shape.append(TRUNCATED);
+      truncated = true;
+      return true;
+    }
+    return false;
+  }
+}
@@ -92,6 +92,60 @@ class MongoDbAttributesGetterTest {
         .isIn("{\"cmd\": \"c\", \"f1\": [\"?\", \"?", "{\"cmd\": \"c\", \"f1\": [\"?\",");
   }
 
+  @Test
+  @DisplayName("should sanitize commands with the same shape to the same statement")
+  void shouldSanitizeCommandsWithTheSameShapeToTheSameStatement() {
+    MongoDbAttributesGetter extractor =
+        new MongoDbAttributesGetter(true, DEFAULT_MAX_NORMALIZED_QUERY_LENGTH);
+
+    assertThat(sanitizeStatementAcrossVersions(extractor, findCommand("c", "$gt", 1, 2)))
+        .isEqualTo("{\"find\": \"c\", \"q\": {\"a\": {\"$gt\": \"?\"}}, \"b\": [\"?\", \"?\"]}");
+    assertThat(sanitizeStatementAcrossVersions(extractor, findCommand("c", "$gt", 3, 4)))
+        .isEqualTo("{\"find\": \"c\", \"q\": {\"a\": {\"$gt\": \"?\"}}, \"b\": [\"?\", \"?\"]}");
+
+    // the collection name, field names and array lengths are part of the shape
+    assertThat(sanitizeStatementAcrossVersions(extractor, findCommand("d", "$gt", 1, 2)))
+        .isEqualTo("{\"find\": \"d\", \"q\": {\"a\": {\"$gt\": \"?\"}}, \"b\": [\"?\", \"?\"]}");
+    assertThat(sanitizeStatementAcrossVersions(extractor, findCommand("c", "$lt", 1, 2)))
+        .isEqualTo("{\"find\": \"c\", \"q\": {\"a\": {\"$lt\": \"?\"}}, \"b\": [\"?\", \"?\"]}");
+    assertThat(sanitizeStatementAcrossVersions(extractor, findCommand("c", "$gt", 1)))
+        .isEqualTo("{\"find\": \"c\", \"q\": {\"a\": {\"$gt\": \"?\"}}, \"b\": [\"?\"]}");
+  }
+
+  @Test
+  @DisplayName("should truncate large commands")
+  void shouldTruncateLargeCommands() {
+    MongoDbAttributesGetter extractor = new MongoDbAttributesGetter(true, 40);
+
+    String normalized = sanitizeStatementAcrossVersions(extractor, insertCommand(1000));
+    assertThat(normalized).startsWith("{\"insert\": \"c\", \"documents\": [{");
+    // a new extractor doesn't have a cached statement for the shape
+    MongoDbAttributesGetter uncachedExtractor = new MongoDbAttributesGetter(true, 40);
+    assertThat(sanitizeStatementAcrossVersions(uncachedExtractor, insertCommand(1000)))
+        .isEqualTo(normalized);
+    // commands that only differ after the truncated statement have the same statement
+    assertThat(sanitizeStatementAcrossVersions(extractor, insertCommand(100)))
+        .isEqualTo(normalized);
+  }
+
+  private static BsonDocument findCommand(String collection, String operator, int... values) {
+    BsonArray array = new BsonArray();
+    for (int value : values) {
+      array.add(new BsonInt32(value));
+    }
+    return new BsonDocument("find", new BsonString(collection))
+        .append("q", new BsonDocument("a", new BsonDocument(operator, new BsonInt32(1))))
+        .append("b", array);
+  }
+
+  private static BsonDocument insertCommand(int documentCount) {
+    BsonArray documents = new BsonArray();
+    for (int i = 0; i < documentCount; i++) {
+      documents.add(new BsonDocument("_id", new BsonInt32(i)));
+    }
+    return new BsonDocument("insert", new BsonString("c")).append("documents", documents);
+  }
+
   static String sanitizeStatementAcrossVersions(
       MongoDbAttributesGetter extractor, BsonDocument query) {
     return sanitizeAcrossVersions(extractor.sanitizeStatement(query));
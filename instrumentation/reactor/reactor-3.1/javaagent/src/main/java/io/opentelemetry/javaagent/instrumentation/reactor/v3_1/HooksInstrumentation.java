@@ -43,6 +43,11 @@ public class HooksInstrumentation implements TypeInstrumentation {
           .setCaptureExperimentalSpanAttributes(
               AgentInstrumentationConfig.get()
                   .getBoolean("otel.instrumentation.reactor.experimental-span-attributes", false))
+          .setSelectiveOperatorWrapping(
+              AgentInstrumentationConfig.get()
+                  .getBoolean(
+                      "otel.instrumentation.reactor.experimental-selective-operator-wrapping",
+                      false))
           .build()
           .registerOnEachOperator();
     }
@@ -30,6 +30,9 @@ import io.opentelemetry.instrumentation.api.annotation.support.async.AsyncOperat
 import io.opentelemetry.javaagent.tooling.muzzle.NoMuzzle;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.logging.Level;
@@ -59,6 +62,20 @@ public final class ContextPropagationOperator {
 
   @Nullable private static final MethodHandle SCHEDULERS_HOOK_METHOD = getSchedulersHookMethod();
 
+  @Nullable private static final Scannable.Attr<?> RUN_STYLE_ATTR = getRunStyleAttr();
+
+  @Nullable private static final Object RUN_STYLE_SYNC = getRunStyleSync();
+
+  // operators that write to the Reactor context, these change the trace context of the operators
+  // upstream of them
+  private static final Set<String> CONTEXT_WRITE_OPERATORS =
+      new HashSet<>(
+          Arrays.asList(
+              "reactor.core.publisher.FluxContextWrite",
+              "reactor.core.publisher.MonoContextWrite",
+              "reactor.core.publisher.FluxContextWriteRestoringThreadLocals",
+              "reactor.core.publisher.MonoContextWriteRestoringThreadLocals"));
+
   @Nullable
   private static MethodHandle getContextWriteMethod(Class<?> type) {
     MethodHandles.Lookup lookup = MethodHandles.publicLookup();
@@ -87,6 +104,27 @@ public final class ContextPropagationOperator {
     return null;
   }
 
+  // Scannable.Attr.RUN_STYLE was added in reactor 3.4
+  @Nullable
+  private static Scannable.Attr<?> getRunStyleAttr() {
+    try {
+      return (Scannable.Attr<?>) Scannable.Attr.class.getField("RUN_STYLE").get(null);
+    } catch (NoSuchFieldException | IllegalAccessException e) {
+      // ignore
+    }
+    return null;
+  }
+
+  @Nullable
+  private static Object getRunStyleSync() {
+    try {
+      return Class.forName("reactor.core.Scannable$Attr$RunStyle").getField("SYNC").get(null);
+    } catch (ClassNotFoundException | NoSuchFieldException | IllegalAccessException e) {
+      // ignore
+    }
+    return null;
+  }
+
   public static ContextPropagationOperator create() {
     return builder().build();
   }
@@ -96,6 +134,7 @@ public final class ContextPropagationOperator {
   }
 
   private final ReactorAsyncOperationEndStrategy asyncOperationEndStrategy;
+  private final boolean selectiveOperatorWrapping;
 
   private static final Object TRACE_CONTEXT_KEY =
       new Object() {
@@ -149,11 +188,13 @@ public final class ContextPropagationOperator {
     return contextView.getOrDefault(TRACE_CONTEXT_KEY, defaultTraceContext);
   }
 
-  ContextPropagationOperator(boolean captureExperimentalSpanAttributes) {
+  ContextPropagationOperator(
+      boolean captureExperimentalSpanAttributes, boolean selectiveOperatorWrapping) {
     this.asyncOperationEndStrategy =
         ReactorAsyncOperationEndStrategy.builder()
             .setCaptureExperimentalSpanAttributes(captureExperimentalSpanAttributes)
             .build();
+    this.selectiveOperatorWrapping = selectiveOperatorWrapping;
   }
 
   /**
@@ -168,7 +209,8 @@ public final class ContextPropagationOperator {
         return;
       }
       Hooks.onEachOperator(
-          TracingSubscriber.class.getName(), tracingLift(asyncOperationEndStrategy));
+          TracingSubscriber.class.getName(),
+          tracingLift(asyncOperationEndStrategy, selectiveOperatorWrapping));
       AsyncOperationEndStrategies.instance().registerStrategy(asyncOperationEndStrategy);
       registerScheduleHook(RunnableWrapper.class.getName(), RunnableWrapper::new);
       enabled = true;
@@ -199,9 +241,11 @@ public final class ContextPropagationOperator {
   }
 
   private static <T> Function<? super Publisher<T>, ? extends Publisher<T>> tracingLift(
-      ReactorAsyncOperationEndStrategy asyncOperationEndStrategy) {
+      ReactorAsyncOperationEndStrategy asyncOperationEndStrategy,
+      boolean selectiveOperatorWrapping) {
     return Operators.lift(
-        ContextPropagationOperator::shouldInstrument, new Lifter<>(asyncOperationEndStrategy));
+        ContextPropagationOperator::shouldInstrument,
+        new Lifter<>(asyncOperationEndStrategy, selectiveOperatorWrapping));
   }
 
   /** Forces Mono to run in traceContext scope. */
@@ -271,6 +315,31 @@ public final class ContextPropagationOperator {
     return !(publisher instanceof Fuseable.ScalarCallable);
   }
 
+  /**
+   * Returns whether signals from {@code publisher} to {@code subscriber} need to be wrapped when
+   * only selected operators are wrapped. Synchronous operators run in the scope opened by the
+   * closest wrapped operator upstream, so only operators where the thread or the trace context can
+   * change are wrapped.
+   */
+  private static boolean shouldWrapSelectively(Scannable publisher, CoreSubscriber<?> subscriber) {
+    if (RUN_STYLE_ATTR == null || RUN_STYLE_SYNC == null) {
+      // run style is not known, wrap every operator
+      return true;
+    }
+    if (publisher.scan(RUN_STYLE_ATTR) != RUN_STYLE_SYNC
+        // restores the trace context of the operators downstream of contextWrite
+        || CONTEXT_WRITE_OPERATORS.contains(publisher.getClass().getName())
+        // retry subscribers resubscribe in onError, see TracingSubscriber
+        || TracingSubscriber.isRetrySubscriber(subscriber)) {
+      return true;
+    }
+    // the trace context written by a contextWrite downstream is only visible in the Reactor context
+    // of the subscribers upstream of it, a synchronous source upstream of contextWrite emits in the
+    // context that subscribed, so every operator that sees a different trace context is wrapped
+    Context traceContext = getOpenTelemetryContext(subscriber.currentContext(), null);
+    return traceContext != null && traceContext != Context.current();
+  }
+
   private static class Lifter<T>
       implements BiFunction<Scannable, CoreSubscriber<? super T>, CoreSubscriber<? super T>> {
 
@@ -278,12 +347,20 @@ public final class ContextPropagationOperator {
     @SuppressWarnings({"FieldCanBeLocal", "UnusedVariable"})
     private final ReactorAsyncOperationEndStrategy asyncOperationEndStrategy;
 
-    public Lifter(ReactorAsyncOperationEndStrategy asyncOperationEndStrategy) {
+    private final boolean selectiveOperatorWrapping;
+
+    public Lifter(
+        ReactorAsyncOperationEndStrategy asyncOperationEndStrategy,
+        boolean selectiveOperatorWrapping) {
       this.asyncOperationEndStrategy = asyncOperationEndStrategy;
+      this.selectiveOperatorWrapping = selectiveOperatorWrapping;
     }
 
     @Override
     public CoreSubscriber<? super T> apply(Scannable publisher, CoreSubscriber<? super T> sub) {
+      if (selectiveOperatorWrapping && !shouldWrapSelectively(publisher, sub)) {
+        return sub;
+      }
       return new TracingSubscriber<>(sub, sub.currentContext());
     }
   }
@@ -9,6 +9,7 @@ import com.google.errorprone.annotations.CanIgnoreReturnValue;
 
 public final class ContextPropagationOperatorBuilder {
   private boolean captureExperimentalSpanAttributes;
+  private boolean selectiveOperatorWrapping;
 
   ContextPropagationOperatorBuilder() {}
 
@@ -19,7 +20,29 @@ public final class ContextPropagationOperatorBuilder {
     return this;
   }
 
+  /**
+   * Sets whether only operators where the thread or the trace context can change are wrapped,
+   * instead of every operator. These are operators that are not synchronous, like {@code
+   * publishOn}, {@code subscribeOn}, delays and asynchronous sources, operators that write the
+   * trace context into the Reactor context with {@code contextWrite}, and the operators upstream of
+   * them that see a trace context other than the one of the subscribing thread. Synchronous
+   * operators then run in the scope opened by the closest wrapped operator upstream, which avoids a
+   * subscriber and a scope per operator and signal in long operator chains.
+   *
+   * <p>Operators are only skipped on Reactor 3.4 and later, which report whether an operator is
+   * synchronous. Note that a synchronous source emits on the thread that requests elements, so when
+   * elements are requested from a thread without the trace context, the operators between the
+   * source and the next wrapped operator don't see the trace context either.
+   */
+  @CanIgnoreReturnValue
+  public ContextPropagationOperatorBuilder setSelectiveOperatorWrapping(
+      boolean selectiveOperatorWrapping) {
+    this.selectiveOperatorWrapping = selectiveOperatorWrapping;
+    return this;
+  }
+
   public ContextPropagationOperator build() {
-    return new ContextPropagationOperator(captureExperimentalSpanAttributes);
+    return new ContextPropagationOperator(
+        captureExperimentalSpanAttributes, selectiveOperatorWrapping);
   }
 }
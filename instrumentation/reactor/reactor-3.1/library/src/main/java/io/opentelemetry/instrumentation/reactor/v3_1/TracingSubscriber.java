@@ -72,9 +72,7 @@ public class TracingSubscriber<T> implements CoreSubscriber<T> {
   @Override
   public void onError(Throwable throwable) {
     Supplier<Scope> scopeSupplier;
-    if (!hasContextToPropagate
-        && (fluxRetrySubscriberClass == subscriber.getClass()
-            || fluxRetryWhenSubscriberClass == subscriber.getClass())) {
+    if (!hasContextToPropagate && isRetrySubscriber(subscriber)) {
       // clear context for retry to avoid having retried operations run with currently active
       // context as parent context
       scopeSupplier = () -> openScope(io.opentelemetry.context.Context.root());
@@ -98,6 +96,11 @@ public class TracingSubscriber<T> implements CoreSubscriber<T> {
     return context;
   }
 
+  static boolean isRetrySubscriber(Subscriber<?> subscriber) {
+    return fluxRetrySubscriberClass == subscriber.getClass()
+        || fluxRetryWhenSubscriberClass == subscriber.getClass();
+  }
+
   private Scope openScope() {
     return openScope(hasContextToPropagate ? traceContext : null);
   }
@@ -0,0 +1,205 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.reactor.v3_1;
+
+import static java.lang.invoke.MethodType.methodType;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.reactor.AbstractReactorCoreTest;
+import io.opentelemetry.instrumentation.testing.junit.InstrumentationExtension;
+import io.opentelemetry.instrumentation.testing.junit.LibraryInstrumentationExtension;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// operators are only skipped on reactor 3.4 and later, the earliest tested version is 3.1
+@EnabledIfSystemProperty(named = "testLatestDeps", matches = "true")
+class SelectiveOperatorWrappingReactorCoreTest extends AbstractReactorCoreTest {
+
+  @RegisterExtension
+  static final InstrumentationExtension testing = LibraryInstrumentationExtension.create();
+
+  private final ContextPropagationOperator tracingOperator =
+      ContextPropagationOperator.builder().setSelectiveOperatorWrapping(true).build();
+
+  SelectiveOperatorWrappingReactorCoreTest() {
+    super(testing);
+  }
+
+  @BeforeAll
+  void setUp() {
+    tracingOperator.registerOnEachOperator();
+  }
+
+  @AfterAll
+  void tearDown() {
+    tracingOperator.resetOnEachOperator();
+  }
+
+  @Test
+  void contextWriteChangesContextOfUpstreamOperatorsOnly() {
+    int result =
+        testing.runWithSpan(
+            "parent",
+            () -> {
+              Span child =
+                  testing.getOpenTelemetry().getTracer("test").spanBuilder("child").startSpan();
+              Context childContext = Context.current().with(child);
+              Mono<Integer> upstream =
+                  Mono.fromCallable(() -> 1)
+                      .map(i -> testing.runWithSpan("upstream", () -> i + 1));
+              try {
+                return ContextPropagationOperator.runWithContext(upstream, childContext)
+                    .map(i -> testing.runWithSpan("downstream", () -> i + 1))
+                    .block();
+              } finally {
+                child.end();
+              }
+            });
+    assertThat(result).isEqualTo(3);
+
+    testing.waitAndAssertTraces(
+        trace ->
+            trace.hasSpansSatisfyingExactly(
+                span -> span.hasName("parent").hasNoParent(),
+                span -> span.hasName("child").hasParent(trace.getSpan(0)),
+                span -> span.hasName("upstream").hasParent(trace.getSpan(1)),
+                span -> span.hasName("downstream").hasParent(trace.getSpan(0))));
+  }
+
+  @Test
+  void synchronousMonoUpstreamOfContextWrite() {
+    int result =
+        testing.runWithSpan(
+            "parent",
+            () -> {
+              Span child =
+                  testing.getOpenTelemetry().getTracer("test").spanBuilder("child").startSpan();
+              try {
+                Mono<Integer> upstream =
+                    Mono.fromCallable(() -> 1)
+                        .map(i -> testing.runWithSpan("upstream", () -> i + 1));
+                return contextWrite(upstream, Context.current().with(child))
+                    .map(i -> testing.runWithSpan("downstream", () -> i + 1))
+                    .block();
+              } finally {
+                child.end();
+              }
+            });
+    assertThat(result).isEqualTo(3);
+
+    testing.waitAndAssertTraces(
+        trace ->
+            trace.hasSpansSatisfyingExactly(
+                span -> span.hasName("parent").hasNoParent(),
+                span -> span.hasName("child").hasParent(trace.getSpan(0)),
+                span -> span.hasName("upstream").hasParent(trace.getSpan(1)),
+                span -> span.hasName("downstream").hasParent(trace.getSpan(0))));
+  }
+
+  @Test
+  void synchronousFluxUpstreamOfContextWrite() {
+    List<Integer> result =
+        testing.runWithSpan(
+            "parent",
+            () -> {
+              Span child =
+                  testing.getOpenTelemetry().getTracer("test").spanBuilder("child").startSpan();
+              try {
+                Flux<Integer> upstream =
+                    Flux.range(1, 2)
+                        .map(i -> testing.runWithSpan("upstream", () -> i * 10))
+                        .filter(i -> i > 0);
+                return contextWrite(upstream, Context.current().with(child))
+                    .map(i -> testing.runWithSpan("downstream", () -> i + 1))
+                    .collectList()
+                    .block();
+              } finally {
+                child.end();
+              }
+            });
+    assertThat(result).containsExactly(11, 21);
+
+    testing.waitAndAssertTraces(
+        trace ->
+            trace.hasSpansSatisfyingExactly(
+                span -> span.hasName("parent").hasNoParent(),
+                span -> span.hasName("child").hasParent(trace.getSpan(0)),
+                span -> span.hasName("upstream").hasParent(trace.getSpan(1)),
+                span -> span.hasName("upstream").hasParent(trace.getSpan(1)),
+                span -> span.hasName("downstream").hasParent(trace.getSpan(0)),
+                span -> span.hasName("downstream").hasParent(trace.getSpan(0))));
+  }
+
+  @Test
+  void scalarSourceUpstreamOfContextWrite() {
+    int result =
+        testing.runWithSpan(
+            "parent",
+            () -> {
+              Span child =
+                  testing.getOpenTelemetry().getTracer("test").spanBuilder("child").startSpan();
+              try {
+                Mono<Integer> upstream =
+                    Mono.just(1).map(i -> testing.runWithSpan("upstream", () -> i + 1));
+                return contextWrite(upstream, Context.current().with(child))
+                    .map(i -> testing.runWithSpan("downstream", () -> i + 1))
+                    .block();
+              } finally {
+                child.end();
+              }
+            });
+    assertThat(result).isEqualTo(3);
+
+    // scalar sources are not wrapped even when every operator is wrapped, the value is emitted
+    // when it is requested, in the context of the subscriber that requests it
+    testing.waitAndAssertTraces(
+        trace ->
+            trace.hasSpansSatisfyingExactly(
+                span -> span.hasName("parent").hasNoParent(),
+                span -> span.hasName("child").hasParent(trace.getSpan(0)),
+                span -> span.hasName("upstream").hasParent(trace.getSpan(0)),
+                span -> span.hasName("downstream").hasParent(trace.getSpan(0))));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Mono<T> contextWrite(Mono<T> mono, Context traceContext) {
+    try {
+      return (Mono<T>)
+          MethodHandles.publicLookup()
+              .findVirtual(Mono.class, "contextWrite", methodType(Mono.class, Function.class))
+              .invoke(mono, storeOpenTelemetryContext(traceContext));
+    } catch (Throwable t) {
+      throw new AssertionError(t);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Flux<T> contextWrite(Flux<T> flux, Context traceContext) {
+    try {
+      return (Flux<T>)
+          MethodHandles.publicLookup()
+              .findVirtual(Flux.class, "contextWrite", methodType(Flux.class, Function.class))
+              .invoke(flux, storeOpenTelemetryContext(traceContext));
+    } catch (Throwable t) {
+      throw new AssertionError(t);
+    }
+  }
+
+  private static Function<reactor.util.context.Context, reactor.util.context.Context>
+      storeOpenTelemetryContext(Context traceContext) {
+    return context -> ContextPropagationOperator.storeOpenTelemetryContext(context, traceContext);
+  }
+}
@@ -1,5 +1,6 @@
 plugins {
   id("otel.java-conventions")
+  id("otel.jmh-conventions")
 }
 
 dependencies {
@@ -8,4 +9,8 @@ dependencies {
   api("io.projectreactor:reactor-core:3.1.0.RELEASE")
 
   implementation("io.opentelemetry:opentelemetry-api")
+
+  jmhImplementation(project(":instrumentation:reactor:reactor-3.1:library"))
+  // operators report their run style since 3.4, which selective operator wrapping relies on
+  jmhImplementation("io.projectreactor:reactor-core:3.4.0")
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.reactor;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.reactor.v3_1.ContextPropagationOperator;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+/**
+ * Assembles and runs a chain of synchronous operators in the scope of a span, without context
+ * propagation, with every operator wrapped and with selective operator wrapping.
+ *
+ * <p>run with ./gradlew -PjmhIncludeSingleClass=OperatorChainBenchmark
+ * :instrumentation:reactor:reactor-3.1:testing:jmh
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class OperatorChainBenchmark {
+
+  @Param({"1", "10", "50"})
+  public int chainDepth;
+
+  @Param({"none", "all", "selective"})
+  public String wrapping;
+
+  @Nullable private ContextPropagationOperator operator;
+  private Context context;
+
+  @Setup
+  public void setup() {
+    if (!"none".equals(wrapping)) {
+      operator =
+          ContextPropagationOperator.builder()
+              .setSelectiveOperatorWrapping("selective".equals(wrapping))
+              .build();
+      operator.registerOnEachOperator();
+    }
+    context =
+        Context.root()
+            .with(
+                Span.wrap(
+                    SpanContext.create(
+                        "0af7651916cd43dd8448eb211c80319c",
+                        "b7ad6b7169203331",
+                        TraceFlags.getSampled(),
+                        TraceState.getDefault())));
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (operator != null) {
+      operator.resetOnEachOperator();
+    }
+  }
+
+  @Benchmark
+  public Integer operatorChain() {
+    try (io.opentelemetry.context.Scope ignored = context.makeCurrent()) {
+      Flux<Integer> flux = Flux.range(0, 10);
+      for (int i = 0; i < chainDepth; i++) {
+        flux = flux.map(value -> value + 1);
+      }
+      return flux.reduce(0, Integer::sum).block();
+    }
+  }
+}
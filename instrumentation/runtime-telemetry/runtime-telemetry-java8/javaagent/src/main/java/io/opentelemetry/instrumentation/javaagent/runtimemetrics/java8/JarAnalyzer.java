@@ -23,15 +23,19 @@ import java.lang.instrument.ClassFileTransformer;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.security.CodeSource;
 import java.security.ProtectionDomain;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 
 /**
  * {@link JarAnalyzer} is a {@link ClassFileTransformer} which processes the {@link
@@ -43,6 +47,8 @@ final class JarAnalyzer implements ClassFileTransformer {
   private static final Logger logger = Logger.getLogger(JarAnalyzer.class.getName());
 
   private static final String EVENT_NAME_INFO = "package.info";
+  private static final int PROCESSOR_THREADS =
+      Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
   static final AttributeKey<String> PACKAGE_NAME = AttributeKey.stringKey("package.name");
   static final AttributeKey<String> PACKAGE_VERSION = AttributeKey.stringKey("package.version");
   static final AttributeKey<String> PACKAGE_TYPE = AttributeKey.stringKey("package.type");
@@ -53,19 +59,19 @@ final class JarAnalyzer implements ClassFileTransformer {
       AttributeKey.stringKey("package.checksum_algorithm");
   static final AttributeKey<String> PACKAGE_PATH = AttributeKey.stringKey("package.path");
 
-  private final Set<URI> seenUris = new HashSet<>();
+  // classes are transformed concurrently by arbitrary threads
+  private final Set<URI> seenUris = ConcurrentHashMap.newKeySet();
   private final BlockingQueue<URL> toProcess = new LinkedBlockingDeque<>();
 
-  private JarAnalyzer(OpenTelemetry openTelemetry, int jarsPerSecond) {
-    ExtendedLogRecordBuilder logRecordBuilder =
-        (ExtendedLogRecordBuilder)
-            openTelemetry
-                .getLogsBridge()
-                .loggerBuilder(JmxRuntimeMetricsUtil.getInstrumentationName())
-                .setInstrumentationVersion(JmxRuntimeMetricsUtil.getInstrumentationVersion())
-                .build()
-                .logRecordBuilder();
-    Worker worker = new Worker(logRecordBuilder, toProcess, jarsPerSecond);
+  private JarAnalyzer(
+      OpenTelemetry openTelemetry, int jarsPerSecond, @Nullable JarChecksumCache checksumCache) {
+    io.opentelemetry.api.logs.Logger eventLogger =
+        openTelemetry
+            .getLogsBridge()
+            .loggerBuilder(JmxRuntimeMetricsUtil.getInstrumentationName())
+            .setInstrumentationVersion(JmxRuntimeMetricsUtil.getInstrumentationVersion())
+            .build();
+    Worker worker = new Worker(eventLogger, toProcess, jarsPerSecond, checksumCache);
     Thread workerThread =
         new DaemonThreadFactory(JarAnalyzer.class.getSimpleName() + "_WorkerThread")
             .newThread(worker);
@@ -74,7 +80,18 @@ final class JarAnalyzer implements ClassFileTransformer {
 
   /** Create {@link JarAnalyzer} and start the worker thread. */
   public static JarAnalyzer create(OpenTelemetry unused, int jarsPerSecond) {
-    return new JarAnalyzer(unused, jarsPerSecond);
+    return create(unused, jarsPerSecond, null);
+  }
+
+  /**
+   * Create {@link JarAnalyzer} and start the worker thread. When {@code checksumCacheFile} is not
+   * null, the checksums of archives are cached in that file across restarts of the application.
+   */
+  public static JarAnalyzer create(
+      OpenTelemetry unused, int jarsPerSecond, @Nullable Path checksumCacheFile) {
+    JarChecksumCache checksumCache =
+        checksumCacheFile != null ? new JarChecksumCache(checksumCacheFile) : null;
+    return new JarAnalyzer(unused, jarsPerSecond, checksumCache);
   }
 
   /**
@@ -153,25 +170,46 @@ final class JarAnalyzer implements ClassFileTransformer {
 
   private static final class Worker implements Runnable {
 
-    private final ExtendedLogRecordBuilder eventLogger;
+    private final io.opentelemetry.api.logs.Logger eventLogger;
     private final BlockingQueue<URL> toProcess;
     private final io.opentelemetry.sdk.internal.RateLimiter rateLimiter;
+    @Nullable private final JarChecksumCache checksumCache;
+    private final ThreadPoolExecutor processors;
 
     private Worker(
-        ExtendedLogRecordBuilder eventLogger, BlockingQueue<URL> toProcess, int jarsPerSecond) {
+        io.opentelemetry.api.logs.Logger eventLogger,
+        BlockingQueue<URL> toProcess,
+        int jarsPerSecond,
+        @Nullable JarChecksumCache checksumCache) {
       this.eventLogger = eventLogger;
       this.toProcess = toProcess;
       this.rateLimiter =
           new io.opentelemetry.sdk.internal.RateLimiter(
               jarsPerSecond, jarsPerSecond, Clock.getDefault());
+      this.checksumCache = checksumCache;
+      // archives are hashed on a small pool, when all its threads are busy the worker thread
+      // processes the archive itself, which stops it from taking more work off the queue
+      this.processors =
+          new ThreadPoolExecutor(
+              PROCESSOR_THREADS,
+              PROCESSOR_THREADS,
+              1,
+              TimeUnit.MINUTES,
+              new SynchronousQueue<>(),
+              new DaemonThreadFactory(JarAnalyzer.class.getSimpleName() + "_ProcessorThread"),
+              new ThreadPoolExecutor.CallerRunsPolicy());
+      this.processors.allowCoreThreadTimeOut(true);
     }
 
     /**
-     * Continuously poll the {@link #toProcess} for archive {@link URL}s, and process each wit
-     * {@link #processUrl(ExtendedLogRecordBuilder, URL)}.
+     * Continuously poll the {@link #toProcess} for archive {@link URL}s, and process each with
+     * {@link #processUrl(ExtendedLogRecordBuilder, URL, JarChecksumCache)}.
      */
     @Override
     public void run() {
+      if (checksumCache != null) {
+        checksumCache.load();
+      }
       while (!Thread.currentThread().isInterrupted()) {
         URL archiveUrl = null;
         try {
@@ -184,16 +222,26 @@ final class JarAnalyzer implements ClassFileTransformer {
           Thread.currentThread().interrupt();
         }
         if (archiveUrl == null) {
+          // nothing left to process for now, persist the checksums computed so far
+          if (checksumCache != null) {
+            checksumCache.save();
+          }
           continue;
         }
-        try {
-          // TODO(jack-berg): add ability to optionally re-process urls periodically to re-emit
-          // events
-          processUrl(eventLogger, archiveUrl);
-        } catch (Throwable e) {
-          logger.log(Level.WARNING, "Unexpected error processing archive URL: " + archiveUrl, e);
-        }
+        URL url = archiveUrl;
+        processors.execute(
+            () -> {
+              try {
+                // TODO(jack-berg): add ability to optionally re-process urls periodically to
+                // re-emit events
+                processUrl(
+                    (ExtendedLogRecordBuilder) eventLogger.logRecordBuilder(), url, checksumCache);
+              } catch (Throwable e) {
+                logger.log(Level.WARNING, "Unexpected error processing archive URL: " + url, e);
+              }
+            });
       }
+      processors.shutdown();
       logger.warning("JarAnalyzer stopped");
     }
   }
@@ -203,9 +251,23 @@ final class JarAnalyzer implements ClassFileTransformer {
    * content.
    */
   static void processUrl(ExtendedLogRecordBuilder eventLogger, URL archiveUrl) {
+    processUrl(eventLogger, archiveUrl, null);
+  }
+
+  /**
+   * Process the {@code archiveUrl}, extracting metadata from it and emitting an event with the
+   * content. The checksum of the archive is read from {@code checksumCache} when it is not null.
+   */
+  static void processUrl(
+      ExtendedLogRecordBuilder eventLogger,
+      URL archiveUrl,
+      @Nullable JarChecksumCache checksumCache) {
     JarDetails jarDetails;
+    String packageChecksum;
     try {
       jarDetails = JarDetails.forUrl(archiveUrl);
+      packageChecksum =
+          checksumCache != null ? checksumCache.computeSha1(jarDetails) : jarDetails.computeSha1();
     } catch (IOException e) {
       logger.log(Level.WARNING, "Error reading package for archive URL: " + archiveUrl, e);
       return;
@@ -237,7 +299,6 @@ final class JarAnalyzer implements ClassFileTransformer {
       builder.put(PACKAGE_DESCRIPTION, packageDescription);
     }
 
-    String packageChecksum = jarDetails.computeSha1();
     builder.put(PACKAGE_CHECKSUM, packageChecksum);
     builder.put(PACKAGE_CHECKSUM_ALGORITHM, "SHA1");
 
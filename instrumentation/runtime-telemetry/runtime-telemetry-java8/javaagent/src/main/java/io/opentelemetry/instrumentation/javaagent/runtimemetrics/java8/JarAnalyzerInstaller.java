@@ -12,6 +12,7 @@ import io.opentelemetry.javaagent.tooling.BeforeAgentListener;
 import io.opentelemetry.sdk.autoconfigure.AutoConfiguredOpenTelemetrySdk;
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
 import java.lang.instrument.Instrumentation;
+import java.nio.file.Paths;
 
 /** Installs the {@link JarAnalyzer}. */
 @AutoService(BeforeAgentListener.class)
@@ -33,8 +34,13 @@ public class JarAnalyzerInstaller implements BeforeAgentListener {
     }
     int jarsPerSecond =
         config.getInt("otel.instrumentation.runtime-telemetry.package-emitter.jars-per-second", 10);
+    String checksumCache =
+        config.getString("otel.instrumentation.runtime-telemetry.package-emitter.checksum-cache");
     JarAnalyzer jarAnalyzer =
-        JarAnalyzer.create(autoConfiguredOpenTelemetrySdk.getOpenTelemetrySdk(), jarsPerSecond);
+        JarAnalyzer.create(
+            autoConfiguredOpenTelemetrySdk.getOpenTelemetrySdk(),
+            jarsPerSecond,
+            checksumCache != null && !checksumCache.isEmpty() ? Paths.get(checksumCache) : null);
     inst.addTransformer(jarAnalyzer);
   }
 }
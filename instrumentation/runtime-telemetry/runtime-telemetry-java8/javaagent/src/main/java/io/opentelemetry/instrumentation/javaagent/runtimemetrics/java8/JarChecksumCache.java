@@ -0,0 +1,139 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.javaagent.runtimemetrics.java8;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caches the SHA1 checksums of archives on disk, so that archives that didn't change since a
+ * previous run of the application aren't hashed again. An archive is identified by its absolute
+ * path, size and last modification time.
+ *
+ * <p>The cache file contains a line {@code <sha1> <size> <last modified> <path>} for each archive.
+ */
+final class JarChecksumCache {
+
+  private static final Logger logger = Logger.getLogger(JarChecksumCache.class.getName());
+
+  private final Path cacheFile;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final AtomicBoolean dirty = new AtomicBoolean();
+
+  JarChecksumCache(Path cacheFile) {
+    this.cacheFile = cacheFile;
+  }
+
+  /** Reads the cache file, a missing or unreadable cache file results in an empty cache. */
+  void load() {
+    if (!Files.exists(cacheFile)) {
+      return;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(cacheFile, UTF_8)) {
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        String[] parts = line.split(" ", 4);
+        if (parts.length != 4) {
+          continue;
+        }
+        try {
+          entries.put(
+              parts[3], new Entry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+        } catch (NumberFormatException e) {
+          // skip malformed line
+        }
+      }
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Unable to read archive checksum cache: " + cacheFile, e);
+    }
+  }
+
+  /**
+   * Returns the SHA1 checksum of the archive, from the cache if the archive didn't change since its
+   * checksum was cached.
+   */
+  String computeSha1(JarDetails jarDetails) throws IOException {
+    File file = jarDetails.archiveFile();
+    if (file == null) {
+      // archives embedded in other archives aren't cached
+      return jarDetails.computeSha1();
+    }
+    String path = file.getAbsolutePath();
+    long size = file.length();
+    long lastModified = file.lastModified();
+    Entry entry = entries.get(path);
+    if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+      return entry.sha1;
+    }
+    String sha1 = jarDetails.computeSha1();
+    entries.put(path, new Entry(sha1, size, lastModified));
+    dirty.set(true);
+    return sha1;
+  }
+
+  /**
+   * Writes the cache file if checksums were added since it was last written. Archives that no
+   * longer exist are removed from the cache.
+   */
+  void save() {
+    if (!dirty.compareAndSet(true, false)) {
+      return;
+    }
+    Path tempFile = null;
+    try {
+      Path directory = cacheFile.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      tempFile = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+      try (BufferedWriter writer = Files.newBufferedWriter(tempFile, UTF_8)) {
+        for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+          String path = mapEntry.getKey();
+          if (!new File(path).exists()) {
+            entries.remove(path);
+            continue;
+          }
+          Entry entry = mapEntry.getValue();
+          writer.write(entry.sha1 + " " + entry.size + " " + entry.lastModified + " " + path);
+          writer.newLine();
+        }
+      }
+      // replace the cache file atomically, other processes may be reading it
+      Files.move(
+          tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Unable to write archive checksum cache: " + cacheFile, e);
+      if (tempFile != null) {
+        try {
+          Files.deleteIfExists(tempFile);
+        } catch (IOException ignored) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  private static final class Entry {
+    final String sha1;
+    final long size;
+    final long lastModified;
+
+    Entry(String sha1, long size, long lastModified) {
+      this.sha1 = sha1;
+      this.size = size;
+      this.lastModified = lastModified;
+    }
+  }
+}
@@ -5,6 +5,7 @@
 
 package io.opentelemetry.instrumentation.javaagent.runtimemetrics.java8;
 
+import static java.nio.file.StandardOpenOption.READ;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.collectingAndThen;
 import static java.util.stream.Collectors.toMap;
@@ -14,6 +15,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
 import java.net.URL;
+import java.nio.channels.FileChannel;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -43,6 +45,7 @@ class JarDetails {
               collectingAndThen(
                   toMap(ext -> ('.' + ext + "!/"), identity()),
                   Collections::<String, String>unmodifiableMap));
+  private static final long MAX_MAPPED_CHUNK_SIZE = 64 * 1024 * 1024;
   private static final ThreadLocal<MessageDigest> SHA1 =
       ThreadLocal.withInitial(
           () -> {
@@ -57,14 +60,13 @@ class JarDetails {
   protected final JarFile jarFile;
   private final Properties pom;
   private final Manifest manifest;
-  private final String sha1Checksum;
+  @Nullable private String sha1Checksum;
 
   private JarDetails(URL url, JarFile jarFile) throws IOException {
     this.url = url;
     this.jarFile = jarFile;
     this.pom = getPom();
     this.manifest = getManifest();
-    this.sha1Checksum = computeDigest(SHA1.get());
   }
 
   static JarDetails forUrl(URL url) throws IOException {
@@ -171,23 +173,49 @@ class JarDetails {
     return packageDescription;
   }
 
+  /**
+   * Returns the archive file on the file system. Returns null if the archive is embedded within
+   * another archive.
+   */
+  @Nullable
+  File archiveFile() {
+    return new File(jarFile.getName());
+  }
+
   /** Returns the SHA1 hash of this file, e.g. {@code 30d16ec2aef6d8094c5e2dce1d95034ca8b6cb42}. */
-  String computeSha1() {
+  String computeSha1() throws IOException {
+    if (sha1Checksum == null) {
+      sha1Checksum = computeDigest(SHA1.get());
+    }
     return sha1Checksum;
   }
 
   private String computeDigest(MessageDigest md) throws IOException {
-    try (InputStream inputStream = getInputStream()) {
-      DigestInputStream dis = new DigestInputStream(inputStream, md);
-      byte[] buffer = new byte[8192];
-      while (dis.read(buffer) != -1) {}
-      byte[] digest = md.digest();
-      return new BigInteger(1, digest).toString(16);
+    // the digest is reused by the thread, discard the input of a previously failed computation
+    md.reset();
+    File file = archiveFile();
+    if (file == null) {
+      try (InputStream inputStream = getInputStream()) {
+        DigestInputStream dis = new DigestInputStream(inputStream, md);
+        byte[] buffer = new byte[8192];
+        while (dis.read(buffer) != -1) {}
+      }
+    } else {
+      // map the archive in chunks instead of copying it through a stream buffer
+      try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+        long size = channel.size();
+        for (long position = 0; position < size; position += MAX_MAPPED_CHUNK_SIZE) {
+          long chunkSize = Math.min(MAX_MAPPED_CHUNK_SIZE, size - position);
+          md.update(channel.map(FileChannel.MapMode.READ_ONLY, position, chunkSize));
+        }
+      }
     }
+    byte[] digest = md.digest();
+    return new BigInteger(1, digest).toString(16);
   }
 
   /**
-   * Returns An open input stream for the associated url. It is the caller's responsibility to close
+   * Returns an open input stream for the associated url. It is the caller's responsibility to close
    * the stream on completion.
    */
   protected InputStream getInputStream() throws IOException {
@@ -237,6 +265,12 @@ class JarDetails {
       this.jarEntry = jarEntry;
     }
 
+    @Override
+    @Nullable
+    File archiveFile() {
+      return null;
+    }
+
     @Override
     protected InputStream getInputStream() throws IOException {
       return jarFile.getInputStream(jarEntry);
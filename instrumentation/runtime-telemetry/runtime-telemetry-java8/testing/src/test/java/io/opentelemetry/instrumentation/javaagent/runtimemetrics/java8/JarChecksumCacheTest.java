@@ -0,0 +1,81 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.javaagent.runtimemetrics.java8;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JarChecksumCacheTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void checksumIsCachedAcrossInstances() throws IOException {
+    File jar = createJar(tempDir.resolve("test.jar"));
+    Path cacheFile = tempDir.resolve("cache").resolve("checksums");
+
+    JarChecksumCache cache = new JarChecksumCache(cacheFile);
+    cache.load();
+    String sha1 = cache.computeSha1(JarDetails.forUrl(jar.toURI().toURL()));
+    assertThat(sha1).isEqualTo(JarDetails.forUrl(jar.toURI().toURL()).computeSha1());
+    cache.save();
+
+    assertThat(Files.readAllLines(cacheFile, UTF_8))
+        .containsExactly(
+            sha1 + " " + jar.length() + " " + jar.lastModified() + " " + jar.getAbsolutePath());
+
+    // replace the cached checksum to verify that the archive isn't hashed again
+    Files.write(
+        cacheFile,
+        Collections.singletonList(
+            "cached " + jar.length() + " " + jar.lastModified() + " " + jar.getAbsolutePath()),
+        UTF_8);
+    JarChecksumCache reloaded = new JarChecksumCache(cacheFile);
+    reloaded.load();
+    assertThat(reloaded.computeSha1(JarDetails.forUrl(jar.toURI().toURL()))).isEqualTo("cached");
+
+    // a modified archive is hashed again
+    assertThat(jar.setLastModified(jar.lastModified() - 10_000)).isTrue();
+    assertThat(reloaded.computeSha1(JarDetails.forUrl(jar.toURI().toURL()))).isEqualTo(sha1);
+  }
+
+  @Test
+  void removedArchivesAreNotSaved() throws IOException {
+    File jar = createJar(tempDir.resolve("test.jar"));
+    File removedJar = tempDir.resolve("removed.jar").toFile();
+    Path cacheFile = tempDir.resolve("checksums");
+    Files.write(
+        cacheFile, Collections.singletonList("removed 1 1 " + removedJar.getAbsolutePath()), UTF_8);
+
+    JarChecksumCache cache = new JarChecksumCache(cacheFile);
+    cache.load();
+    String sha1 = cache.computeSha1(JarDetails.forUrl(jar.toURI().toURL()));
+    cache.save();
+
+    assertThat(Files.readAllLines(cacheFile, UTF_8))
+        .containsExactly(
+            sha1 + " " + jar.length() + " " + jar.lastModified() + " " + jar.getAbsolutePath());
+  }
+
+  private static File createJar(Path path) throws IOException {
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(path))) {
+      out.putNextEntry(new JarEntry("test.txt"));
+      out.write("test".getBytes(UTF_8));
+      out.closeEntry();
+    }
+    return path.toFile();
+  }
+}
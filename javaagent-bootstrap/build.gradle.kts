@@ -1,3 +1,5 @@
+import io.opentelemetry.instrumentation.gradle.ClassBlobWriter
+
 plugins {
   id("otel.java-conventions")
   id("otel.publish-conventions")
@@ -12,8 +14,30 @@ dependencies {
   testImplementation(project(":instrumentation:resources:library"))
 }
 
-tasks.withType<Test>().configureEach {
-  // required on jdk17
-  jvmArgs("--add-opens=java.base/java.lang=ALL-UNNAMED")
-  jvmArgs("-XX:+IgnoreUnrecognizedVMOptions")
+tasks {
+  // a jar with the same layout as the agent jar, used by AgentClassBlobTest
+  val classBlobTestJar by registering(Jar::class) {
+    from(sourceSets.test.get().output) {
+      include("io/opentelemetry/javaagent/bootstrap/classblob/**")
+      into("inst")
+      rename("(^.*)\\.class\$", "\$1.classdata")
+    }
+    archiveFileName.set("class-blob-test.jar")
+    destinationDirectory.set(layout.buildDirectory.dir("class-blob-test"))
+
+    doLast {
+      ClassBlobWriter.appendClassBlob(archiveFile.get().asFile)
+    }
+  }
+
+  withType<Test>().configureEach {
+    // required on jdk17
+    jvmArgs("--add-opens=java.base/java.lang=ALL-UNNAMED")
+    jvmArgs("-XX:+IgnoreUnrecognizedVMOptions")
+
+    inputs.files(classBlobTestJar).withPropertyName("classBlobTestJar")
+    doFirst {
+      jvmArgs("-Dotel.testing.class-blob-test-jar=${classBlobTestJar.get().archiveFile.get()}")
+    }
+  }
 }
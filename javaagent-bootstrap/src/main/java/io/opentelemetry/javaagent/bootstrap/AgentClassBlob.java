@@ -0,0 +1,207 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.bootstrap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+
+/**
+ * The agent classes of the javaagent jar, packed at build time into a single uncompressed entry
+ * that is indexed by a minimal perfect hash of the class names. The entry is memory mapped, so
+ * looking up a class neither inflates a jar entry nor copies the class bytes onto the heap.
+ *
+ * <p>The layout is written by {@code io.opentelemetry.instrumentation.gradle.ClassBlobWriter}
+ * and the two must be kept in sync.
+ */
+final class AgentClassBlob {
+
+  private static final String COMMENT_PREFIX = "otel.class-blob=";
+  private static final int MAGIC = 0x4F544342;
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_INTS = 6;
+  private static final int CLASS_INTS = 4;
+  private static final int VARIANT_INTS = 3;
+
+  private final ByteBuffer blob;
+  private final int bucketCount;
+  private final int slotCount;
+  private final int slotsOffset;
+  private final int classesOffset;
+  private final int variantsOffset;
+  private final int namesOffset;
+
+  private AgentClassBlob(ByteBuffer blob) {
+    this.blob = blob;
+    bucketCount = blob.getInt(8);
+    slotCount = blob.getInt(12);
+    int classCount = blob.getInt(16);
+    int variantCount = blob.getInt(20);
+    slotsOffset = 4 * (HEADER_INTS + bucketCount);
+    classesOffset = slotsOffset + 4 * slotCount;
+    variantsOffset = classesOffset + 4 * CLASS_INTS * classCount;
+    namesOffset = variantsOffset + 4 * VARIANT_INTS * variantCount;
+  }
+
+  /**
+   * Maps the class blob of the given javaagent jar, returns {@code null} when the jar does not
+   * contain one, when its checksum does not match or when its header is invalid.
+   */
+  @Nullable
+  static AgentClassBlob open(File javaagentFile, @Nullable String jarComment) throws IOException {
+    if (jarComment == null || !jarComment.startsWith(COMMENT_PREFIX)) {
+      return null;
+    }
+    String[] location = jarComment.substring(COMMENT_PREFIX.length()).split(",", 3);
+    if (location.length != 3) {
+      return null;
+    }
+    long offset;
+    long length;
+    long checksum;
+    try {
+      offset = Long.parseLong(location[0].trim());
+      length = Long.parseLong(location[1].trim());
+      checksum = Long.parseLong(location[2].trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    if (offset < 0 || length < 4 * HEADER_INTS || length > Integer.MAX_VALUE) {
+      return null;
+    }
+
+    ByteBuffer blob;
+    // the mapping stays valid after the channel is closed
+    try (RandomAccessFile file = new RandomAccessFile(javaagentFile, "r");
+        FileChannel channel = file.getChannel()) {
+      if (offset + length > channel.size()) {
+        return null;
+      }
+      blob = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+    // the comment may be kept when the jar is repackaged, make sure that it still points at the
+    // blob
+    CRC32 crc = new CRC32();
+    crc.update(blob.duplicate());
+    if (crc.getValue() != checksum) {
+      return null;
+    }
+    if (blob.getInt(0) != MAGIC || blob.getInt(4) != FORMAT_VERSION) {
+      return null;
+    }
+    int bucketCount = blob.getInt(8);
+    int slotCount = blob.getInt(12);
+    int classCount = blob.getInt(16);
+    int variantCount = blob.getInt(20);
+    if (bucketCount <= 0 || slotCount <= 0 || classCount < 0 || variantCount < 0) {
+      return null;
+    }
+    // the index ends where the class names start
+    long indexInts = HEADER_INTS + (long) bucketCount + slotCount;
+    indexInts += (long) CLASS_INTS * classCount + (long) VARIANT_INTS * variantCount;
+    if (4 * indexInts > length) {
+      return null;
+    }
+    return new AgentClassBlob(blob);
+  }
+
+  /**
+   * Returns the bytes of the given class for the given java version, or {@code null} when the blob
+   * does not contain the class or its index is corrupt.
+   *
+   * @param internalName class name with {@code /} as package separator
+   * @param javaVersion the version of the running jvm, multi-release variants of the class that
+   *     target a later java version are ignored
+   */
+  @Nullable
+  ByteBuffer find(String internalName, int javaVersion) {
+    try {
+      return findVariant(internalName, javaVersion);
+    } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+      // the index points outside of the blob, it is corrupt
+      return null;
+    }
+  }
+
+  @Nullable
+  private ByteBuffer findVariant(String internalName, int javaVersion) {
+    byte[] name = internalName.getBytes(StandardCharsets.UTF_8);
+    int bucket = Math.floorMod(hash(name, 0), bucketCount);
+    int seed = blob.getInt(4 * (HEADER_INTS + bucket));
+    int slot = Math.floorMod(hash(name, seed), slotCount);
+    int classIndex = blob.getInt(slotsOffset + 4 * slot);
+    if (classIndex < 0) {
+      return null;
+    }
+
+    int classOffset = classesOffset + 4 * CLASS_INTS * classIndex;
+    // a perfect hash maps every name to some slot, compare the name to rule out unknown classes
+    if (!nameEquals(blob.getInt(classOffset), blob.getInt(classOffset + 4), name)) {
+      return null;
+    }
+    int firstVariant = blob.getInt(classOffset + 8);
+    int variantCount = blob.getInt(classOffset + 12);
+    // variants are sorted from the highest java version to the lowest
+    for (int i = firstVariant; i < firstVariant + variantCount; i++) {
+      int variantOffset = variantsOffset + 4 * VARIANT_INTS * i;
+      int version = blob.getInt(variantOffset);
+      if (version <= javaVersion) {
+        return slice(blob.getInt(variantOffset + 4), blob.getInt(variantOffset + 8));
+      }
+    }
+    return null;
+  }
+
+  // Visible for testing
+  int bucketCount() {
+    return bucketCount;
+  }
+
+  // Visible for testing
+  int slotCount() {
+    return slotCount;
+  }
+
+  private boolean nameEquals(int offset, int length, byte[] name) {
+    if (length != name.length) {
+      return false;
+    }
+    int start = namesOffset + offset;
+    for (int i = 0; i < length; i++) {
+      if (blob.get(start + i) != name[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private ByteBuffer slice(int offset, int length) {
+    ByteBuffer buffer = blob.duplicate();
+    buffer.position(offset);
+    buffer.limit(offset + length);
+    return buffer.slice();
+  }
+
+  // FNV-1a followed by the murmur3 finalizer, must match ClassBlobWriter.hash()
+  private static int hash(byte[] name, int seed) {
+    int h = 0x811c9dc5 ^ seed;
+    for (byte b : name) {
+      h ^= b & 0xff;
+      h *= 0x01000193;
+    }
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+}
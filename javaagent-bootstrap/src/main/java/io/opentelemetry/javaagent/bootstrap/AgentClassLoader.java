@@ -5,6 +5,7 @@
 
 package io.opentelemetry.javaagent.bootstrap;
 
+import io.opentelemetry.instrumentation.api.internal.ConfigPropertiesUtil;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -16,6 +17,7 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
 import java.security.AllPermission;
 import java.security.CodeSource;
 import java.security.Permission;
@@ -46,6 +48,11 @@ public class AgentClassLoader extends URLClassLoader {
   private static final String AGENT_INITIALIZER_JAR =
       System.getProperty("otel.javaagent.experimental.initializer.jar", "");
 
+  private static final boolean CLASS_BLOB_ENABLED =
+      ConfigPropertiesUtil.getBoolean("otel.javaagent.experimental.class-blob.enabled", false);
+  // the class blob is built from the classes under this prefix
+  private static final String CLASS_BLOB_JAR_ENTRY_PREFIX = "inst/";
+
   private static final String META_INF = "META-INF/";
   private static final String META_INF_VERSIONS = META_INF + "versions/";
 
@@ -68,6 +75,7 @@ public class AgentClassLoader extends URLClassLoader {
   private final CodeSource codeSource;
   private final boolean isSecurityManagerSupportEnabled;
   private final Manifest manifest;
+  @Nullable private final AgentClassBlob classBlob;
 
   // Used by tests
   public AgentClassLoader(File javaagentFile) {
@@ -84,6 +92,15 @@ public class AgentClassLoader extends URLClassLoader {
    */
   public AgentClassLoader(
       File javaagentFile, String internalJarFileName, boolean isSecurityManagerSupportEnabled) {
+    this(javaagentFile, internalJarFileName, isSecurityManagerSupportEnabled, CLASS_BLOB_ENABLED);
+  }
+
+  // Visible for testing
+  AgentClassLoader(
+      File javaagentFile,
+      String internalJarFileName,
+      boolean isSecurityManagerSupportEnabled,
+      boolean classBlobEnabled) {
     super(new URL[] {}, getParentClassLoader());
     if (javaagentFile == null) {
       throw new IllegalArgumentException("Agent jar location should be set");
@@ -110,6 +127,10 @@ public class AgentClassLoader extends URLClassLoader {
     } catch (IOException e) {
       throw new IllegalStateException("Unable to open agent jar", e);
     }
+    classBlob =
+        classBlobEnabled && CLASS_BLOB_JAR_ENTRY_PREFIX.equals(jarEntryPrefix)
+            ? openClassBlob(javaagentFile, jarFile.getComment())
+            : null;
 
     if (!AGENT_INITIALIZER_JAR.isEmpty()) {
       URL url;
@@ -127,6 +148,16 @@ public class AgentClassLoader extends URLClassLoader {
     }
   }
 
+  @Nullable
+  private static AgentClassBlob openClassBlob(File javaagentFile, @Nullable String jarComment) {
+    try {
+      return AgentClassBlob.open(javaagentFile, jarComment);
+    } catch (IOException e) {
+      // classes are loaded from the jar entries instead
+      return null;
+    }
+  }
+
   private static ClassLoader getParentClassLoader() {
     if (JAVA_VERSION > 8) {
       return new PlatformDelegatingClassLoader();
@@ -169,6 +200,14 @@ public class AgentClassLoader extends URLClassLoader {
   }
 
   private Class<?> findAgentClass(String name) throws ClassNotFoundException {
+    if (classBlob != null) {
+      ByteBuffer bytes = classBlob.find(name.replace('.', '/'), JAVA_VERSION);
+      if (bytes != null) {
+        definePackageIfNeeded(name);
+        return defineClass(name, bytes, codeSource);
+      }
+    }
+
     AgentJarResource jarResource = findAgentJarResource(name.replace('.', '/') + ".class");
     if (jarResource != null) {
       byte[] bytes;
@@ -0,0 +1,146 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.bootstrap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.javaagent.bootstrap.classblob.ClassBlobFixture;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AgentClassBlobTest {
+
+  private static final String FIXTURE_NAME = ClassBlobFixture.class.getName();
+  private static final String FIXTURE_INTERNAL_NAME = FIXTURE_NAME.replace('.', '/');
+  private static final int JAVA_VERSION = 8;
+
+  // header ints: magic, format version, bucket count, slot count, class count, variant count
+  private static final int INDEX_OFFSET = 24;
+
+  @TempDir Path tempDir;
+
+  @Test
+  void findsClassBytes() throws Exception {
+    AgentClassBlob classBlob = openClassBlob(testJar());
+    assertThat(classBlob).isNotNull();
+
+    ByteBuffer bytes = classBlob.find(FIXTURE_INTERNAL_NAME, JAVA_VERSION);
+    assertThat(bytes).isNotNull();
+    byte[] classBytes = new byte[bytes.remaining()];
+    bytes.get(classBytes);
+    assertThat(classBytes).isEqualTo(fixtureBytes());
+
+    assertThat(classBlob.find("com/example/Missing", JAVA_VERSION)).isNull();
+  }
+
+  @Test
+  void loadsClassFromBlob() throws Exception {
+    assertLoadsFixture(testJar());
+  }
+
+  @Test
+  void fallsBackWhenBlobIsMissing() throws Exception {
+    File jar = tempDir.resolve("no-blob.jar").toFile();
+    try (JarOutputStream out =
+        new JarOutputStream(Files.newOutputStream(jar.toPath()), new Manifest())) {
+      out.putNextEntry(new JarEntry("inst/" + FIXTURE_INTERNAL_NAME + ".classdata"));
+      out.write(fixtureBytes());
+      out.closeEntry();
+    }
+
+    assertThat(openClassBlob(jar)).isNull();
+    assertLoadsFixture(jar);
+  }
+
+  @Test
+  void fallsBackWhenHeaderIsCorrupt() throws Exception {
+    File jar = copyOfTestJar();
+    overwrite(jar, blobOffset(jar), 4);
+
+    assertThat(openClassBlob(jar)).isNull();
+    assertLoadsFixture(jar);
+  }
+
+  @Test
+  void fallsBackWhenChecksumDoesNotMatch() throws Exception {
+    File jar = copyOfTestJar();
+    AgentClassBlob classBlob = openClassBlob(jar);
+    assertThat(classBlob).isNotNull();
+    int indexLength = 4 * (classBlob.bucketCount() + classBlob.slotCount());
+    overwrite(jar, blobOffset(jar) + INDEX_OFFSET, indexLength);
+
+    assertThat(openClassBlob(jar)).isNull();
+    assertLoadsFixture(jar);
+  }
+
+  private static void assertLoadsFixture(File jar) throws Exception {
+    AgentClassLoader loader = new AgentClassLoader(jar, "inst", false, true);
+    Class<?> clazz = loader.loadClass(FIXTURE_NAME);
+    assertThat(clazz.getClassLoader()).isSameAs(loader);
+    assertThat(clazz.getDeclaredConstructor().newInstance()).hasToString("class blob fixture");
+  }
+
+  @Nullable
+  private static AgentClassBlob openClassBlob(File jar) throws IOException {
+    try (JarFile jarFile = new JarFile(jar)) {
+      return AgentClassBlob.open(jar, jarFile.getComment());
+    }
+  }
+
+  private static File testJar() {
+    return new File(System.getProperty("otel.testing.class-blob-test-jar"));
+  }
+
+  private File copyOfTestJar() throws IOException {
+    Path copy = tempDir.resolve("class-blob-test.jar");
+    Files.copy(testJar().toPath(), copy);
+    return copy.toFile();
+  }
+
+  private static long blobOffset(File jar) throws IOException {
+    try (JarFile jarFile = new JarFile(jar)) {
+      String comment = jarFile.getComment();
+      return Long.parseLong(comment.substring(comment.indexOf('=') + 1, comment.indexOf(',')));
+    }
+  }
+
+  private static void overwrite(File file, long offset, int length) throws IOException {
+    byte[] garbage = new byte[length];
+    Arrays.fill(garbage, (byte) 0x7F);
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      randomAccessFile.seek(offset);
+      randomAccessFile.write(garbage);
+    }
+  }
+
+  private static byte[] fixtureBytes() throws IOException {
+    try (InputStream in =
+        ClassBlobFixture.class.getResourceAsStream(
+            ClassBlobFixture.class.getSimpleName() + ".class")) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+}
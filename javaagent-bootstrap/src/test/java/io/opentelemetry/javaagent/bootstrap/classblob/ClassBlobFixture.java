@@ -0,0 +1,15 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.bootstrap.classblob;
+
+/** Packed into the class blob of the test jar that is built for {@code AgentClassBlobTest}. */
+public class ClassBlobFixture {
+
+  @Override
+  public String toString() {
+    return "class blob fixture";
+  }
+}
@@ -1,6 +1,7 @@
 plugins {
   id("otel.java-conventions")
   id("otel.japicmp-conventions")
+  id("otel.jmh-conventions")
   id("otel.publish-conventions")
 }
 
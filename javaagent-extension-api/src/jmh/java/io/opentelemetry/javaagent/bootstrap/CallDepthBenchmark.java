@@ -0,0 +1,113 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.bootstrap;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures tracking the call depth of a request that passes through a number of instrumented
+ * classes on a new thread, which is the worst case for a per-thread store. The {@code virtual}
+ * thread type requires Java 21 or later.
+ */
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CallDepthBenchmark {
+
+  // stand-ins for the classes that instrumentations pass to CallDepth.forClass()
+  private static final Class<?>[] INSTRUMENTED_CLASSES = {
+    Object.class,
+    String.class,
+    Integer.class,
+    Long.class,
+    Short.class,
+    Byte.class,
+    Double.class,
+    Float.class,
+    Character.class,
+    Boolean.class,
+    Thread.class,
+    Runnable.class,
+    Number.class,
+    Math.class,
+    StringBuilder.class,
+    Exception.class,
+    RuntimeException.class,
+    Error.class,
+    ClassLoader.class,
+    System.class
+  };
+
+  @Param({"platform", "virtual"})
+  String threadType;
+
+  private ThreadFactory threadFactory;
+
+  @Setup
+  public void setUp() throws Throwable {
+    if (threadType.equals("virtual")) {
+      threadFactory = virtualThreadFactory();
+    } else {
+      threadFactory = Thread::new;
+    }
+  }
+
+  @Benchmark
+  public int newThread() throws InterruptedException {
+    int[] result = new int[1];
+    Thread thread = threadFactory.newThread(() -> result[0] = trackCalls());
+    thread.start();
+    thread.join();
+    return result[0];
+  }
+
+  private static int trackCalls() {
+    int sum = 0;
+    for (Class<?> instrumentedClass : INSTRUMENTED_CLASSES) {
+      sum += CallDepth.forClass(instrumentedClass).getAndIncrement();
+    }
+    for (Class<?> instrumentedClass : INSTRUMENTED_CLASSES) {
+      sum += CallDepth.forClass(instrumentedClass).decrementAndGet();
+    }
+    return sum;
+  }
+
+  // Thread.ofVirtual().factory(), this module is compiled for Java 8
+  private static ThreadFactory virtualThreadFactory() throws Throwable {
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    Class<?> builderClass;
+    Class<?> virtualBuilderClass;
+    try {
+      builderClass = Class.forName("java.lang.Thread$Builder");
+      virtualBuilderClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("Virtual threads require Java 21 or later", e);
+    }
+    MethodHandle ofVirtual =
+        lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(virtualBuilderClass));
+    MethodHandle factory =
+        lookup.findVirtual(builderClass, "factory", MethodType.methodType(ThreadFactory.class));
+    return (ThreadFactory) factory.invoke(ofVirtual.invoke());
+  }
+}
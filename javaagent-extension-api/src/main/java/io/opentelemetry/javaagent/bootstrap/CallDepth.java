@@ -22,10 +22,12 @@ package io.opentelemetry.javaagent.bootstrap;
  */
 public final class CallDepth {
 
+  // the generation of the class id that this instance was created for
+  final int generation;
   private int depth;
 
-  CallDepth() {
-    this.depth = 0;
+  CallDepth(int generation) {
+    this.generation = generation;
   }
 
   /**
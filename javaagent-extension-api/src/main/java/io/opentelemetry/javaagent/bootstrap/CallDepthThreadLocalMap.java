@@ -5,24 +5,118 @@
 
 package io.opentelemetry.javaagent.bootstrap;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Stores the {@link CallDepth} instances of a thread in a single array, indexed by a dense id that
+ * is assigned to a class the first time it is passed to {@link CallDepth#forClass(Class)}.
+ * Compared to a {@link ThreadLocal} per class, a thread only needs one thread local entry and one
+ * small array no matter how many instrumentations it passes through, which matters when the
+ * application creates a lot of short-lived (e.g. virtual) threads.
+ *
+ * <p>The id of a class that is unloaded is reused for the next new class, so the arrays only grow
+ * up to the number of classes that use {@link CallDepth} at the same time. Every reuse bumps the
+ * generation of the id, which makes threads replace the {@link CallDepth} that they still hold for
+ * the unloaded class.
+ */
 final class CallDepthThreadLocalMap {
 
-  private static final ClassValue<ThreadLocalDepth> TLS =
-      new ClassValue<ThreadLocalDepth>() {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final ClassValue<Id> ID =
+      new ClassValue<Id>() {
+        @Override
+        protected Id computeValue(Class<?> type) {
+          return allocateId();
+        }
+      };
+
+  private static final ThreadLocal<Depths> TLS =
+      new ThreadLocal<Depths>() {
         @Override
-        protected ThreadLocalDepth computeValue(Class<?> type) {
-          return new ThreadLocalDepth();
+        protected Depths initialValue() {
+          return new Depths();
         }
       };
 
+  private static final ReferenceQueue<Id> collectedIds = new ReferenceQueue<>();
+  // keeps the references to the ids reachable until the ids are collected
+  private static final Set<IdReference> idReferences = new HashSet<>();
+  private static final ArrayDeque<IdReference> freeIds = new ArrayDeque<>();
+  private static volatile int idCount;
+
   static CallDepth getCallDepth(Class<?> k) {
-    return TLS.get(k).get();
+    Id id = ID.get(k);
+    Depths depths = TLS.get();
+    if (id.index < depths.callDepths.length) {
+      CallDepth callDepth = depths.callDepths[id.index];
+      if (callDepth != null && callDepth.generation == id.generation) {
+        return callDepth;
+      }
+    }
+    return depths.newCallDepth(id);
+  }
+
+  private static synchronized Id allocateId() {
+    IdReference collected;
+    while ((collected = (IdReference) collectedIds.poll()) != null) {
+      idReferences.remove(collected);
+      freeIds.push(collected);
+    }
+
+    IdReference free = freeIds.poll();
+    Id id = free != null ? new Id(free.index, free.generation + 1) : new Id(idCount++, 0);
+    idReferences.add(new IdReference(id, collectedIds));
+    return id;
   }
 
-  private static final class ThreadLocalDepth extends ThreadLocal<CallDepth> {
-    @Override
-    protected CallDepth initialValue() {
-      return new CallDepth();
+  // Visible for testing
+  static int idCount() {
+    return idCount;
+  }
+
+  // Visible for testing
+  static int index(Class<?> k) {
+    return ID.get(k).index;
+  }
+
+  private static final class Id {
+    final int index;
+    final int generation;
+
+    Id(int index, int generation) {
+      this.index = index;
+      this.generation = generation;
+    }
+  }
+
+  /** Enqueued once the class, and with it the id in its class value, is collected. */
+  private static final class IdReference extends WeakReference<Id> {
+    final int index;
+    final int generation;
+
+    IdReference(Id id, ReferenceQueue<Id> queue) {
+      super(id, queue);
+      this.index = id.index;
+      this.generation = id.generation;
+    }
+  }
+
+  private static final class Depths {
+    CallDepth[] callDepths = new CallDepth[Math.max(INITIAL_CAPACITY, idCount)];
+
+    CallDepth newCallDepth(Id id) {
+      if (id.index >= callDepths.length) {
+        callDepths = Arrays.copyOf(callDepths, Math.max(id.index + 1, callDepths.length * 2));
+      }
+      CallDepth callDepth = new CallDepth(id.generation);
+      callDepths[id.index] = callDepth;
+      return callDepth;
     }
   }
 
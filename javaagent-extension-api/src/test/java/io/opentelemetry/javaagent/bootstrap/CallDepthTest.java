@@ -6,7 +6,12 @@
 package io.opentelemetry.javaagent.bootstrap;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 
 class CallDepthTest {
@@ -28,4 +33,69 @@ class CallDepthTest {
     assertThat(CallDepth.forClass(Double.class).getAndIncrement()).isZero();
     assertThat(CallDepth.forClass(Double.class).decrementAndGet()).isZero();
   }
+
+  @Test
+  void depthIsTrackedPerThread() throws Exception {
+    CallDepth callDepth = CallDepth.forClass(Long.class);
+    assertThat(callDepth.getAndIncrement()).isZero();
+
+    AtomicInteger otherThreadDepth = new AtomicInteger(-1);
+    Thread thread =
+        new Thread(() -> otherThreadDepth.set(CallDepth.forClass(Long.class).getAndIncrement()));
+    thread.start();
+    thread.join();
+
+    assertThat(otherThreadDepth.get()).isZero();
+    assertThat(callDepth.decrementAndGet()).isZero();
+  }
+
+  @Test
+  void instanceIsReusedPerThread() {
+    assertThat(CallDepth.forClass(Short.class)).isSameAs(CallDepth.forClass(Short.class));
+  }
+
+  @Test
+  void idOfUnloadedClassIsReused() throws Exception {
+    // leaves the depth of the unloaded class at 1
+    CallDepth.forClass(newClass()).getAndIncrement();
+
+    await()
+        .untilAsserted(
+            () -> {
+              System.gc();
+              int idCount = CallDepthThreadLocalMap.idCount();
+              Class<?> newClass = newClass();
+              CallDepth callDepth = CallDepth.forClass(newClass);
+              assertThat(callDepth.getAndIncrement()).isZero();
+              assertThat(CallDepthThreadLocalMap.index(newClass)).isLessThan(idCount);
+            });
+  }
+
+  /** Defines a copy of {@link Unloadable} in a new class loader that can be collected. */
+  private static Class<?> newClass() throws IOException {
+    String resource = Unloadable.class.getName().replace('.', '/') + ".class";
+    byte[] bytes;
+    try (InputStream in = CallDepthTest.class.getClassLoader().getResourceAsStream(resource)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      bytes = out.toByteArray();
+    }
+    return new DefiningClassLoader().define(Unloadable.class.getName(), bytes);
+  }
+
+  private static class DefiningClassLoader extends ClassLoader {
+    DefiningClassLoader() {
+      super(null);
+    }
+
+    Class<?> define(String name, byte[] bytes) {
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+  }
+
+  static class Unloadable {}
 }
@@ -26,6 +26,8 @@ public class IgnoredTypesMatcherBenchmark {
 
   private static final TypeDescription springType =
       new TypeDescription.Latent("org.springframework.test.SomeClass", 0, null);
+  private static final TypeDescription nettyType =
+      new TypeDescription.Latent("io.netty.handler.codec.http.HttpObjectDecoder", 0, null);
   private static final TypeDescription testAppType =
       new TypeDescription.Latent("com.example.myapp.Main", 0, null);
 
@@ -43,6 +45,11 @@ public class IgnoredTypesMatcherBenchmark {
     return ignoredTypesMatcher.matches(springType);
   }
 
+  @Benchmark
+  public boolean nettyType() {
+    return ignoredTypesMatcher.matches(nettyType);
+  }
+
   @Benchmark
   public boolean appType() {
     return ignoredTypesMatcher.matches(testAppType);
@@ -42,6 +42,8 @@ import io.opentelemetry.javaagent.tooling.config.EarlyInitAgentConfig;
 import io.opentelemetry.javaagent.tooling.field.FieldBackedImplementationConfiguration;
 import io.opentelemetry.javaagent.tooling.field.VirtualFieldImplementationInstaller;
 import io.opentelemetry.javaagent.tooling.field.VirtualFieldImplementationInstallerFactory;
+import io.opentelemetry.javaagent.tooling.ignore.ClassMatchingCache;
+import io.opentelemetry.javaagent.tooling.ignore.IgnoreAllow;
 import io.opentelemetry.javaagent.tooling.ignore.IgnoredClassLoadersMatcher;
 import io.opentelemetry.javaagent.tooling.ignore.IgnoredTypesBuilderImpl;
 import io.opentelemetry.javaagent.tooling.ignore.IgnoredTypesMatcher;
@@ -158,6 +160,11 @@ public class AgentInstaller {
               .with(new RedefinitionDiscoveryStrategy())
               .with(new RedefinitionLoggingListener())
               .with(new TransformLoggingListener());
+      Runtime.getRuntime()
+          .addShutdownHook(
+              new Thread(
+                  () -> logger.log(FINE, "Type pool statistics {0}", AgentTooling.poolStrategy()),
+                  "otel-javaagent-type-pool-statistics"));
     }
 
     installEarlyInstrumentation(agentBuilder, inst);
@@ -261,7 +268,10 @@ public class AgentInstaller {
   }
 
   private static void copyNecessaryConfigToSystemProperties(ConfigProperties config) {
-    for (String property : asList("otel.instrumentation.experimental.span-suppression-strategy")) {
+    for (String property :
+        asList(
+            "otel.instrumentation.experimental.span-suppression-strategy",
+            "otel.instrumentation.common.db-statement-sanitizer.cache.max-chars")) {
       String value = config.getString(property);
       if (value != null) {
         System.setProperty(property, value);
@@ -302,13 +312,27 @@ public class AgentInstaller {
     Trie<Boolean> ignoredTasksTrie = builder.buildIgnoredTasksTrie();
     InstrumentedTaskClasses.setIgnoredTaskClassesPredicate(ignoredTasksTrie::contains);
 
-    return agentBuilder
-        .ignore(any(), new IgnoredClassLoadersMatcher(builder.buildIgnoredClassLoadersTrie()))
-        .or(new IgnoredTypesMatcher(builder.buildIgnoredTypesTrie()))
-        .or(
-            (typeDescription, classLoader, module, classBeingRedefined, protectionDomain) -> {
-              return HelperInjector.isInjectedClass(classLoader, typeDescription.getName());
-            });
+    Trie<IgnoreAllow> ignoredTypesTrie = builder.buildIgnoredTypesTrie();
+    logger.log(FINE, "Built ignored types {0}", ignoredTypesTrie);
+
+    ClassMatchingCache classMatchingCache = ClassMatchingCache.create(config);
+    if (classMatchingCache != null) {
+      agentBuilder = agentBuilder.with(classMatchingCache);
+    }
+
+    AgentBuilder.Ignored ignored =
+        agentBuilder
+            .ignore(any(), new IgnoredClassLoadersMatcher(builder.buildIgnoredClassLoadersTrie()))
+            .or(new IgnoredTypesMatcher(ignoredTypesTrie))
+            .or(
+                (typeDescription, classLoader, module, classBeingRedefined, protectionDomain) -> {
+                  return HelperInjector.isInjectedClass(classLoader, typeDescription.getName());
+                });
+    if (classMatchingCache != null) {
+      // evaluated last so that only the classes that reach the type matchers are recorded
+      ignored = ignored.or(classMatchingCache);
+    }
+    return ignored;
   }
 
   private static void addHttpServerResponseCustomizers(ClassLoader extensionClassLoader) {
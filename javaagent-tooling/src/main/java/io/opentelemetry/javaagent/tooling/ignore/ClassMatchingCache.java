@@ -0,0 +1,495 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.ignore;
+
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.WARNING;
+
+import io.opentelemetry.javaagent.bootstrap.JavaagentFileHolder;
+import io.opentelemetry.javaagent.tooling.AgentVersion;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.ProtectionDomain;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.Nullable;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.utility.JavaModule;
+
+/**
+ * An opt-in persistent cache of classes that did not match any type instrumentation. Classes are
+ * recorded per jar, and on later starts they are ignored without running the type matchers.
+ *
+ * <p>Only classes of jars on the {@code java.class.path} are recorded, including the jars nested in
+ * them (e.g. Spring Boot executable jars). The outcome of matching a class may depend on other
+ * classes, e.g. its super types or the classes checked by class loader matchers, which for these
+ * jars are on the class path as well. Jars loaded from elsewhere, e.g. web applications deployed to
+ * an application server, may depend on classes that the cache doesn't track, so they are not
+ * cached.
+ *
+ * <p>The recorded classes of a jar are only used when the checksum of the jar, computed from the
+ * CRCs in its central directory, did not change. For nested jars the checksum of the outermost jar
+ * file is used. The whole cache is discarded when the agent version, the {@code
+ * otel.instrumentation.*} or {@code otel.javaagent.*} configuration, the contents of the
+ * configuration file, the agent jar and the extensions, the Java runtime, or the entries of the
+ * {@code java.class.path} change. The cache is disabled for development (SNAPSHOT) versions of the
+ * agent, whose instrumentations change without a version change.
+ *
+ * <p>The cache is written when the JVM shuts down.
+ */
+public final class ClassMatchingCache extends AgentBuilder.Listener.Adapter
+    implements AgentBuilder.RawMatcher {
+
+  private static final Logger logger = Logger.getLogger(ClassMatchingCache.class.getName());
+
+  private static final String ENABLED_PROPERTY =
+      "otel.javaagent.experimental.class-matching-cache.enabled";
+  private static final String DIRECTORY_PROPERTY =
+      "otel.javaagent.experimental.class-matching-cache.directory";
+  private static final String TESTING_ALLOW_SNAPSHOT_PROPERTY =
+      "otel.javaagent.testing.class-matching-cache.snapshot.enabled";
+  private static final String CONFIGURATION_FILE_PROPERTY = "otel.javaagent.configuration-file";
+  private static final String EXTENSIONS_PROPERTY = "otel.javaagent.extensions";
+
+  private static final String FORMAT_VERSION = "1";
+  private static final String LOCATION_PREFIX = "L\t";
+  private static final String CLASS_PREFIX = "C\t";
+
+  // used for locations that can not be cached, e.g. directories
+  private static final JarClasses NOT_CACHEABLE = new JarClasses("");
+
+  private final Path file;
+  private final String fingerprint;
+  // absolute paths of the jars on the class path
+  private final Set<String> classPathJars;
+  // classes persisted by a previous run, by code source location
+  private final Map<String, JarClasses> persisted;
+  // classes of the jars seen in this run, by code source location
+  private final ConcurrentHashMap<String, JarClasses> jars = new ConcurrentHashMap<>();
+  // checksums of the jar files seen in this run, by path
+  private final ConcurrentHashMap<String, String> checksums = new ConcurrentHashMap<>();
+  private final ThreadLocal<PendingClass> pending = new ThreadLocal<>();
+  private volatile boolean modified;
+
+  /** Returns a new cache when it is enabled in the configuration, {@code null} otherwise. */
+  @Nullable
+  public static ClassMatchingCache create(ConfigProperties config) {
+    if (!config.getBoolean(ENABLED_PROPERTY, false)) {
+      return null;
+    }
+    String version = AgentVersion.VERSION;
+    // the fingerprint covers the agent jar, snapshots can be allowed for benchmarking them
+    boolean allowSnapshot = config.getBoolean(TESTING_ALLOW_SNAPSHOT_PROPERTY, false);
+    if (version == null || (version.endsWith("-SNAPSHOT") && !allowSnapshot)) {
+      logger.log(
+          WARNING,
+          "The class matching cache is not supported for development versions of the agent: {0}",
+          version);
+      return null;
+    }
+    String directory =
+        config.getString(
+            DIRECTORY_PROPERTY,
+            System.getProperty("java.io.tmpdir") + File.separator + "opentelemetry-javaagent");
+    Path file = Paths.get(directory, "class-matching-" + version + ".cache");
+
+    List<String> classPath =
+        Arrays.asList(System.getProperty("java.class.path", "").split(File.pathSeparator));
+    Set<String> classPathJars = new HashSet<>();
+    for (String entry : classPath) {
+      if (entry.endsWith(".jar")) {
+        classPathJars.add(new File(entry).getAbsolutePath());
+      }
+    }
+
+    ClassMatchingCache cache =
+        new ClassMatchingCache(file, fingerprint(version, config, classPath), classPathJars);
+    Runtime.getRuntime()
+        .addShutdownHook(new Thread(cache::save, "otel-javaagent-class-matching-cache"));
+    return cache;
+  }
+
+  // Visible for testing
+  ClassMatchingCache(Path file, String fingerprint, Set<String> classPathJars) {
+    this.file = file;
+    this.fingerprint = fingerprint;
+    this.classPathJars = classPathJars;
+    this.persisted = load(file, fingerprint);
+  }
+
+  @Override
+  public boolean matches(
+      TypeDescription typeDescription,
+      ClassLoader classLoader,
+      JavaModule module,
+      Class<?> classBeingRedefined,
+      ProtectionDomain protectionDomain) {
+    if (classBeingRedefined != null) {
+      return false;
+    }
+    JarClasses jar = jarClasses(protectionDomain);
+    if (jar == null) {
+      return false;
+    }
+    String name = typeDescription.getName();
+    if (jar.classes.contains(name)) {
+      return true;
+    }
+    // the outcome of matching is recorded by onIgnored()
+    pending.set(new PendingClass(name, jar));
+    return false;
+  }
+
+  @Override
+  public void onIgnored(
+      TypeDescription typeDescription,
+      @Nullable ClassLoader classLoader,
+      @Nullable JavaModule module,
+      boolean loaded) {
+    PendingClass pendingClass = pending.get();
+    if (pendingClass != null && pendingClass.name.equals(typeDescription.getName())) {
+      if (pendingClass.jar.classes.add(pendingClass.name)) {
+        modified = true;
+      }
+    }
+  }
+
+  @Override
+  public void onComplete(
+      String typeName,
+      @Nullable ClassLoader classLoader,
+      @Nullable JavaModule module,
+      boolean loaded) {
+    pending.remove();
+  }
+
+  @Nullable
+  private JarClasses jarClasses(@Nullable ProtectionDomain protectionDomain) {
+    if (protectionDomain == null) {
+      return null;
+    }
+    CodeSource codeSource = protectionDomain.getCodeSource();
+    URL location = codeSource != null ? codeSource.getLocation() : null;
+    if (location == null) {
+      return null;
+    }
+    String key = location.toString();
+    JarClasses jar = jars.get(key);
+    if (jar == null) {
+      // intentionally not using computeIfAbsent(), reading the jar may load classes which would
+      // call back into this method
+      jar = resolveJarClasses(key);
+      JarClasses previous = jars.putIfAbsent(key, jar);
+      if (previous != null) {
+        jar = previous;
+      }
+    }
+    return jar != NOT_CACHEABLE ? jar : null;
+  }
+
+  private JarClasses resolveJarClasses(String location) {
+    String jarFile = outermostJarFile(location);
+    if (jarFile == null || !classPathJars.contains(new File(jarFile).getAbsolutePath())) {
+      return NOT_CACHEABLE;
+    }
+    String checksum = checksums.get(jarFile);
+    if (checksum == null) {
+      checksum = checksum(jarFile);
+      checksums.put(jarFile, checksum);
+    }
+    if (checksum.isEmpty()) {
+      return NOT_CACHEABLE;
+    }
+    JarClasses previous = persisted.get(location);
+    if (previous != null && previous.checksum.equals(checksum)) {
+      return previous;
+    }
+    // the jar is new or changed, classes recorded for it are no longer valid
+    modified = true;
+    return new JarClasses(checksum);
+  }
+
+  /**
+   * Returns the path of the jar file that contains the code source, e.g. {@code /app/app.jar} for
+   * {@code jar:nested:/app/app.jar/!BOOT-INF/lib/library.jar!/}.
+   */
+  @Nullable
+  static String outermostJarFile(String location) {
+    String path = location;
+    while (path.startsWith("jar:")) {
+      path = path.substring("jar:".length());
+    }
+    if (path.startsWith("file:")) {
+      path = path.substring("file:".length());
+    } else if (path.startsWith("nested:")) {
+      path = path.substring("nested:".length());
+    } else {
+      return null;
+    }
+    int end = path.indexOf(".jar");
+    if (end < 0) {
+      return null;
+    }
+    path = path.substring(0, end + ".jar".length());
+    try {
+      // keep '+' which is not an escape character in urls
+      return URLDecoder.decode(path.replace("+", "%2B"), "UTF-8");
+    } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a checksum of the jar computed from the names and the CRCs of its entries, which only
+   * requires reading the central directory, or an empty string when the jar can't be read.
+   */
+  static String checksum(String jarFile) {
+    File file = new File(jarFile);
+    try (ZipFile zip = new ZipFile(file)) {
+      MessageDigest digest = sha256();
+      Enumeration<? extends ZipEntry> entries = zip.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        update(digest, entry.getName());
+        update(digest, Long.toHexString(entry.getCrc()));
+      }
+      return file.length() + "-" + toHex(digest.digest());
+    } catch (IOException | RuntimeException e) {
+      logger.log(FINE, "Could not compute the checksum of " + jarFile, e);
+      return "";
+    }
+  }
+
+  // Visible for testing
+  static String fingerprint(String version, ConfigProperties config, List<String> classPath) {
+    MessageDigest digest = sha256();
+    // sorted so that the fingerprint does not depend on iteration order
+    Map<String, String> relevant = new TreeMap<>();
+    System.getProperties()
+        .forEach(
+            (key, value) -> {
+              String name = String.valueOf(key);
+              if (name.startsWith("otel.instrumentation.") || name.startsWith("otel.javaagent.")) {
+                relevant.put(name, String.valueOf(value));
+              }
+            });
+    System.getenv()
+        .forEach(
+            (name, value) -> {
+              if (name.startsWith("OTEL_INSTRUMENTATION_") || name.startsWith("OTEL_JAVAAGENT_")) {
+                relevant.put(name, value);
+              }
+            });
+    relevant.put("java.home", System.getProperty("java.home", ""));
+    relevant.put("java.vm.version", System.getProperty("java.vm.version", ""));
+    relevant.forEach(
+        (key, value) -> {
+          update(digest, key);
+          update(digest, value);
+        });
+
+    // the configuration file and the extensions are only referenced by the configuration above
+    String configurationFile = config.getString(CONFIGURATION_FILE_PROPERTY);
+    if (configurationFile != null) {
+      updateWithContents(
+          digest, new File(configurationFile.replaceFirst("^~", System.getProperty("user.home"))));
+    }
+    String extensions = config.getString(EXTENSIONS_PROPERTY);
+    if (extensions != null) {
+      for (String location : extensions.split(",")) {
+        File extension = new File(location.trim());
+        File[] jars = extension.listFiles((dir, name) -> name.endsWith(".jar"));
+        if (jars == null) {
+          updateWithContents(digest, extension);
+        } else {
+          Arrays.sort(jars);
+          for (File jar : jars) {
+            updateWithContents(digest, jar);
+          }
+        }
+      }
+    }
+    // covers the extensions embedded in the agent jar
+    File javaagentFile = JavaagentFileHolder.getJavaagentFile();
+    if (javaagentFile != null) {
+      update(digest, checksum(javaagentFile.getPath()));
+    }
+
+    for (String entry : classPath) {
+      File file = new File(entry);
+      update(digest, entry);
+      if (file.isDirectory()) {
+        updateWithDirectory(digest, file.toPath());
+      } else {
+        update(digest, checksum(entry));
+      }
+    }
+    return FORMAT_VERSION + "-" + version + "-" + toHex(digest.digest());
+  }
+
+  private static void updateWithContents(MessageDigest digest, File file) {
+    update(digest, file.getAbsolutePath());
+    try (InputStream in = Files.newInputStream(file.toPath())) {
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+    } catch (IOException e) {
+      update(digest, "unreadable");
+    }
+  }
+
+  // the classes of a directory are not cached, but they may be the super types of cached classes
+  private static void updateWithDirectory(MessageDigest digest, Path directory) {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      List<Path> files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+      for (Path path : files) {
+        File file = path.toFile();
+        update(digest, path.toString());
+        update(digest, file.length() + "-" + file.lastModified());
+      }
+    } catch (IOException | RuntimeException e) {
+      update(digest, "unreadable");
+    }
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    // separates consecutive values
+    digest.update((byte) 0);
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  private static Map<String, JarClasses> load(Path file, String fingerprint) {
+    Map<String, JarClasses> result = new HashMap<>();
+    if (!Files.exists(file)) {
+      return result;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      if (!fingerprint.equals(reader.readLine())) {
+        logger.log(FINE, "Discarding outdated class matching cache {0}", file);
+        return result;
+      }
+      JarClasses current = null;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith(LOCATION_PREFIX)) {
+          int separator = line.lastIndexOf('\t');
+          current = new JarClasses(line.substring(separator + 1));
+          result.put(line.substring(LOCATION_PREFIX.length(), separator), current);
+        } else if (line.startsWith(CLASS_PREFIX) && current != null) {
+          current.classes.add(line.substring(CLASS_PREFIX.length()));
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.log(WARNING, "Could not read class matching cache " + file, e);
+      result.clear();
+    }
+    return result;
+  }
+
+  // Visible for testing
+  void save() {
+    if (!modified) {
+      return;
+    }
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      // write to a temporary file first so that concurrently starting JVMs never see a partial file
+      Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "class-matching", ".tmp");
+      try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+        writer.write(fingerprint);
+        writer.newLine();
+        // only jars seen in this run are written, this keeps the file from growing indefinitely
+        for (Map.Entry<String, JarClasses> entry : jars.entrySet()) {
+          JarClasses jar = entry.getValue();
+          if (jar == NOT_CACHEABLE || jar.classes.isEmpty()) {
+            continue;
+          }
+          writer.write(LOCATION_PREFIX + entry.getKey() + '\t' + jar.checksum);
+          writer.newLine();
+          for (String className : jar.classes) {
+            writer.write(CLASS_PREFIX + className);
+            writer.newLine();
+          }
+        }
+      }
+      try {
+        Files.move(
+            temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.log(WARNING, "Could not write class matching cache " + file, e);
+    }
+  }
+
+  private static final class JarClasses {
+    final String checksum;
+    final Set<String> classes = ConcurrentHashMap.newKeySet();
+
+    JarClasses(String checksum) {
+      this.checksum = checksum;
+    }
+  }
+
+  private static final class PendingClass {
+    final String name;
+    final JarClasses jar;
+
+    PendingClass(String name, JarClasses jar) {
+      this.name = name;
+      this.jar = jar;
+    }
+  }
+}
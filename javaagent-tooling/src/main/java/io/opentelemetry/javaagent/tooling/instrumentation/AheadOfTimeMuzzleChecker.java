@@ -0,0 +1,119 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.instrumentation;
+
+import static java.util.logging.Level.FINE;
+
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import io.opentelemetry.javaagent.extension.instrumentation.InstrumentationModule;
+import io.opentelemetry.javaagent.tooling.Utils;
+import io.opentelemetry.javaagent.tooling.instrumentation.indy.InstrumentationModuleClassLoader;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.utility.JavaModule;
+
+/**
+ * Runs the muzzle checks of every instrumentation module whose class loader matcher passes for a
+ * class loader in parallel on a background pool, as soon as the first class of that class loader is
+ * discovered. The results land in the cache of the {@link MuzzleMatcher}, so that transforming a
+ * class on an application thread usually only needs a cache lookup instead of resolving the muzzle
+ * references. Mismatches are only logged and counted once a type of the module is transformed,
+ * since many modules pass their class loader matcher but never see their types loaded.
+ */
+final class AheadOfTimeMuzzleChecker extends AgentBuilder.Listener.Adapter {
+
+  private static final Logger logger = Logger.getLogger(AheadOfTimeMuzzleChecker.class.getName());
+
+  private static final String ENABLED_PROPERTY =
+      "otel.javaagent.experimental.muzzle.ahead-of-time.enabled";
+
+  private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+  private final Cache<ClassLoader, Boolean> seenClassLoaders = Cache.weak();
+  private final ForkJoinPool pool;
+
+  /** Returns a new checker when it is enabled in the configuration, {@code null} otherwise. */
+  @Nullable
+  static AheadOfTimeMuzzleChecker create(ConfigProperties config) {
+    if (!config.getBoolean(ENABLED_PROPERTY, false)) {
+      return null;
+    }
+    return new AheadOfTimeMuzzleChecker(
+        Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+  }
+
+  private AheadOfTimeMuzzleChecker(int parallelism) {
+    pool =
+        new ForkJoinPool(
+            parallelism,
+            forkJoinPool -> {
+              ForkJoinWorkerThread thread =
+                  ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+              thread.setName("otel-javaagent-muzzle-" + thread.getPoolIndex());
+              return thread;
+            },
+            null,
+            true);
+  }
+
+  void register(InstrumentationModule instrumentationModule, MuzzleMatcher muzzleMatcher) {
+    muzzleMatcher.publishMatchCache();
+    registrations.add(new Registration(instrumentationModule, muzzleMatcher));
+  }
+
+  @Override
+  public void onDiscovery(
+      String typeName,
+      @Nullable ClassLoader classLoader,
+      @Nullable JavaModule module,
+      boolean loaded) {
+    if (classLoader == null
+        || classLoader == Utils.getAgentClassLoader()
+        || classLoader == Utils.getExtensionsClassLoader()
+        || classLoader instanceof InstrumentationModuleClassLoader
+        || seenClassLoaders.get(classLoader) != null) {
+      return;
+    }
+    // two threads may race to submit the checks of the same class loader, which is harmless since
+    // the muzzle matchers cache their results
+    seenClassLoaders.put(classLoader, Boolean.TRUE);
+    for (Registration registration : registrations) {
+      pool.execute(() -> registration.check(classLoader));
+    }
+  }
+
+  private static final class Registration {
+    private final InstrumentationModule instrumentationModule;
+    private final ElementMatcher<ClassLoader> classLoaderMatcher;
+    private final MuzzleMatcher muzzleMatcher;
+
+    Registration(InstrumentationModule instrumentationModule, MuzzleMatcher muzzleMatcher) {
+      this.instrumentationModule = instrumentationModule;
+      this.classLoaderMatcher = instrumentationModule.classLoaderMatcher();
+      this.muzzleMatcher = muzzleMatcher;
+    }
+
+    void check(ClassLoader classLoader) {
+      try {
+        if (classLoaderMatcher.matches(classLoader)) {
+          muzzleMatcher.checkAheadOfTime(classLoader);
+        }
+      } catch (Throwable t) {
+        // the check is going to be repeated when a type of this module is matched
+        logger.log(
+            FINE,
+            "Ahead of time muzzle check failed for " + instrumentationModule.instrumentationName(),
+            t);
+      }
+    }
+  }
+}
@@ -27,6 +27,7 @@ public class InstrumentationLoader implements AgentExtension {
 
   @Override
   public AgentBuilder extend(AgentBuilder agentBuilder, ConfigProperties config) {
+    AheadOfTimeMuzzleChecker aheadOfTimeMuzzleChecker = AheadOfTimeMuzzleChecker.create(config);
     int numberOfLoadedModules = 0;
     for (InstrumentationModule instrumentationModule :
         loadOrdered(InstrumentationModule.class, Utils.getExtensionsClassLoader())) {
@@ -41,7 +42,8 @@ public class InstrumentationLoader implements AgentExtension {
       }
       try {
         agentBuilder =
-            instrumentationModuleInstaller.install(instrumentationModule, agentBuilder, config);
+            instrumentationModuleInstaller.install(
+                instrumentationModule, agentBuilder, config, aheadOfTimeMuzzleChecker);
         numberOfLoadedModules++;
       } catch (Exception | LinkageError e) {
         logger.log(
@@ -56,6 +58,10 @@ public class InstrumentationLoader implements AgentExtension {
     }
     logger.log(FINE, "Installed {0} instrumentation(s)", numberOfLoadedModules);
 
+    if (aheadOfTimeMuzzleChecker != null) {
+      agentBuilder = agentBuilder.with(aheadOfTimeMuzzleChecker);
+    }
+
     return agentBuilder;
   }
 
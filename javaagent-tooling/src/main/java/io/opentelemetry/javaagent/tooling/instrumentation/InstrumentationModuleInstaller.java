@@ -39,6 +39,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import javax.annotation.Nullable;
 import net.bytebuddy.agent.builder.AgentBuilder;
 import net.bytebuddy.description.annotation.AnnotationSource;
 import net.bytebuddy.description.type.TypeDescription;
@@ -66,7 +67,8 @@ public final class InstrumentationModuleInstaller {
   AgentBuilder install(
       InstrumentationModule instrumentationModule,
       AgentBuilder parentAgentBuilder,
-      ConfigProperties config) {
+      ConfigProperties config,
+      @Nullable AheadOfTimeMuzzleChecker aheadOfTimeMuzzleChecker) {
     if (!AgentConfig.isInstrumentationEnabled(
         config,
         instrumentationModule.instrumentationNames(),
@@ -77,16 +79,19 @@ public final class InstrumentationModuleInstaller {
     }
 
     if (instrumentationModule.isIndyModule()) {
-      return installIndyModule(instrumentationModule, parentAgentBuilder, config);
+      return installIndyModule(
+          instrumentationModule, parentAgentBuilder, config, aheadOfTimeMuzzleChecker);
     } else {
-      return installInjectingModule(instrumentationModule, parentAgentBuilder, config);
+      return installInjectingModule(
+          instrumentationModule, parentAgentBuilder, config, aheadOfTimeMuzzleChecker);
     }
   }
 
   private AgentBuilder installIndyModule(
       InstrumentationModule instrumentationModule,
       AgentBuilder parentAgentBuilder,
-      ConfigProperties config) {
+      ConfigProperties config,
+      @Nullable AheadOfTimeMuzzleChecker aheadOfTimeMuzzleChecker) {
     List<String> helperClassNames =
         InstrumentationModuleMuzzle.getHelperClassNames(instrumentationModule);
     HelperResourceBuilderImpl helperResourceBuilder = new HelperResourceBuilderImpl();
@@ -119,6 +124,9 @@ public final class InstrumentationModuleInstaller {
     }
 
     MuzzleMatcher muzzleMatcher = new MuzzleMatcher(logger, instrumentationModule, config);
+    if (aheadOfTimeMuzzleChecker != null) {
+      aheadOfTimeMuzzleChecker.register(instrumentationModule, muzzleMatcher);
+    }
 
     Function<ClassLoader, List<HelperClassDefinition>> helperGenerator =
         cl -> {
@@ -177,7 +185,8 @@ public final class InstrumentationModuleInstaller {
   private AgentBuilder installInjectingModule(
       InstrumentationModule instrumentationModule,
       AgentBuilder parentAgentBuilder,
-      ConfigProperties config) {
+      ConfigProperties config,
+      @Nullable AheadOfTimeMuzzleChecker aheadOfTimeMuzzleChecker) {
     List<String> helperClassNames =
         InstrumentationModuleMuzzle.getHelperClassNames(instrumentationModule);
     HelperResourceBuilderImpl helperResourceBuilder = new HelperResourceBuilderImpl();
@@ -195,6 +204,9 @@ public final class InstrumentationModuleInstaller {
     }
 
     MuzzleMatcher muzzleMatcher = new MuzzleMatcher(logger, instrumentationModule, config);
+    if (aheadOfTimeMuzzleChecker != null) {
+      aheadOfTimeMuzzleChecker.register(instrumentationModule, muzzleMatcher);
+    }
     AgentBuilder.Transformer helperInjector =
         new HelperInjector(
             instrumentationModule.instrumentationName(),
@@ -10,6 +10,7 @@ import static java.util.logging.Level.WARNING;
 import static net.bytebuddy.dynamic.loading.ClassLoadingStrategy.BOOTSTRAP_LOADER;
 
 import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import io.opentelemetry.javaagent.bootstrap.internal.ClassLoaderMatcherCacheHolder;
 import io.opentelemetry.javaagent.extension.instrumentation.InstrumentationModule;
 import io.opentelemetry.javaagent.tooling.TransformSafeLogger;
 import io.opentelemetry.javaagent.tooling.Utils;
@@ -20,10 +21,13 @@ import io.opentelemetry.javaagent.tooling.muzzle.Mismatch;
 import io.opentelemetry.javaagent.tooling.muzzle.ReferenceMatcher;
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
 import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 import net.bytebuddy.agent.builder.AgentBuilder;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.utility.JavaModule;
@@ -40,9 +44,8 @@ class MuzzleMatcher implements AgentBuilder.RawMatcher {
   private final TransformSafeLogger instrumentationLogger;
   private final InstrumentationModule instrumentationModule;
   private final Level muzzleLogLevel;
-  private final AtomicBoolean initialized = new AtomicBoolean(false);
-  private final Cache<ClassLoader, Boolean> matchCache = Cache.weak();
-  private volatile ReferenceMatcher referenceMatcher;
+  private final Cache<ClassLoader, MatchResult> matchCache = Cache.weak();
+  @Nullable private volatile ReferenceMatcher referenceMatcher;
 
   MuzzleMatcher(
       TransformSafeLogger instrumentationLogger,
@@ -60,6 +63,40 @@ class MuzzleMatcher implements AgentBuilder.RawMatcher {
       JavaModule module,
       Class<?> classBeingRedefined,
       ProtectionDomain protectionDomain) {
+    return matches(classLoader);
+  }
+
+  /**
+   * Returns whether the instrumentation can be applied in the class loader. Mismatches are reported
+   * the first time this is called for a class loader, i.e. when a type of the instrumentation is
+   * about to be transformed.
+   */
+  boolean matches(ClassLoader classLoader) {
+    MatchResult result = getMatchResult(classLoader);
+    if (result.reported.compareAndSet(false, true)) {
+      report(result, classLoader);
+    }
+    return result.matched;
+  }
+
+  /**
+   * Runs the muzzle check for the class loader and caches its result without reporting it, since
+   * the types of the instrumentation may never be loaded by the class loader.
+   */
+  void checkAheadOfTime(ClassLoader classLoader) {
+    getMatchResult(classLoader);
+  }
+
+  /**
+   * Publishes the cached results to {@link ClassLoaderMatcherCacheHolder}, so that they are
+   * invalidated together with the class loader matchers, e.g. when a URL is added to a class loader
+   * after its muzzle checks were run ahead of time.
+   */
+  void publishMatchCache() {
+    ClassLoaderMatcherCacheHolder.addCache(matchCache);
+  }
+
+  private MatchResult getMatchResult(ClassLoader classLoader) {
     if (classLoader == BOOTSTRAP_LOADER) {
       classLoader = Utils.getBootstrapProxy();
     }
@@ -77,11 +114,24 @@ class MuzzleMatcher implements AgentBuilder.RawMatcher {
     }
   }
 
-  private boolean doesMatch(ClassLoader classLoader) {
+  private MatchResult doesMatch(ClassLoader classLoader) {
     ReferenceMatcher muzzle = getReferenceMatcher();
-    boolean isMatch = muzzle.matches(classLoader);
+    if (muzzle.matches(classLoader)) {
+      return new MatchResult(true, Collections.emptyList());
+    }
+    // mismatches are collected now and kept as strings, since some of them reference the class
+    // loader, which must not be reachable from the cached result
+    List<String> mismatches = new ArrayList<>();
+    if (muzzleLogger.isLoggable(muzzleLogLevel)) {
+      for (Mismatch mismatch : muzzle.getMismatchedReferenceSources(classLoader)) {
+        mismatches.add(mismatch.toString());
+      }
+    }
+    return new MatchResult(false, mismatches);
+  }
 
-    if (!isMatch) {
+  private void report(MatchResult result, ClassLoader classLoader) {
+    if (!result.matched) {
       MuzzleFailureCounter.inc();
       if (muzzleLogger.isLoggable(muzzleLogLevel)) {
         muzzleLogger.log(
@@ -92,8 +142,7 @@ class MuzzleMatcher implements AgentBuilder.RawMatcher {
               instrumentationModule.getClass().getName(),
               classLoader
             });
-        List<Mismatch> mismatches = muzzle.getMismatchedReferenceSources(classLoader);
-        for (Mismatch mismatch : mismatches) {
+        for (String mismatch : result.mismatches) {
           muzzleLogger.log(muzzleLogLevel, "-- {0}", mismatch);
         }
       }
@@ -109,16 +158,32 @@ class MuzzleMatcher implements AgentBuilder.RawMatcher {
             });
       }
     }
-
-    return isMatch;
   }
 
   // ReferenceMatcher is lazily created to avoid unnecessarily loading the muzzle references from
   // the module during the agent setup
   private ReferenceMatcher getReferenceMatcher() {
-    if (initialized.compareAndSet(false, true)) {
-      referenceMatcher = ReferenceMatcher.of(instrumentationModule);
+    ReferenceMatcher matcher = referenceMatcher;
+    if (matcher == null) {
+      synchronized (this) {
+        matcher = referenceMatcher;
+        if (matcher == null) {
+          matcher = ReferenceMatcher.of(instrumentationModule);
+          referenceMatcher = matcher;
+        }
+      }
+    }
+    return matcher;
+  }
+
+  private static final class MatchResult {
+    final boolean matched;
+    final List<String> mismatches;
+    final AtomicBoolean reported = new AtomicBoolean();
+
+    MatchResult(boolean matched, List<String> mismatches) {
+      this.matched = matched;
+      this.mismatches = mismatches;
     }
-    return referenceMatcher;
   }
 }
@@ -6,58 +6,136 @@
 package io.opentelemetry.javaagent.tooling.util;
 
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import javax.annotation.Nullable;
 
+/**
+ * A path-compressed prefix tree flattened into a few arrays. Chains of nodes that have a single
+ * child and no value are merged into one edge, so that a common prefix like {@code
+ * org.springframework.} is matched with a single label comparison instead of a node lookup per
+ * character.
+ *
+ * <p>Nodes are numbered in breadth-first order, which makes the children of every node a contiguous
+ * range of node ids. For node {@code n} the {@link #nodes} array holds, starting at {@code n *
+ * NODE_SIZE}: the offset of the edge label leading to {@code n} in {@link #labels}, the length of
+ * that label, the id of the first child and the number of children. Children are sorted by the
+ * first character of their label.
+ */
 final class TrieImpl<V> implements Trie<V> {
 
-  private final Node<V> root;
+  private static final int NODE_SIZE = 4;
+  private static final int LABEL_START = 0;
+  private static final int LABEL_LENGTH = 1;
+  private static final int FIRST_CHILD = 2;
+  private static final int CHILD_COUNT = 3;
+
+  // children are searched linearly below this count
+  private static final int BINARY_SEARCH_THRESHOLD = 8;
 
-  private TrieImpl(Node<V> root) {
-    this.root = root;
+  private final char[] labels;
+  private final int[] nodes;
+  private final Object[] values;
+
+  private TrieImpl(char[] labels, int[] nodes, Object[] values) {
+    this.labels = labels;
+    this.nodes = nodes;
+    this.values = values;
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   public V getOrDefault(CharSequence str, V defaultValue) {
-    Node<V> node = root;
+    int node = 0;
     V lastMatchedValue = defaultValue;
+    int length = str.length();
+    int i = 0;
 
-    for (int i = 0; i < str.length(); ++i) {
-      char c = str.charAt(i);
-      Node<V> next = node.getNext(c);
-      if (next == null) {
+    while (i < length) {
+      int child = findChild(node, str.charAt(i));
+      if (child < 0) {
         return lastMatchedValue;
       }
-      node = next;
+      int offset = child * NODE_SIZE;
+      int labelStart = nodes[offset + LABEL_START];
+      int labelLength = nodes[offset + LABEL_LENGTH];
+      if (length - i < labelLength) {
+        return lastMatchedValue;
+      }
+      // the first character was already compared by findChild()
+      for (int j = 1; j < labelLength; j++) {
+        if (str.charAt(i + j) != labels[labelStart + j]) {
+          return lastMatchedValue;
+        }
+      }
+      i += labelLength;
+      node = child;
       // next node matched, use its value if it's defined
-      lastMatchedValue = next.value != null ? next.value : lastMatchedValue;
+      Object value = values[child];
+      if (value != null) {
+        lastMatchedValue = (V) value;
+      }
     }
 
     return lastMatchedValue;
   }
 
-  static final class Node<V> {
-    final char[] chars;
-    final Node<V>[] children;
-    final V value;
-
-    Node(char[] chars, Node<V>[] children, V value) {
-      this.chars = chars;
-      this.children = children;
-      this.value = value;
+  private int findChild(int node, char c) {
+    int offset = node * NODE_SIZE;
+    int low = nodes[offset + FIRST_CHILD];
+    int count = nodes[offset + CHILD_COUNT];
+    int high = low + count - 1;
+
+    if (count < BINARY_SEARCH_THRESHOLD) {
+      for (int child = low; child <= high; child++) {
+        char first = firstChar(child);
+        if (first == c) {
+          return child;
+        }
+        if (first > c) {
+          return -1;
+        }
+      }
+      return -1;
     }
 
-    @Nullable
-    Node<V> getNext(char c) {
-      int index = Arrays.binarySearch(chars, c);
-      if (index < 0) {
-        return null;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      char first = firstChar(mid);
+      if (first < c) {
+        low = mid + 1;
+      } else if (first > c) {
+        high = mid - 1;
+      } else {
+        return mid;
       }
-      return children[index];
     }
+    return -1;
+  }
+
+  private char firstChar(int node) {
+    return labels[nodes[node * NODE_SIZE + LABEL_START]];
+  }
+
+  // Visible for testing
+  int nodeCount() {
+    return values.length;
+  }
+
+  /** Returns the approximate size of the arrays backing this trie, assuming compressed oops. */
+  long estimatedSizeInBytes() {
+    long arrayHeaders = 3 * 16;
+    return arrayHeaders + labels.length * 2L + nodes.length * 4L + values.length * 4L;
+  }
+
+  @Override
+  public String toString() {
+    return "Trie{nodes=" + nodeCount() + ", estimatedSizeInBytes=" + estimatedSizeInBytes() + "}";
   }
 
   static final class BuilderImpl<V> implements Builder<V> {
@@ -83,30 +161,77 @@ final class TrieImpl<V> implements Trie<V> {
 
     @Override
     public Trie<V> build() {
-      return new TrieImpl<>(root.build());
+      List<CompressedNode> ordered = new ArrayList<>();
+      StringBuilder labels = new StringBuilder();
+
+      // number the compressed nodes in breadth-first order so that siblings get consecutive ids
+      Queue<CompressedNode> queue = new ArrayDeque<>();
+      queue.add(new CompressedNode(root, ""));
+      while (!queue.isEmpty()) {
+        CompressedNode node = queue.remove();
+        ordered.add(node);
+        node.labelStart = labels.length();
+        labels.append(node.label);
+        node.firstChild = ordered.size() + queue.size();
+        node.children = node.builder.compressedChildren();
+        queue.addAll(node.children);
+      }
+
+      int[] nodes = new int[ordered.size() * NODE_SIZE];
+      Object[] values = new Object[ordered.size()];
+      for (int i = 0; i < ordered.size(); i++) {
+        CompressedNode node = ordered.get(i);
+        int offset = i * NODE_SIZE;
+        nodes[offset + LABEL_START] = node.labelStart;
+        nodes[offset + LABEL_LENGTH] = node.label.length();
+        nodes[offset + FIRST_CHILD] = node.firstChild;
+        nodes[offset + CHILD_COUNT] = node.children.size();
+        values[i] = node.builder.value;
+      }
+      char[] labelArray = new char[labels.length()];
+      labels.getChars(0, labels.length(), labelArray, 0);
+      return new TrieImpl<>(labelArray, nodes, values);
     }
   }
 
   static final class NodeBuilder<V> {
     final Map<Character, NodeBuilder<V>> children = new HashMap<>();
-    V value;
-
-    Node<V> build() {
-      int size = children.size();
-      char[] chars = new char[size];
-      @SuppressWarnings({"unchecked", "rawtypes"})
-      Node<V>[] nodes = new Node[size];
-
-      int i = 0;
-      Iterator<Map.Entry<Character, NodeBuilder<V>>> it =
-          this.children.entrySet().stream().sorted(Map.Entry.comparingByKey()).iterator();
-      while (it.hasNext()) {
-        Map.Entry<Character, NodeBuilder<V>> e = it.next();
-        chars[i] = e.getKey();
-        nodes[i++] = e.getValue().build();
-      }
+    @Nullable V value;
+
+    /**
+     * Returns the children of this node sorted by their first character, each one following the
+     * chain of single child nodes without a value.
+     */
+    List<CompressedNode> compressedChildren() {
+      List<CompressedNode> result = new ArrayList<>(children.size());
+      children.entrySet().stream()
+          .sorted(Map.Entry.comparingByKey())
+          .forEach(
+              e -> {
+                StringBuilder label = new StringBuilder().append(e.getKey().charValue());
+                NodeBuilder<V> node = e.getValue();
+                while (node.value == null && node.children.size() == 1) {
+                  Map.Entry<Character, NodeBuilder<V>> only =
+                      node.children.entrySet().iterator().next();
+                  label.append(only.getKey().charValue());
+                  node = only.getValue();
+                }
+                result.add(new CompressedNode(node, label.toString()));
+              });
+      return result;
+    }
+  }
+
+  private static final class CompressedNode {
+    final NodeBuilder<?> builder;
+    final String label;
+    int labelStart;
+    int firstChild;
+    List<CompressedNode> children = Collections.emptyList();
 
-      return new Node<>(chars, nodes, value);
+    CompressedNode(NodeBuilder<?> builder, String label) {
+      this.builder = builder;
+      this.label = label;
     }
   }
 }
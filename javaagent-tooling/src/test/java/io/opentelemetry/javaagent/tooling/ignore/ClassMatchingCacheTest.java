@@ -0,0 +1,182 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.ignore;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.autoconfigure.spi.internal.DefaultConfigProperties;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.security.cert.Certificate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import net.bytebuddy.description.type.TypeDescription;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ClassMatchingCacheTest {
+
+  private static final TypeDescription type =
+      new TypeDescription.Latent("com.example.Unmatched", 0, null);
+
+  @TempDir Path tempDir;
+
+  private Path cacheFile;
+  private Path jar;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    cacheFile = tempDir.resolve("class-matching.cache");
+    jar = tempDir.resolve("app.jar");
+    writeJar(jar, "v1");
+  }
+
+  @Test
+  void ignoresUnmatchedClassesOnNextStart() throws Exception {
+    ClassMatchingCache cache = newCache("fingerprint");
+    assertThat(matches(cache)).isFalse();
+    recordUnmatched(cache);
+    cache.save();
+
+    assertThat(matches(newCache("fingerprint"))).isTrue();
+  }
+
+  @Test
+  void doesNotRecordTransformedClasses() throws Exception {
+    ClassMatchingCache cache = newCache("fingerprint");
+    assertThat(matches(cache)).isFalse();
+    cache.onComplete(type.getName(), null, null, false);
+    cache.save();
+
+    assertThat(matches(newCache("fingerprint"))).isFalse();
+  }
+
+  @Test
+  void invalidatesChangedJar() throws Exception {
+    ClassMatchingCache cache = newCache("fingerprint");
+    assertThat(matches(cache)).isFalse();
+    recordUnmatched(cache);
+    cache.save();
+
+    writeJar(jar, "v2");
+
+    assertThat(matches(newCache("fingerprint"))).isFalse();
+  }
+
+  @Test
+  void invalidatesChangedFingerprint() throws Exception {
+    ClassMatchingCache cache = newCache("fingerprint");
+    assertThat(matches(cache)).isFalse();
+    recordUnmatched(cache);
+    cache.save();
+
+    assertThat(matches(newCache("other"))).isFalse();
+  }
+
+  @Test
+  void doesNotCacheJarsOutsideOfClassPath() throws Exception {
+    ClassMatchingCache cache = new ClassMatchingCache(cacheFile, "fingerprint", emptySet());
+    assertThat(matches(cache)).isFalse();
+    recordUnmatched(cache);
+    cache.save();
+
+    assertThat(matches(newCache("fingerprint"))).isFalse();
+  }
+
+  @Test
+  void fingerprintCoversConfigurationFileAndExtensions() throws Exception {
+    Path configurationFile = tempDir.resolve("otel.properties");
+    Path extensions = Files.createDirectory(tempDir.resolve("extensions"));
+    Files.write(configurationFile, "otel.instrumentation.foo.enabled=true".getBytes(UTF_8));
+    writeJar(extensions.resolve("extension.jar"), "v1");
+    Map<String, String> properties = new HashMap<>();
+    properties.put("otel.javaagent.configuration-file", configurationFile.toString());
+    properties.put("otel.javaagent.extensions", extensions.toString());
+    ConfigProperties config = DefaultConfigProperties.createFromMap(properties);
+
+    String fingerprint = ClassMatchingCache.fingerprint("1.0", config, emptyList());
+    assertThat(ClassMatchingCache.fingerprint("1.0", config, emptyList())).isEqualTo(fingerprint);
+
+    Files.write(configurationFile, "otel.instrumentation.foo.enabled=false".getBytes(UTF_8));
+    String changedConfiguration = ClassMatchingCache.fingerprint("1.0", config, emptyList());
+    assertThat(changedConfiguration).isNotEqualTo(fingerprint);
+
+    writeJar(extensions.resolve("extension.jar"), "v2");
+    assertThat(ClassMatchingCache.fingerprint("1.0", config, emptyList()))
+        .isNotEqualTo(changedConfiguration);
+  }
+
+  @Test
+  void fingerprintCoversClassPath() throws Exception {
+    ConfigProperties config = DefaultConfigProperties.createFromMap(new HashMap<>());
+    Path classes = Files.createDirectory(tempDir.resolve("classes"));
+    Files.write(classes.resolve("Base.class"), "v1".getBytes(UTF_8));
+    List<String> classPath = asList(jar.toString(), classes.toString());
+
+    String fingerprint = ClassMatchingCache.fingerprint("1.0", config, classPath);
+
+    writeJar(jar, "v2");
+    String changedJar = ClassMatchingCache.fingerprint("1.0", config, classPath);
+    assertThat(changedJar).isNotEqualTo(fingerprint);
+
+    Files.write(classes.resolve("Base.class"), "v22".getBytes(UTF_8));
+    assertThat(ClassMatchingCache.fingerprint("1.0", config, classPath)).isNotEqualTo(changedJar);
+  }
+
+  @Test
+  void outermostJarFile() {
+    assertThat(ClassMatchingCache.outermostJarFile("file:/app/lib/library.jar"))
+        .isEqualTo("/app/lib/library.jar");
+    assertThat(ClassMatchingCache.outermostJarFile("jar:file:/app/app.jar!/BOOT-INF/classes!/"))
+        .isEqualTo("/app/app.jar");
+    assertThat(
+            ClassMatchingCache.outermostJarFile(
+                "jar:nested:/app/app.jar/!BOOT-INF/lib/library.jar!/"))
+        .isEqualTo("/app/app.jar");
+    assertThat(ClassMatchingCache.outermostJarFile("file:/my%20app/app.jar"))
+        .isEqualTo("/my app/app.jar");
+    assertThat(ClassMatchingCache.outermostJarFile("file:/app/classes/")).isNull();
+    assertThat(ClassMatchingCache.outermostJarFile("http://example.com/app.jar")).isNull();
+  }
+
+  private ClassMatchingCache newCache(String fingerprint) {
+    return new ClassMatchingCache(
+        cacheFile, fingerprint, singleton(jar.toAbsolutePath().toString()));
+  }
+
+  private boolean matches(ClassMatchingCache cache) throws Exception {
+    CodeSource codeSource = new CodeSource(jar.toUri().toURL(), (Certificate[]) null);
+    return cache.matches(type, null, null, null, new ProtectionDomain(codeSource, null));
+  }
+
+  private static void recordUnmatched(ClassMatchingCache cache) {
+    cache.onIgnored(type, null, null, false);
+    cache.onComplete(type.getName(), null, null, false);
+  }
+
+  private static void writeJar(Path path, String content) throws IOException {
+    try (OutputStream out = Files.newOutputStream(path);
+        ZipOutputStream zip = new ZipOutputStream(out)) {
+      zip.putNextEntry(new ZipEntry("com/example/Unmatched.class"));
+      zip.write(content.getBytes(UTF_8));
+      zip.closeEntry();
+    }
+  }
+}
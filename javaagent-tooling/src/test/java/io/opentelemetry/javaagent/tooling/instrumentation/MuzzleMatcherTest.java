@@ -0,0 +1,133 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.instrumentation;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.javaagent.extension.instrumentation.InstrumentationModule;
+import io.opentelemetry.javaagent.extension.instrumentation.TypeInstrumentation;
+import io.opentelemetry.javaagent.tooling.TransformSafeLogger;
+import io.opentelemetry.javaagent.tooling.muzzle.InstrumentationModuleMuzzle;
+import io.opentelemetry.javaagent.tooling.muzzle.VirtualFieldMappingsBuilder;
+import io.opentelemetry.javaagent.tooling.muzzle.references.ClassRef;
+import io.opentelemetry.sdk.autoconfigure.spi.internal.DefaultConfigProperties;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MuzzleMatcherTest {
+
+  private final ClassLoader classLoader = new URLClassLoader(new URL[0], null);
+
+  @BeforeEach
+  void resetCounter() {
+    MuzzleFailureCounter.getAndReset();
+  }
+
+  @Test
+  void reportsMismatchOnce() {
+    MuzzleMatcher matcher = newMatcher(new MismatchingModule());
+
+    assertThat(matcher.matches(classLoader)).isFalse();
+    assertThat(matcher.matches(classLoader)).isFalse();
+
+    assertThat(MuzzleFailureCounter.getAndReset()).isEqualTo(1);
+  }
+
+  @Test
+  void aheadOfTimeCheckDoesNotReportMismatch() {
+    MuzzleMatcher matcher = newMatcher(new MismatchingModule());
+
+    matcher.checkAheadOfTime(classLoader);
+    assertThat(MuzzleFailureCounter.getAndReset()).isZero();
+
+    // reported when a type of the module is about to be transformed
+    assertThat(matcher.matches(classLoader)).isFalse();
+    assertThat(MuzzleFailureCounter.getAndReset()).isEqualTo(1);
+  }
+
+  @Test
+  void concurrentFirstChecks() throws Exception {
+    int threads = 8;
+    MuzzleMatcher matcher = newMatcher(new MismatchingModule());
+    CyclicBarrier barrier = new CyclicBarrier(threads);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        boolean aheadOfTime = i % 2 == 0;
+        futures.add(
+            executor.submit(
+                () -> {
+                  barrier.await();
+                  if (aheadOfTime) {
+                    matcher.checkAheadOfTime(classLoader);
+                    return false;
+                  }
+                  return matcher.matches(classLoader);
+                }));
+      }
+      for (Future<Boolean> future : futures) {
+        assertThat(future.get()).isFalse();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(MuzzleFailureCounter.getAndReset()).isEqualTo(1);
+  }
+
+  private static MuzzleMatcher newMatcher(InstrumentationModule module) {
+    return new MuzzleMatcher(
+        TransformSafeLogger.getLogger(MuzzleMatcherTest.class),
+        module,
+        DefaultConfigProperties.createFromMap(emptyMap()));
+  }
+
+  private static class MismatchingModule extends InstrumentationModule
+      implements InstrumentationModuleMuzzle {
+
+    MismatchingModule() {
+      super("muzzle-matcher-test");
+    }
+
+    @Override
+    public boolean isIndyModule() {
+      return false;
+    }
+
+    @Override
+    public List<TypeInstrumentation> typeInstrumentations() {
+      return emptyList();
+    }
+
+    @Override
+    public Map<String, ClassRef> getMuzzleReferences() {
+      String className = "com.example.muzzle.Missing";
+      return singletonMap(className, ClassRef.builder(className).build());
+    }
+
+    @Override
+    public void registerMuzzleVirtualFields(VirtualFieldMappingsBuilder builder) {}
+
+    @Override
+    public List<String> getMuzzleHelperClassNames() {
+      return emptyList();
+    }
+  }
+}
@@ -50,4 +50,23 @@ class TrieTest {
 
     assertEquals(-1, trie.getOrDefault("acdc", -1));
   }
+
+  @Test
+  void shouldMatchCompressedPrefixes() {
+    Trie<Integer> trie =
+        Trie.<Integer>builder()
+            .put("org.springframework.", 1)
+            .put("org.springframework.boot.", 2)
+            .put("org.slf4j.", 3)
+            .build();
+
+    assertNull(trie.getOrNull("org.spring"));
+    assertNull(trie.getOrNull("org.springframework"));
+    assertEquals(1, trie.getOrNull("org.springframework.web.Servlet"));
+    assertEquals(1, trie.getOrNull("org.springframework.boo"));
+    assertEquals(2, trie.getOrNull("org.springframework.boot.Application"));
+    assertEquals(3, trie.getOrNull("org.slf4j.Logger"));
+    // root, "org.s", "pringframework.", "boot.", "lf4j."
+    assertEquals(5, ((TrieImpl<Integer>) trie).nodeCount());
+  }
 }
@@ -1,6 +1,7 @@
 import com.github.jengelman.gradle.plugins.shadow.tasks.ShadowJar
 import com.github.jk1.license.filter.LicenseBundleNormalizer
 import com.github.jk1.license.render.InventoryMarkdownReportRenderer
+import io.opentelemetry.instrumentation.gradle.ClassBlobWriter
 import org.spdx.sbom.gradle.SpdxSbomTask
 import java.nio.file.Files
 import java.util.UUID
@@ -114,6 +115,10 @@ dependencies {
 
 val javaagentDependencies = dependencies
 
+// the class blob is only used when it is enabled at runtime, so it is not part of the agent jar by
+// default
+val appendClassBlob = findProperty("appendClassBlob") == "true"
+
 // collect all bootstrap and javaagent instrumentation dependencies
 project(":instrumentation").subprojects {
   val subProj = this
@@ -219,6 +224,14 @@ tasks {
         "Can-Retransform-Classes" to true,
       )
     }
+
+    inputs.property("appendClassBlob", appendClassBlob)
+    if (appendClassBlob) {
+      doLast {
+        val blobSize = ClassBlobWriter.appendClassBlob(archiveFile.get().asFile)
+        logger.info("Appended a class blob of {} bytes to {}", blobSize, archiveFile.get().asFile)
+      }
+    }
   }
 
   // Includes only the agent machinery and required instrumentations
@@ -236,6 +249,14 @@ tasks {
     manifest {
       attributes(shadowJar.get().manifest.attributes)
     }
+
+    inputs.property("appendClassBlob", appendClassBlob)
+    if (appendClassBlob) {
+      doLast {
+        val blobSize = ClassBlobWriter.appendClassBlob(archiveFile.get().asFile)
+        logger.info("Appended a class blob of {} bytes to {}", blobSize, archiveFile.get().asFile)
+      }
+    }
   }
 
   jar {
@@ -0,0 +1,319 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.muzzle;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import io.opentelemetry.instrumentation.api.internal.cache.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import io.opentelemetry.instrumentation.api.internal.cache.concurrentlinkedhashmap.Weigher;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.pool.TypePool;
+
+/**
+ * The {@link TypePool.Resolution} cache of {@link AgentCachingPoolStrategy}, sharded by class
+ * loader.
+ *
+ * <p>Every class loader gets its own shard. Shards are referenced weakly, so all resolutions of a
+ * class loader are dropped once it is collected. Together the shards are limited to a global
+ * budget of bytes, estimated from the size of the resolved types. The budget is not split evenly:
+ * it is periodically redistributed in proportion to the bytes that each shard recently had to
+ * parse, so that class loaders that are busy loading classes (e.g. a web application that is
+ * starting up) get a larger share than idle ones. Within a shard the least recently used
+ * resolutions are evicted first.
+ */
+final class TypeResolutionCache {
+
+  private static final String OBJECT_NAME = "java.lang.Object";
+  private static final TypePool.Resolution OBJECT_RESOLUTION =
+      new TypePool.Resolution.Simple(TypeDescription.ForLoadedType.of(Object.class));
+
+  // a shard is never shrunk below this capacity, so that a newly created class loader can start
+  // caching before the next rebalance; with many class loaders the floor is lowered so that the
+  // shards together never exceed the budget
+  static final long MIN_SHARD_BYTES = 64 * 1024;
+  // the budget is redistributed after this many resolutions were registered
+  static final int REBALANCE_INTERVAL = 1024;
+
+  // rough estimates of the memory retained by a parsed type description
+  private static final int ENTRY_WEIGHT = 512;
+  private static final int MEMBER_WEIGHT = 128;
+
+  private final long maxBytes;
+  private final Cache<ClassLoader, Shard> shards = Cache.weak();
+  private final Shard bootstrapShard;
+  private final Set<Shard> liveShards = ConcurrentHashMap.newKeySet();
+  private final ReferenceQueue<ClassLoader> collectedLoaders = new ReferenceQueue<>();
+  private final ReentrantLock rebalanceLock = new ReentrantLock();
+  private final AtomicInteger registrationsSinceRebalance = new AtomicInteger();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder collectedShards = new LongAdder();
+
+  TypeResolutionCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+    bootstrapShard = new Shard(null, null);
+    liveShards.add(bootstrapShard);
+    bootstrapShard.resolutions.setCapacity(maxBytes);
+  }
+
+  TypePool.CacheProvider cacheProvider(@Nullable ClassLoader classLoader) {
+    if (classLoader == null) {
+      return bootstrapShard;
+    }
+    Shard shard = shards.get(classLoader);
+    if (shard == null) {
+      shard = newShard(classLoader);
+    }
+    return shard;
+  }
+
+  private Shard newShard(ClassLoader classLoader) {
+    // the new shard takes its share of the budget from the existing shards; creating it under the
+    // rebalance lock also guarantees that only the shard that ends up in the cache is registered
+    rebalanceLock.lock();
+    try {
+      Shard shard =
+          shards.computeIfAbsent(
+              classLoader,
+              loader -> {
+                Shard newShard = new Shard(loader, collectedLoaders);
+                liveShards.add(newShard);
+                return newShard;
+              });
+      rebalanceLocked();
+      return shard;
+    } finally {
+      rebalanceLock.unlock();
+    }
+  }
+
+  /** Removes the shards of collected class loaders and redistributes the budget. */
+  void rebalance() {
+    if (!rebalanceLock.tryLock()) {
+      // another thread is already rebalancing
+      return;
+    }
+    try {
+      rebalanceLocked();
+    } finally {
+      rebalanceLock.unlock();
+    }
+  }
+
+  private void rebalanceLocked() {
+    registrationsSinceRebalance.set(0);
+
+    Object collected;
+    while ((collected = collectedLoaders.poll()) != null) {
+      Shard shard = (Shard) collected;
+      liveShards.remove(shard);
+      shard.resolutions.clear();
+      collectedShards.increment();
+    }
+
+    // shards are only added and removed while holding the rebalance lock
+    Shard[] currentShards = liveShards.toArray(new Shard[0]);
+    long totalDemand = 0;
+    for (Shard shard : currentShards) {
+      totalDemand += shard.demand.get();
+    }
+    int shardCount = currentShards.length;
+    long floor = Math.min(MIN_SHARD_BYTES, maxBytes / shardCount);
+    long distributable = maxBytes - floor * shardCount;
+    long remaining = distributable;
+    long[] capacities = new long[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      Shard shard = currentShards[i];
+      long share;
+      if (totalDemand == 0) {
+        share = distributable / shardCount;
+      } else {
+        share = (long) ((double) distributable * shard.demand.get() / totalDemand);
+      }
+      // guard against rounding, the shares must not add up to more than the budget
+      share = Math.min(share, remaining);
+      remaining -= share;
+      capacities[i] = floor + share;
+      // halve the demand so that the shares follow the recent load
+      shard.demand.set(shard.demand.get() >>> 1);
+    }
+
+    // shrink before growing, so that the shards never exceed the budget in between
+    for (int i = 0; i < shardCount; i++) {
+      if (capacities[i] < currentShards[i].resolutions.capacity()) {
+        currentShards[i].resolutions.setCapacity(capacities[i]);
+      }
+    }
+    for (int i = 0; i < shardCount; i++) {
+      if (capacities[i] > currentShards[i].resolutions.capacity()) {
+        currentShards[i].resolutions.setCapacity(capacities[i]);
+      }
+    }
+  }
+
+  static int weigh(String className, TypePool.Resolution resolution) {
+    int weight = ENTRY_WEIGHT + 2 * className.length();
+    if (resolution.isResolved()) {
+      TypeDescription type = resolution.resolve();
+      weight +=
+          MEMBER_WEIGHT * (type.getDeclaredMethods().size() + type.getDeclaredFields().size());
+    }
+    return weight;
+  }
+
+  // Visible for testing
+  int liveShardCount() {
+    return liveShards.size();
+  }
+
+  // Visible for testing
+  long capacity(@Nullable ClassLoader classLoader) {
+    return ((Shard) cacheProvider(classLoader)).resolutions.capacity();
+  }
+
+  // Visible for testing
+  long totalCapacity() {
+    long totalCapacity = 0;
+    for (Shard shard : liveShards) {
+      totalCapacity += shard.resolutions.capacity();
+    }
+    return totalCapacity;
+  }
+
+  long hitCount() {
+    return hits.sum();
+  }
+
+  long missCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public String toString() {
+    long weightedSize = 0;
+    int size = 0;
+    for (Shard shard : liveShards) {
+      weightedSize += shard.resolutions.weightedSize();
+      size += shard.resolutions.size();
+    }
+    return "TypeResolutionCache{"
+        + "hits="
+        + hits.sum()
+        + ", misses="
+        + misses.sum()
+        + ", evictions="
+        + evictions.sum()
+        + ", shards="
+        + liveShards.size()
+        + ", collectedShards="
+        + collectedShards.sum()
+        + ", entries="
+        + size
+        + ", estimatedSizeInBytes="
+        + weightedSize
+        + ", maxBytes="
+        + maxBytes
+        + '}';
+  }
+
+  /**
+   * The resolutions of a single class loader. The shard itself is the weak reference to its class
+   * loader, which is enqueued once the class loader is collected.
+   */
+  private final class Shard extends WeakReference<ClassLoader> implements TypePool.CacheProvider {
+
+    final ConcurrentLinkedHashMap<String, WeighedResolution> resolutions;
+    // bytes parsed since the last rebalance, decayed on every rebalance
+    final AtomicLong demand = new AtomicLong();
+
+    Shard(
+        @Nullable ClassLoader classLoader, @Nullable ReferenceQueue<ClassLoader> collectedLoaders) {
+      super(classLoader, collectedLoaders);
+      // the capacity is assigned by the rebalance that follows the creation of the shard
+      resolutions =
+          new ConcurrentLinkedHashMap.Builder<String, WeighedResolution>()
+              .maximumWeightedCapacity(0)
+              .weigher((Weigher<WeighedResolution>) weighed -> weighed.weight)
+              .listener((className, weighed) -> evictions.increment())
+              .build();
+    }
+
+    @Override
+    @Nullable
+    public TypePool.Resolution find(String className) {
+      if (OBJECT_NAME.equals(className)) {
+        return OBJECT_RESOLUTION;
+      }
+      // Skip cache for the type that is currently being transformed.
+      // If class has been transformed by another agent or by class loader it is possible that the
+      // cached TypeDescription isn't the same as the one built from the actual bytes that are
+      // being defined. For example if another agent adds an interface to the class then returning
+      // the cached description that does not have that interface would result in bytebuddy removing
+      // that interface.
+      if (AgentTooling.isTransforming(get(), className)) {
+        return null;
+      }
+
+      WeighedResolution existing = shardFor(className).resolutions.get(className);
+      if (existing == null) {
+        misses.increment();
+        return null;
+      }
+      hits.increment();
+      return existing.resolution;
+    }
+
+    @Override
+    @CanIgnoreReturnValue
+    public TypePool.Resolution register(String className, TypePool.Resolution resolution) {
+      if (OBJECT_NAME.equals(className)) {
+        return resolution;
+      }
+
+      Shard shard = shardFor(className);
+      int weight = weigh(className, resolution);
+      shard.resolutions.put(className, new WeighedResolution(resolution, weight));
+      shard.demand.addAndGet(weight);
+      if (registrationsSinceRebalance.incrementAndGet() >= REBALANCE_INTERVAL) {
+        rebalance();
+      }
+      return resolution;
+    }
+
+    private Shard shardFor(String className) {
+      // classes in java package are always loaded from boot loader
+      // use the boot loader shard to avoid creating multiple cache entries
+      return className.startsWith("java.") ? bootstrapShard : this;
+    }
+
+    @Override
+    public void clear() {
+      // Allowing the high-level eviction policy make the clearing decisions
+    }
+  }
+
+  /** A resolution together with its weight, so that the weight is only estimated once. */
+  private static final class WeighedResolution {
+    final TypePool.Resolution resolution;
+    final int weight;
+
+    WeighedResolution(TypePool.Resolution resolution, int weight) {
+      this.resolution = resolution;
+      this.weight = weight;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.muzzle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import io.opentelemetry.instrumentation.test.utils.GcUtils;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.pool.TypePool;
+import org.junit.jupiter.api.Test;
+
+class TypeResolutionCacheTest {
+
+  private static final long MAX_BYTES = 1024 * 1024;
+
+  private final TypeResolutionCache cache = new TypeResolutionCache(MAX_BYTES);
+
+  @Test
+  void basicCaching() {
+    ClassLoader loader = newClassLoader();
+    TypePool.CacheProvider cacheProvider = cache.cacheProvider(loader);
+
+    assertThat(cacheProvider.find("foo")).isNull();
+    cacheProvider.register("foo", newVoid());
+
+    assertThat(cacheProvider.find("foo")).isNotNull();
+    assertThat(cache.hitCount()).isEqualTo(1);
+    assertThat(cache.missCount()).isEqualTo(1);
+  }
+
+  @Test
+  void loaderEquivalence() {
+    ClassLoader loader = newClassLoader();
+    TypePool.CacheProvider cacheProvider1 = cache.cacheProvider(loader);
+    TypePool.CacheProvider cacheProvider2 = cache.cacheProvider(loader);
+
+    cacheProvider1.register("foo", newVoid());
+
+    assertThat(cacheProvider2.find("foo")).isSameAs(cacheProvider1.find("foo"));
+  }
+
+  @Test
+  void loaderSeparation() {
+    ClassLoader loader1 = newClassLoader();
+    ClassLoader loader2 = newClassLoader();
+    TypePool.CacheProvider cacheProvider1 = cache.cacheProvider(loader1);
+    TypePool.CacheProvider cacheProvider2 = cache.cacheProvider(loader2);
+
+    cacheProvider1.register("foo", newVoid());
+    assertThat(cacheProvider2.find("foo")).isNull();
+
+    cacheProvider2.register("foo", newVoid());
+    assertThat(cacheProvider1.find("foo")).isNotSameAs(cacheProvider2.find("foo"));
+  }
+
+  @Test
+  void javaTypesSharedWithBootstrap() {
+    TypePool.CacheProvider cacheProvider1 = cache.cacheProvider(newClassLoader());
+    TypePool.CacheProvider cacheProvider2 = cache.cacheProvider(newClassLoader());
+
+    cacheProvider1.register("java.lang.String", newVoid());
+
+    assertThat(cacheProvider2.find("java.lang.String")).isNotNull();
+    assertThat(cache.cacheProvider(null).find("java.lang.String")).isNotNull();
+  }
+
+  @Test
+  void shardRemovedWhenLoaderCollected() throws Exception {
+    WeakReference<ClassLoader> loaderRef = registerWithNewLoader();
+    assertThat(cache.liveShardCount()).isEqualTo(2);
+
+    GcUtils.awaitGc(loaderRef, Duration.ofSeconds(10));
+
+    await()
+        .untilAsserted(
+            () -> {
+              cache.rebalance();
+              assertThat(cache.liveShardCount()).isEqualTo(1);
+            });
+  }
+
+  @Test
+  void budgetFollowsLoad() {
+    ClassLoader busyLoader = newClassLoader();
+    ClassLoader idleLoader = newClassLoader();
+    TypePool.CacheProvider busy = cache.cacheProvider(busyLoader);
+    cache.cacheProvider(idleLoader);
+
+    for (int i = 0; i < TypeResolutionCache.REBALANCE_INTERVAL; i++) {
+      busy.register("com.example.Type" + i, newVoid());
+    }
+
+    assertThat(cache.capacity(busyLoader)).isGreaterThan(MAX_BYTES / 2);
+    assertThat(cache.capacity(idleLoader)).isEqualTo(TypeResolutionCache.MIN_SHARD_BYTES);
+  }
+
+  @Test
+  void shardsNeverExceedBudget() {
+    List<ClassLoader> loaders = new ArrayList<>();
+    for (int i = 0; i < 2 * MAX_BYTES / TypeResolutionCache.MIN_SHARD_BYTES; i++) {
+      ClassLoader loader = newClassLoader();
+      loaders.add(loader);
+      cache.cacheProvider(loader);
+
+      assertThat(cache.totalCapacity()).isLessThanOrEqualTo(MAX_BYTES);
+    }
+
+    assertThat(cache.capacity(loaders.get(0))).isLessThan(TypeResolutionCache.MIN_SHARD_BYTES);
+  }
+
+  @Test
+  void concurrentShardCreation() throws Exception {
+    int threads = 8;
+    ClassLoader loader = newClassLoader();
+    CyclicBarrier barrier = new CyclicBarrier(threads);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<TypePool.CacheProvider>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  barrier.await();
+                  return cache.cacheProvider(loader);
+                }));
+      }
+      TypePool.CacheProvider cacheProvider = futures.get(0).get();
+      for (Future<TypePool.CacheProvider> future : futures) {
+        assertThat(future.get()).isSameAs(cacheProvider);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(cache.liveShardCount()).isEqualTo(2);
+  }
+
+  private WeakReference<ClassLoader> registerWithNewLoader() {
+    ClassLoader loader = newClassLoader();
+    cache.cacheProvider(loader).register("foo", newVoid());
+    return new WeakReference<>(loader);
+  }
+
+  private static TypePool.Resolution newVoid() {
+    return new TypePool.Resolution.Simple(TypeDescription.ForLoadedType.of(void.class));
+  }
+
+  private static ClassLoader newClassLoader() {
+    return new URLClassLoader(new URL[0], null);
+  }
+}